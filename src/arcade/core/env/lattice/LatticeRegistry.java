@@ -0,0 +1,66 @@
+package arcade.core.env.lattice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import arcade.core.sim.Simulation;
+
+/**
+ * Registry of {@link Lattice} keys mapped to dense indices.
+ *
+ * <p>Agents get the index for each lattice key they use once, when the agent class is loaded, and
+ * access lattices from the simulation by index. Each simulation resolves the lattices for all
+ * registered keys into an array once, so agents share a single lookup instead of each holding a
+ * reference to the lattice. Indices are stable for the lifetime of the program.
+ */
+public class LatticeRegistry {
+    /** Registered lattice keys, by index. */
+    private static final ArrayList<String> KEYS = new ArrayList<>();
+
+    /** Map of lattice key to index. */
+    private static final HashMap<String, Integer> INDICES = new HashMap<>();
+
+    /** Hidden utility class constructor. */
+    protected LatticeRegistry() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the index of the given lattice key, registering the key if needed.
+     *
+     * @param key the lattice key
+     * @return the lattice index
+     */
+    public static synchronized int getIndex(String key) {
+        Integer index = INDICES.get(key);
+        if (index == null) {
+            index = KEYS.size();
+            KEYS.add(key);
+            INDICES.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Gets the lattice key at the given index.
+     *
+     * @param index the lattice index
+     * @return the lattice key
+     */
+    public static synchronized String getKey(int index) {
+        return KEYS.get(index);
+    }
+
+    /**
+     * Resolves the lattices for all registered keys from the given simulation.
+     *
+     * @param sim the simulation instance
+     * @return the array of lattices by index, {@code null} for keys without a lattice
+     */
+    public static synchronized Lattice[] resolve(Simulation sim) {
+        Lattice[] lattices = new Lattice[KEYS.size()];
+        for (int i = 0; i < lattices.length; i++) {
+            lattices[i] = sim.getLattice(KEYS.get(i));
+        }
+        return lattices;
+    }
+}
@@ -106,6 +106,14 @@ public interface Simulation {
      */
     Lattice getLattice(String key);
 
+    /**
+     * Gets the {@link Lattice} object for a given index.
+     *
+     * @param index the lattice index from {@link arcade.core.env.lattice.LatticeRegistry}
+     * @return the {@link Lattice} object
+     */
+    Lattice getLattice(int index);
+
     /**
      * Gets the {@link Action} object for a given key.
      *
@@ -0,0 +1,136 @@
+package arcade.core.util;
+
+/**
+ * Numerical solvers for batches of independent systems of ODEs sharing the same equations.
+ *
+ * <p>States of all systems in a batch are stored in a single array in structure-of-arrays form,
+ * where the value of component {@code i} for system {@code j} is at index {@code i * stride + j}.
+ * Equations are applied to all systems at once and solver workspaces are reused between calls, so
+ * advancing a batch does not allocate once workspaces are large enough.
+ *
+ * <p>Solvers perform the same operations in the same order for each system as the corresponding
+ * {@link Solver} methods, so results match solving each system separately.
+ */
+public class BatchSolver {
+    /** Defines ODE equations for batches of systems. */
+    public interface BatchEquations {
+        /**
+         * Applies equations to inputs for all systems in the batch.
+         *
+         * @param t the time step
+         * @param y the array of inputs
+         * @param dydt the array of outputs
+         * @param stride the stride between components
+         * @param count the number of systems
+         */
+        void dydt(double t, double[] y, double[] dydt, int stride, int count);
+    }
+
+    /** Number of components in each system. */
+    final int components;
+
+    /** Workspace for first stage. */
+    private double[] k1;
+
+    /** Workspace for second stage. */
+    private double[] k2;
+
+    /** Workspace for third stage. */
+    private double[] k3;
+
+    /** Workspace for fourth stage. */
+    private double[] k4;
+
+    /** Workspace for intermediate values. */
+    private double[] w;
+
+    /** Workspace for equation outputs. */
+    private double[] dydt;
+
+    /**
+     * Creates a {@code BatchSolver} for systems with the given number of components.
+     *
+     * @param components the number of components in each system
+     */
+    public BatchSolver(int components) {
+        this.components = components;
+        ensureCapacity(0);
+    }
+
+    /**
+     * Resizes workspaces to hold at least the given stride.
+     *
+     * @param stride the stride between components
+     */
+    private void ensureCapacity(int stride) {
+        int n = components * stride;
+        if (dydt != null && dydt.length >= n) {
+            return;
+        }
+
+        k1 = new double[n];
+        k2 = new double[n];
+        k3 = new double[n];
+        k4 = new double[n];
+        w = new double[n];
+        dydt = new double[n];
+    }
+
+    /**
+     * Solves a batch of systems of ODEs in place using classic Runge-Kutta.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param stride the stride between components
+     * @param count the number of systems
+     * @param tf the final time
+     * @param h the time step
+     */
+    public void rungeKutta(
+            BatchEquations eq, double t0, double[] y, int stride, int count, double tf, double h) {
+        ensureCapacity(stride);
+        double t = t0;
+
+        // Adjust number of steps.
+        int nSteps = (int) ((tf - t0) / h);
+        h = (tf - t0) / nSteps;
+
+        // Iterate through steps.
+        for (int j = 0; j < nSteps; j++) {
+            t = t0 + j * h;
+
+            eq.dydt(t, y, dydt, stride, count);
+            for (int i = 0; i < components; i++) {
+                for (int k = i * stride, end = k + count; k < end; k++) {
+                    k1[k] = h * dydt[k];
+                    w[k] = y[k] + k1[k] / 2;
+                }
+            }
+
+            eq.dydt(t + h / 2, w, dydt, stride, count);
+            for (int i = 0; i < components; i++) {
+                for (int k = i * stride, end = k + count; k < end; k++) {
+                    k2[k] = h * dydt[k];
+                    w[k] = y[k] + k2[k] / 2;
+                }
+            }
+
+            eq.dydt(t + h / 2, w, dydt, stride, count);
+            for (int i = 0; i < components; i++) {
+                for (int k = i * stride, end = k + count; k < end; k++) {
+                    k3[k] = h * dydt[k];
+                    w[k] = y[k] + k3[k];
+                }
+            }
+
+            eq.dydt(t + h, w, dydt, stride, count);
+            for (int i = 0; i < components; i++) {
+                for (int k = i * stride, end = k + count; k < end; k++) {
+                    k4[k] = h * dydt[k];
+                    y[k] += k1[k] / 6 + k2[k] / 3 + k3[k] / 3 + k4[k] / 6;
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,11 @@
 package arcade.core.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import sim.util.Bag;
 
@@ -16,6 +14,11 @@ import sim.util.Bag;
  *
  * <p>{@code Edge} objects represent edges in the graph and {@code Node} objects represent nodes in
  * the graph. Nodes may have more than one edge in or out.
+ *
+ * <p>Each node in the graph is assigned an integer index when the first edge to or from the node is
+ * added, and the index is released when the last edge is removed. Edges in and out of each node are
+ * stored by index, along with the indices of the nodes at the other end of each edge, so traversals
+ * only look up the starting node by hash and track visited nodes in bitsets.
  */
 public final class Graph {
 
@@ -28,20 +31,63 @@ public final class Graph {
         DOWNSTREAM
     }
 
+    /** Initial capacity for node indices. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Initial capacity for edges in or out of a node. */
+    private static final int INITIAL_DEGREE = 4;
+
     /** Collection of all {@code Edge} objects in a graph. */
     private final Bag allEdges;
 
-    /** Map of {@code Node} OUT to bag of {@code Edge} objects. */
-    private final Map<Node, Bag> nodeToOutBag;
+    /** Map of {@code Node} to node index. */
+    private final HashMap<Node, Integer> nodeToIndex;
+
+    /** Copy of the {@code Node} for each node index. */
+    private Node[] indexToNode;
+
+    /** Bag of {@code Edge} objects OUT of each node index. */
+    private Bag[] outBags;
+
+    /** Bag of {@code Edge} objects IN to each node index. */
+    private Bag[] inBags;
+
+    /** Indices of TO nodes for each edge in the OUT bag of each node index. */
+    private int[][] outIndices;
 
-    /** Map of {@code Node} IN to bag of {@code Edge} objects. */
-    private final Map<Node, Bag> nodeToInBag;
+    /** Indices of FROM nodes for each edge in the IN bag of each node index. */
+    private int[][] inIndices;
+
+    /** Number of node indices assigned, including released indices. */
+    private int numIndices;
+
+    /** Stack of released node indices. */
+    private int[] freeIndices;
+
+    /** Number of released node indices. */
+    private int numFree;
 
     /** Creates an empty {@code Graph}. */
     public Graph() {
         allEdges = new Bag();
-        nodeToOutBag = new HashMap<>();
-        nodeToInBag = new HashMap<>();
+        nodeToIndex = new HashMap<>();
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Allocates empty node index arrays with the given capacity.
+     *
+     * @param capacity the number of node indices
+     */
+    private void allocate(int capacity) {
+        indexToNode = new Node[capacity];
+        outBags = new Bag[capacity];
+        inBags = new Bag[capacity];
+        outIndices = new int[capacity][];
+        inIndices = new int[capacity][];
+        freeIndices = new int[capacity];
+        numIndices = 0;
+        numFree = 0;
     }
 
     /**
@@ -51,15 +97,37 @@ public final class Graph {
      */
     public void update(Graph graph) {
         allEdges.addAll(graph.allEdges);
-        nodeToOutBag.putAll(graph.nodeToOutBag);
-        nodeToInBag.putAll(graph.nodeToInBag);
+
+        for (int i = 0; i < graph.numIndices; i++) {
+            Bag out = graph.outBags[i];
+            if (out == null) {
+                continue;
+            }
+            int from = addIndex(graph.indexToNode[i]);
+            for (int j = 0; j < out.numObjs; j++) {
+                int to = addIndex(graph.indexToNode[graph.outIndices[i][j]]);
+                append(from, to, (Edge) out.objs[j], true);
+            }
+        }
+
+        for (int i = 0; i < graph.numIndices; i++) {
+            Bag in = graph.inBags[i];
+            if (in == null) {
+                continue;
+            }
+            int to = addIndex(graph.indexToNode[i]);
+            for (int j = 0; j < in.numObjs; j++) {
+                int from = addIndex(graph.indexToNode[graph.inIndices[i][j]]);
+                append(to, from, (Edge) in.objs[j], false);
+            }
+        }
     }
 
     /** Clear edges and nodes from graph. */
     public void clear() {
         allEdges.clear();
-        nodeToOutBag.clear();
-        nodeToInBag.clear();
+        nodeToIndex.clear();
+        allocate(INITIAL_CAPACITY);
     }
 
     /**
@@ -78,7 +146,7 @@ public final class Graph {
      * @return {@code true} if node exists in graph, {@code false} otherwise
      */
     public boolean contains(Node node) {
-        return getAllNodes().contains(node);
+        return nodeToIndex.containsKey(node);
     }
 
     /**
@@ -88,7 +156,7 @@ public final class Graph {
      * @return {@code true} if edge exists in graph, {@code false} otherwise
      */
     public boolean contains(Edge edge) {
-        return checkEdge(edge);
+        return checkEdge(edge.getFrom(), edge.getTo());
     }
 
     /**
@@ -108,7 +176,11 @@ public final class Graph {
      * @return a bag containing the edges
      */
     public Bag getEdges(Node node, Strategy strategy) {
-        return (strategy == Strategy.UPSTREAM) ? nodeToInBag.get(node) : nodeToOutBag.get(node);
+        Integer index = nodeToIndex.get(node);
+        if (index == null) {
+            return null;
+        }
+        return (strategy == Strategy.UPSTREAM) ? inBags[index] : outBags[index];
     }
 
     /**
@@ -138,7 +210,8 @@ public final class Graph {
      * @return the in degree
      */
     public int getInDegree(Node node) {
-        return nodeToInBag.containsKey(node) ? nodeToInBag.get(node).numObjs : 0;
+        Bag in = getEdgesIn(node);
+        return in != null ? in.numObjs : 0;
     }
 
     /**
@@ -148,7 +221,8 @@ public final class Graph {
      * @return the out degree
      */
     public int getOutDegree(Node node) {
-        return nodeToOutBag.containsKey(node) ? nodeToOutBag.get(node).numObjs : 0;
+        Bag out = getEdgesOut(node);
+        return out != null ? out.numObjs : 0;
     }
 
     /**
@@ -158,7 +232,13 @@ public final class Graph {
      * @return the degree
      */
     public int getDegree(Node node) {
-        return getInDegree(node) + getOutDegree(node);
+        Integer index = nodeToIndex.get(node);
+        if (index == null) {
+            return 0;
+        }
+        Bag in = inBags[index];
+        Bag out = outBags[index];
+        return (in != null ? in.numObjs : 0) + (out != null ? out.numObjs : 0);
     }
 
     /**
@@ -169,18 +249,30 @@ public final class Graph {
      * @return {@code true} if edge exists, {@code false} otherwise
      */
     public boolean hasEdge(Node from, Node to) {
-        Edge e = new Edge(from, to);
-        return checkEdge(e);
+        return checkEdge(from, to);
     }
 
     /**
-     * Checks if the graph has an edge.
+     * Checks if the graph has an edge between the given nodes.
      *
-     * @param edge the edge
+     * @param from the node the edge points from
+     * @param to the node the edge points to
      * @return {@code true} if edge exists, {@code false} otherwise
      */
-    private boolean checkEdge(Edge edge) {
-        return allEdges.contains(edge);
+    private boolean checkEdge(Node from, Node to) {
+        Integer fromIndex = nodeToIndex.get(from);
+        Integer toIndex = nodeToIndex.get(to);
+        if (fromIndex == null || toIndex == null || outBags[fromIndex] == null) {
+            return false;
+        }
+
+        int[] indices = outIndices[fromIndex];
+        for (int i = 0; i < outBags[fromIndex].numObjs; i++) {
+            if (indices[i] == toIndex) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /** Defines a filter for edges in a graph. */
@@ -207,8 +299,7 @@ public final class Graph {
             Edge edge = (Edge) obj;
             if (f.filter(edge)) {
                 g.allEdges.add(edge);
-                g.setOutMap(edge.getFrom(), edge);
-                g.setInMap(edge.getTo(), edge);
+                g.setMaps(edge);
             }
         }
     }
@@ -219,26 +310,38 @@ public final class Graph {
      * @return a set containing the nodes
      */
     private Set<Node> retrieveNodes() {
-        Set<Node> sOut = nodeToOutBag.keySet();
-        Set<Node> sIn = nodeToInBag.keySet();
-        Set<Node> set =
-                new LinkedHashSet<Node>() {
-                    {
-                        addAll(sOut);
-                        addAll(sIn);
-                    }
-                };
-
+        Set<Node> set = new LinkedHashSet<>();
+        set.addAll(retrieveNodes(outBags));
+        set.addAll(retrieveNodes(inBags));
         return set;
     }
 
+    /**
+     * Retrieves nodes with edges in the given bags.
+     *
+     * @param bags the OUT or IN bags for each node index
+     * @return a list containing the nodes
+     */
+    private List<Node> retrieveNodes(Bag[] bags) {
+        List<Node> list = new ArrayList<>();
+        for (int i = 0; i < numIndices; i++) {
+            if (bags[i] != null) {
+                list.add(indexToNode[i]);
+            }
+        }
+        return list;
+    }
+
     /** Sets the TO and FROM nodes for edges to be the same object. */
     public void mergeNodes() {
-        Set<Node> set = retrieveNodes();
-        for (Node obj : set) {
-            Node join = obj.duplicate();
-            Bag out = getEdgesOut(obj);
-            Bag in = getEdgesIn(obj);
+        for (int i = 0; i < numIndices; i++) {
+            if (indexToNode[i] == null) {
+                continue;
+            }
+
+            Node join = indexToNode[i].duplicate();
+            Bag out = outBags[i];
+            Bag in = inBags[i];
 
             // Iterate through all edges OUT of node.
             if (out != null) {
@@ -275,38 +378,100 @@ public final class Graph {
      */
     public void addEdge(Edge edge) {
         allEdges.add(edge);
-        setOutMap(edge.getFrom(), edge);
-        setInMap(edge.getTo(), edge);
+        setMaps(edge);
         setLinks(edge);
     }
 
     /**
-     * Adds the edge to the bag for the mapping of OUT node to edge.
+     * Gets the index of the given node, assigning an index if the node is not in the graph.
      *
-     * @param node the node hash
-     * @param edge the edge
+     * @param node the node
+     * @return the node index
      */
-    private void setOutMap(Node node, Edge edge) {
-        Bag objs = nodeToOutBag.get(node);
-        if (objs == null) {
-            objs = new Bag(10);
-            nodeToOutBag.put(node.duplicate(), objs);
+    private int addIndex(Node node) {
+        Integer existing = nodeToIndex.get(node);
+        if (existing != null) {
+            return existing;
         }
-        objs.add(edge);
+
+        int index;
+        if (numFree > 0) {
+            index = freeIndices[--numFree];
+        } else {
+            if (numIndices == indexToNode.length) {
+                int capacity = 2 * numIndices;
+                indexToNode = Arrays.copyOf(indexToNode, capacity);
+                outBags = Arrays.copyOf(outBags, capacity);
+                inBags = Arrays.copyOf(inBags, capacity);
+                outIndices = Arrays.copyOf(outIndices, capacity);
+                inIndices = Arrays.copyOf(inIndices, capacity);
+                freeIndices = Arrays.copyOf(freeIndices, capacity);
+            }
+            index = numIndices++;
+        }
+
+        Node copy = node.duplicate();
+        indexToNode[index] = copy;
+        nodeToIndex.put(copy, index);
+        return index;
+    }
+
+    /**
+     * Releases the given node index if there are no edges in or out of the node.
+     *
+     * @param index the node index
+     */
+    private void releaseIndex(int index) {
+        if (outBags[index] != null || inBags[index] != null) {
+            return;
+        }
+
+        nodeToIndex.remove(indexToNode[index]);
+        indexToNode[index] = null;
+        outIndices[index] = null;
+        inIndices[index] = null;
+        freeIndices[numFree++] = index;
+    }
+
+    /**
+     * Adds the edge to the bags for the mapping of OUT and IN nodes to edge.
+     *
+     * @param edge the edge
+     */
+    private void setMaps(Edge edge) {
+        int from = addIndex(edge.getFrom());
+        int to = addIndex(edge.getTo());
+        append(from, to, edge, true);
+        append(to, from, edge, false);
     }
 
     /**
-     * Adds the edge to the bag for the mapping of IN node to edge.
+     * Appends the edge to the OUT or IN bag of a node index.
      *
-     * @param node the node hash
+     * @param index the node index
+     * @param other the index of the node at the other end of the edge
      * @param edge the edge
+     * @param out {@code true} to append to the OUT bag, {@code false} for the IN bag
      */
-    private void setInMap(Node node, Edge edge) {
-        Bag objs = nodeToInBag.get(node);
+    private void append(int index, int other, Edge edge, boolean out) {
+        Bag[] bags = out ? outBags : inBags;
+        int[][] indices = out ? outIndices : inIndices;
+
+        Bag objs = bags[index];
         if (objs == null) {
             objs = new Bag(10);
-            nodeToInBag.put(node.duplicate(), objs);
+            bags[index] = objs;
         }
+
+        int[] others = indices[index];
+        if (others == null) {
+            others = new int[INITIAL_DEGREE];
+        } else if (objs.numObjs == others.length) {
+            others = Arrays.copyOf(others, 2 * others.length);
+        }
+        indices[index] = others;
+
+        others[objs.numObjs] = other;
         objs.add(edge);
     }
 
@@ -346,40 +511,78 @@ public final class Graph {
     /**
      * Removes edge from graph.
      *
+     * <p>The given edge instance is removed, so parallel edges between the same nodes are kept.
+     *
      * @param edge the edge to remove
      */
     public void removeEdge(Edge edge) {
-        allEdges.remove(edge);
-        unsetOutMap(edge.getFrom(), edge);
-        unsetInMap(edge.getTo(), edge);
+        int position = findEdge(allEdges, edge);
+        if (position >= 0) {
+            allEdges.remove(position);
+        }
+        unsetMaps(edge);
         unsetLinks(edge);
     }
 
     /**
-     * Removes the edge from the bag for the mapping of OUT node to edge.
+     * Removes the edge from the bags for the mapping of OUT and IN nodes to edge.
      *
-     * @param node the node hash
      * @param edge the edge
      */
-    private void unsetOutMap(Node node, Edge edge) {
-        Bag objs = nodeToOutBag.get(node);
-        objs.remove(edge);
-        if (objs.numObjs == 0) {
-            nodeToOutBag.remove(node);
+    private void unsetMaps(Edge edge) {
+        int from = nodeToIndex.get(edge.getFrom());
+        int to = nodeToIndex.get(edge.getTo());
+        detach(from, edge, true);
+        detach(to, edge, false);
+        releaseIndex(from);
+        if (to != from) {
+            releaseIndex(to);
         }
     }
 
     /**
-     * Removes the edge from the bag for the mapping of IN node to edge.
+     * Finds the position of the given edge instance in a bag.
      *
-     * @param node the node hash
+     * @param bag the bag of edges
      * @param edge the edge
+     * @return the position of the edge, {@code -1} if the edge is not in the bag
      */
-    private void unsetInMap(Node node, Edge edge) {
-        Bag objs = nodeToInBag.get(node);
-        objs.remove(edge);
+    private static int findEdge(Bag bag, Edge edge) {
+        for (int i = 0; i < bag.numObjs; i++) {
+            if (bag.objs[i] == edge) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the given edge instance from the OUT or IN bag of a node index.
+     *
+     * <p>The last edge in the bag is moved into the position of the removed edge.
+     *
+     * @param index the node index
+     * @param edge the edge
+     * @param out {@code true} to remove from the OUT bag, {@code false} for the IN bag
+     */
+    private void detach(int index, Edge edge, boolean out) {
+        Bag objs = out ? outBags[index] : inBags[index];
+        int[] others = out ? outIndices[index] : inIndices[index];
+
+        int position = findEdge(objs, edge);
+        if (position < 0) {
+            return;
+        }
+
+        others[position] = others[objs.numObjs - 1];
+        objs.remove(position);
+
         if (objs.numObjs == 0) {
-            nodeToInBag.remove(node);
+            if (out) {
+                outBags[index] = null;
+            } else {
+                inBags[index] = null;
+            }
         }
     }
 
@@ -452,7 +655,7 @@ public final class Graph {
         if (edge1.getNode(strategy).equals(edge2.getNode(strategy))) {
             return edge1.getNode(strategy);
         }
-        Bag allConnected = getConnectedNodes(edge1.getNode(strategy), strategy);
+        long[] allConnected = getConnectedNodes(edge1.getNode(strategy), strategy);
         if (allConnected == null) {
             return null;
         }
@@ -466,73 +669,82 @@ public final class Graph {
      *
      * @param node the node to start from
      * @param strategy the direction to search
-     * @return a bag of connected nodes
+     * @return a bitset of connected node indices
      */
-    private Bag getConnectedNodes(Node node, Strategy strategy) {
-        Bag first = getEdges(node, strategy);
-        if (first == null) {
+    private long[] getConnectedNodes(Node node, Strategy strategy) {
+        Integer start = nodeToIndex.get(node);
+        Bag[] bags = (strategy == Strategy.UPSTREAM) ? inBags : outBags;
+        int[][] indices = (strategy == Strategy.UPSTREAM) ? inIndices : outIndices;
+        if (start == null || bags[start] == null) {
             return null;
         }
-        Bag visited = new Bag();
-        Queue<Node> queue = new LinkedList<>();
-        for (Object e : first) {
-            Edge edge = (Edge) e;
-            queue.add(edge.getNode(strategy));
-        }
 
-        while (!queue.isEmpty()) {
-            Node active = queue.poll();
-            visited.add(active);
-            if (getEdges(active, strategy) == null) {
-                continue;
-            }
-            for (Object next : getEdges(active, strategy)) {
-                Edge edge = (Edge) next;
-                if (!visited.contains(edge.getNode(strategy))) {
-                    queue.add(edge.getNode(strategy));
+        long[] visited = new long[(numIndices + 63) >> 6];
+        int[] queue = new int[numIndices];
+        int head = 0;
+        int tail = 0;
+        int active = start;
+
+        while (true) {
+            Bag edges = bags[active];
+            for (int i = 0; edges != null && i < edges.numObjs; i++) {
+                int next = indices[active][i];
+                if ((visited[next >> 6] & (1L << next)) == 0) {
+                    visited[next >> 6] |= 1L << next;
+                    queue[tail++] = next;
                 }
             }
+
+            if (head == tail) {
+                return visited;
+            }
+            active = queue[head++];
         }
-        return visited;
     }
 
     /**
      * Breadth first search from node according to strategy for a subset of target nodes.
      *
      * @param node the node to start from
-     * @param targetNodes the bag of potential intersection nodes
+     * @param targetNodes the bitset of potential intersection node indices
      * @param strategy the direction to search
      * @return the target node or null if not found
      */
-    private Node breadthFirstSearch(Node node, Bag targetNodes, Strategy strategy) {
-        Bag first = getEdges(node, strategy);
-        if (first == null) {
+    private Node breadthFirstSearch(Node node, long[] targetNodes, Strategy strategy) {
+        Integer start = nodeToIndex.get(node);
+        Bag[] bags = (strategy == Strategy.UPSTREAM) ? inBags : outBags;
+        int[][] indices = (strategy == Strategy.UPSTREAM) ? inIndices : outIndices;
+        if (start == null || bags[start] == null) {
             return null;
         }
-        Bag visited = new Bag();
-        Queue<Node> queue = new LinkedList<>();
-        for (Object e : first) {
-            Edge edge = (Edge) e;
-            queue.add(edge.getNode(strategy));
-        }
 
-        while (!queue.isEmpty()) {
-            Node active = queue.poll();
-            visited.add(active);
-            if (targetNodes.contains(active)) {
-                return active;
+        long[] visited = new long[(numIndices + 63) >> 6];
+        int[] queue = new int[numIndices];
+        Node[] reached = new Node[numIndices];
+        int head = 0;
+        int tail = 0;
+        int active = start;
+
+        while (true) {
+            Bag edges = bags[active];
+            for (int i = 0; edges != null && i < edges.numObjs; i++) {
+                int next = indices[active][i];
+                if ((visited[next >> 6] & (1L << next)) == 0) {
+                    visited[next >> 6] |= 1L << next;
+                    reached[next] = ((Edge) edges.objs[i]).getNode(strategy);
+                    queue[tail++] = next;
+                }
             }
-            if (getEdges(active, strategy) == null) {
-                continue;
+
+            if (head == tail) {
+                return null;
             }
-            for (Object next : getEdges(active, strategy)) {
-                Edge edge = (Edge) next;
-                if (!visited.contains(edge.getNode(strategy))) {
-                    queue.add(edge.getNode(strategy));
-                }
+            active = queue[head++];
+
+            if ((targetNodes[active >> 6] & (1L << active)) != 0) {
+                return reached[active];
             }
         }
-        return null;
     }
 
     /**
@@ -554,12 +766,11 @@ public final class Graph {
         String s = "";
 
         s += "\nEDGES OUT\n\n";
-        Set<Node> setFrom = nodeToOutBag.keySet();
-        List<Node> sortedFrom = new ArrayList<>(setFrom);
+        List<Node> sortedFrom = retrieveNodes(outBags);
         Collections.sort(sortedFrom);
 
         for (Object obj : sortedFrom) {
-            Bag b = nodeToOutBag.get(obj);
+            Bag b = getEdgesOut((Node) obj);
             s += obj.toString() + " : ";
             for (int i = 0; i < b.numObjs; i++) {
                 s += b.get(i) + " ";
@@ -568,12 +779,11 @@ public final class Graph {
         }
 
         s += "\nEDGES IN\n\n";
-        Set<Node> setTo = nodeToInBag.keySet();
-        List<Node> sortedTo = new ArrayList<>(setTo);
+        List<Node> sortedTo = retrieveNodes(inBags);
         Collections.sort(sortedTo);
 
         for (Object obj : sortedTo) {
-            Bag b = nodeToInBag.get(obj);
+            Bag b = getEdgesIn((Node) obj);
             s += obj.toString() + " : ";
             for (int i = 0; i < b.numObjs; i++) {
                 s += b.get(i) + " ";
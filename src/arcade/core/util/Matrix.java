@@ -1,12 +1,14 @@
 package arcade.core.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Container class for dense and sparse matrix representations.
  *
  * <p>Class provides a subset of matrix operations needed for solving a system of linear equations
- * using the successive over-relaxation method in {@link arcade.core.util.Solver}.
+ * using the successive over-relaxation and conjugate gradient methods in {@link
+ * arcade.core.util.Solver}.
  */
 public class Matrix {
     /** Container class for sparse matrix representation. */
@@ -66,6 +68,330 @@ public class Matrix {
         }
     }
 
+    /**
+     * Container class for square sparse matrices in compressed sparse row form.
+     *
+     * <p>Non-zero values of row {@code i} are stored in {@code values} between indices {@code
+     * rows[i]} and {@code rows[i + 1]}, with the corresponding column indices stored in {@code
+     * columns} in increasing order.
+     */
+    public static final class Sparse {
+        /** Number of rows and columns. */
+        final int n;
+
+        /** Offsets of the first value in each row, with an additional offset past the end. */
+        final int[] rows;
+
+        /** Column index of each value. */
+        final int[] columns;
+
+        /** Non-zero values of the matrix. */
+        final double[] values;
+
+        /**
+         * Creates a sparse matrix from compressed sparse row arrays.
+         *
+         * @param n the number of rows and columns
+         * @param rows the offsets of each row
+         * @param columns the column index of each value
+         * @param values the values
+         */
+        Sparse(int n, int[] rows, int[] columns, double[] values) {
+            this.n = n;
+            this.rows = rows;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        /**
+         * Converts a dense matrix representation to a compressed sparse row representation.
+         *
+         * @param mat the dense matrix representation
+         * @return the compressed sparse row representation
+         */
+        public static Sparse fromDense(double[][] mat) {
+            int n = mat.length;
+            int count = 0;
+            for (double[] row : mat) {
+                for (double v : row) {
+                    if (v != 0) {
+                        count++;
+                    }
+                }
+            }
+
+            int[] rows = new int[n + 1];
+            int[] columns = new int[count];
+            double[] values = new double[count];
+            int k = 0;
+
+            for (int i = 0; i < n; i++) {
+                rows[i] = k;
+                for (int j = 0; j < n; j++) {
+                    if (mat[i][j] != 0) {
+                        columns[k] = j;
+                        values[k] = mat[i][j];
+                        k++;
+                    }
+                }
+            }
+
+            rows[n] = k;
+            return new Sparse(n, rows, columns, values);
+        }
+
+        /**
+         * Gets the number of rows and columns.
+         *
+         * @return the matrix size
+         */
+        public int size() {
+            return n;
+        }
+
+        /**
+         * Gets the number of stored values.
+         *
+         * @return the number of values
+         */
+        public int nonZeros() {
+            return rows[n];
+        }
+
+        /**
+         * Gets the value at the given row and column.
+         *
+         * @param i the row index
+         * @param j the column index
+         * @return the value
+         */
+        public double get(int i, int j) {
+            int k = Arrays.binarySearch(columns, rows[i], rows[i + 1], j);
+            return (k < 0 ? 0 : values[k]);
+        }
+
+        /**
+         * Gets the diagonal of the matrix.
+         *
+         * @param diag the array to hold the diagonal values
+         */
+        public void getDiagonal(double[] diag) {
+            for (int i = 0; i < n; i++) {
+                diag[i] = get(i, i);
+            }
+        }
+
+        /**
+         * Multiplies the matrix and a vector.
+         *
+         * @param vec the vector
+         * @param out the array to hold the product
+         */
+        public void multiply(double[] vec, double[] out) {
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int k = rows[i]; k < rows[i + 1]; k++) {
+                    sum += values[k] * vec[columns[k]];
+                }
+                out[i] = sum;
+            }
+        }
+
+        /**
+         * Calculates the residuals {@code b - Ax} of a linear system.
+         *
+         * @param vec the right-hand side vector {@code b}
+         * @param x the left-hand side vector {@code x}
+         * @param out the array to hold the residuals
+         */
+        public void residual(double[] vec, double[] x, double[] out) {
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int k = rows[i]; k < rows[i + 1]; k++) {
+                    sum += values[k] * x[columns[k]];
+                }
+                out[i] = vec[i] - sum;
+            }
+        }
+
+        /**
+         * Solves the equation {@code Lx = b} using forward substitution.
+         *
+         * <p>Matrix {@code L} is the lower triangular of the matrix, including the diagonal. Values
+         * above the diagonal are ignored.
+         *
+         * @param vec the right-hand side vector
+         * @param out the array to hold the left-hand side vector
+         */
+        public void forwardSubstitution(double[] vec, double[] out) {
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                double diag = 0;
+                for (int k = rows[i]; k < rows[i + 1]; k++) {
+                    int j = columns[k];
+                    if (j < i) {
+                        sum += values[k] * out[j];
+                    } else if (j == i) {
+                        diag = values[k];
+                    } else {
+                        break;
+                    }
+                }
+                out[i] = (vec[i] - sum) / diag;
+            }
+        }
+
+        /**
+         * Multiplies the strict upper triangular of the matrix and a vector.
+         *
+         * @param vec the vector
+         * @param out the array to hold the product
+         */
+        public void multiplyUpper(double[] vec, double[] out) {
+            for (int i = 0; i < n; i++) {
+                double sum = 0;
+                for (int k = rows[i + 1] - 1; k >= rows[i] && columns[k] > i; k--) {
+                    sum += values[k] * vec[columns[k]];
+                }
+                out[i] = sum;
+            }
+        }
+
+        /**
+         * Scales the values in the matrix.
+         *
+         * <p>The scaled matrix shares row and column indices with this matrix.
+         *
+         * @param scale the value to scale by
+         * @return the scaled matrix
+         */
+        public Sparse scale(double scale) {
+            double[] scaled = new double[values.length];
+            for (int k = 0; k < values.length; k++) {
+                scaled[k] = values[k] * scale;
+            }
+            return new Sparse(n, rows, columns, scaled);
+        }
+
+        /**
+         * Builder for {@link Sparse} matrices.
+         *
+         * <p>Entries can be added in any order. Entries added more than once for the same row and
+         * column are summed.
+         */
+        public static final class Builder {
+            /** Number of rows and columns. */
+            private final int n;
+
+            /** Row index of each entry. */
+            private int[] is;
+
+            /** Column index of each entry. */
+            private int[] js;
+
+            /** Value of each entry. */
+            private double[] vs;
+
+            /** Number of entries. */
+            private int size;
+
+            /**
+             * Creates a builder for a sparse matrix of the given size.
+             *
+             * @param n the number of rows and columns
+             */
+            public Builder(int n) {
+                this.n = n;
+                int capacity = Math.max(4, 3 * n);
+                is = new int[capacity];
+                js = new int[capacity];
+                vs = new double[capacity];
+            }
+
+            /**
+             * Adds a value to the entry at the given row and column.
+             *
+             * @param i the row index
+             * @param j the column index
+             * @param v the value to add
+             * @return the builder instance
+             */
+            public Builder add(int i, int j, double v) {
+                if (size == is.length) {
+                    is = Arrays.copyOf(is, 2 * size);
+                    js = Arrays.copyOf(js, 2 * size);
+                    vs = Arrays.copyOf(vs, 2 * size);
+                }
+
+                is[size] = i;
+                js[size] = j;
+                vs[size] = v;
+                size++;
+
+                return this;
+            }
+
+            /**
+             * Builds the sparse matrix.
+             *
+             * @return the sparse matrix
+             */
+            public Sparse build() {
+                // Count entries in each row and bucket entries by row.
+                int[] offsets = new int[n + 1];
+                for (int k = 0; k < size; k++) {
+                    offsets[is[k] + 1]++;
+                }
+                for (int i = 0; i < n; i++) {
+                    offsets[i + 1] += offsets[i];
+                }
+
+                int[] order = new int[size];
+                int[] next = Arrays.copyOf(offsets, n);
+                for (int k = 0; k < size; k++) {
+                    order[next[is[k]]++] = k;
+                }
+
+                // Sort each row by column and sum duplicate entries.
+                int[] rows = new int[n + 1];
+                int[] columns = new int[size];
+                double[] values = new double[size];
+                int count = 0;
+
+                for (int i = 0; i < n; i++) {
+                    int start = offsets[i];
+                    int end = offsets[i + 1];
+
+                    for (int a = start + 1; a < end; a++) {
+                        int k = order[a];
+                        int b = a - 1;
+                        while (b >= start && js[order[b]] > js[k]) {
+                            order[b + 1] = order[b];
+                            b--;
+                        }
+                        order[b + 1] = k;
+                    }
+
+                    rows[i] = count;
+                    for (int a = start; a < end; a++) {
+                        int k = order[a];
+                        if (count > rows[i] && columns[count - 1] == js[k]) {
+                            values[count - 1] += vs[k];
+                        } else {
+                            columns[count] = js[k];
+                            values[count] = vs[k];
+                            count++;
+                        }
+                    }
+                }
+
+                rows[n] = count;
+                return new Sparse(
+                        n, rows, Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+            }
+        }
+    }
+
     /** Hidden utility class constructor. */
     protected Matrix() {
         throw new UnsupportedOperationException();
@@ -575,6 +901,33 @@ public class Matrix {
         return scaled;
     }
 
+    /**
+     * Adds a scaled vector to another vector in place ({@code y = ax + y}).
+     *
+     * @param scale the value to scale the first vector by
+     * @param vecX the first vector
+     * @param vecY the second vector, replaced with the sum
+     */
+    public static void axpy(double scale, double[] vecX, double[] vecY) {
+        for (int i = 0; i < vecY.length; i++) {
+            vecY[i] += scale * vecX[i];
+        }
+    }
+
+    /**
+     * Adds two scaled vectors in place ({@code y = ax + by}).
+     *
+     * @param scaleX the value to scale the first vector by
+     * @param vecX the first vector
+     * @param scaleY the value to scale the second vector by
+     * @param vecY the second vector, replaced with the sum
+     */
+    public static void addScaled(double scaleX, double[] vecX, double scaleY, double[] vecY) {
+        for (int i = 0; i < vecY.length; i++) {
+            vecY[i] = scaleX * vecX[i] + scaleY * vecY[i];
+        }
+    }
+
     /**
      * Normalizes the vector.
      *
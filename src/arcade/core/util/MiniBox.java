@@ -30,6 +30,12 @@ public class MiniBox {
     /** Map of keys to values. */
     final HashMap<String, String> contents;
 
+    /** Compiled schema of the box, {@code null} if not yet compiled. */
+    private volatile ParameterSchema schema;
+
+    /** {@code true} if values cannot be added to the box, {@code false} otherwise. */
+    private boolean unmodifiable;
+
     /** Creates a {@code MiniBox} object. */
     public MiniBox() {
         keys = new ArrayList<>();
@@ -108,7 +114,10 @@ public class MiniBox {
                     (!split[1].matches(NUMBER_REGEX) ? Double.NaN : Double.parseDouble(split[1]));
             return (denominator == 0 ? Double.NaN : numerator / denominator);
         } else if (contents.containsKey("(DISTRIBUTION)" + TAG_SEPARATOR + id)) {
-            return getDistribution(id, new MersenneTwisterFast()).getExpected();
+            Distribution distribution = getDistribution(id, new MersenneTwisterFast());
+            if (distribution != null) {
+                return distribution.getExpected();
+            }
         }
 
         return (s == null || !s.matches(NUMBER_REGEX) ? Double.NaN : Double.parseDouble(s));
@@ -121,7 +130,24 @@ public class MiniBox {
      * @return {@code true} if the key exists, {@code false} otherwise
      */
     public boolean contains(String id) {
-        return keys.contains(id);
+        return contents.containsKey(id);
+    }
+
+    /**
+     * Gets the compiled schema of the box.
+     *
+     * <p>The schema is compiled the first time it is requested and reused until a value is added to
+     * the box.
+     *
+     * @return the compiled schema
+     */
+    public ParameterSchema getSchema() {
+        ParameterSchema compiled = schema;
+        if (compiled == null) {
+            compiled = new ParameterSchema(this);
+            schema = compiled;
+        }
+        return compiled;
     }
 
     /**
@@ -151,10 +177,27 @@ public class MiniBox {
      * @param val the value
      */
     public void put(String id, String val) {
-        if (!keys.contains(id)) {
+        if (unmodifiable) {
+            throw new UnsupportedOperationException();
+        }
+        if (!contents.containsKey(id)) {
             keys.add(id);
         }
         contents.put(id, val);
+        schema = null;
+    }
+
+    /**
+     * Makes the box unmodifiable.
+     *
+     * <p>Adding a value to an unmodifiable box throws an {@link UnsupportedOperationException}.
+     * Unmodifiable boxes can be safely shared.
+     *
+     * @return the box
+     */
+    MiniBox makeUnmodifiable() {
+        unmodifiable = true;
+        return this;
     }
 
     /**
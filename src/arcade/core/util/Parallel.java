@@ -0,0 +1,42 @@
+package arcade.core.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Container class for shared thread pools.
+ *
+ * <p>A pool is created the first time a given number of threads is requested and is then shared by
+ * all simulations in the process, so running a series of simulations does not create new threads
+ * for each simulation. Pool threads are daemon threads and do not keep the process alive.
+ */
+public final class Parallel {
+    /** Map of number of threads to thread pool. */
+    private static final ConcurrentHashMap<Integer, ExecutorService> EXECUTORS =
+            new ConcurrentHashMap<>();
+
+    /** Hidden utility class constructor. */
+    protected Parallel() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Gets the shared thread pool with the given number of threads.
+     *
+     * @param threads the number of threads
+     * @return the thread pool
+     */
+    public static ExecutorService getExecutor(int threads) {
+        return EXECUTORS.computeIfAbsent(
+                threads,
+                n ->
+                        Executors.newFixedThreadPool(
+                                n,
+                                runnable -> {
+                                    Thread thread = new Thread(runnable);
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }));
+    }
+}
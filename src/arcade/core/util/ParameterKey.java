@@ -0,0 +1,47 @@
+package arcade.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Key for a parameter with a precompiled id.
+ *
+ * <p>Keys are created once as constants by classes that read parameters on hot paths. Each key is
+ * assigned a unique index when it is created. Each {@link ParameterSchema} looks up the id of a key
+ * the first time the key is used and stores it by key index, so later reads with {@link
+ * Parameters#getDouble(ParameterKey)} and {@link Parameters#getInt(ParameterKey)} are array reads
+ * instead of string lookups.
+ */
+public final class ParameterKey {
+    /** Number of keys created. */
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    /** Name of the parameter. */
+    final String name;
+
+    /** Unique index of the key. */
+    final int index;
+
+    /**
+     * Creates a {@code ParameterKey} for the given parameter name.
+     *
+     * @param name the parameter name
+     */
+    public ParameterKey(String name) {
+        this.name = name;
+        this.index = COUNT.getAndIncrement();
+    }
+
+    /**
+     * Gets the name of the parameter.
+     *
+     * @return the parameter name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
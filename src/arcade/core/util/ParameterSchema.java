@@ -0,0 +1,210 @@
+package arcade.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import static arcade.core.util.MiniBox.TAG_SEPARATOR;
+
+/**
+ * Compiled, immutable view of the parameters in a {@link MiniBox}.
+ *
+ * <p>Each key is assigned an integer id when the schema is compiled, and the value for each key is
+ * converted to a double and an integer once, so repeated lookups are hash lookups followed by array
+ * reads instead of regular expression matches and string parsing. Keys tagged as {@code
+ * DISTRIBUTION} are collected so distributions can be created without filtering the box.
+ *
+ * <p>Schemas are compiled by {@link MiniBox#getSchema()} and shared by all {@link Parameters}
+ * instances created from the same box, such as all cells in a population. Schemas are never
+ * modified after they are compiled; adding a value to the box discards the compiled schema.
+ * Filtered boxes are unmodifiable, since they are shared.
+ *
+ * <p>Ids for {@link ParameterKey} objects are looked up once and stored by key index, so hot paths
+ * can read values without hashing the key.
+ */
+public final class ParameterSchema {
+    /** Id for keys that do not exist. */
+    public static final int MISSING = -1;
+
+    /** Id for keys with distributions. */
+    public static final int DISTRIBUTED = -2;
+
+    /** Id for keys that have not been looked up. */
+    private static final int UNRESOLVED = -3;
+
+    /** Code for keys tagged as distributions. */
+    private static final String DISTRIBUTION_CODE = "(DISTRIBUTION)";
+
+    /** Source box of the schema. */
+    private final MiniBox box;
+
+    /** Map of keys to ids. */
+    private final HashMap<String, Integer> ids;
+
+    /** Values for each id as strings. */
+    private final String[] strings;
+
+    /** Values for each id converted to doubles. */
+    private final double[] doubles;
+
+    /** Values for each id converted to integers. */
+    private final int[] ints;
+
+    /** List of keys with distributions. */
+    private final List<String> distributionKeys;
+
+    /** Map of codes to filtered boxes. */
+    private final ConcurrentHashMap<String, MiniBox> filters;
+
+    /** Ids for each {@link ParameterKey} index, {@code UNRESOLVED} if not yet looked up. */
+    private volatile int[] keyIds;
+
+    /**
+     * Compiles a {@code ParameterSchema} from the given box.
+     *
+     * @param box the box of parameters
+     */
+    ParameterSchema(MiniBox box) {
+        ArrayList<String> keys = box.getKeys();
+        int n = keys.size();
+
+        this.box = box;
+        ids = new HashMap<>(2 * n);
+        strings = new String[n];
+        doubles = new double[n];
+        ints = new int[n];
+        filters = new ConcurrentHashMap<>();
+        keyIds = new int[0];
+
+        ArrayList<String> distributions = new ArrayList<>();
+        String prefix = DISTRIBUTION_CODE + TAG_SEPARATOR;
+
+        for (int i = 0; i < n; i++) {
+            String key = keys.get(i);
+            ids.put(key, i);
+            strings[i] = box.get(key);
+            doubles[i] = box.getDouble(key);
+            ints[i] = box.getInt(key);
+
+            if (key.startsWith(prefix)) {
+                distributions.add(key.substring(prefix.length()));
+            }
+        }
+
+        distributionKeys = Collections.unmodifiableList(distributions);
+    }
+
+    /**
+     * Gets the id for the given key.
+     *
+     * @param key the key
+     * @return the id, {@code MISSING} if the key does not exist
+     */
+    public int getId(String key) {
+        Integer id = ids.get(key);
+        return (id == null ? MISSING : id);
+    }
+
+    /**
+     * Gets the id for the given parameter key.
+     *
+     * <p>The id is looked up the first time the key is used with the schema and stored by key index
+     * for later calls.
+     *
+     * @param key the parameter key
+     * @return the id, {@code MISSING} if the key does not exist, {@code DISTRIBUTED} if the key has
+     *     a distribution
+     */
+    public int getId(ParameterKey key) {
+        int[] resolved = keyIds;
+        if (key.index < resolved.length && resolved[key.index] != UNRESOLVED) {
+            return resolved[key.index];
+        }
+        return resolveId(key);
+    }
+
+    /**
+     * Looks up and stores the id for the given parameter key.
+     *
+     * @param key the parameter key
+     * @return the id, {@code MISSING} if the key does not exist, {@code DISTRIBUTED} if the key has
+     *     a distribution
+     */
+    private synchronized int resolveId(ParameterKey key) {
+        int[] resolved = keyIds;
+        if (key.index >= resolved.length) {
+            int size = resolved.length;
+            resolved = Arrays.copyOf(resolved, Math.max(key.index + 1, 2 * size));
+            Arrays.fill(resolved, size, resolved.length, UNRESOLVED);
+        }
+
+        int id = (distributionKeys.contains(key.name) ? DISTRIBUTED : getId(key.name));
+        resolved[key.index] = id;
+        keyIds = resolved;
+        return id;
+    }
+
+    /**
+     * Checks if the given key exists.
+     *
+     * @param key the key
+     * @return {@code true} if the key exists, {@code false} otherwise
+     */
+    public boolean contains(String key) {
+        return ids.containsKey(key);
+    }
+
+    /**
+     * Gets the value for the given id.
+     *
+     * @param id the id
+     * @return the value
+     */
+    public String get(int id) {
+        return strings[id];
+    }
+
+    /**
+     * Gets the value for the given id converted to a double.
+     *
+     * @param id the id
+     * @return the value
+     */
+    public double getDouble(int id) {
+        return doubles[id];
+    }
+
+    /**
+     * Gets the value for the given id converted to an integer.
+     *
+     * @param id the id
+     * @return the value
+     */
+    public int getInt(int id) {
+        return ints[id];
+    }
+
+    /**
+     * Gets the list of keys with distributions.
+     *
+     * @return the unmodifiable list of keys
+     */
+    public List<String> getDistributionKeys() {
+        return distributionKeys;
+    }
+
+    /**
+     * Filters entries for keys starting with given code.
+     *
+     * <p>The filtered box for each code is created once and shared between calls, so the returned
+     * box is unmodifiable.
+     *
+     * @param code the code to filter by
+     * @return the filtered box
+     */
+    public MiniBox filter(String code) {
+        return filters.computeIfAbsent(code, c -> box.filter(c).makeUnmodifiable());
+    }
+}
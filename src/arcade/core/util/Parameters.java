@@ -11,6 +11,8 @@ import arcade.core.util.distributions.Distribution;
  *
  * <p>{@code Parameters} objects contain a {@link MiniBox} of population parameters along with
  * parameter distributions. Utility methods are provided to return parameters as specific types.
+ * Values of population parameters are read from the {@link ParameterSchema} compiled for the
+ * population parameters, which is shared between all cells in the population.
  */
 public class Parameters {
     /** Population parameters. */
@@ -36,8 +38,7 @@ public class Parameters {
         this.popParameters = popParameters;
         distributions = new HashMap<>();
 
-        MiniBox distributionsBox = popParameters.filter("(DISTRIBUTION)");
-        for (String key : distributionsBox.getKeys()) {
+        for (String key : popParameters.getSchema().getDistributionKeys()) {
             Distribution distribution;
 
             if (cellParameters != null && cellParameters.distributions.containsKey(key)) {
@@ -60,13 +61,34 @@ public class Parameters {
      * @return the parameter value as a double
      */
     public double getDouble(String key) {
-        if (distributions.containsKey(key)) {
-            return distributions.get(key).getDoubleValue();
-        } else if (popParameters.contains(key)) {
-            return popParameters.getDouble(key);
-        } else {
+        Distribution distribution = distributions.get(key);
+        if (distribution != null) {
+            return distribution.getDoubleValue();
+        }
+
+        ParameterSchema schema = popParameters.getSchema();
+        int id = schema.getId(key);
+
+        if (id < 0) {
             throw new InvalidParameterException();
         }
+
+        return schema.getDouble(id);
+    }
+
+    /**
+     * Gets the parameter value as a double using a precompiled key.
+     *
+     * <p>Parameters without distributions are read by the id of the key in the population schema,
+     * without hashing the key. Otherwise, the value is read as in {@link #getDouble(String)}.
+     *
+     * @param key the parameter key
+     * @return the parameter value as a double
+     */
+    public double getDouble(ParameterKey key) {
+        ParameterSchema schema = popParameters.getSchema();
+        int id = schema.getId(key);
+        return (id < 0 ? getDouble(key.name) : schema.getDouble(id));
     }
 
     /**
@@ -79,13 +101,34 @@ public class Parameters {
      * @return the parameter value as an integer
      */
     public int getInt(String key) {
-        if (distributions.containsKey(key)) {
-            return distributions.get(key).getIntValue();
-        } else if (popParameters.contains(key)) {
-            return popParameters.getInt(key);
-        } else {
+        Distribution distribution = distributions.get(key);
+        if (distribution != null) {
+            return distribution.getIntValue();
+        }
+
+        ParameterSchema schema = popParameters.getSchema();
+        int id = schema.getId(key);
+
+        if (id < 0) {
             throw new InvalidParameterException();
         }
+
+        return schema.getInt(id);
+    }
+
+    /**
+     * Gets the parameter value as an integer using a precompiled key.
+     *
+     * <p>Parameters without distributions are read by the id of the key in the population schema,
+     * without hashing the key. Otherwise, the value is read as in {@link #getInt(String)}.
+     *
+     * @param key the parameter key
+     * @return the parameter value as an integer
+     */
+    public int getInt(ParameterKey key) {
+        ParameterSchema schema = popParameters.getSchema();
+        int id = schema.getId(key);
+        return (id < 0 ? getInt(key.name) : schema.getInt(id));
     }
 
     /**
@@ -95,11 +138,14 @@ public class Parameters {
      * @return the parameter value as a string
      */
     public String getString(String key) {
-        if (popParameters.contains(key)) {
-            return popParameters.get(key);
-        } else {
+        ParameterSchema schema = popParameters.getSchema();
+        int id = schema.getId(key);
+
+        if (id < 0) {
             throw new InvalidParameterException();
         }
+
+        return schema.get(id);
     }
 
     /**
@@ -119,11 +165,14 @@ public class Parameters {
     /**
      * Filters parameters by the given code.
      *
+     * <p>The filtered box is shared by all parameters created from the same population parameters
+     * and is unmodifiable.
+     *
      * @param code the code to filter by
      * @return the filtered box
      */
     public MiniBox filter(String code) {
-        return popParameters.filter(code);
+        return popParameters.getSchema().filter(code);
     }
 
     /**
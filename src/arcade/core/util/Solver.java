@@ -1,8 +1,7 @@
 package arcade.core.util;
 
-import java.util.ArrayList;
 import java.util.logging.Logger;
-import arcade.core.util.Matrix.Value;
+import arcade.core.util.Matrix.Sparse;
 import static arcade.core.util.Matrix.*;
 
 /**
@@ -14,9 +13,19 @@ import static arcade.core.util.Matrix.*;
  *   <li><em>forward Euler</em>: first-order method for ODEs
  *   <li><em>classic Runge–Kutta (RK4)</em>: fourth-order method for ODEs
  *   <li><em>Cash–Karp</em>: adaptive step size method for ODEs
+ *   <li><em>Rosenbrock (ROS2)</em>: adaptive step size linearly implicit method for stiff ODEs
  *   <li><em>successive over-relaxation (SOR)</em>: variant of the Gauss–Seidel method for solving a
  *       linear system of equations
+ *   <li><em>preconditioned conjugate gradient (PCG)</em>: Krylov method with Jacobi preconditioning
+ *       for solving a symmetric positive definite linear system of equations
+ *   <li><em>bisection</em>: bracketing method for finding roots
+ *   <li><em>Brent's method</em>: bracketing method for finding roots combining bisection with
+ *       secant and inverse quadratic interpolation steps
  * </ul>
+ *
+ * <p>ODE solvers can also be applied in place using {@link InPlaceEquations}, in which case arrays
+ * are reused from a {@link Workspace} instead of being allocated on each call. Linear solvers use
+ * {@link Sparse} matrices and in-place vector operations from {@link Matrix}.
  */
 public class Solver {
     /** Logger for {@code Solver}. */
@@ -31,9 +40,24 @@ public class Solver {
     /** Maximum number of steps for Cash-Karp. */
     private static final int MAX_STEPS = 100;
 
-    /** Safety value for Cash-Karp. */
+    /** Safety value for adaptive solvers. */
     private static final double SAFETY = 0.9;
 
+    /** Diagonal coefficient for ROS2. */
+    private static final double ROS2_GAMMA = 1 + 1 / Math.sqrt(2);
+
+    /** Maximum number of steps for ROS2. */
+    private static final int ROS2_MAX_STEPS = 1000;
+
+    /** Relative error tolerance for ROS2. */
+    private static final double ROS2_ERROR = 1E-3;
+
+    /** Absolute error tolerance for ROS2. */
+    private static final double ROS2_EPSILON = 1E-6;
+
+    /** Relative perturbation for finite difference Jacobian. */
+    private static final double JACOBIAN_DELTA = 1.5E-8;
+
     /** Relaxation factor for SOR. */
     private static final double OMEGA = 1.4;
 
@@ -43,11 +67,14 @@ public class Solver {
     /** Error tolerance for SOR. */
     private static final double TOLERANCE = 1E-8;
 
-    /** Convergence delta for bisection method. */
+    /** Convergence delta for bisection and Brent's methods. */
     private static final double DELTA = 1E-5;
 
-    /** Matrix size threshold for dense representation. */
-    private static final int MATRIX_THRESHOLD = 100;
+    /** Fraction of the interval stepped from the initial guess for Brent's method. */
+    private static final double GUESS_STEP = 1E-3;
+
+    /** Solver workspace for each thread. */
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
 
     /** Defines ODE equations for numerical solvers. */
     public interface Equations {
@@ -61,6 +88,105 @@ public class Solver {
         double[] dydt(double t, double[] y);
     }
 
+    /** Defines ODE equations for in-place numerical solvers. */
+    public interface InPlaceEquations {
+        /**
+         * Applies equations to inputs.
+         *
+         * <p>Every output value must be written, since the output array is reused between calls.
+         *
+         * @param t the time step
+         * @param y the array of inputs
+         * @param dydt the array of outputs
+         */
+        void dydt(double t, double[] y, double[] dydt);
+    }
+
+    /**
+     * Reusable arrays for in-place numerical solvers.
+     *
+     * <p>Arrays grow as needed to fit the system of equations. A workspace must not be shared
+     * between threads or used by nested solver calls.
+     */
+    public static final class Workspace {
+        /** Workspace for first stage. */
+        double[] k1;
+
+        /** Workspace for second stage. */
+        double[] k2;
+
+        /** Workspace for third stage. */
+        double[] k3;
+
+        /** Workspace for fourth stage. */
+        double[] k4;
+
+        /** Workspace for fifth stage. */
+        double[] k5;
+
+        /** Workspace for sixth stage. */
+        double[] k6;
+
+        /** Workspace for equation outputs. */
+        double[] dydt;
+
+        /** Workspace for intermediate values. */
+        double[] w;
+
+        /** Workspace for fifth order values. */
+        double[] y5;
+
+        /** Workspace for sixth order values. */
+        double[] y6;
+
+        /** Workspace for Jacobian and iteration matrix. */
+        double[] jacobian;
+
+        /** Workspace for row pivots. */
+        int[] pivots;
+
+        /** Creates an empty {@code Workspace}. */
+        public Workspace() {
+            ensureCapacity(0);
+        }
+
+        /**
+         * Resizes arrays to hold at least the given number of values.
+         *
+         * @param n the number of values
+         */
+        void ensureCapacity(int n) {
+            if (dydt != null && dydt.length >= n) {
+                return;
+            }
+
+            k1 = new double[n];
+            k2 = new double[n];
+            k3 = new double[n];
+            k4 = new double[n];
+            k5 = new double[n];
+            k6 = new double[n];
+            dydt = new double[n];
+            w = new double[n];
+            y5 = new double[n];
+            y6 = new double[n];
+        }
+
+        /**
+         * Resizes Jacobian arrays to hold at least the given number of values squared.
+         *
+         * @param n the number of values
+         */
+        void ensureJacobianCapacity(int n) {
+            if (pivots != null && pivots.length >= n) {
+                return;
+            }
+
+            jacobian = new double[n * n];
+            pivots = new int[n];
+        }
+    }
+
     /** Defines a continuous function. */
     public interface Function {
         /**
@@ -88,10 +214,40 @@ public class Solver {
      * @return the array of final values
      */
     public static double[] euler(Equations eq, double t0, double[] y0, double tf, double h) {
-        int n = y0.length;
-        double t = t0;
-        double[] dydt = new double[n];
         double[] y = y0.clone();
+        euler(wrap(eq), t0, y, tf, h, WORKSPACE.get());
+        return y;
+    }
+
+    /**
+     * Solves a system of ODEs in place using forward Euler with the workspace for the thread.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     */
+    public static void euler(InPlaceEquations eq, double t0, double[] y, double tf, double h) {
+        euler(eq, t0, y, tf, h, WORKSPACE.get());
+    }
+
+    /**
+     * Solves a system of ODEs in place using forward Euler.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     * @param workspace the solver workspace
+     */
+    public static void euler(
+            InPlaceEquations eq, double t0, double[] y, double tf, double h, Workspace workspace) {
+        int n = y.length;
+        double t = t0;
+        workspace.ensureCapacity(n);
+        double[] dydt = workspace.dydt;
 
         // Adjust number of steps.
         int nSteps = (int) ((tf - t0) / h);
@@ -100,13 +256,11 @@ public class Solver {
         // Iterate through steps.
         for (int j = 0; j < nSteps; j++) {
             t = t0 + j * h;
-            dydt = eq.dydt(t, y);
+            eq.dydt(t, y, dydt);
             for (int i = 0; i < n; i++) {
                 y[i] += h * dydt[i];
             }
         }
-
-        return y;
     }
 
     /**
@@ -120,15 +274,45 @@ public class Solver {
      * @return the array of final values
      */
     public static double[] rungeKutta(Equations eq, double t0, double[] y0, double tf, double h) {
-        int n = y0.length;
-        double t = t0;
-        double[] k1 = new double[n];
-        double[] k2 = new double[n];
-        double[] k3 = new double[n];
-        double[] k4 = new double[n];
-        double[] dydt = new double[n];
         double[] y = y0.clone();
-        double[] w = new double[n];
+        rungeKutta(wrap(eq), t0, y, tf, h, WORKSPACE.get());
+        return y;
+    }
+
+    /**
+     * Solves a system of ODEs in place using classic Runge-Kutta with the workspace for the thread.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     */
+    public static void rungeKutta(InPlaceEquations eq, double t0, double[] y, double tf, double h) {
+        rungeKutta(eq, t0, y, tf, h, WORKSPACE.get());
+    }
+
+    /**
+     * Solves a system of ODEs in place using classic Runge-Kutta.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     * @param workspace the solver workspace
+     */
+    public static void rungeKutta(
+            InPlaceEquations eq, double t0, double[] y, double tf, double h, Workspace workspace) {
+        int n = y.length;
+        double t = t0;
+        workspace.ensureCapacity(n);
+        double[] k1 = workspace.k1;
+        double[] k2 = workspace.k2;
+        double[] k3 = workspace.k3;
+        double[] k4 = workspace.k4;
+        double[] dydt = workspace.dydt;
+        double[] w = workspace.w;
 
         // Adjust number of steps.
         int nSteps = (int) ((tf - t0) / h);
@@ -138,32 +322,30 @@ public class Solver {
         for (int j = 0; j < nSteps; j++) {
             t = t0 + j * h;
 
-            dydt = eq.dydt(t, y);
+            eq.dydt(t, y, dydt);
             for (int i = 0; i < n; i++) {
                 k1[i] = h * dydt[i];
                 w[i] = y[i] + k1[i] / 2;
             }
 
-            dydt = eq.dydt(t + h / 2, w);
+            eq.dydt(t + h / 2, w, dydt);
             for (int i = 0; i < n; i++) {
                 k2[i] = h * dydt[i];
                 w[i] = y[i] + k2[i] / 2;
             }
 
-            dydt = eq.dydt(t + h / 2, w);
+            eq.dydt(t + h / 2, w, dydt);
             for (int i = 0; i < n; i++) {
                 k3[i] = h * dydt[i];
                 w[i] = y[i] + k3[i];
             }
 
-            dydt = eq.dydt(t + h, w);
+            eq.dydt(t + h, w, dydt);
             for (int i = 0; i < n; i++) {
                 k4[i] = h * dydt[i];
                 y[i] += k1[i] / 6 + k2[i] / 3 + k3[i] / 3 + k4[i] / 6;
             }
         }
-
-        return y;
     }
 
     /**
@@ -193,20 +375,58 @@ public class Solver {
      */
     public static double[] cashKarp(
             Equations eq, double t0, double[] y0, double tf, double h, int maxSteps) {
-        int n = y0.length;
+        double[] y = y0.clone();
+        cashKarp(wrap(eq), t0, y, tf, h, maxSteps, WORKSPACE.get());
+        return y;
+    }
+
+    /**
+     * Solves a system of ODEs in place using adaptive timestep Cash-Karp with default maximum steps
+     * and the workspace for the thread.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     */
+    public static void cashKarp(InPlaceEquations eq, double t0, double[] y, double tf, double h) {
+        cashKarp(eq, t0, y, tf, h, MAX_STEPS, WORKSPACE.get());
+    }
+
+    /**
+     * Solves a system of ODEs in place using adaptive timestep Cash-Karp.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the time step
+     * @param maxSteps the maximum number of steps
+     * @param workspace the solver workspace
+     */
+    public static void cashKarp(
+            InPlaceEquations eq,
+            double t0,
+            double[] y,
+            double tf,
+            double h,
+            int maxSteps,
+            Workspace workspace) {
+        int n = y.length;
         int steps = 0;
         double t = t0;
-        double[] k1 = new double[n];
-        double[] k2 = new double[n];
-        double[] k3 = new double[n];
-        double[] k4 = new double[n];
-        double[] k5 = new double[n];
-        double[] k6 = new double[n];
-        double[] dydt;
-        double[] y = y0.clone();
-        double[] y5 = y0.clone();
-        double[] y6 = y0.clone();
-        double[] w = new double[n];
+        workspace.ensureCapacity(n);
+        double[] k1 = workspace.k1;
+        double[] k2 = workspace.k2;
+        double[] k3 = workspace.k3;
+        double[] k4 = workspace.k4;
+        double[] k5 = workspace.k5;
+        double[] k6 = workspace.k6;
+        double[] dydt = workspace.dydt;
+        double[] y5 = workspace.y5;
+        double[] y6 = workspace.y6;
+        double[] w = workspace.w;
         double err;
         double maxErr;
         double tol;
@@ -214,25 +434,25 @@ public class Solver {
         while (t < tf && steps < maxSteps) {
             steps++;
 
-            dydt = eq.dydt(t, y);
+            eq.dydt(t, y, dydt);
             for (int i = 0; i < n; i++) {
                 k1[i] = h * dydt[i];
                 w[i] = y[i] + k1[i] / 5.0;
             }
 
-            dydt = eq.dydt(t + h / 5.0, w);
+            eq.dydt(t + h / 5.0, w, dydt);
             for (int i = 0; i < n; i++) {
                 k2[i] = h * dydt[i];
                 w[i] = y[i] + (3 * k1[i] + 9 * k2[i]) / 40.0;
             }
 
-            dydt = eq.dydt(t + 3 * h / 10.0, w);
+            eq.dydt(t + 3 * h / 10.0, w, dydt);
             for (int i = 0; i < n; i++) {
                 k3[i] = h * dydt[i];
                 w[i] = y[i] + (3 * k1[i] - 9 * k2[i] + 12 * k3[i]) / 10.0;
             }
 
-            dydt = eq.dydt(t + 3 * h / 5.0, w);
+            eq.dydt(t + 3 * h / 5.0, w, dydt);
             for (int i = 0; i < n; i++) {
                 k4[i] = h * dydt[i];
                 w[i] =
@@ -243,7 +463,7 @@ public class Solver {
                                 + 35 * k4[i] / 27.0;
             }
 
-            dydt = eq.dydt(t + h, w);
+            eq.dydt(t + h, w, dydt);
             for (int i = 0; i < n; i++) {
                 k5[i] = h * dydt[i];
                 w[i] =
@@ -255,7 +475,7 @@ public class Solver {
                                 + 253 * k5[i] / 4096.0;
             }
 
-            dydt = eq.dydt(t + 7 * h / 8.0, w);
+            eq.dydt(t + 7 * h / 8.0, w, dydt);
             maxErr = 0.0;
             for (int i = 0; i < n; i++) {
                 k6[i] = h * dydt[i];
@@ -283,18 +503,227 @@ public class Solver {
                 t += h;
                 h *= Math.min(5.0, Math.max(SAFETY * Math.pow(maxErr, -0.2), 1.0));
                 h = (t + h > tf ? tf - t : h);
-                y = y5.clone();
+                System.arraycopy(y5, 0, y, 0, n);
             }
         }
+    }
 
-        return y;
+    /**
+     * Solves a system of ODEs in place using adaptive timestep Rosenbrock with default maximum
+     * steps and the workspace for the thread.
+     *
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the initial time step
+     */
+    public static void rosenbrock(InPlaceEquations eq, double t0, double[] y, double tf, double h) {
+        rosenbrock(eq, t0, y, tf, h, ROS2_MAX_STEPS, WORKSPACE.get());
     }
 
     /**
-     * Solves a linear system of equations using successive over-relaxation with default sparse
-     * representation thresholding and maximum iterations.
+     * Solves a system of ODEs in place using adaptive timestep Rosenbrock.
+     *
+     * <p>Uses the second-order, L-stable ROS2 method, which remains stable for stiff systems at
+     * step sizes far larger than explicit methods allow. The Jacobian is approximated by forward
+     * differences at the start of each step, without terms for explicit time dependence. Local
+     * error is estimated from the embedded first-order solution and controlled with relative and
+     * absolute tolerances suited to the lower order of the method.
      *
-     * <p>Based on matrix size, the algorithm with use a dense or sparse approach.
+     * @param eq the system of equations
+     * @param t0 the initial time
+     * @param y the array of initial values, replaced with final values
+     * @param tf the final time
+     * @param h the initial time step
+     * @param maxSteps the maximum number of steps
+     * @param workspace the solver workspace
+     */
+    public static void rosenbrock(
+            InPlaceEquations eq,
+            double t0,
+            double[] y,
+            double tf,
+            double h,
+            int maxSteps,
+            Workspace workspace) {
+        int n = y.length;
+        int steps = 0;
+        double t = t0;
+        workspace.ensureCapacity(n);
+        workspace.ensureJacobianCapacity(n);
+        double[] k1 = workspace.k1;
+        double[] k2 = workspace.k2;
+        double[] f0 = workspace.dydt;
+        double[] f1 = workspace.y6;
+        double[] w = workspace.w;
+        double[] y2 = workspace.y5;
+        double[] jac = workspace.jacobian;
+        int[] pivots = workspace.pivots;
+        double err;
+        double maxErr;
+        double tol;
+
+        h = Math.min(h, tf - t0);
+
+        while (t < tf && steps < maxSteps) {
+            steps++;
+
+            // Approximate Jacobian using forward differences.
+            eq.dydt(t, y, f0);
+            for (int j = 0; j < n; j++) {
+                double yj = y[j];
+                double delta = JACOBIAN_DELTA * Math.max(Math.abs(yj), 1.0);
+                y[j] = yj + delta;
+                eq.dydt(t, y, f1);
+                y[j] = yj;
+                for (int i = 0; i < n; i++) {
+                    jac[i * n + j] = (f1[i] - f0[i]) / delta;
+                }
+            }
+
+            // Decompose iteration matrix (I - gamma h J).
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    jac[i * n + j] = (i == j ? 1 : 0) - ROS2_GAMMA * h * jac[i * n + j];
+                }
+            }
+
+            if (!decompose(jac, pivots, n)) {
+                h /= 2;
+                continue;
+            }
+
+            System.arraycopy(f0, 0, k1, 0, n);
+            substitute(jac, pivots, k1, n);
+
+            for (int i = 0; i < n; i++) {
+                w[i] = y[i] + h * k1[i];
+            }
+
+            eq.dydt(t + h, w, f1);
+            for (int i = 0; i < n; i++) {
+                k2[i] = f1[i] - 2 * k1[i];
+            }
+            substitute(jac, pivots, k2, n);
+
+            maxErr = 0.0;
+            for (int i = 0; i < n; i++) {
+                y2[i] = y[i] + 1.5 * h * k1[i] + 0.5 * h * k2[i];
+                err = Math.abs(0.5 * h * (k1[i] + k2[i]));
+                tol = Math.abs(y2[i]) * ROS2_ERROR + ROS2_EPSILON;
+                maxErr = Math.max(maxErr, err / tol);
+            }
+
+            if (maxErr > 1) { // reduce step size with max 10-fold reduction
+                h *= Math.max(0.1, SAFETY * Math.pow(maxErr, -0.5));
+            } else { // increase step size with max 5-fold increase
+                t += h;
+                h *= Math.min(5.0, Math.max(SAFETY * Math.pow(maxErr, -0.5), 1.0));
+                h = (t + h > tf ? tf - t : h);
+                System.arraycopy(y2, 0, y, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Decomposes a square matrix in place into LU form using partial pivoting.
+     *
+     * @param mat the matrix in row-major order, replaced with its decomposition
+     * @param pivots the array of row pivots
+     * @param n the size of the matrix
+     * @return {@code true} if the matrix is nonsingular, {@code false} otherwise
+     */
+    private static boolean decompose(double[] mat, int[] pivots, int n) {
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            double max = Math.abs(mat[k * n + k]);
+
+            for (int i = k + 1; i < n; i++) {
+                double value = Math.abs(mat[i * n + k]);
+                if (value > max) {
+                    max = value;
+                    pivot = i;
+                }
+            }
+
+            if (max == 0 || Double.isNaN(max)) {
+                return false;
+            }
+
+            pivots[k] = pivot;
+
+            if (pivot != k) {
+                for (int j = 0; j < n; j++) {
+                    double temp = mat[k * n + j];
+                    mat[k * n + j] = mat[pivot * n + j];
+                    mat[pivot * n + j] = temp;
+                }
+            }
+
+            for (int i = k + 1; i < n; i++) {
+                double factor = mat[i * n + k] / mat[k * n + k];
+                mat[i * n + k] = factor;
+                for (int j = k + 1; j < n; j++) {
+                    mat[i * n + j] -= factor * mat[k * n + j];
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Solves a linear system in place using an LU decomposition from {@link #decompose}.
+     *
+     * @param mat the decomposed matrix in row-major order
+     * @param pivots the array of row pivots
+     * @param vec the right-hand side vector, replaced with the solution
+     * @param n the size of the matrix
+     */
+    private static void substitute(double[] mat, int[] pivots, double[] vec, int n) {
+        for (int k = 0; k < n; k++) {
+            int pivot = pivots[k];
+            if (pivot != k) {
+                double temp = vec[k];
+                vec[k] = vec[pivot];
+                vec[pivot] = temp;
+            }
+        }
+
+        for (int i = 1; i < n; i++) {
+            double sum = vec[i];
+            for (int j = 0; j < i; j++) {
+                sum -= mat[i * n + j] * vec[j];
+            }
+            vec[i] = sum;
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = vec[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= mat[i * n + j] * vec[j];
+            }
+            vec[i] = sum / mat[i * n + i];
+        }
+    }
+
+    /**
+     * Wraps equations returning output arrays as in-place equations.
+     *
+     * @param eq the system of equations
+     * @return the in-place system of equations
+     */
+    private static InPlaceEquations wrap(Equations eq) {
+        return (t, y, dydt) -> {
+            double[] result = eq.dydt(t, y);
+            System.arraycopy(result, 0, dydt, 0, result.length);
+        };
+    }
+
+    /**
+     * Solves a linear system of equations using successive over-relaxation with default maximum
+     * iterations.
      *
      * @param mat the matrix of coefficients
      * @param vec the right-hand side vector
@@ -302,22 +731,41 @@ public class Solver {
      * @return the vector of final values
      */
     public static double[] sor(double[][] mat, double[] vec, double[] x0) {
-        return sor(mat, vec, x0, MATRIX_THRESHOLD, MAX_ITERS, TOLERANCE);
+        return sor(mat, vec, x0, MAX_ITERS, TOLERANCE);
     }
 
     /**
      * Solves a linear system of equations using successive over-relaxation.
      *
-     * <p>Based on matrix size, the algorithm with use a dense or sparse approach.
+     * <p>The matrix is converted to compressed sparse row form and solved using {@link #sor(Sparse,
+     * double[], double[], int, double)}.
+     *
+     * @param mat the matrix of coefficients
+     * @param vec the right-hand side vector
+     * @param x0 the initial guess for the left-hand side vector
+     * @param maxIters the maximum number of iterations
+     * @param tolerance the error tolerance
+     * @return the vector of final values
+     */
+    public static double[] sor(
+            double[][] mat, double[] vec, double[] x0, int maxIters, double tolerance) {
+        return sor(Sparse.fromDense(mat), vec, x0, maxIters, tolerance);
+    }
+
+    /**
+     * Solves a linear system of equations using successive over-relaxation.
      *
      * @param mat the matrix of coefficients
      * @param vec the right-hand side vector
      * @param x0 the initial guess for the left-hand side vector
-     * @param matrixThreshold the threshold for matrix size
+     * @param matrixThreshold the threshold for matrix size, ignored
      * @param maxIters the maximum number of iterations
      * @param tolerance the error tolerance
      * @return the vector of final values
+     * @deprecated all matrices are solved in compressed sparse row form, so the matrix size
+     *     threshold has no effect; use {@link #sor(double[][], double[], double[], int, double)}
      */
+    @Deprecated
     public static double[] sor(
             double[][] mat,
             double[] vec,
@@ -325,97 +773,135 @@ public class Solver {
             int matrixThreshold,
             int maxIters,
             double tolerance) {
-        int n = mat.length;
-        if (n < matrixThreshold) {
-            return denseSOR(mat, vec, x0, maxIters, tolerance);
-        } else {
-            return sparseSOR(mat, vec, x0, maxIters, tolerance);
-        }
+        return sor(mat, vec, x0, maxIters, tolerance);
     }
 
     /**
-     * Solves linear system of equations using SOR with dense matrix representation.
+     * Solves a linear system of equations using successive over-relaxation with a sparse matrix.
      *
-     * @param mat the matrix of coefficients
+     * <p>Each iteration takes a Gauss-Seidel step {@code (D + L)y = b - Ux} by forward substitution
+     * and relaxes the guess toward it ({@code x = wy + (1 - w)x}). All vectors are allocated once
+     * per call and updated in place. The initial guess is not modified.
+     *
+     * @param mat the sparse matrix of coefficients
      * @param vec the right-hand side vector
      * @param x0 the initial guess for the left-hand side vector
      * @param maxIters the maximum number of iterations
      * @param tolerance the error tolerance
      * @return the vector of final values
      */
-    private static double[] denseSOR(
-            double[][] mat, double[] vec, double[] x0, int maxIters, double tolerance) {
+    public static double[] sor(
+            Sparse mat, double[] vec, double[] x0, int maxIters, double tolerance) {
+        int n = vec.length;
         int i = 0;
         double error = Double.POSITIVE_INFINITY;
 
-        // Calculate iteration factors
-        double[] c = forwardSubstitution(mat, vec);
-        double[][] t = forwardSubstitution(mat);
-        t = scale(t, -1);
-
-        // Set initial guess.
-        double[] xCurr = x0;
-        double[] xPrev = x0;
+        double[] x = x0.clone();
+        double[] y = new double[n];
+        double[] r = new double[n];
 
         // Iterate until convergence.
         while (i < maxIters && error > tolerance) {
-            // Calculate new guess for x.
-            xCurr = add(scale(add(multiply(t, xPrev), c), OMEGA), scale(xPrev, 1 - OMEGA));
-
-            // Set previous to copy of current and increment iteration count.
-            xPrev = xCurr;
+            // Calculate Gauss-Seidel step and relax new guess for x.
+            mat.multiplyUpper(x, r);
+            for (int j = 0; j < n; j++) {
+                r[j] = vec[j] - r[j];
+            }
+            mat.forwardSubstitution(r, y);
+            addScaled(OMEGA, y, 1 - OMEGA, x);
             i++;
 
             // Calculate L2 norm of residuals to check for convergence.
-            double[] r = subtract(vec, multiply(mat, xCurr));
+            mat.residual(vec, x, r);
             error = normalize(r);
         }
 
-        return xCurr;
+        return x;
     }
 
     /**
-     * Solves linear system of equations using SOR with sparse matrix representation.
+     * Solves a symmetric positive definite linear system of equations using Jacobi preconditioned
+     * conjugate gradient with default maximum iterations and tolerance.
      *
-     * @param mat the matrix of coefficients
+     * @param mat the sparse matrix of coefficients
+     * @param vec the right-hand side vector
+     * @param x0 the initial guess for the left-hand side vector
+     * @return the vector of final values
+     */
+    public static double[] conjugateGradient(Sparse mat, double[] vec, double[] x0) {
+        return conjugateGradient(mat, vec, x0, MAX_ITERS, TOLERANCE);
+    }
+
+    /**
+     * Solves a symmetric positive definite linear system of equations using Jacobi preconditioned
+     * conjugate gradient.
+     *
+     * <p>Iterations stop when the L2 norm of the residuals is below the tolerance, matching the
+     * convergence criteria of {@link #sor(double[][], double[], double[])}. The initial guess is
+     * not modified.
+     *
+     * @param mat the sparse matrix of coefficients
      * @param vec the right-hand side vector
      * @param x0 the initial guess for the left-hand side vector
      * @param maxIters the maximum number of iterations
      * @param tolerance the error tolerance
      * @return the vector of final values
      */
-    private static double[] sparseSOR(
-            double[][] mat, double[] vec, double[] x0, int maxIters, double tolerance) {
-        int i = 0;
-        double error = Double.POSITIVE_INFINITY;
+    public static double[] conjugateGradient(
+            Sparse mat, double[] vec, double[] x0, int maxIters, double tolerance) {
+        int n = vec.length;
+        double[] x = x0.clone();
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+        double[] inv = new double[n];
 
-        // Convert to sparse representation.
-        ArrayList<Value> sparseA = toSparse(mat);
+        // Set up Jacobi preconditioner from inverted diagonal.
+        mat.getDiagonal(inv);
+        for (int i = 0; i < n; i++) {
+            inv[i] = (inv[i] == 0 ? 1 : 1 / inv[i]);
+        }
 
-        // Calculate iteration factors
-        double[] c = forwardSubstitution(sparseA, vec);
-        ArrayList<Value> t = forwardSubstitution(sparseA);
-        t = scale(t, -1);
+        // Calculate initial residuals and search direction.
+        mat.residual(vec, x, r);
+        for (int i = 0; i < n; i++) {
+            z[i] = inv[i] * r[i];
+            p[i] = z[i];
+        }
 
-        // Set initial guess.
-        double[] xCurr = x0;
-        double[] xPrev = x0;
+        double rz = dot(r, z);
+        double error = normalize(r);
+        int k = 0;
 
         // Iterate until convergence.
-        while (i < maxIters && error > tolerance) {
-            // Calculate new guess for x.
-            xCurr = add(scale(add(multiply(t, xPrev), c), OMEGA), scale(xPrev, 1 - OMEGA));
+        while (k < maxIters && error > tolerance) {
+            mat.multiply(p, q);
+            double pq = dot(p, q);
 
-            // Set previous to copy of current and increment iteration count.
-            xPrev = xCurr;
-            i++;
+            if (pq == 0) {
+                break;
+            }
+
+            // Update guess for x and residuals.
+            double alpha = rz / pq;
+            axpy(alpha, p, x);
+            axpy(-alpha, q, r);
+            for (int i = 0; i < n; i++) {
+                z[i] = inv[i] * r[i];
+            }
+
+            // Update search direction.
+            double rzNext = dot(r, z);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            addScaled(1, z, beta, p);
 
-            // Calculate L2 norm of residuals to check for convergence.
-            double[] r = subtract(vec, multiply(sparseA, xCurr));
             error = normalize(r);
+            k++;
         }
 
-        return xCurr;
+        return x;
     }
 
     /**
@@ -482,4 +968,207 @@ public class Solver {
     public static double bisection(Function func, double a, double b) {
         return bisection(func, a, b, MAX_ITERS);
     }
+
+    /**
+     * Finds root using Brent's method.
+     *
+     * <p>Root is found by inverse quadratic interpolation or secant steps, falling back to
+     * bisection when the interpolated step does not shrink the interval fast enough. The interval
+     * in which the function changes sign is kept throughout, so the method converges whenever
+     * bisection does, usually in far fewer function evaluations.
+     *
+     * <p>If the initial guess is within the interval, the interval is first narrowed to the side of
+     * the guess in which the function changes sign, and then to a small step from the guess toward
+     * the root if the function also changes sign within the step. Guesses close to the root, such
+     * as the root from a previous similar problem, therefore need only a few more evaluations. If
+     * no root is found, the simulation will throw an ArithmeticException.
+     *
+     * @param func the function
+     * @param a the lower bound on the interval
+     * @param b the upper bound on the interval
+     * @param x0 the initial guess
+     * @param maxIters the maximum number of iterations
+     * @return the root of the function
+     */
+    public static double brent(Function func, double a, double b, double x0, int maxIters) {
+        if (a > b) {
+            a = a + b;
+            b = a - b;
+            a = a - b;
+        }
+
+        boolean guess = x0 > a && x0 < b;
+        double fx = Double.NaN;
+        double c = Double.NaN;
+        double fc = Double.NaN;
+
+        // Look for a small interval around the initial guess, stepping first
+        // up and then down if the function increases in magnitude.
+        if (guess) {
+            fx = func.f(x0);
+            if (fx == 0) {
+                return x0;
+            }
+
+            double step = (b - a) * GUESS_STEP;
+            c = Math.min(x0 + step, b);
+            fc = func.f(c);
+
+            if (Math.signum(fc) != Math.signum(fx)) {
+                return brent(func, x0, fx, c, fc, maxIters);
+            } else if (Math.abs(fc) > Math.abs(fx)) {
+                c = Math.max(x0 - step, a);
+                fc = func.f(c);
+                if (Math.signum(fc) != Math.signum(fx)) {
+                    return brent(func, c, fc, x0, fx, maxIters);
+                }
+            }
+        }
+
+        double fa = func.f(a);
+        double fb = func.f(b);
+
+        // Check that given bounds are opposite signs.
+        if (Math.signum(fa) == Math.signum(fb)) {
+            throw new ArithmeticException("Brent cannot find root with given bounds.");
+        }
+
+        // Narrow interval with points evaluated around the initial guess.
+        if (guess) {
+            if (Math.signum(fx) == Math.signum(fa)) {
+                a = x0;
+                fa = fx;
+            } else {
+                b = x0;
+                fb = fx;
+            }
+
+            if (c > a && c < b) {
+                if (Math.signum(fc) == Math.signum(fa)) {
+                    a = c;
+                    fa = fc;
+                } else {
+                    b = c;
+                    fb = fc;
+                }
+            }
+        }
+
+        return brent(func, a, fa, b, fb, maxIters);
+    }
+
+    /**
+     * Finds root using Brent's method with default maximum iterations.
+     *
+     * @param func the function
+     * @param a the lower bound on the interval
+     * @param b the upper bound on the interval
+     * @param x0 the initial guess
+     * @return the root of the function
+     */
+    public static double brent(Function func, double a, double b, double x0) {
+        return brent(func, a, b, x0, MAX_ITERS);
+    }
+
+    /**
+     * Finds root using Brent's method with default maximum iterations and no initial guess.
+     *
+     * @param func the function
+     * @param a the lower bound on the interval
+     * @param b the upper bound on the interval
+     * @return the root of the function
+     */
+    public static double brent(Function func, double a, double b) {
+        return brent(func, a, b, Double.NaN, MAX_ITERS);
+    }
+
+    /**
+     * Finds root using Brent's method for an interval with known function values.
+     *
+     * @param func the function
+     * @param a the first bound on the interval
+     * @param fa the function value at the first bound
+     * @param b the second bound on the interval
+     * @param fb the function value at the second bound
+     * @param maxIters the maximum number of iterations
+     * @return the root of the function
+     */
+    private static double brent(
+            Function func, double a, double fa, double b, double fb, int maxIters) {
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+
+        for (int i = 0; i < maxIters; i++) {
+            // Keep the root between b and c.
+            if (Math.signum(fb) == Math.signum(fc)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+
+            // Keep b as the best estimate.
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            // Check for exit conditions.
+            double tol = 2 * Math.ulp(1.0) * Math.abs(b) + DELTA / 2;
+            double m = (c - b) / 2;
+            if (fb == 0 || Math.abs(m) <= tol) {
+                return b;
+            }
+
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double p;
+                double q;
+                double s = fb / fa;
+
+                if (a == c) {
+                    // Secant step.
+                    p = 2 * m * s;
+                    q = 1 - s;
+                } else {
+                    // Inverse quadratic interpolation step.
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * m * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+
+                // Accept interpolation only if it falls within bounds and
+                // shrinks faster than bisection would.
+                if (2 * p < Math.min(3 * m * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = m;
+                    e = d;
+                }
+            } else {
+                d = m;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += (Math.abs(d) > tol ? d : Math.copySign(tol, m));
+            fb = func.f(b);
+        }
+
+        return Double.NaN;
+    }
 }
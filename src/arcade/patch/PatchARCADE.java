@@ -33,6 +33,7 @@ public final class PatchARCADE extends ARCADE {
     public OutputSaver getSaver(Series series) {
         PatchOutputSaver saver = new PatchOutputSaver(series);
         saver.saveGraph = settings.contains("SAVE_GRAPH");
+        saver.saveGraphDeltas = settings.contains("SAVE_GRAPH_DELTAS");
         saver.saveLattice = settings.contains("SAVE_LAYERS");
         saver.saveEvents = settings.contains("SAVE_EVENTS");
         return saver;
@@ -1,8 +1,10 @@
 package arcade.patch.agent.cell;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Map;
 import sim.engine.Schedule;
+import sim.engine.SimState;
 import sim.engine.Stoppable;
 import sim.util.Bag;
 import ec.util.MersenneTwisterFast;
@@ -12,11 +14,14 @@ import arcade.core.agent.cell.CellState;
 import arcade.core.agent.module.Module;
 import arcade.core.agent.process.Process;
 import arcade.core.agent.process.ProcessDomain;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.env.location.Location;
 import arcade.core.sim.Simulation;
 import arcade.core.util.GrabBag;
 import arcade.core.util.MiniBox;
+import arcade.core.util.ParameterKey;
 import arcade.core.util.Parameters;
+import arcade.patch.agent.module.PatchModule;
 import arcade.patch.agent.module.PatchModuleApoptosis;
 import arcade.patch.agent.module.PatchModuleCytotoxicity;
 import arcade.patch.agent.module.PatchModuleMigration;
@@ -30,6 +35,7 @@ import arcade.patch.agent.process.PatchProcessMetabolism;
 import arcade.patch.agent.process.PatchProcessSensing;
 import arcade.patch.agent.process.PatchProcessSignaling;
 import arcade.patch.env.grid.PatchGrid;
+import arcade.patch.env.lattice.PatchLattice;
 import arcade.patch.env.location.PatchLocation;
 import arcade.patch.util.PatchEnums;
 import static arcade.patch.util.PatchEnums.Domain;
@@ -46,14 +52,48 @@ import static arcade.patch.util.PatchEnums.State;
  * <p>Cell parameters are tracked using a map between the parameter name and value. Daughter cell
  * parameter values are drawn from a distribution centered on the parent cell parameter with the
  * specified amount of heterogeneity ({@code HETEROGENEITY}).
+ *
+ * <p>Cells are kept compact so large populations fit in memory: processes are stored in an {@link
+ * EnumMap}, cell cycle lengths are stored as primitives, and only the module for the current state
+ * is kept.
  */
 public abstract class PatchCell implements Cell {
+    /** Index of glucose lattice used when selecting best location. */
+    private static final int GLUCOSE_LATTICE = LatticeRegistry.getIndex("GLUCOSE");
+
+    /** Key for {@code NECROTIC_FRACTION} parameter. */
+    private static final ParameterKey NECROTIC_FRACTION = new ParameterKey("NECROTIC_FRACTION");
+
+    /** Key for {@code SENESCENT_FRACTION} parameter. */
+    private static final ParameterKey SENESCENT_FRACTION = new ParameterKey("SENESCENT_FRACTION");
+
+    /** Key for {@code ENERGY_THRESHOLD} parameter. */
+    private static final ParameterKey ENERGY_THRESHOLD = new ParameterKey("ENERGY_THRESHOLD");
+
+    /** Key for {@code APOPTOSIS_AGE} parameter. */
+    private static final ParameterKey APOPTOSIS_AGE = new ParameterKey("APOPTOSIS_AGE");
+
+    /** Key for {@code ACCURACY} parameter. */
+    private static final ParameterKey ACCURACY = new ParameterKey("ACCURACY");
+
+    /** Key for {@code AFFINITY} parameter. */
+    private static final ParameterKey AFFINITY = new ParameterKey("AFFINITY");
+
+    /** Key for {@code DIVISION_POTENTIAL} parameter. */
+    private static final ParameterKey DIVISION_POTENTIAL = new ParameterKey("DIVISION_POTENTIAL");
+
+    /** Key for {@code MAX_DENSITY} parameter. */
+    private static final ParameterKey MAX_DENSITY = new ParameterKey("MAX_DENSITY");
+
     /** Stopper used to stop this agent from being stepped in the schedule. */
     Stoppable stopper;
 
     /** Cell {@link Location} object. */
     final PatchLocation location;
 
+    /** Grid containing the cell, {@code null} if the cell is not in a grid. */
+    PatchGrid grid;
+
     /** Unique cell ID. */
     final int id;
 
@@ -118,7 +158,7 @@ public abstract class PatchCell implements Cell {
     protected Module module;
 
     /** Map of process domains and {@link Process} instance. */
-    protected final Map<ProcessDomain, Process> processes;
+    protected final Map<Domain, Process> processes;
 
     /** Cell parameters. */
     final Parameters parameters;
@@ -126,12 +166,18 @@ public abstract class PatchCell implements Cell {
     /** Cell population links. */
     final GrabBag links;
 
-    /** List of cell cycle lengths (in minutes). */
-    private final Bag cycles = new Bag();
+    /** List of cell cycle lengths (in minutes), {@code null} until the first cycle completes. */
+    private int[] cycles;
+
+    /** Number of completed cell cycles. */
+    private int numCycles;
 
     /** If cell is stopped in the simulation. */
     private boolean isStopped;
 
+    /** If cell processes have already been stepped for the current tick. */
+    boolean isProcessed;
+
     /** Cell binding flag. */
     protected PatchEnums.AntigenFlag bindingFlag;
 
@@ -159,7 +205,8 @@ public abstract class PatchCell implements Cell {
         this.age = container.age;
         this.energy = 0;
         this.divisions = container.divisions;
-        this.location = (PatchLocation) location;
+        PatchLocation patchLocation = (PatchLocation) location;
+        this.location = patchLocation.isCanonical() ? patchLocation.getClone() : patchLocation;
         this.volume = container.volume;
         this.height = container.height;
         this.criticalVolume = container.criticalVolume;
@@ -173,22 +220,22 @@ public abstract class PatchCell implements Cell {
         setState(container.state);
 
         // Set loaded parameters.
-        necroticFraction = parameters.getDouble("NECROTIC_FRACTION");
-        senescentFraction = parameters.getDouble("SENESCENT_FRACTION");
-        energyThreshold = -parameters.getDouble("ENERGY_THRESHOLD");
-        apoptosisAge = parameters.getDouble("APOPTOSIS_AGE");
-        accuracy = parameters.getDouble("ACCURACY");
-        affinity = parameters.getDouble("AFFINITY");
-        divisionPotential = parameters.getInt("DIVISION_POTENTIAL");
-        int densityInput = parameters.getInt("MAX_DENSITY");
+        necroticFraction = parameters.getDouble(NECROTIC_FRACTION);
+        senescentFraction = parameters.getDouble(SENESCENT_FRACTION);
+        energyThreshold = -parameters.getDouble(ENERGY_THRESHOLD);
+        apoptosisAge = parameters.getDouble(APOPTOSIS_AGE);
+        accuracy = parameters.getDouble(ACCURACY);
+        affinity = parameters.getDouble(AFFINITY);
+        divisionPotential = parameters.getInt(DIVISION_POTENTIAL);
+        int densityInput = parameters.getInt(MAX_DENSITY);
         maxDensity = (densityInput >= 0 ? densityInput : Integer.MAX_VALUE);
 
         // Add cell processes.
-        processes = new HashMap<>();
+        processes = new EnumMap<>(Domain.class);
         MiniBox processBox = parameters.filter("(PROCESS)");
 
         for (String processKey : processBox.getKeys()) {
-            ProcessDomain domain = Domain.valueOf(processKey);
+            Domain domain = Domain.valueOf(processKey);
             String version = processBox.get(processKey);
             Process process = makeProcess(domain, version);
             processes.put(domain, process);
@@ -283,13 +330,28 @@ public abstract class PatchCell implements Cell {
         this.flag = flag;
     }
 
+    /**
+     * Sets the grid containing the cell.
+     *
+     * @param grid the grid, {@code null} if the cell is not in a grid
+     */
+    public void setGrid(PatchGrid grid) {
+        this.grid = grid;
+    }
+
     /**
      * Sets the cell volume.
      *
+     * <p>Location aggregates in the grid containing the cell are updated, unless grid updates are
+     * deferred.
+     *
      * @param volume the target cell volume
      */
     public void setVolume(double volume) {
         this.volume = volume;
+        if (grid != null) {
+            grid.updateObject(this, location);
+        }
     }
 
     /**
@@ -307,16 +369,27 @@ public abstract class PatchCell implements Cell {
      * @param val the cell cycle length
      */
     public void addCycle(int val) {
-        cycles.add(val);
+        if (cycles == null) {
+            cycles = new int[4];
+        } else if (numCycles == cycles.length) {
+            cycles = Arrays.copyOf(cycles, 2 * numCycles);
+        }
+        cycles[numCycles++] = val;
     }
 
     /**
      * Gets the list of cell cycle lengths.
      *
+     * <p>Lengths are stored as an array, so the list is a new copy of the lengths.
+     *
      * @return the list of cell cycle lengths
      */
     public Bag getCycles() {
-        return cycles;
+        Bag bag = new Bag(numCycles);
+        for (int i = 0; i < numCycles; i++) {
+            bag.add(cycles[i]);
+        }
+        return bag;
     }
 
     @Override
@@ -334,40 +407,56 @@ public abstract class PatchCell implements Cell {
         return isStopped;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the module for the current state is kept. If the cell is set to the state it is
+     * already in, the current module is reset and reused instead of creating a new module.
+     */
     @Override
     public void setState(CellState state) {
+        CellState previous = this.state;
         this.state = state;
         this.flag = Flag.UNDEFINED;
 
+        if (state == previous && module instanceof PatchModule) {
+            ((PatchModule) module).reset();
+            return;
+        }
+
+        PatchModule created;
+
         switch ((State) state) {
             case PROLIFERATIVE:
-                module = new PatchModuleProliferation(this);
+                created = new PatchModuleProliferation(this);
                 break;
             case MIGRATORY:
-                module = new PatchModuleMigration(this);
+                created = new PatchModuleMigration(this);
                 break;
             case APOPTOTIC:
-                module = new PatchModuleApoptosis(this);
+                created = new PatchModuleApoptosis(this);
                 break;
             case NECROTIC:
-                module = new PatchModuleNecrosis(this);
+                created = new PatchModuleNecrosis(this);
                 break;
             case QUIESCENT:
-                module = new PatchModuleQuiescence(this);
+                created = new PatchModuleQuiescence(this);
                 break;
             case SENESCENT:
-                module = new PatchModuleSenescence(this);
+                created = new PatchModuleSenescence(this);
                 break;
             case CYTOTOXIC:
-                module = new PatchModuleCytotoxicity(this);
+                created = new PatchModuleCytotoxicity(this);
                 break;
             case STIMULATORY:
-                module = new PatchModuleStimulation(this);
+                created = new PatchModuleStimulation(this);
                 break;
             default:
-                module = null;
+                created = null;
                 break;
         }
+
+        module = created;
     }
 
     /**
@@ -393,6 +482,47 @@ public abstract class PatchCell implements Cell {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Cell processes are stepped, followed by cell modules. If processes have already been
+     * stepped for the current tick by a {@link PatchCellStepper}, only modules are stepped.
+     */
+    @Override
+    public void step(SimState simstate) {
+        Simulation sim = (Simulation) simstate;
+
+        if (isProcessed) {
+            isProcessed = false;
+        } else {
+            stepProcesses(simstate.random, sim);
+        }
+
+        stepModules(simstate.random, sim);
+    }
+
+    /**
+     * Steps the cell processes.
+     *
+     * <p>Processes may be stepped concurrently with processes of other cells. Implementations may
+     * update the cell and read or change lattice values, but should not add, remove, move, or
+     * change other cells.
+     *
+     * @param random the random number generator
+     * @param sim the simulation instance
+     */
+    public void stepProcesses(MersenneTwisterFast random, Simulation sim) {}
+
+    /**
+     * Steps the cell modules.
+     *
+     * <p>Modules are always stepped serially, in schedule order.
+     *
+     * @param random the random number generator
+     * @param sim the simulation instance
+     */
+    public void stepModules(MersenneTwisterFast random, Simulation sim) {}
+
     @Override
     public void schedule(Schedule schedule) {
         stopper = schedule.scheduleRepeating(this, Ordering.CELLS.ordinal(), 1);
@@ -439,8 +569,8 @@ public abstract class PatchCell implements Cell {
      */
     public PatchLocation selectBestLocation(Simulation sim, MersenneTwisterFast random) {
         Bag locs = findFreeLocations(sim);
-        double maxGlucose =
-                sim.getLattice("GLUCOSE").getParameters().getDouble("generator/CONCENTRATION");
+        PatchLattice glucose = (PatchLattice) sim.getLattice(GLUCOSE_LATTICE);
+        double maxGlucose = glucose.getConcentration();
         int currZ = location.getPlanarIndex();
         double currR = location.getPlanarDistance();
         int[] inds = new int[3];
@@ -449,11 +579,11 @@ public abstract class PatchCell implements Cell {
         // Check each free location for glucose and track the location with the
         // highest glucose concentration.
         if (locs.size() > 0) {
+            double normConc = glucose.getAverageValue(location) / maxGlucose;
             for (int i = 0; i < locs.numObjs; i++) {
                 PatchLocation loc = (PatchLocation) (locs.get(i));
                 // Calculate score by introducing error to the location check
                 // and adding affinity to move toward center.
-                double normConc = sim.getLattice("GLUCOSE").getAverageValue(location) / maxGlucose;
                 double gluc = (accuracy * normConc + (1 - accuracy) * random.nextDouble());
                 double dist = ((currR - loc.getPlanarDistance()) + 1) / 2.0;
                 double score = affinity * dist + (1 - affinity) * gluc;
@@ -503,10 +633,9 @@ public abstract class PatchCell implements Cell {
             freeLocations.add(currentLocation.getClone());
         }
 
-        for (Location neighborLocation : currentLocation.getNeighbors()) {
-            PatchLocation neighbor = (PatchLocation) neighborLocation;
+        for (PatchLocation neighbor : currentLocation.getNeighborLocations()) {
             if (checkLocation(sim, neighbor, targetVolume, criticalHeight, pop, maxDensity)) {
-                freeLocations.add(neighborLocation);
+                freeLocations.add(neighbor);
             }
         }
         return freeLocations;
@@ -538,28 +667,21 @@ public abstract class PatchCell implements Cell {
         double locationArea = loc.getArea();
         PatchGrid grid = (PatchGrid) sim.getGrid();
 
-        Bag bag = new Bag(grid.getObjectsAtLocation(loc));
-
-        if (bag.numObjs != 0) {
-            double proposedVolume = calculateTotalVolume(bag) + addedVolume;
+        if (grid.getNumObjects(loc) != 0) {
+            double proposedVolume = grid.getTotalVolume(loc) + addedVolume;
             double proposedHeight = proposedVolume / locationArea;
 
             if (proposedVolume > locationVolume || proposedHeight > maxHeight) {
                 return false;
             }
 
-            int count = 0;
-            for (Object obj : bag) {
-                PatchCell cell = (PatchCell) obj;
-                if (proposedHeight > cell.getCriticalHeight()) {
-                    return false;
-                }
-                if (cell.getPop() == population) {
-                    count++;
-                    if (count >= maxDensity) {
-                        return false;
-                    }
-                }
+            if (proposedHeight > grid.getMinCriticalHeight(loc)) {
+                return false;
+            }
+
+            int count = grid.getPopulationCount(loc, population);
+            if (count > 0 && count >= maxDensity) {
+                return false;
             }
         }
         return true;
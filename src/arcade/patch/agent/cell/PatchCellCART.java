@@ -347,7 +347,7 @@ public abstract class PatchCellCART extends PatchCell {
     private Bag grabAllTissueNeighbors(PatchGrid grid, PatchLocation loc) {
         Bag neighbors = new Bag();
         grabTissueAgents(neighbors, grid.getObjectsAtLocation(loc));
-        for (Location neighborLocation : loc.getNeighbors()) {
+        for (PatchLocation neighborLocation : loc.getNeighborLocations()) {
             Bag bag = new Bag(grid.getObjectsAtLocation(neighborLocation));
             grabTissueAgents(neighbors, bag);
         }
@@ -1,6 +1,5 @@
 package arcade.patch.agent.cell;
 
-import sim.engine.SimState;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellState;
 import arcade.core.env.location.Location;
@@ -56,9 +55,7 @@ public class PatchCellCARTCD4 extends PatchCellCART {
     }
 
     @Override
-    public void step(SimState simstate) {
-        Simulation sim = (Simulation) simstate;
-
+    public void stepProcesses(MersenneTwisterFast random, Simulation sim) {
         super.age++;
 
         if (state != State.APOPTOTIC && age > apoptosisAge) {
@@ -77,7 +74,7 @@ public class PatchCellCARTCD4 extends PatchCellCART {
             super.activated = false;
         }
 
-        super.processes.get(Domain.METABOLISM).step(simstate.random, sim);
+        super.processes.get(Domain.METABOLISM).step(random, sim);
 
         if (state != State.APOPTOTIC) {
             if (super.energy < super.energyThreshold) {
@@ -98,12 +95,15 @@ public class PatchCellCARTCD4 extends PatchCellCART {
             }
         }
 
-        super.processes.get(Domain.INFLAMMATION).step(simstate.random, sim);
+        super.processes.get(Domain.INFLAMMATION).step(random, sim);
+    }
 
+    @Override
+    public void stepModules(MersenneTwisterFast random, Simulation sim) {
         // Change state from undefined.
         if (super.state == State.UNDEFINED || super.state == State.PAUSED) {
             if (divisions == divisionPotential) {
-                if (simstate.random.nextDouble() > super.senescentFraction) {
+                if (random.nextDouble() > super.senescentFraction) {
                     super.setState(State.APOPTOTIC);
                 } else {
                     super.setState(State.SENESCENT);
@@ -111,11 +111,11 @@ public class PatchCellCARTCD4 extends PatchCellCART {
                 super.unbind();
                 this.activated = false;
             } else {
-                PatchCellTissue target = super.bindTarget(sim, location, simstate.random);
+                PatchCellTissue target = super.bindTarget(sim, location, random);
                 super.boundTarget = target;
 
                 if (super.getBindingFlag() == AntigenFlag.BOUND_ANTIGEN_CELL_RECEPTOR) {
-                    if (simstate.random.nextDouble() > super.anergicFraction) {
+                    if (random.nextDouble() > super.anergicFraction) {
                         super.setState(State.APOPTOTIC);
                     } else {
                         super.setState(State.ANERGIC);
@@ -125,7 +125,7 @@ public class PatchCellCARTCD4 extends PatchCellCART {
                 } else if (super.getBindingFlag() == AntigenFlag.BOUND_ANTIGEN) {
 
                     if (boundCARAntigensCount > maxAntigenBinding) {
-                        if (simstate.random.nextDouble() > super.exhaustedFraction) {
+                        if (random.nextDouble() > super.exhaustedFraction) {
                             super.setState(State.APOPTOTIC);
                         } else {
                             super.setState(State.EXHAUSTED);
@@ -144,7 +144,7 @@ public class PatchCellCARTCD4 extends PatchCellCART {
                     if (activated) {
                         super.setState(State.PROLIFERATIVE);
                     } else {
-                        if (simstate.random.nextDouble() > super.proliferativeFraction) {
+                        if (random.nextDouble() > super.proliferativeFraction) {
                             super.setState(State.MIGRATORY);
                         } else {
                             super.setState(State.PROLIFERATIVE);
@@ -156,7 +156,7 @@ public class PatchCellCARTCD4 extends PatchCellCART {
 
         // Step the module for the cell state.
         if (super.module != null) {
-            super.module.step(simstate.random, sim);
+            super.module.step(random, sim);
         }
     }
 }
@@ -1,6 +1,5 @@
 package arcade.patch.agent.cell;
 
-import sim.engine.SimState;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellState;
 import arcade.core.env.location.Location;
@@ -56,9 +55,7 @@ public class PatchCellCARTCD8 extends PatchCellCART {
     }
 
     @Override
-    public void step(SimState simstate) {
-        Simulation sim = (Simulation) simstate;
-
+    public void stepProcesses(MersenneTwisterFast random, Simulation sim) {
         super.age++;
 
         if (state != State.APOPTOTIC && age > apoptosisAge) {
@@ -78,7 +75,7 @@ public class PatchCellCARTCD8 extends PatchCellCART {
             super.activated = false;
         }
 
-        super.processes.get(Domain.METABOLISM).step(simstate.random, sim);
+        super.processes.get(Domain.METABOLISM).step(random, sim);
 
         // Check energy status. If cell has less energy than threshold, it will
         // apoptose. If overall energy is negative, then cell enters quiescence.
@@ -101,11 +98,14 @@ public class PatchCellCARTCD8 extends PatchCellCART {
             }
         }
 
-        super.processes.get(Domain.INFLAMMATION).step(simstate.random, sim);
+        super.processes.get(Domain.INFLAMMATION).step(random, sim);
+    }
 
+    @Override
+    public void stepModules(MersenneTwisterFast random, Simulation sim) {
         if (super.state == State.UNDEFINED || super.state == State.PAUSED) {
             if (divisions == divisionPotential) {
-                if (simstate.random.nextDouble() > super.senescentFraction) {
+                if (random.nextDouble() > super.senescentFraction) {
                     super.setState(State.APOPTOTIC);
                 } else {
                     super.setState(State.SENESCENT);
@@ -113,12 +113,12 @@ public class PatchCellCARTCD8 extends PatchCellCART {
                 super.unbind();
                 this.activated = false;
             } else {
-                PatchCellTissue target = super.bindTarget(sim, location, simstate.random);
+                PatchCellTissue target = super.bindTarget(sim, location, random);
                 super.boundTarget = target;
 
                 // If cell is bound to both antigen and self it will become anergic.
                 if (super.getBindingFlag() == AntigenFlag.BOUND_ANTIGEN_CELL_RECEPTOR) {
-                    if (simstate.random.nextDouble() > super.anergicFraction) {
+                    if (random.nextDouble() > super.anergicFraction) {
                         super.setState(State.APOPTOTIC);
                     } else {
                         super.setState(State.ANERGIC);
@@ -132,7 +132,7 @@ public class PatchCellCARTCD8 extends PatchCellCART {
                     // Check overstimulation. If cell has bound to
                     // target antigens too many times, becomes exhausted.
                     if (boundCARAntigensCount > maxAntigenBinding) {
-                        if (simstate.random.nextDouble() > super.exhaustedFraction) {
+                        if (random.nextDouble() > super.exhaustedFraction) {
                             super.setState(State.APOPTOTIC);
                         } else {
                             super.setState(State.EXHAUSTED);
@@ -155,7 +155,7 @@ public class PatchCellCARTCD8 extends PatchCellCART {
                     if (activated) {
                         super.setState(State.PROLIFERATIVE);
                     } else {
-                        if (simstate.random.nextDouble() > super.proliferativeFraction) {
+                        if (random.nextDouble() > super.proliferativeFraction) {
                             super.setState(State.MIGRATORY);
                         } else {
                             super.setState(State.PROLIFERATIVE);
@@ -166,7 +166,7 @@ public class PatchCellCARTCD8 extends PatchCellCART {
         }
 
         if (super.module != null) {
-            super.module.step(simstate.random, sim);
+            super.module.step(random, sim);
         }
     }
 }
@@ -1,6 +1,5 @@
 package arcade.patch.agent.cell;
 
-import sim.engine.SimState;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellState;
 import arcade.core.env.location.Location;
@@ -50,11 +49,11 @@ public class PatchCellCancer extends PatchCellTissue {
      * <p>Quiescent cells will check their neighborhood for free locations.
      */
     @Override
-    public void step(SimState simstate) {
+    public void stepProcesses(MersenneTwisterFast random, Simulation sim) {
         if (state == State.QUIESCENT) {
-            checkNeighborhood(simstate, this);
+            checkNeighborhood(sim, this);
         }
-        super.step(simstate);
+        super.stepProcesses(random, sim);
     }
 
     @Override
@@ -79,11 +78,10 @@ public class PatchCellCancer extends PatchCellTissue {
      *
      * <p>If there is at least one free location for proliferation, cell state becomes undefined.
      *
-     * @param simstate the MASON simulation state
+     * @param sim the simulation instance
      * @param cell the reference cell
      */
-    private void checkNeighborhood(SimState simstate, PatchCell cell) {
-        Simulation sim = (Simulation) simstate;
+    private void checkNeighborhood(Simulation sim, PatchCell cell) {
         if (findFreeLocations(sim).size() > 0) {
             cell.setState(State.UNDEFINED);
         }
@@ -0,0 +1,180 @@
+package arcade.patch.agent.cell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import sim.engine.Schedule;
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import ec.util.MersenneTwisterFast;
+import arcade.core.sim.Simulation;
+import arcade.core.util.Parallel;
+import arcade.patch.agent.process.PatchProcessInflammationBatch;
+import arcade.patch.env.grid.PatchGrid;
+import arcade.patch.env.lattice.PatchLatticeUpdates;
+import static arcade.patch.util.PatchEnums.Ordering;
+
+/**
+ * Steps processes of all {@link PatchCell} agents in parallel.
+ *
+ * <p>Cells are split into chunks of fixed size in grid order. Chunks are stepped concurrently on a
+ * shared {@link Parallel} thread pool, with processes of cells in each chunk stepped serially using
+ * a random number generator seeded for that chunk. Lattice changes are recorded in a {@link
+ * PatchLatticeUpdates} buffer for each chunk and grid updates are deferred, so all processes read
+ * the same environment. Buffers are then applied in chunk order and the grid is updated.
+ *
+ * <p>Inflammation networks of cells in each chunk are integrated together using a {@link
+ * PatchProcessInflammationBatch} after processes of all cells in the chunk are stepped.
+ *
+ * <p>Cell modules, which add, remove, and move cells, are stepped serially afterward when each cell
+ * is stepped by the schedule. Chunks and seeds do not depend on the number of threads, so the
+ * simulation is reproducible for a given seed regardless of thread count.
+ */
+public class PatchCellStepper implements Steppable {
+    /** Number of cells in each chunk. */
+    static final int CHUNK_SIZE = 256;
+
+    /** Multiplier used to derive chunk seeds. */
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Number of threads. */
+    final int threads;
+
+    /** Lattice change buffers for each chunk. */
+    final ArrayList<PatchLatticeUpdates> buffers;
+
+    /** Inflammation batches for each chunk. */
+    final ArrayList<PatchProcessInflammationBatch> batches;
+
+    /**
+     * Creates a {@code PatchCellStepper} for the given number of threads.
+     *
+     * @param threads the number of threads, or zero to use all available processors
+     */
+    public PatchCellStepper(int threads) {
+        this.threads = (threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.buffers = new ArrayList<>();
+        this.batches = new ArrayList<>();
+    }
+
+    /**
+     * Schedules the stepper in the simulation.
+     *
+     * @param schedule the simulation schedule
+     */
+    public void schedule(Schedule schedule) {
+        schedule.scheduleRepeating(this, Ordering.FIRST_CELL.ordinal(), 1);
+    }
+
+    @Override
+    public void step(SimState simstate) {
+        Simulation sim = (Simulation) simstate;
+        PatchGrid grid = (PatchGrid) sim.getGrid();
+
+        // Get cells in grid order.
+        ArrayList<PatchCell> cells = new ArrayList<>();
+        for (Object obj : grid.getAllObjects()) {
+            PatchCell cell = (PatchCell) obj;
+            if (!cell.isStopped()) {
+                cells.add(cell);
+            }
+        }
+
+        int chunks = (cells.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        long seed = simstate.random.nextLong();
+
+        while (buffers.size() < chunks) {
+            buffers.add(new PatchLatticeUpdates());
+            batches.add(new PatchProcessInflammationBatch());
+        }
+
+        // Step processes for each chunk with deferred grid and lattice changes.
+        grid.setDeferred(true);
+        try {
+            if (threads == 1 || chunks < 2) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    stepChunk(cells, chunk, seed, sim);
+                }
+            } else {
+                stepChunks(cells, chunks, seed, sim);
+            }
+        } finally {
+            grid.setDeferred(false);
+        }
+
+        // Apply lattice changes in chunk order and update grid.
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            buffers.get(chunk).apply();
+        }
+
+        grid.updateAll();
+    }
+
+    /**
+     * Steps processes for all chunks concurrently.
+     *
+     * @param cells the list of cells
+     * @param chunks the number of chunks
+     * @param seed the seed for the current tick
+     * @param sim the simulation instance
+     */
+    void stepChunks(List<PatchCell> cells, int chunks, long seed, Simulation sim) {
+        ArrayList<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            tasks.add(
+                    () -> {
+                        stepChunk(cells, index, seed, sim);
+                        return null;
+                    });
+        }
+
+        try {
+            for (Future<Void> future : Parallel.getExecutor(threads).invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stepping cell processes.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to step cell processes.", e.getCause());
+        }
+    }
+
+    /**
+     * Steps processes for cells in the given chunk.
+     *
+     * @param cells the list of cells
+     * @param chunk the chunk index
+     * @param seed the seed for the current tick
+     * @param sim the simulation instance
+     */
+    void stepChunk(List<PatchCell> cells, int chunk, long seed, Simulation sim) {
+        long chunkSeed = seed ^ (SEED_MULTIPLIER * (chunk + 1));
+        MersenneTwisterFast random = new MersenneTwisterFast(chunkSeed);
+        PatchLatticeUpdates updates = buffers.get(chunk);
+        PatchProcessInflammationBatch batch = batches.get(chunk);
+        int start = chunk * CHUNK_SIZE;
+        int end = Math.min(start + CHUNK_SIZE, cells.size());
+
+        updates.start();
+        try {
+            batch.start();
+            try {
+                for (int i = start; i < end; i++) {
+                    PatchCell cell = cells.get(i);
+                    cell.stepProcesses(random, sim);
+                    cell.isProcessed = true;
+                }
+            } finally {
+                batch.finish();
+            }
+
+            batch.step(random, sim);
+        } finally {
+            updates.finish();
+        }
+    }
+}
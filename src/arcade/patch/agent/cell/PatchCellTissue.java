@@ -1,11 +1,11 @@
 package arcade.patch.agent.cell;
 
-import sim.engine.SimState;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellState;
 import arcade.core.env.location.Location;
 import arcade.core.sim.Simulation;
 import arcade.core.util.GrabBag;
+import arcade.core.util.ParameterKey;
 import arcade.core.util.Parameters;
 import arcade.patch.util.PatchEnums.Domain;
 import arcade.patch.util.PatchEnums.Flag;
@@ -36,6 +36,12 @@ import arcade.patch.util.PatchEnums.State;
  * </ul>
  */
 public class PatchCellTissue extends PatchCell {
+    /** Key for {@code CAR_ANTIGENS} parameter. */
+    private static final ParameterKey CAR_ANTIGENS = new ParameterKey("CAR_ANTIGENS");
+
+    /** Key for {@code SELF_TARGETS} parameter. */
+    private static final ParameterKey SELF_TARGETS = new ParameterKey("SELF_TARGETS");
+
     /** Cell surface antigen count. */
     private final int carAntigens;
 
@@ -64,8 +70,8 @@ public class PatchCellTissue extends PatchCell {
     public PatchCellTissue(
             PatchCellContainer container, Location location, Parameters parameters, GrabBag links) {
         super(container, location, parameters, links);
-        carAntigens = parameters.getInt("CAR_ANTIGENS");
-        selfTargets = parameters.getInt("SELF_TARGETS");
+        carAntigens = parameters.getInt(CAR_ANTIGENS);
+        selfTargets = parameters.getInt(SELF_TARGETS);
     }
 
     @Override
@@ -86,8 +92,7 @@ public class PatchCellTissue extends PatchCell {
     }
 
     @Override
-    public void step(SimState simstate) {
-        Simulation sim = (Simulation) simstate;
+    public void stepProcesses(MersenneTwisterFast random, Simulation sim) {
         // Increase age of cell.
         age++;
 
@@ -96,13 +101,13 @@ public class PatchCellTissue extends PatchCell {
         }
 
         // Step metabolism process.
-        processes.get(Domain.METABOLISM).step(simstate.random, sim);
+        processes.get(Domain.METABOLISM).step(random, sim);
 
         // Check energy status. If cell has less energy than threshold, it will
         // necrose. If overall energy is negative, then cell enters quiescence.
         if (state != State.APOPTOTIC && energy < 0) {
             if (energy < energyThreshold) {
-                if (simstate.random.nextDouble() > necroticFraction) {
+                if (random.nextDouble() > necroticFraction) {
                     setState(State.APOPTOTIC);
                 } else {
                     setState(State.NECROTIC);
@@ -113,14 +118,14 @@ public class PatchCellTissue extends PatchCell {
         }
 
         // Step signaling network process.
-        processes.get(Domain.SIGNALING).step(simstate.random, sim);
+        processes.get(Domain.SIGNALING).step(random, sim);
 
         // Change state from undefined.
         if (state == State.UNDEFINED) {
             if (flag == Flag.MIGRATORY) {
                 setState(State.MIGRATORY);
             } else if (divisions == divisionPotential) {
-                if (simstate.random.nextDouble() > senescentFraction) {
+                if (random.nextDouble() > senescentFraction) {
                     setState(State.APOPTOTIC);
                 } else {
                     setState(State.SENESCENT);
@@ -129,15 +134,18 @@ public class PatchCellTissue extends PatchCell {
                 setState(State.PROLIFERATIVE);
             }
         }
+    }
 
+    @Override
+    public void stepModules(MersenneTwisterFast random, Simulation sim) {
         // Step the module for the cell state.
         if (module != null) {
-            module.step(simstate.random, sim);
+            module.step(random, sim);
         }
 
         // Step remaining optional processes.
         if (processes.get(Domain.SENSING) != null) {
-            processes.get(Domain.SENSING).step(simstate.random, sim);
+            processes.get(Domain.SENSING).step(random, sim);
         }
     }
 
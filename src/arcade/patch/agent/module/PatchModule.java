@@ -7,7 +7,8 @@ import arcade.patch.env.location.PatchLocation;
 /**
  * Abstract implementation of {@link Module} for {@link PatchCell} agents.
  *
- * <p>Each module represents the behaviors of a cell in a given state.
+ * <p>Each module represents the behaviors of a cell in a given state. Modules are created once for
+ * each cell and state, and are reset each time the cell returns to that state.
  */
 public abstract class PatchModule implements Module {
     /** The {@link PatchCell} the module is associated with. */
@@ -25,4 +26,7 @@ public abstract class PatchModule implements Module {
         this.cell = cell;
         this.location = (PatchLocation) cell.getLocation();
     }
+
+    /** Resets the module when the associated cell enters the module state again. */
+    public void reset() {}
 }
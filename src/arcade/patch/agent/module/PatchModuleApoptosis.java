@@ -44,6 +44,11 @@ public class PatchModuleApoptosis extends PatchModule {
         deathDuration = parameters.getInt("apoptosis/DEATH_DURATION");
     }
 
+    @Override
+    public void reset() {
+        ticker = 0;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         if (ticker > deathDuration) {
@@ -53,6 +53,13 @@ public class PatchModuleCytotoxicity extends PatchModule {
         this.ticker = 0;
     }
 
+    @Override
+    public void reset() {
+        this.target = (PatchCellTissue) ((PatchCellCART) cell).getBoundTarget();
+        this.granzyme = inflammation.getInternal("granzyme");
+        this.ticker = 0;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         if (cell.isStopped()) {
@@ -45,6 +45,11 @@ public class PatchModuleMigration extends PatchModule {
         movementDuration = Math.round(location.getCoordinateSize() / migrationRate);
     }
 
+    @Override
+    public void reset() {
+        ticker = 0;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         if (ticker > movementDuration) {
@@ -1,6 +1,5 @@
 package arcade.patch.agent.module;
 
-import sim.util.Bag;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellContainer;
 import arcade.core.agent.process.ProcessDomain;
@@ -64,10 +63,16 @@ public class PatchModuleProliferation extends PatchModule {
         synthesisDuration = parameters.getInt("proliferation/SYNTHESIS_DURATION");
     }
 
+    @Override
+    public void reset() {
+        ticker = 0;
+        duration = 0;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
-        Bag bag = ((PatchGrid) sim.getGrid()).getObjectsAtLocation(location);
-        double totalVolume = PatchCell.calculateTotalVolume(bag);
+        PatchGrid grid = (PatchGrid) sim.getGrid();
+        double totalVolume = grid.getTotalVolume(location);
         double currentHeight = totalVolume / location.getArea();
         duration++;
         // Check if cell is no longer able to proliferate due to (i) other
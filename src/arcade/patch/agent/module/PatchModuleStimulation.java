@@ -38,6 +38,12 @@ public class PatchModuleStimulation extends PatchModule {
         this.ticker = 0;
     }
 
+    @Override
+    public void reset() {
+        this.target = (PatchCellTissue) ((PatchCellCART) cell).getBoundTarget();
+        this.ticker = 0;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         if (cell.isStopped()) {
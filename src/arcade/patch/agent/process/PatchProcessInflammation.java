@@ -3,27 +3,33 @@ package arcade.patch.agent.process;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import ec.util.MersenneTwisterFast;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.env.location.Location;
 import arcade.core.sim.Simulation;
 import arcade.core.util.Parameters;
 import arcade.core.util.Solver;
-import arcade.core.util.Solver.Equations;
+import arcade.core.util.Solver.InPlaceEquations;
 import arcade.patch.agent.cell.PatchCell;
 import arcade.patch.agent.cell.PatchCellCART;
-import arcade.patch.env.lattice.PatchLattice;
 
 /**
  * Implementation of {@link Process} for inflammation type modules in which IL-2 is taken up and
  * cytotoxic/stimulatory functions are modified.
  *
- * <p>The {@code Inflammation} module represents an 8-component signaling network.
+ * <p>The {@code Inflammation} module represents an 8-component signaling network. If {@code SOLVER}
+ * is set to {@code adaptive}, the network is solved using the adaptive Rosenbrock solver instead of
+ * classic Runge-Kutta with a fixed step size.
  */
 public abstract class PatchProcessInflammation extends PatchProcess {
 
     /** Number of components in signaling network. */
     protected static final int NUM_COMPONENTS = 8;
 
+    /** Index of IL-2 lattice. */
+    protected static final int IL2_LATTICE = LatticeRegistry.getIndex("IL-2");
+
     /** ID for IL-2, bound total. */
     protected static final int IL2_INT_TOTAL = 0;
 
@@ -48,6 +54,18 @@ public abstract class PatchProcessInflammation extends PatchProcess {
     /** ID for granzyme, internal. */
     protected static final int GRANZYME = 7;
 
+    /** Map of internal names to component indices. */
+    private static final Map<String, Integer> INDICES =
+            Map.of(
+                    "IL-2", IL2_INT_TOTAL,
+                    "external_IL-2", IL2_EXT,
+                    "IL2R_total", IL2R_TOTAL,
+                    "IL2R_two_chain_complex", IL2RBG,
+                    "IL2R_three_chain_complex", IL2RBGA,
+                    "IL-2_IL2R_two_chain_complex", IL2_IL2RBG,
+                    "IL-2_IL2R_three_chain_complex", IL2_IL2RBGA,
+                    "granzyme", GRANZYME);
+
     /** Number of steps per second to take in ODE. */
     private static final double STEP_DIVIDER = 3.0;
 
@@ -55,13 +73,13 @@ public abstract class PatchProcessInflammation extends PatchProcess {
      * Rate of conversion of IL-2R two-chain complex to IL-2R three chain complex [/sec/step
      * divider].
      */
-    private static final double K_CONVERT = 1e-3 / STEP_DIVIDER;
+    static final double K_CONVERT = 1e-3 / STEP_DIVIDER;
 
     /**
      * Rate of recycling of receptor complexes back to IL-2 receptor two chain complex [/sec/step
      * divider].
      */
-    private static final double K_REC = 1e-5 / STEP_DIVIDER;
+    static final double K_REC = 1e-5 / STEP_DIVIDER;
 
     /** Rate of IL-2 binding to two-chain IL-2 receptor complex [um^3/molecules IL-2/min]. */
     private double iL2BindingMin = 3.8193E-2;
@@ -117,6 +135,9 @@ public abstract class PatchProcessInflammation extends PatchProcess {
     /** Total 2-complex receptors. */
     protected final double iL2Receptors;
 
+    /** {@code true} if the network is solved with an adaptive solver, {@code false} otherwise. */
+    final boolean adaptive;
+
     /**
      * Creates an {@code Inflammation} module for the given {@link PatchCellCART}.
      *
@@ -138,6 +159,7 @@ public abstract class PatchProcessInflammation extends PatchProcess {
         Parameters parameters = cell.getParameters();
         this.shellThickness = parameters.getDouble("inflammation/SHELL_THICKNESS");
         this.iL2Receptors = parameters.getDouble("inflammation/IL2_RECEPTORS");
+        this.adaptive = "adaptive".equalsIgnoreCase(parameters.getString("inflammation/SOLVER"));
         extIL2 = 0;
 
         amts = new double[NUM_COMPONENTS];
@@ -162,69 +184,120 @@ public abstract class PatchProcessInflammation extends PatchProcess {
     }
 
     /** System of ODEs for network. */
-    Equations equations =
-            (Equations & Serializable)
-                    (t, y) -> {
-                        double[] dydt = new double[NUM_COMPONENTS];
-
-                        double kOn2 = iL2BindingMin / loc.getVolume() / 60 / STEP_DIVIDER;
-                        double kOn3 = iL2BindingMax / loc.getVolume() / 60 / STEP_DIVIDER;
-                        double kOff = iL2BindingOffRate / 60 / STEP_DIVIDER;
-
-                        dydt[IL2_EXT] =
-                                kOff * y[IL2_IL2RBG]
-                                        + kOff * y[IL2_IL2RBGA]
-                                        - kOn2 * y[IL2RBG] * y[IL2_EXT]
-                                        - kOn3 * y[IL2RBGA] * y[IL2_EXT];
-                        dydt[IL2RBG] =
-                                kOff * y[IL2_IL2RBG]
-                                        - kOn2 * y[IL2RBG] * y[IL2_EXT]
-                                        - K_CONVERT * (y[IL2_IL2RBG] + y[IL2_IL2RBGA]) * y[IL2RBG]
-                                        + K_REC * (y[IL2_IL2RBG] + y[IL2_IL2RBGA] + y[IL2RBGA]);
-                        dydt[IL2RBGA] =
-                                kOff * y[IL2_IL2RBGA]
-                                        - kOn3 * y[IL2RBGA] * y[IL2_EXT]
-                                        + K_CONVERT * (y[IL2_IL2RBG] + y[IL2_IL2RBGA]) * y[IL2RBG]
-                                        - K_REC * y[IL2RBGA];
-                        dydt[IL2_IL2RBG] =
-                                kOn2 * y[IL2RBG] * y[IL2_EXT]
-                                        - kOff * y[IL2_IL2RBG]
-                                        - K_CONVERT
-                                                * (y[IL2_IL2RBG] + y[IL2_IL2RBGA])
-                                                * y[IL2_IL2RBG]
-                                        - K_REC * y[IL2_IL2RBG];
-                        dydt[IL2_IL2RBGA] =
-                                kOn3 * y[IL2RBGA] * y[IL2_EXT]
-                                        - kOff * y[IL2_IL2RBGA]
-                                        + K_CONVERT
-                                                * (y[IL2_IL2RBG] + y[IL2_IL2RBGA])
-                                                * y[IL2_IL2RBG]
-                                        - K_REC * y[IL2_IL2RBGA];
-                        dydt[IL2_INT_TOTAL] =
-                                kOn2 * y[IL2RBG] * y[IL2_EXT]
-                                        - kOff * y[IL2_IL2RBG]
-                                        - K_CONVERT
-                                                * (y[IL2_IL2RBG] + y[IL2_IL2RBGA])
-                                                * y[IL2_IL2RBG]
-                                        - K_REC * y[IL2_IL2RBG]
-                                        + kOn3 * y[IL2RBGA] * y[IL2_EXT]
-                                        - kOff * y[IL2_IL2RBGA]
-                                        + K_CONVERT
-                                                * (y[IL2_IL2RBG] + y[IL2_IL2RBGA])
-                                                * y[IL2_IL2RBG]
-                                        - K_REC * y[IL2_IL2RBGA];
-                        dydt[IL2R_TOTAL] =
-                                kOff * y[IL2_IL2RBG]
-                                        - kOn2 * y[IL2RBG] * y[IL2_EXT]
-                                        - K_CONVERT * (y[IL2_IL2RBG] + y[IL2_IL2RBGA]) * y[IL2RBG]
-                                        + K_REC * (y[IL2_IL2RBG] + y[IL2_IL2RBGA] + y[IL2RBGA])
-                                        + kOff * y[IL2_IL2RBGA]
-                                        - kOn3 * y[IL2RBGA] * y[IL2_EXT]
-                                        + K_CONVERT * (y[IL2_IL2RBG] + y[IL2_IL2RBGA]) * y[IL2RBG]
-                                        - K_REC * y[IL2RBGA];
-
-                        return dydt;
-                    };
+    InPlaceEquations equations =
+            (InPlaceEquations & Serializable)
+                    (t, y, dydt) ->
+                            derivatives(
+                                    y,
+                                    dydt,
+                                    0,
+                                    1,
+                                    getTwoChainBindingRate(),
+                                    getThreeChainBindingRate(),
+                                    getUnbindingRate());
+
+    /**
+     * Calculates derivatives of the network for one system of a batch.
+     *
+     * <p>The amount of component {@code i} is stored at index {@code offset + i * stride} in both
+     * arrays, so a single network is calculated with an offset of zero and a stride of one.
+     *
+     * @param y the array of amounts
+     * @param dydt the array of derivatives to update
+     * @param offset the index of the system in the batch
+     * @param stride the distance between components of the system
+     * @param kOn2 the rate of IL-2 binding to two-chain receptor complex
+     * @param kOn3 the rate of IL-2 binding to three-chain receptor complex
+     * @param kOff the rate of unbinding of IL-2 from receptor complexes
+     */
+    static void derivatives(
+            double[] y,
+            double[] dydt,
+            int offset,
+            int stride,
+            double kOn2,
+            double kOn3,
+            double kOff) {
+        int ext = offset + IL2_EXT * stride;
+        int rbg = offset + IL2RBG * stride;
+        int rbga = offset + IL2RBGA * stride;
+        int il2rbg = offset + IL2_IL2RBG * stride;
+        int il2rbga = offset + IL2_IL2RBGA * stride;
+
+        double yExt = y[ext];
+        double yRbg = y[rbg];
+        double yRbga = y[rbga];
+        double yIl2Rbg = y[il2rbg];
+        double yIl2Rbga = y[il2rbga];
+
+        dydt[ext] = kOff * yIl2Rbg + kOff * yIl2Rbga - kOn2 * yRbg * yExt - kOn3 * yRbga * yExt;
+        dydt[rbg] =
+                kOff * yIl2Rbg
+                        - kOn2 * yRbg * yExt
+                        - K_CONVERT * (yIl2Rbg + yIl2Rbga) * yRbg
+                        + K_REC * (yIl2Rbg + yIl2Rbga + yRbga);
+        dydt[rbga] =
+                kOff * yIl2Rbga
+                        - kOn3 * yRbga * yExt
+                        + K_CONVERT * (yIl2Rbg + yIl2Rbga) * yRbg
+                        - K_REC * yRbga;
+        dydt[il2rbg] =
+                kOn2 * yRbg * yExt
+                        - kOff * yIl2Rbg
+                        - K_CONVERT * (yIl2Rbg + yIl2Rbga) * yIl2Rbg
+                        - K_REC * yIl2Rbg;
+        dydt[il2rbga] =
+                kOn3 * yRbga * yExt
+                        - kOff * yIl2Rbga
+                        + K_CONVERT * (yIl2Rbg + yIl2Rbga) * yIl2Rbg
+                        - K_REC * yIl2Rbga;
+        dydt[offset + IL2_INT_TOTAL * stride] =
+                kOn2 * yRbg * yExt
+                        - kOff * yIl2Rbg
+                        - K_CONVERT * (yIl2Rbg + yIl2Rbga) * yIl2Rbg
+                        - K_REC * yIl2Rbg
+                        + kOn3 * yRbga * yExt
+                        - kOff * yIl2Rbga
+                        + K_CONVERT * (yIl2Rbg + yIl2Rbga) * yIl2Rbg
+                        - K_REC * yIl2Rbga;
+        dydt[offset + IL2R_TOTAL * stride] =
+                kOff * yIl2Rbg
+                        - kOn2 * yRbg * yExt
+                        - K_CONVERT * (yIl2Rbg + yIl2Rbga) * yRbg
+                        + K_REC * (yIl2Rbg + yIl2Rbga + yRbga)
+                        + kOff * yIl2Rbga
+                        - kOn3 * yRbga * yExt
+                        + K_CONVERT * (yIl2Rbg + yIl2Rbga) * yRbg
+                        - K_REC * yRbga;
+        dydt[offset + GRANZYME * stride] = 0;
+    }
+
+    /**
+     * Gets the rate of IL-2 binding to two-chain IL-2 receptor complex.
+     *
+     * @return the binding rate [/molecules IL-2/step]
+     */
+    double getTwoChainBindingRate() {
+        return iL2BindingMin / loc.getVolume() / 60 / STEP_DIVIDER;
+    }
+
+    /**
+     * Gets the rate of IL-2 binding to three-chain IL-2 receptor complex.
+     *
+     * @return the binding rate [/molecules IL-2/step]
+     */
+    double getThreeChainBindingRate() {
+        return iL2BindingMax / loc.getVolume() / 60 / STEP_DIVIDER;
+    }
+
+    /**
+     * Gets the rate of unbinding of IL-2 from two- or three-chain IL-2 receptor complex.
+     *
+     * @return the unbinding rate [/step]
+     */
+    double getUnbindingRate() {
+        return iL2BindingOffRate / 60 / STEP_DIVIDER;
+    }
 
     /**
      * Gets the internal amounts of requested key.
@@ -233,7 +306,7 @@ public abstract class PatchProcessInflammation extends PatchProcess {
      * @return the internal cell amount of requested substance
      */
     public double getInternal(String key) {
-        return amts[names.indexOf(key)];
+        return amts[INDICES.get(key)];
     }
 
     /**
@@ -243,7 +316,7 @@ public abstract class PatchProcessInflammation extends PatchProcess {
      * @param val the amount of the requested substance
      */
     public void setInternal(String key, double val) {
-        amts[names.indexOf(key)] = val;
+        amts[INDICES.get(key)] = val;
     }
 
     /**
@@ -264,12 +337,36 @@ public abstract class PatchProcessInflammation extends PatchProcess {
      */
     private void updateExternal(Simulation sim) {
         // Convert to molecules.
-        PatchLattice il2 = (PatchLattice) sim.getLattice("IL-2");
-        extIL2 = il2.getAverageValue(loc) * loc.getVolume() / 1E12;
+        extIL2 = sim.getLattice(IL2_LATTICE).getAverageValue(loc) * loc.getVolume() / 1E12;
     }
 
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
+        prepare(sim);
+
+        if (adaptive) {
+            Solver.rosenbrock(equations, 0, amts, 60, STEP_SIZE);
+            finish(random, sim);
+            return;
+        }
+
+        // Defer integration to the batch started on this thread, if any.
+        PatchProcessInflammationBatch batch = PatchProcessInflammationBatch.getActive();
+        if (batch != null) {
+            batch.add(this);
+            return;
+        }
+
+        Solver.rungeKutta(equations, 0, amts, 60, STEP_SIZE);
+        finish(random, sim);
+    }
+
+    /**
+     * Prepares the network for integration.
+     *
+     * @param sim the simulation instance
+     */
+    void prepare(Simulation sim) {
         // Calculate shell volume 2 um outside of cell.
         double radCell = Math.cbrt((3.0 / 4.0) * (1.0 / Math.PI) * volume);
         double radShell = radCell + shellThickness;
@@ -290,9 +387,15 @@ public abstract class PatchProcessInflammation extends PatchProcess {
         // where that fraction is the relative volume fraction the cell occupies
         // in the location.
         amts[IL2_EXT] = extIL2 * fraction; // [molecules]
+    }
 
-        amts = Solver.rungeKutta(equations, 0, amts, 60, STEP_SIZE);
-
+    /**
+     * Finishes the step after the network is integrated.
+     *
+     * @param random the random number generator
+     * @param sim the simulation instance
+     */
+    void finish(MersenneTwisterFast random, Simulation sim) {
         stepProcess(random, sim);
 
         boundArray[iL2Ticker % boundArray.length] = amts[IL2_INT_TOTAL];
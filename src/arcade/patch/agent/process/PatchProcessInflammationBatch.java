@@ -0,0 +1,163 @@
+package arcade.patch.agent.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import ec.util.MersenneTwisterFast;
+import arcade.core.sim.Simulation;
+import arcade.core.util.BatchSolver;
+import arcade.core.util.BatchSolver.BatchEquations;
+import static arcade.patch.agent.process.PatchProcessInflammation.*;
+
+/**
+ * Batch of {@link PatchProcessInflammation} processes integrated together.
+ *
+ * <p>While a batch is started on a thread, stepping an inflammation process from that thread
+ * prepares the process and adds it to the batch instead of integrating the network for the single
+ * process. Calling {@link #step(MersenneTwisterFast, Simulation)} gathers the networks of all added
+ * processes into structure-of-arrays form, integrates them together with a {@link BatchSolver}, and
+ * finishes the step for each process in the order they were added.
+ *
+ * <p>Processes in the batch must not depend on each other between being added and the batch being
+ * stepped, so batches should be used with deferred lattice and grid updates. Batches are only
+ * started by {@link arcade.patch.agent.cell.PatchCellStepper} when cells are stepped in parallel;
+ * serially stepped cells update the lattice immediately and integrate each network on its own.
+ */
+public final class PatchProcessInflammationBatch implements BatchEquations {
+    /** Initial batch capacity. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Batch started for each thread. */
+    private static final ThreadLocal<PatchProcessInflammationBatch> ACTIVE = new ThreadLocal<>();
+
+    /** Processes added to the batch. */
+    private final ArrayList<PatchProcessInflammation> processes;
+
+    /** Solver for the batch. */
+    private final BatchSolver solver;
+
+    /** Amounts of each species for each process. */
+    private double[] amts;
+
+    /** Rate of IL-2 binding to two-chain receptor complex for each process. */
+    private double[] kOn2;
+
+    /** Rate of IL-2 binding to three-chain receptor complex for each process. */
+    private double[] kOn3;
+
+    /** Rate of unbinding of IL-2 from receptor complexes for each process. */
+    private double[] kOff;
+
+    /** Creates an empty {@code PatchProcessInflammationBatch}. */
+    public PatchProcessInflammationBatch() {
+        processes = new ArrayList<>(INITIAL_CAPACITY);
+        solver = new BatchSolver(NUM_COMPONENTS);
+        resize(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets the batch started on the current thread.
+     *
+     * @return the started batch, {@code null} if no batch is started
+     */
+    static PatchProcessInflammationBatch getActive() {
+        return ACTIVE.get();
+    }
+
+    /** Starts adding inflammation processes stepped from the current thread to this batch. */
+    public void start() {
+        ACTIVE.set(this);
+    }
+
+    /** Stops adding inflammation processes stepped from the current thread. */
+    public void finish() {
+        ACTIVE.remove();
+    }
+
+    /**
+     * Gets the number of processes in the batch.
+     *
+     * @return the number of processes
+     */
+    public int size() {
+        return processes.size();
+    }
+
+    /**
+     * Resizes arrays to the given capacity.
+     *
+     * @param capacity the new capacity
+     */
+    private void resize(int capacity) {
+        amts = new double[NUM_COMPONENTS * capacity];
+        kOn2 = (kOn2 == null ? new double[capacity] : Arrays.copyOf(kOn2, capacity));
+        kOn3 = (kOn3 == null ? new double[capacity] : Arrays.copyOf(kOn3, capacity));
+        kOff = (kOff == null ? new double[capacity] : Arrays.copyOf(kOff, capacity));
+    }
+
+    /**
+     * Adds a prepared process to the batch.
+     *
+     * @param process the inflammation process
+     */
+    void add(PatchProcessInflammation process) {
+        int index = processes.size();
+
+        if (index == kOn2.length) {
+            resize(2 * index);
+        }
+
+        kOn2[index] = process.getTwoChainBindingRate();
+        kOn3[index] = process.getThreeChainBindingRate();
+        kOff[index] = process.getUnbindingRate();
+        processes.add(process);
+    }
+
+    /**
+     * Integrates all processes in the batch and finishes their steps.
+     *
+     * <p>The batch is cleared afterward. Steps must be finished from a thread without a started
+     * batch.
+     *
+     * @param random the random number generator
+     * @param sim the simulation instance
+     */
+    public void step(MersenneTwisterFast random, Simulation sim) {
+        int count = processes.size();
+        int stride = kOn2.length;
+
+        if (count == 0) {
+            return;
+        }
+
+        // Gather amounts into structure-of-arrays form.
+        for (int j = 0; j < count; j++) {
+            double[] y = processes.get(j).amts;
+            for (int i = 0; i < NUM_COMPONENTS; i++) {
+                amts[i * stride + j] = y[i];
+            }
+        }
+
+        solver.rungeKutta(this, 0, amts, stride, count, 60, STEP_SIZE);
+
+        // Scatter amounts back to each process.
+        for (int j = 0; j < count; j++) {
+            double[] y = processes.get(j).amts;
+            for (int i = 0; i < NUM_COMPONENTS; i++) {
+                y[i] = amts[i * stride + j];
+            }
+        }
+
+        for (PatchProcessInflammation process : processes) {
+            process.finish(random, sim);
+        }
+
+        processes.clear();
+    }
+
+    @Override
+    public void dydt(double t, double[] y, double[] dydt, int stride, int count) {
+        for (int j = 0; j < count; j++) {
+            derivatives(y, dydt, j, stride, kOn2[j], kOn3[j], kOff[j]);
+        }
+    }
+}
@@ -70,7 +70,7 @@ public class PatchProcessInflammationCD4 extends PatchProcessInflammation {
                         * 1E12
                         / loc.getVolume());
 
-        sim.getLattice("IL-2").setValue(loc, iL2Env);
+        sim.getLattice(IL2_LATTICE).setValue(loc, iL2Env);
     }
 
     @Override
@@ -58,7 +58,7 @@ public class PatchProcessInflammationCD8 extends PatchProcessInflammation {
         // Update environment.
         // Convert units back from molecules to molecules/cm^3.
         double iL2Env = ((extIL2 - (extIL2 * fraction - amts[IL2_EXT])) * 1E12 / loc.getVolume());
-        sim.getLattice("IL-2").setValue(loc, iL2Env);
+        sim.getLattice(IL2_LATTICE).setValue(loc, iL2Env);
     }
 
     @Override
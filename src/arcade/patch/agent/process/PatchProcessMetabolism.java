@@ -1,8 +1,8 @@
 package arcade.patch.agent.process;
 
 import java.util.List;
-import sim.util.Bag;
 import ec.util.MersenneTwisterFast;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.sim.Simulation;
 import arcade.core.util.Parameters;
 import arcade.patch.agent.cell.PatchCell;
@@ -46,6 +46,12 @@ public abstract class PatchProcessMetabolism extends PatchProcess {
     /** Stoichiometric ratio for pyruvate:glucose [mol pyruvate/mol glucose]. */
     static final int PYRU_PER_GLUC = 2;
 
+    /** Index of glucose lattice. */
+    static final int GLUCOSE_LATTICE = LatticeRegistry.getIndex("GLUCOSE");
+
+    /** Index of oxygen lattice. */
+    static final int OXYGEN_LATTICE = LatticeRegistry.getIndex("OXYGEN");
+
     /** Basal energy requirement [fmol ATP/um<sup>3</sup> cell/min]. */
     private final double basalEnergy;
 
@@ -160,9 +166,9 @@ public abstract class PatchProcessMetabolism extends PatchProcess {
      */
     private void updateExternal(Simulation sim) {
         extAmts[GLUCOSE] =
-                sim.getLattice("GLUCOSE").getAverageValue(location) * location.getVolume();
+                sim.getLattice(GLUCOSE_LATTICE).getAverageValue(location) * location.getVolume();
         extAmts[OXYGEN] =
-                sim.getLattice("OXYGEN").getAverageValue(location)
+                sim.getLattice(OXYGEN_LATTICE).getAverageValue(location)
                         * location.getVolume()
                         * oxygenSolubilityTissue;
     }
@@ -170,8 +176,8 @@ public abstract class PatchProcessMetabolism extends PatchProcess {
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         // Calculate fraction of volume occupied by cell.
-        Bag bag = ((PatchGrid) sim.getGrid()).getObjectsAtLocation(location);
-        double totalVolume = PatchCell.calculateTotalVolume(bag);
+        PatchGrid grid = (PatchGrid) sim.getGrid();
+        double totalVolume = grid.getTotalVolume(location);
         f = volume / totalVolume;
 
         updateExternal(sim);
@@ -192,8 +198,10 @@ public abstract class PatchProcessMetabolism extends PatchProcess {
         stepProcess(random, sim);
 
         // Update environment.
-        sim.getLattice("GLUCOSE").updateValue(location, 1.0 - upAmts[GLUCOSE] / extAmts[GLUCOSE]);
-        sim.getLattice("OXYGEN").updateValue(location, 1.0 - upAmts[OXYGEN] / extAmts[OXYGEN]);
+        sim.getLattice(GLUCOSE_LATTICE)
+                .updateValue(location, 1.0 - upAmts[GLUCOSE] / extAmts[GLUCOSE]);
+        sim.getLattice(OXYGEN_LATTICE)
+                .updateValue(location, 1.0 - upAmts[OXYGEN] / extAmts[OXYGEN]);
 
         // Update cell agent.
         cell.setVolume(volume);
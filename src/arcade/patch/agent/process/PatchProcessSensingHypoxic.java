@@ -2,6 +2,8 @@ package arcade.patch.agent.process;
 
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.process.Process;
+import arcade.core.env.lattice.Lattice;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.sim.Simulation;
 import arcade.patch.agent.cell.PatchCell;
 
@@ -13,6 +15,8 @@ import arcade.patch.agent.cell.PatchCell;
  * added to the environment at the rate specified by the input parameter VEGF_SECRETION_RATE.
  */
 public class PatchProcessSensingHypoxic extends PatchProcessSensing {
+    /** Index of VEGF lattice. */
+    private static final int VEGF_LATTICE = LatticeRegistry.getIndex("VEGF");
 
     /** Rate of secretion of VEGF [VEGF/min]. */
     private final double secretionRate;
@@ -39,9 +43,10 @@ public class PatchProcessSensingHypoxic extends PatchProcessSensing {
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         if (cell.getEnergy() < 0) {
-            double currVEGF = sim.getLattice("VEGF").getAverageValue(location);
+            Lattice vegf = sim.getLattice(VEGF_LATTICE);
+            double currVEGF = vegf.getAverageValue(location);
             double newVEGF = currVEGF + secretionRate;
-            sim.getLattice("VEGF").setValue(location, newVEGF);
+            vegf.setValue(location, newVEGF);
         }
     }
 
@@ -1,6 +1,10 @@
 package arcade.patch.agent.process;
 
 import java.util.List;
+import arcade.core.env.lattice.LatticeRegistry;
+import arcade.core.util.Parameters;
+import arcade.core.util.Solver;
+import arcade.core.util.Solver.InPlaceEquations;
 import arcade.patch.agent.cell.PatchCell;
 
 /**
@@ -8,6 +12,10 @@ import arcade.patch.agent.cell.PatchCell;
  *
  * <p>The {@code PatchProcessSignaling} process can be used for networks comprising a system of
  * ODEs.
+ *
+ * <p>If {@code SOLVER} is set to {@code adaptive}, networks are solved using the adaptive
+ * Rosenbrock solver, which is stable for stiff networks at much larger steps. Otherwise, networks
+ * are solved using forward Euler with a fixed step size.
  */
 public abstract class PatchProcessSignaling extends PatchProcess {
     /** Molecules in nM. */
@@ -19,9 +27,15 @@ public abstract class PatchProcessSignaling extends PatchProcess {
     /** Step size for process [sec]. */
     static final double STEP_SIZE = 1.0;
 
+    /** Index of TGFa lattice. */
+    static final int TGFA_LATTICE = LatticeRegistry.getIndex("TGFA");
+
     /** List of internal names. */
     List<String> names;
 
+    /** {@code true} if networks are solved with an adaptive solver, {@code false} otherwise. */
+    final boolean adaptive;
+
     /**
      * Creates a signaling {@link PatchProcess} for the given cell.
      *
@@ -29,6 +43,22 @@ public abstract class PatchProcessSignaling extends PatchProcess {
      */
     PatchProcessSignaling(PatchCell cell) {
         super(cell);
+        Parameters parameters = cell.getParameters();
+        adaptive = "adaptive".equalsIgnoreCase(parameters.getString("signaling/SOLVER"));
+    }
+
+    /**
+     * Solves the network for one tick.
+     *
+     * @param equations the system of equations
+     * @param concs the array of concentrations, replaced with final concentrations
+     */
+    void solve(InPlaceEquations equations, double[] concs) {
+        if (adaptive) {
+            Solver.rosenbrock(equations, 0, concs, 60, STEP_SIZE);
+        } else {
+            Solver.euler(equations, 0, concs, 60, STEP_SIZE);
+        }
     }
 
     /**
@@ -5,8 +5,7 @@ import ec.util.MersenneTwisterFast;
 import arcade.core.agent.process.Process;
 import arcade.core.sim.Simulation;
 import arcade.core.util.Parameters;
-import arcade.core.util.Solver;
-import arcade.core.util.Solver.Equations;
+import arcade.core.util.Solver.InPlaceEquations;
 import arcade.patch.agent.cell.PatchCell;
 import static arcade.patch.util.PatchEnums.Domain;
 import static arcade.patch.util.PatchEnums.Flag;
@@ -236,8 +235,8 @@ public class PatchProcessSignalingComplex extends PatchProcessSignaling {
      *   <li>wC = increase in TGFa-EGFR dephosphorylation by active PLCg
      * </ul>
      */
-    Equations equations =
-            (t, y) -> {
+    InPlaceEquations equations =
+            (t, y, dydt) -> {
                 // Calculate weighting factors.
                 double wG = 1 + y[G_INT] / (WG + y[G_INT]);
                 double wE = 1 - y[TE_MEM_P] / (WE + y[TE_MEM_P]);
@@ -245,8 +244,6 @@ public class PatchProcessSignalingComplex extends PatchProcessSignaling {
                 double wP = 1 + y[TE_MEM_P] / (WP + y[TE_MEM_P]);
                 double wC = 1 + y[P_ACTIVE] / (WC + y[P_ACTIVE]);
 
-                double[] dydt = new double[NUM_COMPONENTS];
-
                 dydt[G_INT] = 0;
                 dydt[T_EXT] =
                         K_1 * y[TE_MEM]
@@ -290,8 +287,6 @@ public class PatchProcessSignalingComplex extends PatchProcessSignaling {
                 dydt[P_ACTIVE] = K12 * (PLCG - y[P_ACTIVE]) * wP - K13 * y[P_ACTIVE];
                 dydt[POOL] =
                         -K16 * y[POOL] * wE - K17 * y[POOL] * wT + K18 * y[E_RNA] + K19 * y[T_RNA];
-
-                return dydt;
             };
 
     @Override
@@ -302,11 +297,11 @@ public class PatchProcessSignalingComplex extends PatchProcessSignaling {
 
         // Get concentration of external TGFa and internal glucose in nM.
         concs[G_INT] = metabolism.intAmts[0] / cell.getVolume() * 1E9;
-        concs[T_EXT] = sim.getLattice("TGFA").getAverageValue(location) / TGFA_MW;
+        concs[T_EXT] = sim.getLattice(TGFA_LATTICE).getAverageValue(location) / TGFA_MW;
 
         // Solve system of equations.
         double pre = concs[P_ACTIVE];
-        concs = Solver.euler(equations, 0, concs, 60, STEP_SIZE);
+        solve(equations, concs);
         double post = concs[P_ACTIVE];
 
         // Calculate fold change and set migratory or proliferative flag.
@@ -316,7 +311,7 @@ public class PatchProcessSignalingComplex extends PatchProcessSignaling {
         previous = current;
 
         // Update environment.
-        sim.getLattice("TGFA").setValue(location, concs[T_EXT] * TGFA_MW);
+        sim.getLattice(TGFA_LATTICE).setValue(location, concs[T_EXT] * TGFA_MW);
     }
 
     @Override
@@ -5,8 +5,7 @@ import ec.util.MersenneTwisterFast;
 import arcade.core.agent.process.Process;
 import arcade.core.sim.Simulation;
 import arcade.core.util.Parameters;
-import arcade.core.util.Solver;
-import arcade.core.util.Solver.Equations;
+import arcade.core.util.Solver.InPlaceEquations;
 import arcade.patch.agent.cell.PatchCell;
 import static arcade.patch.util.PatchEnums.Domain;
 import static arcade.patch.util.PatchEnums.Flag;
@@ -163,14 +162,12 @@ public class PatchProcessSignalingMedium extends PatchProcessSignaling {
      *   <li>wC = increase in TGFa-EGFR dephosphorylation by active PLCg
      * </ul>
      */
-    Equations equations =
-            (t, y) -> {
+    InPlaceEquations equations =
+            (t, y, dydt) -> {
                 double wG = 1 + y[G_INT] / (WG + y[G_INT]);
                 double wP = 1 + y[TE_MEM_P] / (WP + y[TE_MEM_P]);
                 double wC = 1 + y[P_ACTIVE] / (WC + y[P_ACTIVE]);
 
-                double[] dydt = new double[NUM_COMPONENTS];
-
                 dydt[G_INT] = 0;
                 dydt[T_EXT] = K_1 * y[TE_MEM] - K1 * y[T_EXT] * y[E_MEM] - K7 * y[T_EXT] + K11;
                 dydt[E_MEM] = K_1 * y[TE_MEM] - K1 * y[T_EXT] * y[E_MEM] - K6 * y[E_MEM] + K10;
@@ -184,8 +181,6 @@ public class PatchProcessSignalingMedium extends PatchProcessSignaling {
                 dydt[TE_CYTO] = K3 * y[TE_MEM] + K4 * y[TE_MEM_P] - K5 * y[TE_CYTO];
                 dydt[P_INACTIVE] = K9 * y[P_ACTIVE] - K8 * (PLCG - y[P_ACTIVE]) * wP;
                 dydt[P_ACTIVE] = K8 * (PLCG - y[P_ACTIVE]) * wP - K9 * y[P_ACTIVE];
-
-                return dydt;
             };
 
     @Override
@@ -196,11 +191,11 @@ public class PatchProcessSignalingMedium extends PatchProcessSignaling {
 
         // Get concentration of external TGFa and internal glucose in nM.
         concs[G_INT] = metabolism.intAmts[0] / cell.getVolume() * 1E9;
-        concs[T_EXT] = sim.getLattice("TGFA").getAverageValue(location) / TGFA_MW;
+        concs[T_EXT] = sim.getLattice(TGFA_LATTICE).getAverageValue(location) / TGFA_MW;
 
         // Solve system of equations.
         double pre = concs[P_ACTIVE];
-        concs = Solver.euler(equations, 0, concs, 60, STEP_SIZE);
+        solve(equations, concs);
         double post = concs[P_ACTIVE];
 
         // Calculate fold change and set migratory or proliferative flag.
@@ -210,7 +205,7 @@ public class PatchProcessSignalingMedium extends PatchProcessSignaling {
         previous = current;
 
         // Update environment.
-        sim.getLattice("TGFA").setValue(location, concs[T_EXT] * TGFA_MW);
+        sim.getLattice(TGFA_LATTICE).setValue(location, concs[T_EXT] * TGFA_MW);
     }
 
     @Override
@@ -5,8 +5,7 @@ import ec.util.MersenneTwisterFast;
 import arcade.core.agent.process.Process;
 import arcade.core.sim.Simulation;
 import arcade.core.util.Parameters;
-import arcade.core.util.Solver;
-import arcade.core.util.Solver.Equations;
+import arcade.core.util.Solver.InPlaceEquations;
 import arcade.patch.agent.cell.PatchCell;
 import static arcade.patch.util.PatchEnums.Domain;
 import static arcade.patch.util.PatchEnums.Flag;
@@ -125,21 +124,17 @@ public class PatchProcessSignalingSimple extends PatchProcessSignaling {
      *   <li>wC = decrease in TGFa-EGFR by active PLCg
      * </ul>
      */
-    Equations equations =
-            (t, y) -> {
+    InPlaceEquations equations =
+            (t, y, dydt) -> {
                 double wG = 1 + y[G_INT] / (WG + y[G_INT]);
                 double wP = 1 + y[TE_CYTO] / (WP + y[TE_CYTO]);
                 double wC = 1 - y[P_ACTIVE] / (WC + y[P_ACTIVE]);
 
-                double[] dydt = new double[NUM_COMPONENTS];
-
                 dydt[G_INT] = 0;
                 dydt[T_EXT] = K6 - K1 * y[T_EXT] * wG * wC - K3 * y[T_EXT];
                 dydt[TE_CYTO] = K1 * y[T_EXT] * wG * wC - K2 * y[TE_CYTO];
                 dydt[P_INACTIVE] = K5 * y[P_ACTIVE] - K4 * (PLCG - y[P_ACTIVE]) * wP;
                 dydt[P_ACTIVE] = K4 * (PLCG - y[P_ACTIVE]) * wP - K5 * y[P_ACTIVE];
-
-                return dydt;
             };
 
     @Override
@@ -150,11 +145,11 @@ public class PatchProcessSignalingSimple extends PatchProcessSignaling {
 
         // Get concentration of external TGFa and internal glucose in nM.
         concs[G_INT] = metabolism.intAmts[0] / cell.getVolume() * 1E9;
-        concs[T_EXT] = sim.getLattice("TGFA").getAverageValue(location) / TGFA_MW;
+        concs[T_EXT] = sim.getLattice(TGFA_LATTICE).getAverageValue(location) / TGFA_MW;
 
         // Solve system of equations.
         double pre = concs[P_ACTIVE];
-        concs = Solver.euler(equations, 0, concs, 60, STEP_SIZE);
+        solve(equations, concs);
         double post = concs[P_ACTIVE];
 
         // Calculate fold change and set migratory or proliferative flag.
@@ -164,7 +159,7 @@ public class PatchProcessSignalingSimple extends PatchProcessSignaling {
         previous = current;
 
         // Update environment.
-        sim.getLattice("TGFA").setValue(location, concs[T_EXT] * TGFA_MW);
+        sim.getLattice(TGFA_LATTICE).setValue(location, concs[T_EXT] * TGFA_MW);
     }
 
     @Override
@@ -88,6 +88,7 @@ public class PatchComponentDegrade implements Component {
     public void step(SimState state) {
         Simulation sim = (Simulation) state;
         PatchGrid grid = (PatchGrid) sim.getGrid();
+        ArrayList<SiteEdge> changed = new ArrayList<>();
         boolean removed = false;
 
         // Iterate through all edges and degrade if there are cancerous cells.
@@ -109,8 +110,12 @@ public class PatchComponentDegrade implements Component {
                 Cell cell = (Cell) cellObj;
 
                 if (cell instanceof PatchCellCancer) {
+                    double wall = edge.wall;
                     edge.wall -= degradationRate / 60.0;
                     edge.wall = Math.max(MINIMUM_WALL_THICKNESS, edge.wall);
+                    if (edge.wall != wall) {
+                        changed.add(edge);
+                    }
 
                     if (edge.wall <= MINIMUM_WALL_THICKNESS
                             && (edge.shear < shearThreshold || Double.isNaN(edge.shear))) {
@@ -126,11 +131,11 @@ public class PatchComponentDegrade implements Component {
         }
 
         // If any edges are removed, update the graph edges that are ignored.
-        // Otherwise, recalculate calculate stresses.
+        // Otherwise, recalculate stresses for edges with changed wall thickness.
         if (removed) {
-            PatchComponentSitesGraphUtilities.updateGraph(graph);
-        } else {
-            PatchComponentSitesGraphUtilities.calculateStresses(graph);
+            PatchComponentSitesGraphUtilities.updateGraph(graph, true);
+        } else if (!changed.isEmpty()) {
+            PatchComponentSitesGraphUtilities.updateStresses(changed);
         }
     }
 }
@@ -25,11 +25,12 @@ import static arcade.patch.util.PatchEnums.Ordering;
  * available given total simulation area. The molecule concentration is updated each step as the
  * molecule is consumed or otherwise removed from the environment. At the specified pulse interval
  * ({@code PULSE_INTERVAL}), a "pulse" of media is introduced, updating the total amount of molecule
- * available.
+ * available. Consumption is not calculated at pulse steps, since the pulse resets the amount of
+ * molecule regardless of consumption.
  */
 public class PatchComponentPulse implements Component {
     /** List of pulse layers. */
-    private final ArrayList<PulseLayer> layers;
+    final ArrayList<PulseLayer> layers;
 
     /** Height of the array (z direction). */
     private final int latticeHeight;
@@ -156,33 +157,45 @@ public class PatchComponentPulse implements Component {
         }
     }
 
+    /**
+     * Calculates the total amount of molecule consumed since the previous step.
+     *
+     * @param layer the pulse layer
+     * @return the total amount consumed
+     */
+    double calculateConsumption(PulseLayer layer) {
+        double delta = 0;
+
+        for (int k = 0; k < latticeHeight; k++) {
+            for (int i = 0; i < latticeLength; i++) {
+                double[] previous = layer.previous[k][i];
+                double[] current = layer.current[k][i];
+                for (int j = 0; j < latticeWidth; j++) {
+                    delta += (previous[j] - current[j]) * latticePatchVolume;
+                }
+            }
+        }
+
+        return delta;
+    }
+
     @Override
     public void step(SimState simstate) {
         double tick = simstate.schedule.getTime();
+        boolean isPulse = tick % pulseInterval == 0;
 
         for (PulseLayer layer : layers) {
-            double[][][] previous = layer.previous;
-            double[][][] current = layer.current;
-            double delta = 0;
-
-            // Get total consumption.
-            for (int k = 0; k < latticeHeight; k++) {
-                for (int i = 0; i < latticeLength; i++) {
-                    for (int j = 0; j < latticeWidth; j++) {
-                        delta += (previous[k][i][j] - current[k][i][j]) * latticePatchVolume;
-                    }
-                }
+            // Pulse returns concentration to initial value.
+            if (isPulse) {
+                layer.currentAmount = layer.initialConcentration * mediaVolume;
+                layer.siteLayer.concentration = layer.initialConcentration;
+                continue;
             }
 
             // Update available concentrations.
+            double delta = calculateConsumption(layer);
             layer.currentAmount = Math.max(0, layer.currentAmount - delta);
             layer.siteLayer.concentration = layer.currentAmount / mediaVolume;
-
-            // Pulse returns concentration to initial value.
-            if (tick % pulseInterval == 0) {
-                layer.currentAmount = layer.initialConcentration * mediaVolume;
-                layer.siteLayer.concentration = layer.initialConcentration;
-            }
         }
     }
 }
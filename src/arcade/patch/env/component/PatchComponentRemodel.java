@@ -1,5 +1,6 @@
 package arcade.patch.env.component;
 
+import java.util.ArrayList;
 import sim.engine.Schedule;
 import sim.engine.SimState;
 import sim.util.Bag;
@@ -115,6 +116,8 @@ public class PatchComponentRemodel implements Component {
         Simulation sim = (Simulation) state;
         double[][][] oxygen = sim.getLattice("OXYGEN").getField();
         calculateReferences();
+        boolean resized = false;
+        ArrayList<SiteEdge> changed = new ArrayList<>();
         boolean removed = false;
         double oxygenExternal;
         double oxygenInternal;
@@ -154,6 +157,8 @@ public class PatchComponentRemodel implements Component {
             double amNew = am + am * (sSigma - scaleTau * sTau) / sWall;
 
             // Update radius and wall thickness.
+            double radius = edge.radius;
+            double wall = edge.wall;
             edge.radius = rmNew - (amNew / rmNew) / 2;
             edge.wall = amNew / rmNew;
 
@@ -162,6 +167,12 @@ public class PatchComponentRemodel implements Component {
                 edge.wall = edge.radius * MAXIMUM_WALL_RADIUS_FRACTION;
             }
 
+            if (edge.radius != radius) {
+                resized = true;
+            } else if (edge.wall != wall) {
+                changed.add(edge);
+            }
+
             if (edge.radius < MINIMUM_CAPILLARY_RADIUS
                     || edge.wall < MINIMUM_WALL_THICKNESS
                     || Double.isNaN(edge.radius)) {
@@ -173,17 +184,15 @@ public class PatchComponentRemodel implements Component {
         }
 
         // If any edges are removed, update the graph edges that are ignored.
-        // Otherwise, recalculate pressure, flow, and stresses.
+        // Otherwise, recalculate pressure, flow, and stresses starting from
+        // current pressures if any radius changed, or recalculate area and
+        // stresses for edges with only changed wall thickness.
         if (removed) {
-            PatchComponentSitesGraphUtilities.updateGraph(graph);
-        } else {
-            PatchComponentSitesGraphUtilities.calculatePressures(graph);
-            boolean reversed = PatchComponentSitesGraphUtilities.reversePressures(graph);
-            if (reversed) {
-                PatchComponentSitesGraphUtilities.calculatePressures(graph);
-            }
-            PatchComponentSitesGraphUtilities.calculateFlows(graph);
-            PatchComponentSitesGraphUtilities.calculateStresses(graph);
+            PatchComponentSitesGraphUtilities.updateGraph(graph, true);
+        } else if (resized) {
+            PatchComponentSitesGraphUtilities.updateHemodynamics(graph, true);
+        } else if (!changed.isEmpty()) {
+            PatchComponentSitesGraphUtilities.updateWalls(changed);
         }
     }
 
@@ -95,6 +95,55 @@ public abstract class PatchComponentSites implements Component {
         Operation generator = lattice.getOperation(Category.GENERATOR);
         SiteLayer siteLayer = new SiteLayer(layer, (PatchOperationGenerator) generator);
         layers.add(siteLayer);
+
+        ((PatchOperationGenerator) generator).registerIndices(getSiteIndices());
+    }
+
+    /**
+     * Gets the (z, x, y) lattice indices of fixed sites.
+     *
+     * <p>Components with fixed sites only change the delta array at these indices, so generation
+     * can be restricted to the sites.
+     *
+     * @return the array of (z, x, y) indices, {@code null} if sites are not fixed
+     */
+    int[] getSiteIndices() {
+        return null;
+    }
+
+    /**
+     * Gets the (z, x, y) lattice indices of the given sites.
+     *
+     * <p>Indices are listed in the same order as iterating through the array.
+     *
+     * @param sites the array of sites
+     * @return the array of (z, x, y) indices
+     */
+    static int[] getSiteIndices(boolean[][][] sites) {
+        int count = 0;
+        for (boolean[][] layer : sites) {
+            for (boolean[] row : layer) {
+                for (boolean site : row) {
+                    count += (site ? 1 : 0);
+                }
+            }
+        }
+
+        int[] indices = new int[3 * count];
+        int n = 0;
+        for (int k = 0; k < sites.length; k++) {
+            for (int i = 0; i < sites[k].length; i++) {
+                for (int j = 0; j < sites[k][i].length; j++) {
+                    if (sites[k][i][j]) {
+                        indices[n++] = k;
+                        indices[n++] = i;
+                        indices[n++] = j;
+                    }
+                }
+            }
+        }
+
+        return indices;
     }
 
     /**
@@ -1,8 +1,11 @@
 package arcade.patch.env.component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import sim.util.Bag;
 import ec.util.MersenneTwisterFast;
 import arcade.core.env.location.Location;
@@ -11,6 +14,7 @@ import arcade.core.util.Graph;
 import arcade.core.util.Graph.Edge;
 import arcade.core.util.Graph.Node;
 import arcade.core.util.MiniBox;
+import arcade.core.util.Parallel;
 import arcade.core.util.Solver;
 import arcade.core.util.Solver.Function;
 import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeLevel;
@@ -46,6 +50,17 @@ import static arcade.patch.env.component.PatchComponentSitesGraphUtilities.*;
  * <p>The border {@code <BORDER>} can be {@code LEFT} (-x direction), {@code RIGHT} (+x direction),
  * {@code TOP} (-y direction), or {@code BOTTOM} (+y direction). The type {@code <TYPE>} can be
  * {@code A} / {@code a} for an artery or {@code V} / {@code v} for a vein.
+ *
+ * <p>If {@code GRAPH_CACHE} is set to a directory, generated graphs are saved to the directory and
+ * loaded instead of regenerated by later simulations with the same graph layout, lattice size, and
+ * random seed.
+ *
+ * <p>Transport between edges and the environment is stepped serially in shuffled edge order unless
+ * {@code TRANSPORT_STEPPING} is {@code parallel}. In parallel stepping, the shuffled edges are
+ * split into chunks of fixed size that are stepped concurrently on a shared {@link Parallel} thread
+ * pool, each accumulating changes into its own buffer. Edges only see changes from edges in the
+ * same chunk, and buffers are added to the lattice in chunk order, so results do not depend on the
+ * number of threads.
  */
 public abstract class PatchComponentSitesGraph extends PatchComponentSites {
     /** Tolerance for difference in internal and external concentrations. */
@@ -60,6 +75,9 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
     /** Maximum oxygen partial pressure [mmHg]. */
     private static final double MAX_OXYGEN_PARTIAL_PRESSURE = 100;
 
+    /** Number of edges in each chunk for parallel transport. */
+    static final int TRANSPORT_CHUNK_SIZE = 256;
+
     /** Graph layout description. */
     private final String graphLayout;
 
@@ -72,6 +90,21 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
     /** Volume of individual lattice patch [um<sup>3</sup>]. */
     private final double latticePatchVolume;
 
+    /** {@code true} if edge transport is stepped in parallel, {@code false} otherwise. */
+    private final boolean isParallel;
+
+    /** Number of threads for parallel edge transport. */
+    private final int threads;
+
+    /** Transport buffers for each chunk of edges. */
+    private final ArrayList<TransportBuffer> buffers;
+
+    /** Array of changes in concentration values for each thread. */
+    private final ThreadLocal<double[][][]> scratch;
+
+    /** Cache of generated graphs, {@code null} if graphs are not cached. */
+    private final PatchComponentSitesGraphCache graphCache;
+
     /** Location factory instance for the simulation. */
     final PatchComponentSitesGraphFactory graphFactory;
 
@@ -85,8 +118,11 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
      *
      * <ul>
      *   <li>{@code GRAPH_LAYOUT} = graph layout type
+     *   <li>{@code GRAPH_CACHE} = directory for cached graphs (empty to disable)
      *   <li>{@code OXYGEN_SOLUBILITY_PLASMA} = solubility of oxygen in plasma
      *   <li>{@code OXYGEN_SOLUBILITY_TISSUE} = solubility of oxygen in tissue
+     *   <li>{@code TRANSPORT_STEPPING} = edge transport stepping (parallel or serial)
+     *   <li>{@code TRANSPORT_THREADS} = number of threads for parallel edge transport
      * </ul>
      *
      * @param series the simulation series
@@ -98,8 +134,24 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
 
         // Set loaded parameters.
         graphLayout = parameters.get("GRAPH_LAYOUT");
+        String cacheDirectory = parameters.get("GRAPH_CACHE");
+        graphCache =
+                (cacheDirectory == null || cacheDirectory.isEmpty()
+                        ? null
+                        : new PatchComponentSitesGraphCache(cacheDirectory));
         oxySoluPlasma = parameters.getDouble("OXYGEN_SOLUBILITY_PLASMA");
         oxySoluTissue = parameters.getDouble("OXYGEN_SOLUBILITY_TISSUE");
+        isParallel = "parallel".equalsIgnoreCase(parameters.get("TRANSPORT_STEPPING"));
+
+        int transportThreads = parameters.getInt("TRANSPORT_THREADS");
+        threads =
+                (transportThreads > 0
+                        ? transportThreads
+                        : Runtime.getRuntime().availableProcessors());
+        buffers = new ArrayList<>();
+        scratch =
+                ThreadLocal.withInitial(
+                        () -> new double[latticeHeight][latticeLength][latticeWidth]);
 
         // Set patch parameters.
         MiniBox patch = ((PatchSeries) series).patch;
@@ -150,6 +202,23 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         }
     }
 
+    /**
+     * Flattens span coordinates into lattice indices.
+     *
+     * @param span the list of span coordinates
+     * @return the array of (z, x, y) indices for each coordinate
+     */
+    static int[] getSpanIndices(ArrayList<CoordinateXYZ> span) {
+        int[] indices = new int[3 * span.size()];
+        int n = 0;
+        for (CoordinateXYZ coordinate : span) {
+            indices[n++] = coordinate.z;
+            indices[n++] = coordinate.x;
+            indices[n++] = coordinate.y;
+        }
+        return indices;
+    }
+
     /**
      * Converts the given span coordinate to the corresponding location.
      *
@@ -162,8 +231,9 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
      * Initializes graph for representing sites.
      *
      * <p>Calls the correct method to populate the graph with edges (either pattern or root layout).
-     * After the graph is defined, the corresponding indices in the lattice adjacent to edges are
-     * marked.
+     * If graphs are cached, the graph is loaded from the cache when available and saved to the
+     * cache otherwise. After the graph is defined, the corresponding indices in the lattice
+     * adjacent to edges are marked.
      *
      * @param random the random number generator
      * @return an initialized graph object
@@ -171,26 +241,46 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
     Graph initializeGraph(MersenneTwisterFast random) {
         Graph initGraph;
 
-        if (graphLayout.equals("*")) {
-            initGraph = graphFactory.initializePatternGraph(random);
+        if (graphCache == null) {
+            initGraph = generateGraph(random);
         } else {
-            int iter = 0;
-            do {
-                initGraph = graphFactory.initializeRootGraph(random, graphLayout);
-                iter++;
-            } while (initGraph.getAllEdges().numObjs == 0 && iter < MAXIMUM_ITERATIONS);
+            String key = graphCache.getKey(graphFactory, graphLayout, random);
+            initGraph = graphCache.load(key, random);
+            if (initGraph == null) {
+                initGraph = graphCache.save(key, generateGraph(random), random);
+            }
         }
 
         for (Object obj : initGraph.getAllEdges()) {
             SiteEdge edge = (SiteEdge) obj;
             edge.span = getSpan(edge.getFrom(), edge.getTo());
-            edge.transport.putIfAbsent("GLUCOSE", 0.);
-            edge.transport.putIfAbsent("OXYGEN", 0.);
+            edge.spanIndices = getSpanIndices(edge.span);
         }
 
         return initGraph;
     }
 
+    /**
+     * Generates graph using the pattern or root layout.
+     *
+     * @param random the random number generator
+     * @return a generated graph object
+     */
+    private Graph generateGraph(MersenneTwisterFast random) {
+        if (graphLayout.equals("*")) {
+            return graphFactory.initializePatternGraph(random);
+        }
+
+        Graph initGraph;
+        int iter = 0;
+        do {
+            initGraph = graphFactory.initializeRootGraph(random, graphLayout);
+            iter++;
+        } while (initGraph.getAllEdges().numObjs == 0 && iter < MAXIMUM_ITERATIONS);
+
+        return initGraph;
+    }
+
     /**
      * Graph step that only considers differences in concentration.
      *
@@ -224,10 +314,11 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
                     continue;
                 }
 
-                for (CoordinateXYZ coordinate : edge.span) {
-                    int i = coordinate.x;
-                    int j = coordinate.y;
-                    int k = coordinate.z;
+                int[] indices = edge.spanIndices;
+                for (int n = 0; n < indices.length; n += 3) {
+                    int k = indices[n];
+                    int i = indices[n + 1];
+                    int j = indices[n + 2];
                     delta[k][i][j] = Math.max((concentration - previous[k][i][j]), 0);
                 }
             }
@@ -267,118 +358,295 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             return;
         }
 
+        // Size edge values for each molecule.
+        for (Object obj : allEdges) {
+            SiteEdge edge = (SiteEdge) obj;
+            if (edge.fraction.length < layers.size()) {
+                edge.fraction = Arrays.copyOf(edge.fraction, layers.size());
+                edge.transport = Arrays.copyOf(edge.transport, layers.size());
+            }
+        }
+
         // Iterate through each molecule.
-        for (SiteLayer layer : layers) {
+        for (int index = 0; index < layers.size(); index++) {
+            SiteLayer layer = layers.get(index);
             double[][][] delta = layer.delta;
-            double[][][] current = layer.current;
-            double concentration = layer.concentration;
-            double permeability = layer.permeability;
+            boolean isOxygen = layer.name.equalsIgnoreCase("OXYGEN");
 
-            stepGraph(layer.name);
+            stepGraph(index, isOxygen);
 
             // Clear lattice values.
             for (int k = 0; k < latticeHeight; k++) {
                 for (int i = 0; i < latticeLength; i++) {
-                    for (int j = 0; j < latticeWidth; j++) {
-                        delta[k][i][j] = 0;
-                    }
+                    Arrays.fill(delta[k][i], 0);
                 }
             }
 
             allEdges.shuffle(random);
 
             // Iterate through each edge in graph.
-            for (Object obj : allEdges) {
-                SiteEdge edge = (SiteEdge) obj;
-                if (edge.isIgnored) {
-                    continue;
-                }
-                SiteNode from = edge.getFrom();
-                SiteNode to = edge.getTo();
-                edge.transport.put(layer.name, 0.0);
-
-                double extConc;
-                double intConc;
-                double dmdt;
-                double intConcNew;
-                double extConcNew;
-
-                // Get average external concentration across spanning locations.
-                extConc = 0;
-                for (CoordinateXYZ coordinate : edge.span) {
-                    int i = coordinate.x;
-                    int j = coordinate.y;
-                    int k = coordinate.z;
-                    extConc += current[k][i][j] + delta[k][i][j];
+            if (isParallel) {
+                transportChunks(allEdges, layer, index, isOxygen);
+            } else {
+                for (Object obj : allEdges) {
+                    SiteEdge edge = (SiteEdge) obj;
+                    if (!edge.isIgnored) {
+                        transportEdge(edge, layer, index, isOxygen, delta);
+                    }
                 }
-                extConc /= edge.span.size();
+            }
+        }
+    }
+
+    /**
+     * Calculates transport between an edge and the lattice locations spanned by the edge.
+     *
+     * @param edge the edge
+     * @param layer the site layer
+     * @param index the layer index
+     * @param isOxygen {@code true} if the layer is oxygen, {@code false} otherwise
+     * @param delta the array of changes in concentration values to read and update
+     */
+    private void transportEdge(
+            SiteEdge edge, SiteLayer layer, int index, boolean isOxygen, double[][][] delta) {
+        double[][][] current = layer.current;
+        double concentration = layer.concentration;
+        double permeability = layer.permeability;
+        int[] indices = edge.spanIndices;
+
+        SiteNode from = edge.getFrom();
+        SiteNode to = edge.getTo();
+        edge.transport[index] = 0.0;
+
+        double extConc;
+        double intConc;
+        double dmdt;
+        double intConcNew;
+        double extConcNew;
+
+        // Get average external concentration across spanning locations.
+        extConc = 0;
+        for (int n = 0; n < indices.length; n += 3) {
+            int k = indices[n];
+            int i = indices[n + 1];
+            int j = indices[n + 2];
+            extConc += current[k][i][j] + delta[k][i][j];
+        }
+        extConc /= indices.length / 3;
 
-                // Note permeability values are assumed to be for 1 um thickness.
-                // Here we multiply by (1 um) and then redivide by the actual
-                // thickness of the edge.
-                double flow = edge.flow / 60; // um^3/sec
-                double pa = edge.area * permeability / edge.wall; // um^3/sec
+        // Note permeability values are assumed to be for 1 um thickness.
+        // Here we multiply by (1 um) and then redivide by the actual
+        // thickness of the edge.
+        double flow = edge.flow / 60; // um^3/sec
+        double pa = edge.area * permeability / edge.wall; // um^3/sec
 
-                // Skip if flow is less than a certain speed.
-                if (flow < MINIMUM_FLOW) {
-                    continue;
+        // Skip if flow is less than a certain speed.
+        if (flow < MINIMUM_FLOW) {
+            return;
+        }
+
+        if (isOxygen) {
+            extConc = oxySoluTissue * extConc; // mmHg -> fmol/um^3
+            intConc = oxySoluPlasma * (from.oxygen + to.oxygen) / 2; // mmHg -> fmol/um^3
+            intConcNew = intConc;
+            extConcNew = extConc;
+        } else {
+            intConc = edge.fraction[index] * concentration; // fmol/um^3
+            intConcNew = intConc; // fmol/um^3
+            extConcNew = extConc; // fmol/um^3
+        }
+
+        if (Math.abs(intConc - extConc) > DELTA_TOLERANCE) {
+            // Check for stability.
+            double max = latticePatchVolume / edge.area;
+            if (permeability > max) {
+                intConcNew =
+                        (intConcNew * flow + latticePatchVolume * extConcNew)
+                                / (flow + latticePatchVolume);
+                extConcNew = intConcNew;
+            } else {
+                // Iterate for each second in the minute time step.
+                for (int step = 0; step < 60; step++) {
+                    intConcNew = (intConcNew * flow + pa * extConcNew) / (flow + pa);
+                    dmdt = pa * (intConcNew - extConcNew);
+                    extConcNew += dmdt / latticePatchVolume;
                 }
+            }
 
-                if (layer.name.equalsIgnoreCase("OXYGEN")) {
-                    extConc = oxySoluTissue * extConc; // mmHg -> fmol/um^3
-                    intConc = oxySoluPlasma * (from.oxygen + to.oxygen) / 2; // mmHg -> fmol/um^3
-                    intConcNew = intConc;
-                    extConcNew = extConc;
+            // Update external concentrations.
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+
+                if (isOxygen) {
+                    delta[k][i][j] +=
+                            Math.max(
+                                    (extConcNew / oxySoluTissue
+                                            - (current[k][i][j] + delta[k][i][j])),
+                                    0);
                 } else {
-                    intConc = edge.fraction.get(layer.name) * concentration; // fmol/um^3
-                    intConcNew = intConc; // fmol/um^3
-                    extConcNew = extConc; // fmol/um^3
+                    delta[k][i][j] +=
+                            Math.max((extConcNew - (current[k][i][j] + delta[k][i][j])), 0);
                 }
+            }
 
-                if (Math.abs(intConc - extConc) > DELTA_TOLERANCE) {
-                    // Check for stability.
-                    double max = latticePatchVolume / edge.area;
-                    if (permeability > max) {
-                        intConcNew =
-                                (intConcNew * flow + latticePatchVolume * extConcNew)
-                                        / (flow + latticePatchVolume);
-                        extConcNew = intConcNew;
-                    } else {
-                        // Iterate for each second in the minute time step.
-                        for (int step = 0; step < 60; step++) {
-                            intConcNew = (intConcNew * flow + pa * extConcNew) / (flow + pa);
-                            dmdt = pa * (intConcNew - extConcNew);
-                            extConcNew += dmdt / latticePatchVolume;
-                        }
-                    }
+            // Set transport of edge (for graph step).
+            if (isOxygen) {
+                edge.transport[index] = (intConc - intConcNew) * edge.flow;
+            } else {
+                edge.transport[index] = (intConc - intConcNew) / concentration;
+            }
+        }
+    }
 
-                    // Update external concentrations.
-                    for (CoordinateXYZ coordinate : edge.span) {
-                        int i = coordinate.x;
-                        int j = coordinate.y;
-                        int k = coordinate.z;
-
-                        if (layer.name.equalsIgnoreCase("OXYGEN")) {
-                            delta[k][i][j] +=
-                                    Math.max(
-                                            (extConcNew / oxySoluTissue
-                                                    - (current[k][i][j] + delta[k][i][j])),
-                                            0);
-                        } else {
-                            delta[k][i][j] +=
-                                    Math.max((extConcNew - (current[k][i][j] + delta[k][i][j])), 0);
-                        }
-                    }
+    /**
+     * Calculates transport for chunks of edges concurrently.
+     *
+     * @param allEdges the bag of edges in shuffled order
+     * @param layer the site layer
+     * @param index the layer index
+     * @param isOxygen {@code true} if the layer is oxygen, {@code false} otherwise
+     */
+    private void transportChunks(Bag allEdges, SiteLayer layer, int index, boolean isOxygen) {
+        int chunks = (allEdges.numObjs + TRANSPORT_CHUNK_SIZE - 1) / TRANSPORT_CHUNK_SIZE;
 
-                    // Set transport of edge (for graph step).
-                    if (layer.name.equalsIgnoreCase("OXYGEN")) {
-                        edge.transport.put(layer.name, (intConc - intConcNew) * edge.flow);
-                    } else {
-                        edge.transport.put(layer.name, (intConc - intConcNew) / concentration);
+        while (buffers.size() < chunks) {
+            buffers.add(new TransportBuffer());
+        }
+
+        if (threads == 1 || chunks < 2) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                transportChunk(allEdges, chunk, layer, index, isOxygen);
+            }
+        } else {
+            ArrayList<Callable<Void>> tasks = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int chunkIndex = chunk;
+                tasks.add(
+                        () -> {
+                            transportChunk(allEdges, chunkIndex, layer, index, isOxygen);
+                            return null;
+                        });
+            }
+
+            try {
+                for (Future<Void> future : Parallel.getExecutor(threads).invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while stepping edge transport.", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to step edge transport.", e.getCause());
+            }
+        }
+
+        // Add changes to lattice in chunk order.
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            buffers.get(chunk).apply(layer.delta);
+        }
+    }
+
+    /**
+     * Calculates transport for edges in the given chunk.
+     *
+     * <p>Changes are accumulated in the array for the current thread and then moved to the buffer
+     * for the chunk, leaving the array cleared for the next chunk.
+     *
+     * @param allEdges the bag of edges in shuffled order
+     * @param chunk the chunk index
+     * @param layer the site layer
+     * @param index the layer index
+     * @param isOxygen {@code true} if the layer is oxygen, {@code false} otherwise
+     */
+    private void transportChunk(
+            Bag allEdges, int chunk, SiteLayer layer, int index, boolean isOxygen) {
+        double[][][] delta = scratch.get();
+        TransportBuffer buffer = buffers.get(chunk);
+        int start = chunk * TRANSPORT_CHUNK_SIZE;
+        int end = Math.min(start + TRANSPORT_CHUNK_SIZE, allEdges.numObjs);
+
+        for (int e = start; e < end; e++) {
+            SiteEdge edge = (SiteEdge) allEdges.objs[e];
+            if (!edge.isIgnored) {
+                transportEdge(edge, layer, index, isOxygen, delta);
+            }
+        }
+
+        buffer.clear();
+        for (int e = start; e < end; e++) {
+            SiteEdge edge = (SiteEdge) allEdges.objs[e];
+            if (!edge.isIgnored) {
+                buffer.move(edge.spanIndices, delta);
+            }
+        }
+    }
+
+    /** Buffer of changes in concentration values at lattice locations. */
+    static final class TransportBuffer {
+        /** Initial buffer capacity. */
+        private static final int INITIAL_CAPACITY = 256;
+
+        /** Array of (z, x, y) indices for each change. */
+        private int[] indices;
+
+        /** Array of changes. */
+        private double[] values;
+
+        /** Number of changes in the buffer. */
+        private int size;
+
+        /** Creates an empty {@code TransportBuffer}. */
+        TransportBuffer() {
+            indices = new int[3 * INITIAL_CAPACITY];
+            values = new double[INITIAL_CAPACITY];
+        }
+
+        /** Clears all changes from the buffer. */
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Moves non-zero changes at the given indices from the array into the buffer.
+         *
+         * @param spanIndices the array of (z, x, y) indices
+         * @param delta the array of changes, cleared at the given indices
+         */
+        void move(int[] spanIndices, double[][][] delta) {
+            for (int n = 0; n < spanIndices.length; n += 3) {
+                int k = spanIndices[n];
+                int i = spanIndices[n + 1];
+                int j = spanIndices[n + 2];
+                double value = delta[k][i][j];
+
+                if (value != 0) {
+                    if (size == values.length) {
+                        indices = Arrays.copyOf(indices, 6 * size);
+                        values = Arrays.copyOf(values, 2 * size);
                     }
+
+                    indices[3 * size] = k;
+                    indices[3 * size + 1] = i;
+                    indices[3 * size + 2] = j;
+                    values[size] = value;
+                    size++;
+                    delta[k][i][j] = 0;
                 }
             }
         }
+
+        /**
+         * Adds all changes in the buffer to the given array.
+         *
+         * @param delta the array of changes
+         */
+        void apply(double[][][] delta) {
+            for (int n = 0; n < size; n++) {
+                delta[indices[3 * n]][indices[3 * n + 1]][indices[3 * n + 2]] += values[n];
+            }
+        }
     }
 
     /**
@@ -399,6 +667,9 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         /** Oxygen partial pressure of the node. */
         double oxygen;
 
+        /** Oxygen partial pressure of the node from the previous step. */
+        double previousOxygen;
+
         /** Distance for Dijkstra's algorithm. */
         int distance;
 
@@ -461,6 +732,9 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         /** List of lattice coordinates spanned by edge. */
         ArrayList<CoordinateXYZ> span;
 
+        /** Array of (z, x, y) lattice indices spanned by edge. */
+        int[] spanIndices;
+
         /** {@code true} if edge as been visited, {@code false} otherwise. */
         boolean isVisited;
 
@@ -503,11 +777,11 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         /** Scaled shear stress. */
         double shearScaled;
 
-        /** Concentration fraction in edge. */
-        HashMap<String, Double> fraction;
+        /** Concentration fraction in edge for each layer. */
+        double[] fraction;
 
-        /** Concentration fraction transported out. */
-        HashMap<String, Double> transport;
+        /** Concentration fraction transported out for each layer. */
+        double[] transport;
 
         /**
          * Creates a {@link Edge} for graph sites.
@@ -524,8 +798,8 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             isVisited = false;
             isPerfused = false;
             isIgnored = false;
-            fraction = new HashMap<>();
-            transport = new HashMap<>();
+            fraction = new double[0];
+            transport = new double[0];
         }
 
         @Override
@@ -614,9 +888,10 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
     /**
      * Steps through graph to calculate concentrations and partial pressures.
      *
-     * @param code the molecule code
+     * @param index the layer index
+     * @param isOxygen {@code true} if the layer is oxygen, {@code false} otherwise
      */
-    private void stepGraph(String code) {
+    private void stepGraph(int index, boolean isOxygen) {
         ArrayList<SiteNode> inlets = new ArrayList<>();
 
         // Reset calculations in all edges and get list of inlets.
@@ -624,11 +899,14 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             SiteEdge edge = (SiteEdge) obj;
             SiteNode from = edge.getFrom();
 
-            if (code.equalsIgnoreCase("OXYGEN")) {
+            if (isOxygen) {
+                if (from.oxygen >= 0) {
+                    from.previousOxygen = from.oxygen;
+                }
                 from.oxygen = (Double.isNaN(from.oxygen) ? Double.NaN : -1.0);
             } else {
                 edge.isVisited = edge.isIgnored;
-                edge.fraction.put(code, -1.0);
+                edge.fraction[index] = -1.0;
             }
 
             if (from.isRoot && !edge.isIgnored) {
@@ -649,13 +927,13 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
                     SiteNode from = edge.getFrom();
                     SiteNode to = edge.getTo();
 
-                    if (code.equalsIgnoreCase("OXYGEN")) {
+                    if (isOxygen) {
                         from.oxygen = getPartial(edge);
-                        nextList = traverseNode(to, code);
+                        nextList = traverseNode(to, index);
                     } else {
                         edge.isVisited = true;
-                        edge.fraction.put(code, 1.0);
-                        nextList = traverseEdge(to, code);
+                        edge.fraction[index] = 1.0;
+                        nextList = traverseEdge(to, index);
                     }
                     currSet.addAll(nextList);
                 }
@@ -672,10 +950,10 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         while (currSize > 0) {
             nextSet = new LinkedHashSet<>();
             for (SiteNode node : currSet) {
-                if (code.equalsIgnoreCase("OXYGEN")) {
-                    nextList = traverseNode(node, code);
+                if (isOxygen) {
+                    nextList = traverseNode(node, index);
                 } else {
-                    nextList = traverseEdge(node, code);
+                    nextList = traverseEdge(node, index);
                 }
                 nextSet.addAll(nextList);
             }
@@ -712,10 +990,10 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
      * Traverses through the graph based on edges.
      *
      * @param node the current node being traversed
-     * @param code the molecule code
+     * @param index the layer index
      * @return a list of children nodes to traverse
      */
-    private ArrayList<SiteNode> traverseEdge(SiteNode node, String code) {
+    private ArrayList<SiteNode> traverseEdge(SiteNode node, int index) {
         ArrayList<SiteNode> children = new ArrayList<>();
         Bag out = graph.getEdgesOut(node);
         Bag in = graph.getEdgesIn(node);
@@ -738,7 +1016,7 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
         for (Object obj : in) {
             SiteEdge edge = (SiteEdge) obj;
             if (!edge.isIgnored) {
-                mass += (edge.fraction.get(code) - edge.transport.get(code)) * edge.flow;
+                mass += (edge.fraction[index] - edge.transport[index]) * edge.flow;
             }
         }
 
@@ -766,7 +1044,7 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             // Assign new fractions.
             for (Object obj : out) {
                 SiteEdge edge = (SiteEdge) obj;
-                edge.fraction.put(code, Math.min(mass / flowOut, 1));
+                edge.fraction[index] = Math.min(mass / flowOut, 1);
                 edge.isVisited = true;
                 children.add(edge.getTo());
             }
@@ -779,10 +1057,10 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
      * Traverse through the graph based on nodes.
      *
      * @param node the current node being traversed
-     * @param code the molecule code
+     * @param index the layer index
      * @return a list of children nodes to traverse
      */
-    private ArrayList<SiteNode> traverseNode(SiteNode node, String code) {
+    private ArrayList<SiteNode> traverseNode(SiteNode node, int index) {
         ArrayList<SiteNode> children = new ArrayList<>();
         Bag out = graph.getEdgesOut(node);
         Bag in = graph.getEdgesIn(node);
@@ -803,7 +1081,7 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             if (!edge.isIgnored) {
                 massIn +=
                         edge.flow * getTotal(edge.getFrom().oxygen, oxySoluPlasma)
-                                - edge.transport.get(code);
+                                - edge.transport[index];
             }
         }
 
@@ -834,7 +1112,8 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
                 }
             }
 
-            // Solve for oxygen partial pressure.
+            // Solve for oxygen partial pressure, starting from the partial
+            // pressure in the previous step.
             final double finalFlowOut = flowOut;
             Function func = (p) -> finalFlowOut * getTotal(p, oxySoluPlasma) - finalMassIn;
 
@@ -842,7 +1121,8 @@ public abstract class PatchComponentSitesGraph extends PatchComponentSites {
             if (Math.signum(func.f(MAX_OXYGEN_PARTIAL_PRESSURE)) == -1 || finalFlowOut == 0) {
                 node.oxygen = MAX_OXYGEN_PARTIAL_PRESSURE;
             } else {
-                node.oxygen = Solver.bisection(func, 0, MAX_OXYGEN_PARTIAL_PRESSURE);
+                node.oxygen =
+                        Solver.brent(func, 0, MAX_OXYGEN_PARTIAL_PRESSURE, node.previousOxygen);
             }
 
             // Recurse through output edges.
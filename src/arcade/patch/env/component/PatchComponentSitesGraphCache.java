@@ -0,0 +1,312 @@
+package arcade.patch.env.component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.logging.Logger;
+import ec.util.MersenneTwisterFast;
+import arcade.core.util.Graph;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeLevel;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeTag;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeType;
+import static arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
+import static arcade.patch.env.component.PatchComponentSitesGraph.SiteNode;
+
+/**
+ * On-disk cache of generated graphs for {@link PatchComponentSitesGraph}.
+ *
+ * <p>Graphs are keyed by a hash of the factory class, lattice size, lattice spacing, graph layout,
+ * and the state of the random number generator before the graph is generated. These are all the
+ * inputs to graph generation, so graphs are only loaded for matching simulations. Each cache file
+ * stores the nodes and edges of the graph in a compact binary form along with the state of the
+ * random number generator after the graph was generated, so loading a graph leaves the generator in
+ * the same state as generating it.
+ *
+ * <p>Generated graphs are always returned through the same encoding used for the cache file, so
+ * simulations that load a cached graph match simulations that generated it.
+ */
+final class PatchComponentSitesGraphCache {
+    /** Logger for {@code PatchComponentSitesGraphCache}. */
+    private static final Logger LOGGER =
+            Logger.getLogger(PatchComponentSitesGraphCache.class.getName());
+
+    /** Identifier at the start of each cache file. */
+    private static final int MAGIC = 0x47524146;
+
+    /** Version of the cache file format. */
+    private static final int VERSION = 1;
+
+    /** Code for edges without a tag. */
+    private static final byte NO_TAG = -1;
+
+    /** Directory containing cache files. */
+    private final File directory;
+
+    /**
+     * Creates a cache of graphs in the given directory.
+     *
+     * @param directory the path to the cache directory
+     */
+    PatchComponentSitesGraphCache(String directory) {
+        this.directory = new File(directory);
+    }
+
+    /**
+     * Gets the key for a graph generated with the given factory, layout, and generator state.
+     *
+     * @param factory the graph factory
+     * @param graphLayout the graph layout description
+     * @param random the random number generator
+     * @return the hexadecimal cache key
+     */
+    String getKey(
+            PatchComponentSitesGraphFactory factory,
+            String graphLayout,
+            MersenneTwisterFast random) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream stream = new DataOutputStream(bytes);
+            stream.writeInt(VERSION);
+            stream.writeUTF(factory.getClass().getName());
+            stream.writeInt(factory.latticeLength);
+            stream.writeInt(factory.latticeWidth);
+            stream.writeInt(factory.latticeHeight);
+            stream.writeDouble(factory.ds);
+            stream.writeUTF(graphLayout);
+            random.writeState(stream);
+            stream.flush();
+
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray());
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to hash graph parameters", ex);
+        }
+    }
+
+    /**
+     * Loads the graph for the given key.
+     *
+     * <p>Files that cannot be read or decoded are logged and treated as not cached, leaving the
+     * random number generator unchanged so the graph can be regenerated.
+     *
+     * @param key the cache key
+     * @param random the random number generator to restore
+     * @return the cached graph, {@code null} if the graph is not cached
+     */
+    Graph load(String key, MersenneTwisterFast random) {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            Graph graph = decode(Files.readAllBytes(file.toPath()), random);
+            LOGGER.info("graph [ " + key + " ] loaded from cache");
+            return graph;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warning("error reading [ " + file + " ] due to " + ex.getClass().getName());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the given graph for the given key.
+     *
+     * <p>The graph is returned as decoded from the saved bytes. Errors writing the cache file are
+     * logged and do not stop the simulation.
+     *
+     * @param key the cache key
+     * @param graph the generated graph
+     * @param random the random number generator after the graph was generated
+     * @return the saved graph
+     */
+    Graph save(String key, Graph graph, MersenneTwisterFast random) {
+        byte[] bytes;
+        try {
+            bytes = encode(graph, random);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to encode graph", ex);
+        }
+
+        File file = getFile(key);
+        try {
+            Files.createDirectories(directory.toPath());
+            File temp = File.createTempFile("graph-" + key, ".tmp", directory);
+            Files.write(temp.toPath(), bytes);
+            Files.move(
+                    temp.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("graph [ " + key + " ] saved to cache");
+        } catch (IOException ex) {
+            LOGGER.warning("error writing [ " + file + " ] due to " + ex.getClass().getName());
+        }
+
+        try {
+            return decode(bytes, random);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to decode graph", ex);
+        }
+    }
+
+    /**
+     * Gets the cache file for the given key.
+     *
+     * @param key the cache key
+     * @return the cache file
+     */
+    private File getFile(String key) {
+        return new File(directory, "graph-" + key + ".bin");
+    }
+
+    /**
+     * Encodes the graph and generator state as bytes.
+     *
+     * <p>Nodes are written once and referenced by index from edges, so nodes shared between edges
+     * are shared in the decoded graph. Edges are written in graph order.
+     *
+     * @param graph the graph
+     * @param random the random number generator
+     * @return the encoded bytes
+     * @throws IOException if the graph cannot be written
+     */
+    static byte[] encode(Graph graph, MersenneTwisterFast random) throws IOException {
+        IdentityHashMap<SiteNode, Integer> indices = new IdentityHashMap<>();
+        ArrayList<SiteNode> nodes = new ArrayList<>();
+
+        for (Object obj : graph.getAllEdges()) {
+            SiteEdge edge = (SiteEdge) obj;
+            for (SiteNode node : new SiteNode[] {edge.getFrom(), edge.getTo()}) {
+                if (!indices.containsKey(node)) {
+                    indices.put(node, nodes.size());
+                    nodes.add(node);
+                }
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(bytes);
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
+        random.writeState(stream);
+
+        stream.writeInt(nodes.size());
+        for (SiteNode node : nodes) {
+            stream.writeInt(node.getX());
+            stream.writeInt(node.getY());
+            stream.writeInt(node.getZ());
+            stream.writeBoolean(node.isRoot);
+            stream.writeDouble(node.pressure);
+            stream.writeDouble(node.oxygen);
+        }
+
+        stream.writeInt(graph.getAllEdges().numObjs);
+        for (Object obj : graph.getAllEdges()) {
+            SiteEdge edge = (SiteEdge) obj;
+            stream.writeInt(indices.get(edge.getFrom()));
+            stream.writeInt(indices.get(edge.getTo()));
+            stream.writeByte(edge.type.ordinal());
+            stream.writeByte(edge.level.ordinal());
+            stream.writeByte(edge.tag == null ? NO_TAG : edge.tag.ordinal());
+            stream.writeBoolean(edge.isVisited);
+            stream.writeBoolean(edge.isPerfused);
+            stream.writeBoolean(edge.isIgnored);
+            stream.writeDouble(edge.radius);
+            stream.writeDouble(edge.length);
+            stream.writeDouble(edge.wall);
+            stream.writeDouble(edge.shear);
+            stream.writeDouble(edge.circum);
+            stream.writeDouble(edge.flow);
+            stream.writeDouble(edge.area);
+            stream.writeDouble(edge.shearScaled);
+        }
+
+        stream.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a graph from bytes and restores the generator state.
+     *
+     * @param bytes the encoded bytes
+     * @param random the random number generator to restore
+     * @return the decoded graph
+     * @throws IOException if the bytes are not a valid graph
+     */
+    static Graph decode(byte[] bytes, MersenneTwisterFast random) throws IOException {
+        ByteArrayInputStream input = new ByteArrayInputStream(bytes);
+        DataInputStream stream = new DataInputStream(input);
+        if (stream.readInt() != MAGIC || stream.readInt() != VERSION) {
+            throw new IOException("Unsupported graph cache format");
+        }
+
+        // Check generator state, which is only restored once the graph is read.
+        int stateStart = bytes.length - input.available();
+        new MersenneTwisterFast().readState(stream);
+        int stateLength = bytes.length - input.available() - stateStart;
+
+        int numNodes = stream.readInt();
+        if (numNodes < 0 || numNodes > input.available()) {
+            throw new IOException("Invalid number of graph nodes");
+        }
+
+        SiteNode[] nodes = new SiteNode[numNodes];
+        for (int i = 0; i < nodes.length; i++) {
+            SiteNode node = new SiteNode(stream.readInt(), stream.readInt(), stream.readInt());
+            node.isRoot = stream.readBoolean();
+            node.pressure = stream.readDouble();
+            node.oxygen = stream.readDouble();
+            nodes[i] = node;
+        }
+
+        EdgeType[] types = EdgeType.values();
+        EdgeLevel[] levels = EdgeLevel.values();
+        EdgeTag[] tags = EdgeTag.values();
+
+        Graph graph = new Graph();
+        int numEdges = stream.readInt();
+        for (int i = 0; i < numEdges; i++) {
+            SiteNode from = nodes[stream.readInt()];
+            SiteNode to = nodes[stream.readInt()];
+            EdgeType type = types[stream.readByte()];
+            EdgeLevel level = levels[stream.readByte()];
+            byte tag = stream.readByte();
+
+            SiteEdge edge = new SiteEdge(from, to, type, level);
+            edge.setFrom(from);
+            edge.setTo(to);
+            edge.tag = (tag == NO_TAG ? null : tags[tag]);
+            edge.isVisited = stream.readBoolean();
+            edge.isPerfused = stream.readBoolean();
+            edge.isIgnored = stream.readBoolean();
+            edge.radius = stream.readDouble();
+            edge.length = stream.readDouble();
+            edge.wall = stream.readDouble();
+            edge.shear = stream.readDouble();
+            edge.circum = stream.readDouble();
+            edge.flow = stream.readDouble();
+            edge.area = stream.readDouble();
+            edge.shearScaled = stream.readDouble();
+            graph.addEdge(edge);
+        }
+
+        random.readState(
+                new DataInputStream(new ByteArrayInputStream(bytes, stateStart, stateLength)));
+
+        return graph;
+    }
+}
@@ -188,6 +188,9 @@ public abstract class PatchComponentSitesGraphFactory {
     /** Width of the array (y direction). */
     final int latticeWidth;
 
+    /** Spatial conversion factor [um/voxel]. */
+    final double ds;
+
     /**
      * Creates a factory for making {@link Graph} sites.
      *
@@ -197,6 +200,7 @@ public abstract class PatchComponentSitesGraphFactory {
         latticeLength = series.length;
         latticeWidth = series.width;
         latticeHeight = series.height;
+        ds = series.ds;
     }
 
     /**
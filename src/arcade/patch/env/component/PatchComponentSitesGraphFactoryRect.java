@@ -147,7 +147,7 @@ public class PatchComponentSitesGraphFactoryRect extends PatchComponentSitesGrap
      */
     public PatchComponentSitesGraphFactoryRect(Series series) {
         super(series);
-        edgeLengths = new double[] {series.ds, series.ds * Math.sqrt(2)};
+        edgeLengths = new double[] {ds, ds * Math.sqrt(2)};
     }
 
     @Override
@@ -143,7 +143,7 @@ public class PatchComponentSitesGraphFactoryTri extends PatchComponentSitesGraph
      */
     public PatchComponentSitesGraphFactoryTri(Series series) {
         super(series);
-        edgeLength = series.ds;
+        edgeLength = ds;
     }
 
     @Override
@@ -1,6 +1,7 @@
 package arcade.patch.env.component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import sim.util.Bag;
@@ -8,6 +9,7 @@ import ec.util.MersenneTwisterFast;
 import arcade.core.util.Graph;
 import arcade.core.util.Graph.Strategy;
 import arcade.core.util.Matrix;
+import arcade.core.util.Matrix.Sparse;
 import arcade.core.util.Solver;
 import static arcade.core.util.Graph.Edge;
 import static arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
@@ -380,11 +382,26 @@ abstract class PatchComponentSitesGraphUtilities {
      * Calculates pressures at nodes.
      *
      * <p>Sets up a system of linear equations for the current graph structure using mass balances
-     * at each node.
+     * at each node. The system is symmetric positive definite, so it is assembled directly in
+     * sparse form and solved using preconditioned conjugate gradient.
      *
      * @param graph the graph object
      */
     static void calculatePressures(Graph graph) {
+        calculatePressures(graph, false);
+    }
+
+    /**
+     * Calculates pressures at nodes.
+     *
+     * <p>If warm started, the solve starts from the current pressure of each node, which is close
+     * to the solution after small changes to the graph. Nodes without a current pressure, such as
+     * nodes next to removed edges, start from the average pressure of their neighbors.
+     *
+     * @param graph the graph object
+     * @param warmStart {@code true} to start from current pressures, {@code false} otherwise
+     */
+    static void calculatePressures(Graph graph, boolean warmStart) {
         LinkedHashSet<SiteNode> set = new LinkedHashSet<>();
 
         // Get set of all non-root nodes.
@@ -408,7 +425,7 @@ abstract class PatchComponentSitesGraphUtilities {
 
         // Set up system of equations to calculate nodal pressures.
         int n = set.size();
-        double[][] mA = new double[n][n];
+        Sparse.Builder mA = new Sparse.Builder(n);
         double[] vB = new double[n];
         double[] x0 = new double[n];
 
@@ -434,13 +451,13 @@ abstract class PatchComponentSitesGraphUtilities {
                     }
                     double coeff = getCoefficient(edge);
 
-                    mA[id][id] += coeff;
+                    mA.add(id, id, coeff);
                     SiteNode from = edge.getFrom();
 
                     if (from.isRoot || from.id == -1) {
                         vB[id] += coeff * from.pressure;
                     } else {
-                        mA[id][from.id] -= coeff;
+                        mA.add(id, from.id, -coeff);
                         x0[id] += from.pressure;
                         div++;
                     }
@@ -457,25 +474,27 @@ abstract class PatchComponentSitesGraphUtilities {
                     }
                     double coeff = getCoefficient(edge);
 
-                    mA[id][id] += coeff;
+                    mA.add(id, id, coeff);
                     SiteNode to = edge.getTo();
 
                     if (to.isRoot || to.id == -1) {
                         vB[id] += coeff * to.pressure;
                     } else {
-                        mA[id][to.id] -= coeff;
+                        mA.add(id, to.id, -coeff);
                         x0[id] += to.pressure;
                         div++;
                     }
                 }
             }
 
-            if (div != 0) {
+            if (warmStart && !Double.isNaN(node.pressure)) {
+                x0[id] = node.pressure;
+            } else if (div != 0) {
                 x0[id] /= div;
             }
         }
 
-        double[][] sA = Matrix.scale(mA, 1E-7);
+        Sparse sA = mA.build().scale(1E-7);
         double[] sB = Matrix.scale(vB, 1E-7);
 
         // Remove NaN in starting estimates.
@@ -486,7 +505,7 @@ abstract class PatchComponentSitesGraphUtilities {
         }
 
         // Solve for pressure and update nodes.
-        double[] x = Solver.sor(sA, sB, x0);
+        double[] x = Solver.conjugateGradient(sA, sB, x0);
         for (SiteNode node : set) {
             node.pressure = x[node.id];
         }
@@ -516,7 +535,7 @@ abstract class PatchComponentSitesGraphUtilities {
             }
 
             // Calculate circumferential stress.
-            edge.circum = (to.pressure + from.pressure) / 2 * edge.radius / edge.wall;
+            calculateCircum(edge);
         }
 
         // Scale shear between 0 and 1.
@@ -537,17 +556,65 @@ abstract class PatchComponentSitesGraphUtilities {
             SiteNode to = edge.getTo();
             SiteNode from = edge.getFrom();
             edge.flow = getCoefficient(edge) * (from.pressure - to.pressure);
+            calculateArea(edge);
+        }
+    }
 
-            // Surface area for edges with diameter less than the layer height is
-            // the surface area of a cylinder with the edge radius and length.
-            // For edges with diameter greater than the height, we assume the vessel
-            // exists past the layer so surface area is two rectangles.
-            // Radius is taken to be the mid-wall radius.
-            if (2 * edge.radius < LAYER_HEIGHT) {
-                edge.area = Math.PI * 2 * (edge.radius + edge.wall / 2) * edge.length;
-            } else {
-                edge.area = edge.length * LAYER_HEIGHT * 2;
-            }
+    /**
+     * Calculates circumferential stress for the edge.
+     *
+     * @param edge the edge
+     */
+    private static void calculateCircum(SiteEdge edge) {
+        SiteNode to = edge.getTo();
+        SiteNode from = edge.getFrom();
+        edge.circum = (to.pressure + from.pressure) / 2 * edge.radius / edge.wall;
+    }
+
+    /**
+     * Calculates area (in um<sup>2</sup>) for the edge.
+     *
+     * @param edge the edge
+     */
+    private static void calculateArea(SiteEdge edge) {
+        // Surface area for edges with diameter less than the layer height is
+        // the surface area of a cylinder with the edge radius and length.
+        // For edges with diameter greater than the height, we assume the vessel
+        // exists past the layer so surface area is two rectangles.
+        // Radius is taken to be the mid-wall radius.
+        if (2 * edge.radius < LAYER_HEIGHT) {
+            edge.area = Math.PI * 2 * (edge.radius + edge.wall / 2) * edge.length;
+        } else {
+            edge.area = edge.length * LAYER_HEIGHT * 2;
+        }
+    }
+
+    /**
+     * Recalculates circumferential stress for the given edges.
+     *
+     * <p>Shear stress only depends on edge radius and node pressures, so if only wall thicknesses
+     * changed, only the circumferential stresses of the changed edges need to be updated.
+     *
+     * @param edges the edges with changed wall thickness
+     */
+    static void updateStresses(Collection<SiteEdge> edges) {
+        for (SiteEdge edge : edges) {
+            calculateCircum(edge);
+        }
+    }
+
+    /**
+     * Recalculates area and circumferential stress for the given edges.
+     *
+     * <p>Node pressures and flows only depend on edge radii, so if only wall thicknesses changed,
+     * only the area and circumferential stress of the changed edges need to be updated.
+     *
+     * @param edges the edges with changed wall thickness
+     */
+    static void updateWalls(Collection<SiteEdge> edges) {
+        for (SiteEdge edge : edges) {
+            calculateArea(edge);
+            calculateCircum(edge);
         }
     }
 
@@ -1099,6 +1166,17 @@ abstract class PatchComponentSitesGraphUtilities {
      * @param graph the graph object
      */
     static void updateGraph(Graph graph) {
+        updateGraph(graph, false);
+    }
+
+    /**
+     * Updates hemodynamic properties in the graph after edges are removed.
+     *
+     * @param graph the graph object
+     * @param warmStart {@code true} to start pressures from current pressures, {@code false}
+     *     otherwise
+     */
+    static void updateGraph(Graph graph, boolean warmStart) {
         ArrayList<SiteEdge> list;
         Graph gCurr = graph;
 
@@ -1134,15 +1212,32 @@ abstract class PatchComponentSitesGraphUtilities {
             gCurr = gNew;
         } while (list.size() != 0);
 
-        calculatePressures(graph);
+        updateHemodynamics(graph, warmStart);
+        updateOxygen(graph);
+    }
+
+    /**
+     * Recalculates pressures, flows, and stresses in the graph.
+     *
+     * @param graph the graph object
+     * @param warmStart {@code true} to start from current pressures, {@code false} otherwise
+     */
+    static void updateHemodynamics(Graph graph, boolean warmStart) {
+        calculatePressures(graph, warmStart);
         boolean reversed = reversePressures(graph);
         if (reversed) {
-            calculatePressures(graph);
+            calculatePressures(graph, warmStart);
         }
         calculateFlows(graph);
         calculateStresses(graph);
+    }
 
-        // Set oxygen nodes.
+    /**
+     * Clears oxygen partial pressures at nodes without pressures.
+     *
+     * @param graph the graph object
+     */
+    private static void updateOxygen(Graph graph) {
         for (Object obj : graph.getAllEdges()) {
             SiteEdge edge = (SiteEdge) obj;
             SiteNode to = edge.getTo();
@@ -1,5 +1,6 @@
 package arcade.patch.env.component;
 
+import java.util.Arrays;
 import java.util.EnumMap;
 import sim.engine.SimState;
 import arcade.core.sim.Series;
@@ -25,6 +26,9 @@ import arcade.patch.util.PatchEnums.ComponentType;
  *
  * <p>Sites can be damaged by setting the {@code DAMAGE_SCALING} parameter, which also reduces the
  * amount of concentration added at each index.
+ *
+ * <p>Indices of sites are listed when the component is created, so updates only iterate through
+ * sites instead of the entire lattice.
  */
 public abstract class PatchComponentSitesPattern extends PatchComponentSites {
     /** Border directions. */
@@ -60,8 +64,11 @@ public abstract class PatchComponentSitesPattern extends PatchComponentSites {
     /** Array of damage instances averaged between site pairs. */
     protected final double[][][] damageTotal;
 
-    /** Array of damage value multipliers. */
-    protected final double[][][] damageValues;
+    /** Array of (z, x, y) indices of sites. */
+    protected final int[] indices;
+
+    /** Array of damage value multipliers for each site. */
+    protected final double[] damageValues;
 
     /** Pattern site damage scaling. */
     private final double damageScaling;
@@ -123,9 +130,10 @@ public abstract class PatchComponentSitesPattern extends PatchComponentSites {
         anchors = new boolean[latticeHeight][latticeLength][latticeWidth];
         damageSingle = new double[latticeHeight][latticeLength][latticeWidth];
         damageTotal = new double[latticeHeight][latticeLength][latticeWidth];
-        damageValues = new double[latticeHeight][latticeLength][latticeWidth];
 
         initializePatternArray();
+        indices = getSiteIndices(patterns);
+        damageValues = new double[indices.length / 3];
         initializeDamageArrays();
     }
 
@@ -156,6 +164,11 @@ public abstract class PatchComponentSitesPattern extends PatchComponentSites {
         return damageSingle;
     }
 
+    @Override
+    int[] getSiteIndices() {
+        return indices;
+    }
+
     /**
      * Calculates the average change in concentration between the two lattice indices bordering a
      * capillary.
@@ -205,35 +218,32 @@ public abstract class PatchComponentSitesPattern extends PatchComponentSites {
 
     /** Initializes damage array to 1.0 (no damage). */
     void initializeDamageArrays() {
-        for (int k = 0; k < latticeHeight; k++) {
-            for (int i = 0; i < latticeLength; i++) {
-                for (int j = 0; j < latticeWidth; j++) {
-                    damageValues[k][i][j] = 1.0;
-                }
-            }
-        }
+        Arrays.fill(damageValues, 1.0);
     }
 
     @Override
     public void step(SimState simstate) {
-        // Iterate through array to calculate damage, if needed.
+        // Iterate through sites to calculate damage, if needed.
         if (calculateDamage) {
-            for (int k = 0; k < latticeHeight; k++) {
-                for (int i = 0; i < latticeLength; i++) {
-                    for (int j = 0; j < latticeWidth; j++) {
-                        if (anchors[k][i][j]) {
-                            calculateDamage(i, j, k);
-                        }
-
-                        damageValues[k][i][j] =
-                                1.0 / Math.exp(damageScaling * damageTotal[k][i][j]);
-                    }
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+
+                if (anchors[k][i][j]) {
+                    calculateDamage(i, j, k);
                 }
+
+                damageValues[n / 3] = 1.0 / Math.exp(damageScaling * damageTotal[k][i][j]);
             }
         }
 
-        double[][][] accumulation = new double[latticeHeight][latticeLength][latticeWidth];
-        double[][][] flow = new double[latticeHeight][latticeLength][latticeWidth];
+        double[][][] accumulation =
+                (calculateLocal || calculateFlow
+                        ? new double[latticeHeight][latticeLength][latticeWidth]
+                        : null);
+        double[][][] flow =
+                (calculateFlow ? new double[latticeHeight][latticeLength][latticeWidth] : null);
         EnumMap<Border, Boolean> borders = new EnumMap<>(Border.class);
 
         // Iterate through each layer and each array to assign updates.
@@ -244,60 +254,50 @@ public abstract class PatchComponentSitesPattern extends PatchComponentSites {
             double concentration = layer.concentration;
             double total = 0;
 
-            // Iterate to calculate accumulation.
-            if (calculateLocal || calculateFlow) {
-                for (int k = 0; k < latticeHeight; k += 2) {
-                    for (int i = 0; i < latticeLength; i++) {
-                        for (int j = 0; j < latticeWidth; j++) {
-                            if (patterns[k][i][j]) {
-                                accumulation[k][i][j] =
-                                        (previous[k][i][j] - current[k][i][j]) / concentration;
-                                total += accumulation[k][i][j];
-                            }
-                        }
-                    }
+            // Iterate through sites to calculate accumulation.
+            if (accumulation != null) {
+                for (int n = 0; n < indices.length; n += 3) {
+                    int k = indices[n];
+                    int i = indices[n + 1];
+                    int j = indices[n + 2];
+                    accumulation[k][i][j] = (previous[k][i][j] - current[k][i][j]) / concentration;
+                    total += accumulation[k][i][j];
                 }
             }
 
-            // Iterate through every other layer.
-            for (int k = 0; k < latticeHeight; k += 2) {
-                // Check if on up or down border of environment.
-                borders.put(Border.UP, k == 0);
-                borders.put(Border.DOWN, k == latticeHeight - 1);
-
-                for (int i = 0; i < latticeLength; i++) {
-                    // Check if on left or right border of environment.
+            // Iterate through sites in order, so flow is calculated from upstream sites.
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+
+                // Calculate flow.
+                if (flow != null && anchors[k][i][j]) {
+                    // Check if on borders of environment.
+                    borders.put(Border.UP, k == 0);
+                    borders.put(Border.DOWN, k == latticeHeight - 1);
                     borders.put(Border.LEFT, i == 0);
                     borders.put(Border.RIGHT, i == latticeLength - 1);
+                    borders.put(Border.TOP, j == 0);
+                    borders.put(Border.BOTTOM, j == latticeWidth - 1);
 
-                    for (int j = 0; j < latticeWidth; j++) {
-                        // Check if on top or bottom border of environment.
-                        borders.put(Border.TOP, j == 0);
-                        borders.put(Border.BOTTOM, j == latticeWidth - 1);
-
-                        if (patterns[k][i][j]) {
-                            // Calculate flow.
-                            if (anchors[k][i][j] && calculateFlow) {
-                                calculateFlow(i, j, k, flow[k], accumulation[k], borders);
-                            }
-
-                            // Calculate weight adjustments.
-                            double wg = 1 - current[k][i][j] / concentration;
-                            double wl = accumulation[k][i][j];
-                            double wf = (total == 0 ? 0 : -flow[k][i][j] / total);
-                            double w = weightGradient * wg + weightLocal * wl + weightFlow * wf;
-                            double ww = 1.0 / (1.0 + Math.exp(-w));
-
-                            // Calculate final change.
-                            delta[k][i][j] =
-                                    Math.max(
-                                            (concentration - previous[k][i][j])
-                                                    * (ww * fraction + 1 - fraction)
-                                                    * damageValues[k][i][j],
-                                            0);
-                        }
-                    }
+                    calculateFlow(i, j, k, flow[k], accumulation[k], borders);
                 }
+
+                // Calculate weight adjustments.
+                double wg = 1 - current[k][i][j] / concentration;
+                double wl = (accumulation == null ? 0 : accumulation[k][i][j]);
+                double wf = (flow == null || total == 0 ? 0 : -flow[k][i][j] / total);
+                double w = weightGradient * wg + weightLocal * wl + weightFlow * wf;
+                double ww = 1.0 / (1.0 + Math.exp(-w));
+
+                // Calculate final change.
+                delta[k][i][j] =
+                        Math.max(
+                                (concentration - previous[k][i][j])
+                                        * (ww * fraction + 1 - fraction)
+                                        * damageValues[n / 3],
+                                0);
             }
         }
     }
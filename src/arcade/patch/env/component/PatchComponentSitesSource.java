@@ -1,5 +1,6 @@
 package arcade.patch.env.component;
 
+import java.util.Arrays;
 import sim.engine.SimState;
 import arcade.core.sim.Series;
 import arcade.core.util.MiniBox;
@@ -29,6 +30,9 @@ import arcade.patch.util.PatchEnums.ComponentType;
  * <p>The amount of concentration added to each index is the difference between the concentration at
  * the index and the source concentration of the molecule. Sites can be damaged by setting the
  * {@code DAMAGE_SCALING} parameter, which reduces the amount of concentration added at each index.
+ *
+ * <p>Indices of sources are listed when the component is created, so updates only iterate through
+ * sources instead of the entire lattice.
  */
 public class PatchComponentSitesSource extends PatchComponentSites {
     /** Array holding locations of sources. */
@@ -37,8 +41,11 @@ public class PatchComponentSitesSource extends PatchComponentSites {
     /** Array of damage instances. */
     private final double[][][] damageSingle;
 
-    /** Array of damage value multipliers. */
-    private final double[][][] damageValues;
+    /** Array of (z, x, y) indices of sources. */
+    private final int[] indices;
+
+    /** Array of damage value multipliers for each source. */
+    private final double[] damageValues;
 
     /** Source site damage scaling. */
     private final double damageScaling;
@@ -85,9 +92,10 @@ public class PatchComponentSitesSource extends PatchComponentSites {
         // Create and initialize arrays.
         sources = new boolean[latticeHeight][latticeLength][latticeWidth];
         damageSingle = new double[latticeHeight][latticeLength][latticeWidth];
-        damageValues = new double[latticeHeight][latticeLength][latticeWidth];
 
         initializeSourceArray();
+        indices = getSiteIndices(sources);
+        damageValues = new double[indices.length / 3];
         initializeDamageArrays();
     }
 
@@ -109,6 +117,11 @@ public class PatchComponentSitesSource extends PatchComponentSites {
         return damageSingle;
     }
 
+    @Override
+    int[] getSiteIndices() {
+        return indices;
+    }
+
     /**
      * Initializes sites in source array.
      *
@@ -136,13 +149,7 @@ public class PatchComponentSitesSource extends PatchComponentSites {
 
     /** Initializes damage array to 1.0 (no damage). */
     void initializeDamageArrays() {
-        for (int k = 0; k < latticeHeight; k++) {
-            for (int i = 0; i < latticeLength; i++) {
-                for (int j = 0; j < latticeWidth; j++) {
-                    damageValues[k][i][j] = 1.0;
-                }
-            }
-        }
+        Arrays.fill(damageValues, 1.0);
     }
 
     /**
@@ -183,38 +190,28 @@ public class PatchComponentSitesSource extends PatchComponentSites {
 
     @Override
     public void step(SimState simstate) {
-        // Iterate through array to calculate damage, if needed.
+        // Iterate through sources to calculate damage, if needed.
         if (calculateDamage) {
-            for (int k = 0; k < latticeHeight; k++) {
-                for (int i = 0; i < latticeLength; i++) {
-                    for (int j = 0; j < latticeWidth; j++) {
-                        if (sources[k][i][j]) {
-                            damageValues[k][i][j] =
-                                    1.0 / Math.exp(damageScaling * damageSingle[k][i][j]);
-                        }
-                    }
-                }
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+                damageValues[n / 3] = 1.0 / Math.exp(damageScaling * damageSingle[k][i][j]);
             }
         }
 
-        // Iterate through each layer and each array to assign updates.
+        // Iterate through each layer and each source to assign updates.
         for (SiteLayer layer : layers) {
             double[][][] delta = layer.delta;
             double[][][] previous = layer.previous;
             double concentration = layer.concentration;
 
-            for (int k = 0; k < latticeHeight; k++) {
-                for (int i = 0; i < latticeLength; i++) {
-                    for (int j = 0; j < latticeWidth; j++) {
-                        if (sources[k][i][j]) {
-                            delta[k][i][j] =
-                                    Math.max(
-                                            (concentration - previous[k][i][j])
-                                                    * damageValues[k][i][j],
-                                            0);
-                        }
-                    }
-                }
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+                delta[k][i][j] =
+                        Math.max((concentration - previous[k][i][j]) * damageValues[n / 3], 0);
             }
         }
     }
@@ -1,32 +1,179 @@
 package arcade.patch.env.grid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import sim.util.Bag;
 import arcade.core.agent.cell.Cell;
 import arcade.core.env.grid.Grid;
 import arcade.core.env.location.Location;
+import arcade.patch.agent.cell.PatchCell;
 import arcade.patch.env.location.PatchLocation;
+import arcade.patch.env.location.PatchLocationTopology;
 
 /**
  * Implementation of {@link Grid} for patch models.
  *
- * <p>{@code PatchGrid} uses the location hash to map to bags of agents.
+ * <p>{@code PatchGrid} maps each location to a dense location index. Bags of agents are stored in
+ * an array by location index, along with aggregates of the agents at each location (total volume,
+ * minimum critical height, and number of agents in each population). If the {@link
+ * PatchLocationTopology} is available, location indices match the topology indices and are read
+ * from the index stored on each {@link PatchLocation}. Otherwise, the location hash is mapped to a
+ * location index.
+ *
+ * <p>Aggregates are recalculated for a location whenever agents are added to, removed from, or
+ * moved between locations. Each {@link PatchCell} added to the grid keeps a reference to the grid
+ * and calls {@link #updateObject(Object, Location)} whenever its volume changes. Updates for object
+ * changes can be deferred, in which case the grid does not change until {@link #updateAll()} is
+ * called.
  */
 public class PatchGrid implements Grid {
     /** Initial bag capacity. */
     private static final int INITIAL_CAPACITY = 6;
 
-    /** Map of ID to object. */
-    final HashMap<Integer, Object> objects;
+    /** Initial number of locations if there is no topology. */
+    private static final int INITIAL_LOCATIONS = 64;
+
+    /** Map of location hash to location index, for lookups by hash. */
+    final HashMap<Integer, Integer> indices;
+
+    /** Topology of location indices, {@code null} if not indexed by topology. */
+    final PatchLocationTopology topology;
+
+    /** Bags of objects at each location index. */
+    Bag[] bags;
+
+    /** Total volume of objects at each location index. */
+    double[] volumes;
+
+    /** Minimum critical height of objects at each location index. */
+    double[] heights;
+
+    /** Number of objects in each population at each location index. */
+    int[][] populations;
+
+    /** Number of location indices. */
+    int size;
+
+    /** {@code true} if updates for object changes are deferred, {@code false} otherwise. */
+    boolean deferred;
 
     /** Collection of all objects in the grid. */
     final Bag allObjects;
 
     /** Creates a {@link Grid} for patch. */
     public PatchGrid() {
-        objects = new HashMap<>();
+        this(PatchLocation.getTopology());
+    }
+
+    /**
+     * Creates a {@link Grid} for patch with location indices from the given topology.
+     *
+     * @param topology the location topology, {@code null} if not available
+     */
+    public PatchGrid(PatchLocationTopology topology) {
+        boolean indexed = topology != null && topology.isCurrent();
+        int capacity = indexed ? topology.size() : INITIAL_LOCATIONS;
+
+        this.topology = (indexed ? topology : null);
+        indices = new HashMap<>(2 * capacity);
+        bags = new Bag[capacity];
+        volumes = new double[capacity];
+        heights = new double[capacity];
+        populations = new int[capacity][];
         allObjects = new Bag();
+
+        Arrays.fill(heights, Double.POSITIVE_INFINITY);
+
+        if (indexed) {
+            for (int i = 0; i < capacity; i++) {
+                indices.put(topology.getLocation(i).hashCode(), i);
+            }
+            size = capacity;
+        }
+    }
+
+    /**
+     * Gets the index of the given location.
+     *
+     * @param location the location
+     * @return the location index, {@code -1} if the location has no index
+     */
+    int getIndex(Location location) {
+        if (topology != null && location instanceof PatchLocation) {
+            int index = ((PatchLocation) location).getTopologyIndex(topology);
+            if (index >= 0) {
+                return index;
+            }
+        }
+
+        Integer index = indices.get(location.hashCode());
+        return (index == null ? -1 : index);
+    }
+
+    /**
+     * Gets the index of the given location, creating a new index if needed.
+     *
+     * @param location the location
+     * @return the location index
+     */
+    int addIndex(Location location) {
+        int index = getIndex(location);
+
+        if (index >= 0) {
+            return index;
+        }
+
+        if (size == bags.length) {
+            int capacity = Math.max(2 * size, INITIAL_LOCATIONS);
+            bags = Arrays.copyOf(bags, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            populations = Arrays.copyOf(populations, capacity);
+            Arrays.fill(heights, size, capacity, Double.POSITIVE_INFINITY);
+        }
+
+        indices.put(location.hashCode(), size);
+        return size++;
+    }
+
+    /**
+     * Recalculates aggregates for objects at the given location index.
+     *
+     * <p>Volumes are summed in bag order, matching {@code PatchCell.calculateTotalVolume}.
+     *
+     * @param index the location index
+     */
+    void updateIndex(int index) {
+        Bag bag = bags[index];
+        int[] counts = populations[index];
+        double volume = 0;
+        double height = Double.POSITIVE_INFINITY;
+
+        if (counts != null) {
+            Arrays.fill(counts, 0);
+        }
+
+        if (bag != null) {
+            for (Object obj : bag) {
+                Cell cell = (Cell) obj;
+                volume += cell.getVolume();
+                height = Math.min(height, cell.getCriticalHeight());
+
+                int pop = cell.getPop();
+                if (pop < 0) {
+                    continue;
+                }
+                if (counts == null || pop >= counts.length) {
+                    counts = (counts == null ? new int[pop + 1] : Arrays.copyOf(counts, pop + 1));
+                    populations[index] = counts;
+                }
+                counts[pop]++;
+            }
+        }
+
+        volumes[index] = volume;
+        heights[index] = height;
     }
 
     @Override
@@ -36,35 +183,47 @@ public class PatchGrid implements Grid {
 
     @Override
     public void addObject(Object object, Location location) {
-        int index = location.hashCode();
+        int index = addIndex(location);
         allObjects.add(object);
 
-        Bag bag = (Bag) objects.get(index);
+        Bag bag = bags[index];
 
         if (bag == null) {
             bag = new Bag(INITIAL_CAPACITY);
-            objects.put(index, bag);
+            bags[index] = bag;
         }
 
         bag.add(object);
+        updateIndex(index);
+
+        if (object instanceof PatchCell) {
+            ((PatchCell) object).setGrid(this);
+        }
     }
 
     @Override
     public void removeObject(Object object, Location location) {
-        int index = location.hashCode();
+        int index = getIndex(location);
         allObjects.remove(object);
 
-        Bag bag = (Bag) objects.get(index);
+        if (object instanceof PatchCell) {
+            ((PatchCell) object).setGrid(null);
+        }
+
+        Bag bag = bags[index];
         bag.remove(object);
 
         if (bag.numObjs == 0) {
-            objects.remove(index);
+            bags[index] = null;
         }
+
+        updateIndex(index);
     }
 
     @Override
     public Object getObjectAt(int index) {
-        return objects.get(index);
+        Integer locationIndex = indices.get(index);
+        return (locationIndex == null ? null : bags[locationIndex]);
     }
 
     /**
@@ -75,30 +234,69 @@ public class PatchGrid implements Grid {
     @Override
     public void moveObject(Object object, Location fromLocation, Location toLocation) {
         // Remove object from old location.
-        int fromIndex = fromLocation.hashCode();
-        Bag fromBag = (Bag) objects.get(fromIndex);
+        int fromIndex = getIndex(fromLocation);
+        Bag fromBag = bags[fromIndex];
         fromBag.remove(object);
 
         if (fromBag.numObjs == 0) {
-            objects.remove(fromIndex);
+            bags[fromIndex] = null;
         }
 
+        updateIndex(fromIndex);
+
         // Add to new location.
-        int toIndex = toLocation.hashCode();
-        Bag toBag = (Bag) objects.get(toIndex);
+        int toIndex = addIndex(toLocation);
+        Bag toBag = bags[toIndex];
 
         if (toBag == null) {
             toBag = new Bag(INITIAL_CAPACITY);
-            objects.put(toIndex, toBag);
+            bags[toIndex] = toBag;
         }
 
         toBag.add(object);
+        updateIndex(toIndex);
 
         // Update location object.
         PatchLocation location = (PatchLocation) ((Cell) object).getLocation();
         location.update((PatchLocation) toLocation);
     }
 
+    /**
+     * Updates location aggregates after changes to an object.
+     *
+     * @param object the object
+     * @param location the location of the object
+     */
+    public void updateObject(Object object, Location location) {
+        if (deferred) {
+            return;
+        }
+
+        int index = getIndex(location);
+        if (index >= 0) {
+            updateIndex(index);
+        }
+    }
+
+    /**
+     * Sets if updates for object changes are deferred.
+     *
+     * <p>Objects can be safely changed from multiple threads while updates are deferred, as long as
+     * objects are not added, removed, or moved.
+     *
+     * @param deferred {@code true} to defer updates, {@code false} otherwise
+     */
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /** Updates aggregates for all locations. */
+    public void updateAll() {
+        for (int i = 0; i < size; i++) {
+            updateIndex(i);
+        }
+    }
+
     /**
      * Gets all objects at a location.
      *
@@ -106,11 +304,11 @@ public class PatchGrid implements Grid {
      * @return a bag of objects at the given location
      */
     public Bag getObjectsAtLocation(Location location) {
-        Bag bag = (Bag) objects.get(location.hashCode());
-        if (bag == null || bag.numObjs == 0) {
+        int index = getIndex(location);
+        if (index < 0 || bags[index] == null || bags[index].numObjs == 0) {
             return null;
         } else {
-            return bag;
+            return bags[index];
         }
     }
 
@@ -133,4 +331,53 @@ public class PatchGrid implements Grid {
         }
         return bag;
     }
+
+    /**
+     * Gets the number of objects at a location.
+     *
+     * @param location the location
+     * @return the number of objects
+     */
+    public int getNumObjects(Location location) {
+        int index = getIndex(location);
+        return (index < 0 || bags[index] == null ? 0 : bags[index].numObjs);
+    }
+
+    /**
+     * Gets the total volume of objects at a location.
+     *
+     * @param location the location
+     * @return the total volume
+     */
+    public double getTotalVolume(Location location) {
+        int index = getIndex(location);
+        return (index < 0 ? 0 : volumes[index]);
+    }
+
+    /**
+     * Gets the minimum critical height of objects at a location.
+     *
+     * @param location the location
+     * @return the minimum critical height, infinite if there are no objects
+     */
+    public double getMinCriticalHeight(Location location) {
+        int index = getIndex(location);
+        return (index < 0 ? Double.POSITIVE_INFINITY : heights[index]);
+    }
+
+    /**
+     * Gets the number of objects in the given population at a location.
+     *
+     * @param location the location
+     * @param pop the population index
+     * @return the number of objects in the population
+     */
+    public int getPopulationCount(Location location, int pop) {
+        int index = getIndex(location);
+        if (index < 0) {
+            return 0;
+        }
+        int[] counts = populations[index];
+        return (counts == null || pop >= counts.length ? 0 : counts[pop]);
+    }
 }
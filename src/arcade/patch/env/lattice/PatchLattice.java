@@ -10,24 +10,37 @@ import arcade.core.env.operation.Operation;
 import arcade.core.env.operation.OperationCategory;
 import arcade.core.sim.Simulation;
 import arcade.core.util.MiniBox;
-import arcade.patch.env.location.CoordinateXYZ;
 import arcade.patch.env.location.PatchLocation;
+import arcade.patch.env.operation.PatchOperationDecayer;
+import arcade.patch.env.operation.PatchOperationDiffuser;
+import arcade.patch.env.operation.PatchOperationGenerator;
 import static arcade.patch.util.PatchEnums.Category;
 import static arcade.patch.util.PatchEnums.Ordering;
 
 /**
  * Abstract implementation of {@link Lattice} for patch models.
  *
- * <p>{@code PatchLattice} agents can call two {@link Operation} categories: diffusers and
- * generators. Diffusers diffuse values on the underlying array. Generators add values to the
- * underlying array.
+ * <p>{@code PatchLattice} agents can call three {@link Operation} categories: diffusers,
+ * generators, and decayers. Diffusers diffuse values on the underlying array. Generators add values
+ * to the underlying array. Decayers remove values from the underlying array.
  *
  * <p>General order of rules for the {@code PatchLattice} step:
  *
  * <ul>
  *   <li>step generator operation
  *   <li>step diffuser operation
+ *   <li>step decayer operation
  * </ul>
+ *
+ * <p>If all three operations exist, they are stepped together as a single fused diffuser operation.
+ *
+ * <p>If {@code TILE_SIZE} is positive, changes to the lattice are tracked using {@link
+ * PatchLatticeTiles} and diffusion is only applied to active tiles. Decay is still applied to the
+ * whole lattice every tick, so skipped tiles stay current when read by neighboring tiles, cells, or
+ * outputs.
+ *
+ * <p>Changes to lattice values are recorded instead of applied if a {@link PatchLatticeUpdates}
+ * buffer is started on the calling thread.
  */
 public abstract class PatchLattice implements Lattice {
     /** Array containing lattice values. */
@@ -54,9 +67,24 @@ public abstract class PatchLattice implements Lattice {
     /** Lattice parameters. */
     final MiniBox parameters;
 
+    /** Maximum concentration supplied by the generator. */
+    final double concentration;
+
+    /** Activity tracking tiles, {@code null} if not tracked. */
+    final PatchLatticeTiles tiles;
+
     /**
      * Creates a {@code PatchLattice} environment.
      *
+     * <p>Loaded parameters include:
+     *
+     * <ul>
+     *   <li>{@code TILE_SIZE} = size of activity tracking tiles, non-positive to disable
+     *   <li>{@code TILE_THRESHOLD} = maximum change in a stationary tile
+     *   <li>{@code TILE_INTERVAL} = number of ticks between full sweeps
+     *   <li>{@code generator/CONCENTRATION} = maximum concentration supplied by the generator
+     * </ul>
+     *
      * @param length the length of array (x direction)
      * @param width the width of array (y direction)
      * @param height the height of array (z direction)
@@ -72,9 +100,21 @@ public abstract class PatchLattice implements Lattice {
         this.ds = ds;
         this.dz = dz;
         this.parameters = parameters;
+        this.concentration = parameters.getDouble("generator/CONCENTRATION");
 
         field = new double[height][length][width];
 
+        // Set up activity tracking tiles, if used.
+        int tileSize = parameters.getInt("TILE_SIZE");
+        if (tileSize > 0) {
+            double threshold = parameters.getDouble("TILE_THRESHOLD");
+            int interval = parameters.getInt("TILE_INTERVAL");
+            threshold = (Double.isNaN(threshold) ? 0 : threshold);
+            tiles = new PatchLatticeTiles(length, width, tileSize, threshold, interval);
+        } else {
+            tiles = null;
+        }
+
         // Add lattice operations.
         operations = new HashMap<>();
         MiniBox operationBox = parameters.filter("(OPERATION)");
@@ -125,6 +165,36 @@ public abstract class PatchLattice implements Lattice {
         return parameters;
     }
 
+    /**
+     * Gets the maximum concentration supplied by the generator.
+     *
+     * @return the maximum concentration
+     */
+    public double getConcentration() {
+        return concentration;
+    }
+
+    /**
+     * Gets the activity tracking tiles.
+     *
+     * @return the tiles, {@code null} if not tracked
+     */
+    public PatchLatticeTiles getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Marks the tile containing the coordinates as active, if tiles are tracked.
+     *
+     * @param i the coordinate in the x axis
+     * @param j the coordinate in the y axis
+     */
+    private void markTile(int i, int j) {
+        if (tiles != null) {
+            tiles.mark(i, j);
+        }
+    }
+
     @Override
     public void setField(double[][] values, int index) {
         for (int i = 0; i < values.length; i++) {
@@ -152,47 +222,65 @@ public abstract class PatchLattice implements Lattice {
 
     @Override
     public double getTotalValue(Location location) {
-        PatchLocation patchLocation = (PatchLocation) location;
-        return patchLocation.getSubcoordinates().stream()
-                .map(e -> (CoordinateXYZ) e)
-                .mapToDouble(c -> field[c.z][c.x][c.y])
-                .sum();
+        int[] indices = ((PatchLocation) location).getSubcoordinateIndices();
+        double total = 0;
+        for (int n = 0; n < indices.length; n += 3) {
+            total += field[indices[n]][indices[n + 1]][indices[n + 2]];
+        }
+        return total;
     }
 
     @Override
     public double getAverageValue(Location location) {
         PatchLocation patchLocation = (PatchLocation) location;
-        return patchLocation.getSubcoordinates().stream()
-                        .map(e -> (CoordinateXYZ) e)
-                        .mapToDouble(c -> field[c.z][c.x][c.y])
-                        .sum()
-                / patchLocation.getNumSubcoordinates();
+        return getTotalValue(patchLocation) / patchLocation.getNumSubcoordinates();
     }
 
     @Override
     public void updateValue(Location location, double fraction) {
+        PatchLatticeUpdates updates = PatchLatticeUpdates.getActive();
+        if (updates != null) {
+            updates.add(this, PatchLatticeUpdates.UPDATE, location, fraction);
+            return;
+        }
+
         if (!Double.isNaN(fraction)) {
-            PatchLocation patchLocation = (PatchLocation) location;
-            patchLocation.getSubcoordinates().stream()
-                    .map(e -> (CoordinateXYZ) e)
-                    .forEach(c -> field[c.z][c.x][c.y] *= fraction);
+            int[] indices = ((PatchLocation) location).getSubcoordinateIndices();
+            for (int n = 0; n < indices.length; n += 3) {
+                field[indices[n]][indices[n + 1]][indices[n + 2]] *= fraction;
+                markTile(indices[n + 1], indices[n + 2]);
+            }
         }
     }
 
     @Override
     public void incrementValue(Location location, double increment) {
-        PatchLocation patchLocation = (PatchLocation) location;
-        patchLocation.getSubcoordinates().stream()
-                .map(e -> (CoordinateXYZ) e)
-                .forEach(c -> field[c.z][c.x][c.y] += increment);
+        PatchLatticeUpdates updates = PatchLatticeUpdates.getActive();
+        if (updates != null) {
+            updates.add(this, PatchLatticeUpdates.INCREMENT, location, increment);
+            return;
+        }
+
+        int[] indices = ((PatchLocation) location).getSubcoordinateIndices();
+        for (int n = 0; n < indices.length; n += 3) {
+            field[indices[n]][indices[n + 1]][indices[n + 2]] += increment;
+            markTile(indices[n + 1], indices[n + 2]);
+        }
     }
 
     @Override
     public void setValue(Location location, double value) {
-        PatchLocation patchLocation = (PatchLocation) location;
-        patchLocation.getSubcoordinates().stream()
-                .map(e -> (CoordinateXYZ) e)
-                .forEach(c -> field[c.z][c.x][c.y] = value);
+        PatchLatticeUpdates updates = PatchLatticeUpdates.getActive();
+        if (updates != null) {
+            updates.add(this, PatchLatticeUpdates.SET, location, value);
+            return;
+        }
+
+        int[] indices = ((PatchLocation) location).getSubcoordinateIndices();
+        for (int n = 0; n < indices.length; n += 3) {
+            field[indices[n]][indices[n + 1]][indices[n + 2]] = value;
+            markTile(indices[n + 1], indices[n + 2]);
+        }
     }
 
     @Override
@@ -204,6 +292,43 @@ public abstract class PatchLattice implements Lattice {
     @Override
     public void step(SimState simstate) {
         Simulation sim = (Simulation) simstate;
+        Operation generator = operations.get(Category.GENERATOR);
+        Operation diffuser = operations.get(Category.DIFFUSER);
+        Operation decayer = operations.get(Category.DECAYER);
+
+        // Step operations on active tiles, if tracked.
+        if (tiles != null && diffuser instanceof PatchOperationDiffuser) {
+            tiles.start();
+
+            if (generator instanceof PatchOperationGenerator) {
+                double[][][] delta = ((PatchOperationGenerator) generator).latticeDelta;
+                int[] indices = ((PatchOperationGenerator) generator).getIndices();
+                generator.step(simstate.random, sim);
+                if (indices == null) {
+                    tiles.markChanged(delta);
+                } else {
+                    tiles.markChanged(delta, indices);
+                }
+            }
+
+            ((PatchOperationDiffuser) diffuser).stepTiled(tiles);
+
+            if (decayer != null) {
+                decayer.step(simstate.random, sim);
+            }
+
+            return;
+        }
+
+        // Step fused generator, diffuser, and decayer operations, if all exist.
+        if (generator instanceof PatchOperationGenerator
+                && diffuser instanceof PatchOperationDiffuser
+                && decayer instanceof PatchOperationDecayer) {
+            double[][][] delta = ((PatchOperationGenerator) generator).latticeDelta;
+            double decayRate = ((PatchOperationDecayer) decayer).getDecayRate();
+            ((PatchOperationDiffuser) diffuser).stepFused(delta, decayRate);
+            return;
+        }
 
         // Step generator operation, if it exists.
         if (operations.containsKey(Category.GENERATOR)) {
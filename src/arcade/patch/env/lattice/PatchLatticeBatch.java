@@ -0,0 +1,58 @@
+package arcade.patch.env.lattice;
+
+import java.util.List;
+import sim.engine.Schedule;
+import sim.engine.SimState;
+import sim.engine.Steppable;
+import arcade.core.sim.Simulation;
+import arcade.patch.env.operation.PatchOperationBatch;
+import static arcade.patch.util.PatchEnums.Ordering;
+
+/**
+ * Group of {@link PatchLattice} layers that are stepped together.
+ *
+ * <p>Layers in the batch share the same grid and diffuser geometry, and are stepped using a single
+ * {@link PatchOperationBatch} in place of their individual operations. The batch is scheduled in
+ * place of the individual lattices.
+ */
+public class PatchLatticeBatch implements Steppable {
+    /** List of lattices in the batch. */
+    final List<PatchLattice> lattices;
+
+    /** Batched operation for the lattices. */
+    final PatchOperationBatch operation;
+
+    /**
+     * Creates a batch of {@link PatchLattice} layers.
+     *
+     * @param lattices the list of lattices in the batch
+     */
+    public PatchLatticeBatch(List<PatchLattice> lattices) {
+        this.lattices = lattices;
+        this.operation = new PatchOperationBatch(lattices);
+    }
+
+    /**
+     * Gets the lattices in the batch.
+     *
+     * @return the list of lattices
+     */
+    public List<PatchLattice> getLattices() {
+        return lattices;
+    }
+
+    /**
+     * Schedules the batch in the simulation.
+     *
+     * @param schedule the simulation schedule
+     */
+    public void schedule(Schedule schedule) {
+        schedule.scheduleOnce(this, Ordering.FIRST.ordinal());
+        schedule.scheduleRepeating(this, Ordering.LATTICES.ordinal(), 1);
+    }
+
+    @Override
+    public void step(SimState simstate) {
+        operation.step(simstate.random, (Simulation) simstate);
+    }
+}
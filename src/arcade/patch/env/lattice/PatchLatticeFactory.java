@@ -1,15 +1,22 @@
 package arcade.patch.env.lattice;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import ec.util.MersenneTwisterFast;
 import arcade.core.env.lattice.LatticeFactory;
 import arcade.core.sim.Series;
 import arcade.core.util.MiniBox;
+import arcade.patch.env.operation.PatchOperationBatch;
+import arcade.patch.env.operation.PatchOperationDiffuser;
+import arcade.patch.sim.PatchSeries;
+import static arcade.patch.util.PatchEnums.Category;
 
 /**
  * Implementation of{@link LatticeFactory} for {@link PatchLattice} objects.
  *
- * <p>Each lattice is initialized to {@code INITIAL_CONCENTRATION}.
+ * <p>Each lattice is initialized to {@code INITIAL_CONCENTRATION}. If {@code LATTICE_STEPPING} is
+ * set to {@code batched}, lattices with compatible diffusers are grouped into {@link
+ * PatchLatticeBatch} instances that are stepped together.
  */
 public abstract class PatchLatticeFactory implements LatticeFactory {
     /** Random number generator instance. */
@@ -18,9 +25,13 @@ public abstract class PatchLatticeFactory implements LatticeFactory {
     /** Map of id to lattice. */
     public final HashMap<String, PatchLattice> lattices;
 
+    /** List of lattice batches. */
+    public final ArrayList<PatchLatticeBatch> batches;
+
     /** Creates a factory for making {@link PatchLattice} instances. */
     public PatchLatticeFactory() {
         lattices = new HashMap<>();
+        batches = new ArrayList<>();
     }
 
     @Override
@@ -56,6 +67,55 @@ public abstract class PatchLatticeFactory implements LatticeFactory {
 
             lattices.put(key, lattice);
         }
+
+        // Group lattices into batches, if enabled.
+        MiniBox patch = (series instanceof PatchSeries ? ((PatchSeries) series).patch : null);
+        if (patch != null && "batched".equalsIgnoreCase(patch.get("LATTICE_STEPPING"))) {
+            createBatches(series);
+        }
+    }
+
+    /**
+     * Groups lattices with compatible diffusers into batches.
+     *
+     * <p>Lattices are checked in layer order. Lattices with activity tracking tiles are stepped
+     * individually. Groups with fewer than two lattices are not batched.
+     *
+     * @param series the simulation series
+     */
+    void createBatches(Series series) {
+        ArrayList<ArrayList<PatchLattice>> groups = new ArrayList<>();
+
+        for (String key : series.layers.keySet()) {
+            PatchLattice lattice = lattices.get(key);
+
+            if (!(lattice.getOperation(Category.DIFFUSER) instanceof PatchOperationDiffuser)
+                    || lattice.getTiles() != null) {
+                continue;
+            }
+
+            ArrayList<PatchLattice> match = null;
+            for (ArrayList<PatchLattice> group : groups) {
+                if (PatchOperationBatch.isCompatible(
+                        lattice, group.get(0).getOperation(Category.DIFFUSER))) {
+                    match = group;
+                    break;
+                }
+            }
+
+            if (match == null) {
+                match = new ArrayList<>();
+                groups.add(match);
+            }
+
+            match.add(lattice);
+        }
+
+        for (ArrayList<PatchLattice> group : groups) {
+            if (group.size() > 1) {
+                batches.add(new PatchLatticeBatch(group));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,254 @@
+package arcade.patch.env.lattice;
+
+/**
+ * Tile-level activity tracking for {@link PatchLattice} layers.
+ *
+ * <p>The lattice is divided into square tiles in the x-y plane that span all z layers. A tile is
+ * active if values in the tile were changed by cells, by the generator, or by diffusion above the
+ * activity threshold. Diffusion only processes active tiles and their neighbors (the halo), which
+ * skips regions of the lattice that are at steady state. Skipped tiles differ from untracked
+ * diffusion by changes below the activity threshold in each substep. All tiles are marked active
+ * every {@code interval} ticks, so the full lattice is periodically swept.
+ */
+public class PatchLatticeTiles {
+    /** Size of tiles (x and y directions). */
+    final int tileSize;
+
+    /** Number of tiles in the x direction. */
+    final int tilesLength;
+
+    /** Number of tiles in the y direction. */
+    final int tilesWidth;
+
+    /** Maximum change in a tile for the tile to be considered stationary. */
+    final double threshold;
+
+    /** Number of ticks between full sweeps. */
+    final int interval;
+
+    /** Tiles that are active. */
+    private final boolean[][] active;
+
+    /** Tiles that are processed in the current substep. */
+    private final boolean[][] processing;
+
+    /** Tiles that have been processed in the current tick. */
+    private final boolean[][] touched;
+
+    /** Maximum change in each tile in the current substep. */
+    private final double[][] changes;
+
+    /** Current tick. */
+    private int tick;
+
+    /**
+     * Creates activity tracking tiles for a lattice.
+     *
+     * @param length the length of array (x direction)
+     * @param width the width of array (y direction)
+     * @param tileSize the size of tiles
+     * @param threshold the maximum change in a stationary tile
+     * @param interval the number of ticks between full sweeps
+     */
+    public PatchLatticeTiles(int length, int width, int tileSize, double threshold, int interval) {
+        this.tileSize = tileSize;
+        this.tilesLength = (length + tileSize - 1) / tileSize;
+        this.tilesWidth = (width + tileSize - 1) / tileSize;
+        this.threshold = threshold;
+        this.interval = Math.max(1, interval);
+
+        active = new boolean[tilesLength][tilesWidth];
+        processing = new boolean[tilesLength][tilesWidth];
+        touched = new boolean[tilesLength][tilesWidth];
+        changes = new double[tilesLength][tilesWidth];
+    }
+
+    /**
+     * Gets the size of tiles.
+     *
+     * @return the tile size
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the number of tiles in the x direction.
+     *
+     * @return the number of tiles
+     */
+    public int getTilesLength() {
+        return tilesLength;
+    }
+
+    /**
+     * Gets the number of tiles in the y direction.
+     *
+     * @return the number of tiles
+     */
+    public int getTilesWidth() {
+        return tilesWidth;
+    }
+
+    /**
+     * Marks the tile containing the given coordinates as active.
+     *
+     * @param i the coordinate in the x axis
+     * @param j the coordinate in the y axis
+     */
+    public void mark(int i, int j) {
+        active[i / tileSize][j / tileSize] = true;
+    }
+
+    /** Marks all tiles as active. */
+    public void markAll() {
+        for (int a = 0; a < tilesLength; a++) {
+            for (int b = 0; b < tilesWidth; b++) {
+                active[a][b] = true;
+            }
+        }
+    }
+
+    /**
+     * Marks tiles containing any non-zero change as active.
+     *
+     * @param delta the array of changes in values
+     */
+    public void markChanged(double[][][] delta) {
+        for (double[][] layer : delta) {
+            for (int i = 0; i < layer.length; i++) {
+                double[] row = layer[i];
+                for (int j = 0; j < row.length; j++) {
+                    if (row[j] != 0) {
+                        mark(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks tiles containing any non-zero change at the given indices as active.
+     *
+     * @param delta the array of changes in values
+     * @param indices the array of (z, x, y) indices to check
+     */
+    public void markChanged(double[][][] delta, int[] indices) {
+        for (int n = 0; n < indices.length; n += 3) {
+            int i = indices[n + 1];
+            int j = indices[n + 2];
+            if (delta[indices[n]][i][j] != 0) {
+                mark(i, j);
+            }
+        }
+    }
+
+    /**
+     * Starts a new tick.
+     *
+     * <p>All tiles are marked active at the first tick and every {@code interval} ticks after.
+     */
+    public void start() {
+        if (tick % interval == 0) {
+            markAll();
+        }
+
+        for (int a = 0; a < tilesLength; a++) {
+            for (int b = 0; b < tilesWidth; b++) {
+                touched[a][b] = false;
+            }
+        }
+
+        tick++;
+    }
+
+    /**
+     * Selects the active tiles and their halos for processing in the next substep.
+     *
+     * @return {@code true} if any tiles are selected, {@code false} otherwise
+     */
+    public boolean select() {
+        boolean any = false;
+
+        for (int a = 0; a < tilesLength; a++) {
+            for (int b = 0; b < tilesWidth; b++) {
+                processing[a][b] = false;
+                changes[a][b] = 0;
+            }
+        }
+
+        for (int a = 0; a < tilesLength; a++) {
+            for (int b = 0; b < tilesWidth; b++) {
+                if (!active[a][b]) {
+                    continue;
+                }
+
+                for (int c = Math.max(0, a - 1); c <= Math.min(tilesLength - 1, a + 1); c++) {
+                    for (int d = Math.max(0, b - 1); d <= Math.min(tilesWidth - 1, b + 1); d++) {
+                        processing[c][d] = true;
+                        touched[c][d] = true;
+                    }
+                }
+
+                any = true;
+            }
+        }
+
+        return any;
+    }
+
+    /**
+     * Records a change in a processed tile.
+     *
+     * @param a the tile index in the x direction
+     * @param b the tile index in the y direction
+     * @param change the absolute change in value
+     */
+    public void record(int a, int b, double change) {
+        if (change > changes[a][b]) {
+            changes[a][b] = change;
+        }
+    }
+
+    /** Updates active tiles to processed tiles with changes above the threshold. */
+    public void update() {
+        for (int a = 0; a < tilesLength; a++) {
+            for (int b = 0; b < tilesWidth; b++) {
+                active[a][b] = processing[a][b] && changes[a][b] > threshold;
+            }
+        }
+    }
+
+    /**
+     * Checks if a tile is selected for processing in the current substep.
+     *
+     * @param a the tile index in the x direction
+     * @param b the tile index in the y direction
+     * @return {@code true} if the tile is processed, {@code false} otherwise
+     */
+    public boolean isProcessing(int a, int b) {
+        return processing[a][b];
+    }
+
+    /**
+     * Checks if a tile has been processed in the current tick.
+     *
+     * @param a the tile index in the x direction
+     * @param b the tile index in the y direction
+     * @return {@code true} if the tile has been processed, {@code false} otherwise
+     */
+    public boolean isTouched(int a, int b) {
+        return touched[a][b];
+    }
+
+    /**
+     * Checks if a tile is active.
+     *
+     * @param a the tile index in the x direction
+     * @param b the tile index in the y direction
+     * @return {@code true} if the tile is active, {@code false} otherwise
+     */
+    public boolean isActive(int a, int b) {
+        return active[a][b];
+    }
+}
@@ -0,0 +1,133 @@
+package arcade.patch.env.lattice;
+
+import java.util.Arrays;
+import arcade.core.env.location.Location;
+
+/**
+ * Buffer of deferred value changes to {@link PatchLattice} objects.
+ *
+ * <p>While a buffer is started on a thread, calls to update, increment, or set values of any {@code
+ * PatchLattice} from that thread are recorded in the buffer instead of changing the lattice field.
+ * Lattice values read from that thread are therefore unchanged until the buffer is applied.
+ * Recorded changes are applied in the order they were recorded, which allows changes recorded
+ * concurrently in separate buffers to be merged deterministically by applying the buffers in a
+ * fixed order.
+ */
+public final class PatchLatticeUpdates {
+    /** Code for multiplying values by a fraction. */
+    static final byte UPDATE = 0;
+
+    /** Code for incrementing values. */
+    static final byte INCREMENT = 1;
+
+    /** Code for setting values. */
+    static final byte SET = 2;
+
+    /** Initial buffer capacity. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Buffer started for each thread. */
+    private static final ThreadLocal<PatchLatticeUpdates> ACTIVE = new ThreadLocal<>();
+
+    /** Lattices for each recorded change. */
+    private PatchLattice[] lattices;
+
+    /** Locations for each recorded change. */
+    private Location[] locations;
+
+    /** Codes for each recorded change. */
+    private byte[] codes;
+
+    /** Values for each recorded change. */
+    private double[] values;
+
+    /** Number of recorded changes. */
+    private int size;
+
+    /** Creates an empty {@code PatchLatticeUpdates} buffer. */
+    public PatchLatticeUpdates() {
+        lattices = new PatchLattice[INITIAL_CAPACITY];
+        locations = new Location[INITIAL_CAPACITY];
+        codes = new byte[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gets the buffer started on the current thread.
+     *
+     * @return the started buffer, {@code null} if no buffer is started
+     */
+    static PatchLatticeUpdates getActive() {
+        return ACTIVE.get();
+    }
+
+    /** Starts recording lattice changes from the current thread into this buffer. */
+    public void start() {
+        ACTIVE.set(this);
+    }
+
+    /** Stops recording lattice changes from the current thread. */
+    public void finish() {
+        ACTIVE.remove();
+    }
+
+    /**
+     * Gets the number of recorded changes.
+     *
+     * @return the number of changes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Records a lattice change.
+     *
+     * @param lattice the lattice
+     * @param code the change code
+     * @param location the location
+     * @param value the change value
+     */
+    void add(PatchLattice lattice, byte code, Location location, double value) {
+        if (size == codes.length) {
+            int capacity = 2 * size;
+            lattices = Arrays.copyOf(lattices, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        lattices[size] = lattice;
+        locations[size] = location;
+        codes[size] = code;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Applies recorded changes in order and clears the buffer.
+     *
+     * <p>Changes must be applied from a thread without a started buffer.
+     */
+    public void apply() {
+        for (int i = 0; i < size; i++) {
+            switch (codes[i]) {
+                case UPDATE:
+                    lattices[i].updateValue(locations[i], values[i]);
+                    break;
+                case INCREMENT:
+                    lattices[i].incrementValue(locations[i], values[i]);
+                    break;
+                case SET:
+                default:
+                    lattices[i].setValue(locations[i], values[i]);
+                    break;
+            }
+
+            lattices[i] = null;
+            locations[i] = null;
+        }
+
+        size = 0;
+    }
+}
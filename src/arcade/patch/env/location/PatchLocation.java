@@ -41,18 +41,33 @@ public abstract class PatchLocation implements Location {
     /** Height offset for different layers in the simulation. */
     static int heightOffset;
 
+    /** Neighbor topology of the simulation environment. */
+    static PatchLocationTopology topology;
+
     /** Location patch coordinate. */
     Coordinate coordinate;
 
     /** Location subcoordinates. */
     ArrayList<Coordinate> subcoordinates;
 
+    /** Location subcoordinate lattice indices, {@code null} until calculated. */
+    int[] indices;
+
+    /** Neighbor topology of the location index, {@code null} until calculated. */
+    PatchLocationTopology indexedTopology;
+
+    /** Location index in the neighbor topology, {@code -1} if not in the topology. */
+    int topologyIndex;
+
     /** Location offset. */
     byte offset;
 
     /** Allowable movements. */
     byte check;
 
+    /** {@code true} if the location is a shared topology instance, {@code false} otherwise. */
+    boolean canonical;
+
     /**
      * Creates a {@code PatchLocation} object at given coordinate.
      *
@@ -132,6 +147,51 @@ public abstract class PatchLocation implements Location {
         return subcoordinates;
     }
 
+    /**
+     * Gets the {@link arcade.core.env.lattice.Lattice} indices of all subcoordinates.
+     *
+     * <p>Indices are listed as consecutive (z, x, y) triplets, in the same order as the
+     * subcoordinates. The array is calculated once and shared with clones and updated locations,
+     * and should not be modified.
+     *
+     * @return the array of subcoordinate indices
+     */
+    public int[] getSubcoordinateIndices() {
+        if (indices == null) {
+            int n = subcoordinates.size();
+            int[] values = new int[3 * n];
+
+            for (int i = 0; i < n; i++) {
+                CoordinateXYZ subcoordinate = (CoordinateXYZ) subcoordinates.get(i);
+                values[3 * i] = subcoordinate.z;
+                values[3 * i + 1] = subcoordinate.x;
+                values[3 * i + 2] = subcoordinate.y;
+            }
+
+            indices = values;
+        }
+
+        return indices;
+    }
+
+    /**
+     * Gets the index of the location in the given neighbor topology.
+     *
+     * <p>The index is calculated once for each topology and shared with clones and updated
+     * locations, so repeated lookups do not hash the coordinate.
+     *
+     * @param topology the neighbor topology
+     * @return the location index, {@code -1} if not in the topology
+     */
+    public int getTopologyIndex(PatchLocationTopology topology) {
+        if (indexedTopology != topology) {
+            topologyIndex = topology.getIndex(coordinate);
+            indexedTopology = topology;
+        }
+
+        return topologyIndex;
+    }
+
     /**
      * Gets the {@link arcade.core.env.grid.Grid} coordinate size in the xy plane.
      *
@@ -180,6 +240,9 @@ public abstract class PatchLocation implements Location {
     public void update(PatchLocation location) {
         this.coordinate = location.coordinate;
         this.subcoordinates = new ArrayList<>(location.subcoordinates);
+        this.indices = location.indices;
+        this.indexedTopology = location.indexedTopology;
+        this.topologyIndex = location.topologyIndex;
         this.offset = location.offset;
         this.check = location.check;
     }
@@ -214,12 +277,77 @@ public abstract class PatchLocation implements Location {
      */
     public abstract double getPerimeter(double fraction);
 
+    /**
+     * Checks if the location is a shared instance from the neighbor topology.
+     *
+     * <p>Shared instances should not be updated.
+     *
+     * @return {@code true} if the location is shared, {@code false} otherwise
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * Gets the neighbor topology of the simulation environment.
+     *
+     * @return the topology, {@code null} if not created
+     */
+    public static PatchLocationTopology getTopology() {
+        return topology;
+    }
+
     /**
      * Gets the location of the neighbors to the current location.
      *
+     * <p>If the neighbor topology is available, the neighbors are the shared instances from the
+     * topology. Otherwise, new neighbor locations are calculated.
+     *
+     * @return the list of neighbor locations
+     */
+    public ArrayList<Location> getNeighbors() {
+        if (topology != null && topology.isCurrent()) {
+            int index = getTopologyIndex(topology);
+            if (index >= 0) {
+                ArrayList<Location> neighbors = topology.getNeighbors(index);
+                if (neighbors != null) {
+                    return neighbors;
+                }
+            }
+        }
+
+        return calculateNeighbors();
+    }
+
+    /**
+     * Gets the array of neighbor locations to the current location.
+     *
+     * <p>If the neighbor topology is available, the array is shared by all locations at the same
+     * coordinate and should not be modified. Otherwise, new neighbor locations are calculated.
+     * Unlike {@link #getNeighbors()}, no list is created when the topology is available.
+     *
+     * @return the array of neighbor locations
+     */
+    public PatchLocation[] getNeighborLocations() {
+        if (topology != null && topology.isCurrent()) {
+            int index = getTopologyIndex(topology);
+            if (index >= 0) {
+                PatchLocation[] neighbors = topology.getNeighborLocations(index);
+                if (neighbors != null) {
+                    return neighbors;
+                }
+            }
+        }
+
+        return calculateNeighbors().toArray(new PatchLocation[0]);
+    }
+
+    /**
+     * Calculates new locations for the neighbors to the current location.
+     *
      * @return the list of neighbor locations
      */
-    public abstract ArrayList<Location> getNeighbors();
+    abstract ArrayList<Location> calculateNeighbors();
 
     /**
      * Performs a left circular offset on the first six bits in a byte.
@@ -149,7 +149,11 @@ public final class PatchLocationHex extends PatchLocation {
 
     @Override
     public PatchLocationHex getClone() {
-        return new PatchLocationHex((CoordinateUVWZ) this.coordinate);
+        PatchLocationHex clone = new PatchLocationHex((CoordinateUVWZ) this.coordinate);
+        clone.indices = indices;
+        clone.indexedTopology = indexedTopology;
+        clone.topologyIndex = topologyIndex;
+        return clone;
     }
 
     /**
@@ -157,7 +161,7 @@ public final class PatchLocationHex extends PatchLocation {
      *
      * <p>Environment sizes are not set until the simulation series is created. Calculations for
      * coordinates depend on these sizes, so the {@code Location} needs to be updated based on the
-     * series configuration.
+     * series configuration. The neighbor topology is also created for the configuration.
      *
      * @param series the current simulation series
      */
@@ -167,6 +171,13 @@ public final class PatchLocationHex extends PatchLocation {
         radiusBounds = series.radiusBounds;
         depthBounds = series.depthBounds;
         heightOffset = series.height % 3 - series.height;
+
+        // Create neighbor topology.
+        ArrayList<Coordinate> coordinates =
+                new PatchLocationFactoryHex().getCoordinates(series.radius, series.depth);
+        topology =
+                new PatchLocationTopology(
+                        coordinates, c -> new PatchLocationHex((CoordinateUVWZ) c));
     }
 
     @Override
@@ -231,7 +242,7 @@ public final class PatchLocationHex extends PatchLocation {
      * neighbor location byte.
      */
     @Override
-    public ArrayList<Location> getNeighbors() {
+    ArrayList<Location> calculateNeighbors() {
         CoordinateUVWZ hex = (CoordinateUVWZ) coordinate;
         ArrayList<Location> neighbors = new ArrayList<>(MOVES.length + 1);
         byte b;
@@ -142,7 +142,11 @@ public final class PatchLocationRect extends PatchLocation {
 
     @Override
     public PatchLocationRect getClone() {
-        return new PatchLocationRect((CoordinateXYZ) this.coordinate);
+        PatchLocationRect clone = new PatchLocationRect((CoordinateXYZ) this.coordinate);
+        clone.indices = indices;
+        clone.indexedTopology = indexedTopology;
+        clone.topologyIndex = topologyIndex;
+        return clone;
     }
 
     /**
@@ -150,7 +154,7 @@ public final class PatchLocationRect extends PatchLocation {
      *
      * <p>Environment sizes are not set until the simulation series is created. Calculations for
      * coordinates depend on these sizes, so the {@code Location} needs to be updated based on the
-     * series configuration.
+     * series configuration. The neighbor topology is also created for the configuration.
      *
      * @param series the current simulation series
      */
@@ -160,6 +164,13 @@ public final class PatchLocationRect extends PatchLocation {
         radiusBounds = series.radiusBounds;
         depthBounds = series.depthBounds;
         heightOffset = series.height % 2 - series.height;
+
+        // Create neighbor topology.
+        ArrayList<Coordinate> coordinates =
+                new PatchLocationFactoryRect().getCoordinates(series.radius, series.depth);
+        topology =
+                new PatchLocationTopology(
+                        coordinates, c -> new PatchLocationRect((CoordinateXYZ) c));
     }
 
     @Override
@@ -222,7 +233,7 @@ public final class PatchLocationRect extends PatchLocation {
      * neighbor location byte.
      */
     @Override
-    public ArrayList<Location> getNeighbors() {
+    ArrayList<Location> calculateNeighbors() {
         CoordinateXYZ rect = (CoordinateXYZ) coordinate;
         ArrayList<Location> neighbors = new ArrayList<>(MOVES.length + 1);
         byte b;
@@ -0,0 +1,198 @@
+package arcade.patch.env.location;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.function.Function;
+import arcade.core.env.location.Location;
+
+/**
+ * Immutable neighbor topology for {@link PatchLocation} objects.
+ *
+ * <p>Each valid coordinate in the simulation is mapped to a dense index. The topology holds a
+ * single canonical location instance for each index, along with the indices of the neighbors of
+ * each location. Neighbors are calculated once when the topology is created, in the same order as
+ * {@link PatchLocation#calculateNeighbors()}. Locations with neighbors outside the topology do not
+ * have precomputed neighbors.
+ *
+ * <p>Canonical locations are shared and should not be updated. Agents that need to update their
+ * location should use a clone of the canonical location.
+ */
+public final class PatchLocationTopology {
+    /** Map of coordinate to index. */
+    private final HashMap<Coordinate, Integer> indices;
+
+    /** Canonical location instances. */
+    private final PatchLocation[] locations;
+
+    /** Indices of neighbors for each location. */
+    private final int[][] neighbors;
+
+    /** Canonical neighbor locations for each location. */
+    private final PatchLocation[][] neighborLocations;
+
+    /** Radius of the simulation environment used to create the topology. */
+    private final int radius;
+
+    /** Depth of the simulation environment used to create the topology. */
+    private final int depth;
+
+    /** Radius and margin of the simulation environment used to create the topology. */
+    private final int radiusBounds;
+
+    /** Depth and margin of the simulation environment used to create the topology. */
+    private final int depthBounds;
+
+    /** Height offset used to create the topology. */
+    private final int heightOffset;
+
+    /**
+     * Creates a topology for the given coordinates.
+     *
+     * <p>Static configuration variables in {@link PatchLocation} must be set before the topology is
+     * created.
+     *
+     * @param coordinates the list of valid coordinates
+     * @param constructor the constructor for locations at a coordinate
+     */
+    public PatchLocationTopology(
+            ArrayList<Coordinate> coordinates, Function<Coordinate, PatchLocation> constructor) {
+        int n = coordinates.size();
+        indices = new HashMap<>(2 * n);
+        locations = new PatchLocation[n];
+        neighbors = new int[n][];
+        neighborLocations = new PatchLocation[n][];
+
+        radius = PatchLocation.radius;
+        depth = PatchLocation.depth;
+        radiusBounds = PatchLocation.radiusBounds;
+        depthBounds = PatchLocation.depthBounds;
+        heightOffset = PatchLocation.heightOffset;
+
+        // Create canonical locations.
+        for (int i = 0; i < n; i++) {
+            Coordinate coordinate = coordinates.get(i);
+            PatchLocation location = constructor.apply(coordinate);
+            location.canonical = true;
+            location.indexedTopology = this;
+            location.topologyIndex = i;
+            locations[i] = location;
+            indices.put(coordinate, i);
+        }
+
+        // Calculate neighbor indices.
+        for (int i = 0; i < n; i++) {
+            ArrayList<Location> list = locations[i].calculateNeighbors();
+            int[] ids = new int[list.size()];
+
+            for (int j = 0; j < ids.length; j++) {
+                Integer id = indices.get(((PatchLocation) list.get(j)).getCoordinate());
+                if (id == null) {
+                    ids = null;
+                    break;
+                }
+                ids[j] = id;
+            }
+
+            neighbors[i] = ids;
+        }
+
+        // Collect canonical neighbor locations.
+        for (int i = 0; i < n; i++) {
+            int[] ids = neighbors[i];
+            if (ids == null) {
+                continue;
+            }
+
+            PatchLocation[] neighborArray = new PatchLocation[ids.length];
+            for (int j = 0; j < ids.length; j++) {
+                neighborArray[j] = locations[ids[j]];
+            }
+            neighborLocations[i] = neighborArray;
+        }
+    }
+
+    /**
+     * Checks if the topology matches the current static configuration variables.
+     *
+     * @return {@code true} if the topology is current, {@code false} otherwise
+     */
+    public boolean isCurrent() {
+        return radius == PatchLocation.radius
+                && depth == PatchLocation.depth
+                && radiusBounds == PatchLocation.radiusBounds
+                && depthBounds == PatchLocation.depthBounds
+                && heightOffset == PatchLocation.heightOffset;
+    }
+
+    /**
+     * Gets the number of locations in the topology.
+     *
+     * @return the number of locations
+     */
+    public int size() {
+        return locations.length;
+    }
+
+    /**
+     * Gets the index of the given coordinate.
+     *
+     * @param coordinate the coordinate
+     * @return the index of the coordinate, {@code -1} if not in the topology
+     */
+    public int getIndex(Coordinate coordinate) {
+        Integer index = indices.get(coordinate);
+        return (index == null ? -1 : index);
+    }
+
+    /**
+     * Gets the canonical location at the given index.
+     *
+     * @param index the location index
+     * @return the canonical location
+     */
+    public PatchLocation getLocation(int index) {
+        return locations[index];
+    }
+
+    /**
+     * Gets the indices of neighbors of the location at the given index.
+     *
+     * <p>The returned array is shared and should not be modified.
+     *
+     * @param index the location index
+     * @return the array of neighbor indices, {@code null} if not precomputed
+     */
+    public int[] getNeighborIndices(int index) {
+        return neighbors[index];
+    }
+
+    /**
+     * Gets the array of canonical neighbor locations of the location at the given index.
+     *
+     * <p>The returned array is shared and should not be modified.
+     *
+     * @param index the location index
+     * @return the array of neighbor locations, {@code null} if not precomputed
+     */
+    public PatchLocation[] getNeighborLocations(int index) {
+        return neighborLocations[index];
+    }
+
+    /**
+     * Gets the canonical neighbor locations of the location at the given index.
+     *
+     * @param index the location index
+     * @return the list of neighbor locations, {@code null} if not precomputed
+     */
+    public ArrayList<Location> getNeighbors(int index) {
+        PatchLocation[] neighborArray = neighborLocations[index];
+        if (neighborArray == null) {
+            return null;
+        }
+
+        ArrayList<Location> list = new ArrayList<>(neighborArray.length + 1);
+        Collections.addAll(list, neighborArray);
+        return list;
+    }
+}
@@ -0,0 +1,335 @@
+package arcade.patch.env.operation;
+
+import java.util.List;
+import ec.util.MersenneTwisterFast;
+import arcade.core.env.operation.Operation;
+import arcade.core.sim.Simulation;
+import arcade.patch.env.lattice.PatchLattice;
+import static arcade.patch.util.PatchEnums.Category;
+
+/**
+ * Implementation of {@link Operation} for stepping multiple {@link PatchLattice} layers together.
+ *
+ * <p>Layers on the same grid with the same diffuser geometry differ only in their diffusion
+ * coefficients. Each layer keeps its own arrays, and all layers are updated in a single traversal
+ * of the lattice per diffusion substep, such that the geometry-dependent neighbor indices are
+ * calculated once for all layers. Generator and decayer operations are folded into the first and
+ * last substeps, as in {@link PatchOperationDiffuser#stepFused(double[][][], double)}. Results are
+ * the same as stepping each layer individually.
+ */
+public class PatchOperationBatch implements Operation {
+    /** Maximum number of neighbors in 2D plane. */
+    private static final int MAX_NEIGHBORS = 4;
+
+    /** Number of layers in the batch. */
+    final int numLayers;
+
+    /** Diffuser used to calculate neighbor indices. */
+    final PatchOperationDiffuser reference;
+
+    /** Diffusers for each layer. */
+    final PatchOperationDiffuser[] diffusers;
+
+    /** Height of the array (z direction). */
+    final int latticeHeight;
+
+    /** Length of the array (x direction). */
+    final int latticeLength;
+
+    /** Width of the array (y direction). */
+    final int latticeWidth;
+
+    /** Arrays holding current concentration values for each layer. */
+    final double[][][][] latticeCurrent;
+
+    /** Arrays holding new concentration values for each layer. */
+    final double[][][][] latticeNew;
+
+    /** Arrays holding generator changes in concentration values, {@code null} if none. */
+    final double[][][][] latticeDelta;
+
+    /** Dimensionless rates of diffusion for each layer. */
+    final double[] rates;
+
+    /** Multipliers on axial concentrations for each layer. */
+    final double[] alphas;
+
+    /** Multipliers on previous concentrations for each layer. */
+    final double[] betas;
+
+    /** Pseudo-steady state adjustments for each layer. */
+    final int[] adjusts;
+
+    /** Decay rates for each layer, zero if no decayer. */
+    final double[] decayRates;
+
+    /** Neighbor coordinates in the x axis. */
+    private final int[] xs;
+
+    /** Neighbor coordinates in the y axis. */
+    private final int[] ys;
+
+    /**
+     * Creates a batched {@link Operation} for the given lattices.
+     *
+     * <p>Each lattice must have a diffuser operation of the same class and the same sizing, with
+     * fixed substeps.
+     *
+     * @param lattices the list of lattices in the batch
+     */
+    public PatchOperationBatch(List<PatchLattice> lattices) {
+        numLayers = lattices.size();
+        reference = (PatchOperationDiffuser) lattices.get(0).getOperation(Category.DIFFUSER);
+
+        latticeHeight = reference.latticeHeight;
+        latticeLength = reference.latticeLength;
+        latticeWidth = reference.latticeWidth;
+
+        diffusers = new PatchOperationDiffuser[numLayers];
+        latticeCurrent = new double[numLayers][][][];
+        latticeNew = new double[numLayers][][][];
+        latticeDelta = new double[numLayers][][][];
+        rates = new double[numLayers];
+        alphas = new double[numLayers];
+        betas = new double[numLayers];
+        adjusts = new int[numLayers];
+        decayRates = new double[numLayers];
+
+        for (int l = 0; l < numLayers; l++) {
+            PatchLattice lattice = lattices.get(l);
+            PatchOperationDiffuser diffuser =
+                    (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+            Operation generator = lattice.getOperation(Category.GENERATOR);
+            Operation decayer = lattice.getOperation(Category.DECAYER);
+
+            diffusers[l] = diffuser;
+            latticeCurrent[l] = diffuser.latticeCurrent;
+            latticeNew[l] = diffuser.latticeNew;
+            rates[l] = diffuser.rate;
+            alphas[l] = diffuser.alpha;
+            betas[l] = diffuser.beta;
+            adjusts[l] = diffuser.adjust;
+
+            if (generator instanceof PatchOperationGenerator) {
+                latticeDelta[l] = ((PatchOperationGenerator) generator).latticeDelta;
+            }
+
+            if (decayer instanceof PatchOperationDecayer) {
+                decayRates[l] = ((PatchOperationDecayer) decayer).getDecayRate();
+            }
+        }
+
+        xs = new int[MAX_NEIGHBORS];
+        ys = new int[MAX_NEIGHBORS];
+    }
+
+    /**
+     * Checks if a lattice can be stepped in a batch with the given diffuser.
+     *
+     * @param lattice the lattice
+     * @param diffuser the diffuser of a lattice already in the batch
+     * @return {@code true} if the lattice is compatible, {@code false} otherwise
+     */
+    public static boolean isCompatible(PatchLattice lattice, Operation diffuser) {
+        Operation operation = lattice.getOperation(Category.DIFFUSER);
+        if (!(operation instanceof PatchOperationDiffuser)) {
+            return false;
+        }
+
+        PatchOperationDiffuser latticeDiffuser = (PatchOperationDiffuser) operation;
+        PatchOperationDiffuser batchDiffuser = (PatchOperationDiffuser) diffuser;
+
+        return !latticeDiffuser.adaptive
+                && !batchDiffuser.adaptive
+                && latticeDiffuser.getClass() == batchDiffuser.getClass()
+                && latticeDiffuser.latticeHeight == batchDiffuser.latticeHeight
+                && latticeDiffuser.latticeLength == batchDiffuser.latticeLength
+                && latticeDiffuser.latticeWidth == batchDiffuser.latticeWidth;
+    }
+
+    @Override
+    public void step(MersenneTwisterFast random, Simulation sim) {
+        if (latticeHeight == 1) {
+            step2D();
+        } else {
+            step3D();
+        }
+
+        for (PatchOperationDiffuser diffuser : diffusers) {
+            diffuser.substeps = PatchOperationDiffuser.MAX_SUBSTEPS;
+        }
+    }
+
+    /** Steps the batch for 2D simulations. */
+    private void step2D() {
+        double oldConc;
+        double sumConc;
+        int steps = PatchOperationDiffuser.MAX_SUBSTEPS;
+
+        for (int step = 0; step < steps; step++) {
+            boolean first = step == 0;
+            boolean last = step == steps - 1;
+            double[][][][] from = (step % 2 == 0 ? latticeCurrent : latticeNew);
+            double[][][][] to = (step % 2 == 0 ? latticeNew : latticeCurrent);
+
+            for (int i = 0; i < latticeLength; i++) {
+                // Add generator changes to the rows read by this row.
+                if (first) {
+                    if (i == 0) {
+                        generateRow(0, 0);
+                    }
+                    if (i + 1 < latticeLength) {
+                        generateRow(0, i + 1);
+                    }
+                }
+
+                for (int j = 0; j < latticeWidth; j++) {
+                    int n = reference.calcNeighbors(i, j, xs, ys);
+
+                    for (int l = 0; l < numLayers; l++) {
+                        double[][] fromLayer = from[l][0];
+                        oldConc = fromLayer[i][j] * adjusts[l];
+                        sumConc = 0;
+                        for (int m = 0; m < n; m++) {
+                            sumConc += fromLayer[xs[m]][ys[m]];
+                        }
+                        to[l][0][i][j] = rates[l] * (sumConc - betas[l] * oldConc) + oldConc;
+                    }
+                }
+
+                // Decay the previous row, which is no longer read.
+                if (last && i > 0) {
+                    decayRow(to, 0, i - 1);
+                }
+            }
+
+            if (last) {
+                decayRow(to, 0, latticeLength - 1);
+            }
+        }
+    }
+
+    /** Steps the batch for 3D simulations. */
+    private void step3D() {
+        double oldConc;
+        double sumConc;
+        int up;
+        int down;
+        int steps = PatchOperationDiffuser.MAX_SUBSTEPS;
+
+        for (int step = 0; step < steps; step++) {
+            boolean first = step == 0;
+            boolean last = step == steps - 1;
+            double[][][][] from = (step % 2 == 0 ? latticeCurrent : latticeNew);
+            double[][][][] to = (step % 2 == 0 ? latticeNew : latticeCurrent);
+
+            for (int k = 0; k < latticeHeight; k++) {
+                up = k + reference.upBorder[k];
+                down = k - reference.downBorder[k];
+
+                // Add generator changes to the layers read by this layer.
+                if (first) {
+                    if (k == 0) {
+                        generateLayer(0);
+                    }
+                    if (k + 1 < latticeHeight) {
+                        generateLayer(k + 1);
+                    }
+                }
+
+                for (int i = 0; i < latticeLength; i++) {
+                    for (int j = 0; j < latticeWidth; j++) {
+                        int n = reference.calcNeighbors(i, j, xs, ys);
+
+                        for (int l = 0; l < numLayers; l++) {
+                            double[][][] field = from[l];
+                            double[][] fromLayer = field[k];
+                            oldConc = fromLayer[i][j] * adjusts[l];
+                            sumConc = 0;
+                            for (int m = 0; m < n; m++) {
+                                sumConc += fromLayer[xs[m]][ys[m]];
+                            }
+                            sumConc += field[up][i][j] * alphas[l];
+                            sumConc += field[down][i][j] * alphas[l];
+                            to[l][k][i][j] = rates[l] * (sumConc - betas[l] * oldConc) + oldConc;
+                        }
+                    }
+                }
+
+                // Decay the previous layer, which is no longer read.
+                if (last && k > 0) {
+                    decayLayer(to, k - 1);
+                }
+            }
+
+            if (last) {
+                decayLayer(to, latticeHeight - 1);
+            }
+        }
+    }
+
+    /**
+     * Adds generator changes to a row of concentration values for all layers.
+     *
+     * @param k the layer index
+     * @param i the row index
+     */
+    private void generateRow(int k, int i) {
+        for (int l = 0; l < numLayers; l++) {
+            if (latticeDelta[l] == null) {
+                continue;
+            }
+
+            double[] row = latticeCurrent[l][k][i];
+            double[] delta = latticeDelta[l][k][i];
+            for (int j = 0; j < latticeWidth; j++) {
+                row[j] += delta[j];
+            }
+        }
+    }
+
+    /**
+     * Adds generator changes to a layer of concentration values for all layers.
+     *
+     * @param k the layer index
+     */
+    private void generateLayer(int k) {
+        for (int i = 0; i < latticeLength; i++) {
+            generateRow(k, i);
+        }
+    }
+
+    /**
+     * Sets the new and decayed current concentration values for a row for all layers.
+     *
+     * @param result the arrays holding the diffused values
+     * @param k the layer index
+     * @param i the row index
+     */
+    private void decayRow(double[][][][] result, int k, int i) {
+        for (int l = 0; l < numLayers; l++) {
+            double[] resultRow = result[l][k][i];
+            double[] newRow = latticeNew[l][k][i];
+            double[] currentRow = latticeCurrent[l][k][i];
+            double decayRate = decayRates[l];
+
+            for (int j = 0; j < latticeWidth; j++) {
+                double conc = resultRow[j];
+                newRow[j] = conc;
+                currentRow[j] = conc - decayRate * conc;
+            }
+        }
+    }
+
+    /**
+     * Sets the new and decayed current concentration values for a layer for all layers.
+     *
+     * @param result the arrays holding the diffused values
+     * @param k the layer index
+     */
+    private void decayLayer(double[][][][] result, int k) {
+        for (int i = 0; i < latticeLength; i++) {
+            decayRow(result, k, i);
+        }
+    }
+}
@@ -42,6 +42,15 @@ public class PatchOperationDecayer extends PatchOperation {
         this.latticeCurrent = lattice.getField();
     }
 
+    /**
+     * Gets the decay rate of the molecule.
+     *
+     * @return the decay rate
+     */
+    public double getDecayRate() {
+        return decayRate;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
         for (int k = 0; k < latticeHeight; k++) {
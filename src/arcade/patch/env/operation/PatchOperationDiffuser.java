@@ -1,10 +1,13 @@
 package arcade.patch.env.operation;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import ec.util.MersenneTwisterFast;
 import arcade.core.env.operation.Operation;
 import arcade.core.sim.Simulation;
 import arcade.core.util.MiniBox;
 import arcade.patch.env.lattice.PatchLattice;
+import arcade.patch.env.lattice.PatchLatticeTiles;
 import static arcade.patch.util.PatchEnums.Category;
 
 /**
@@ -15,8 +18,21 @@ import static arcade.patch.util.PatchEnums.Category;
  * Methods are written to work regardless of underlying geometry. Methods extending this operation
  * for a specific geometry will need to adjust the multipliers for both the finite difference
  * approximation and the pseudo-steady state approximation.
+ *
+ * <p>If {@code SUBSTEPPING} is set to {@code adaptive}, the number of substeps per tick is instead
+ * derived from the stability condition of the finite difference approximation, and substeps stop
+ * early once the largest change in concentration falls within {@code TOLERANCE} of the largest
+ * concentration.
+ *
+ * <p>The number of substeps taken each tick is logged at {@code FINE} level.
  */
 public abstract class PatchOperationDiffuser extends PatchOperation {
+    /** Logger for {@code PatchOperationDiffuser}. */
+    private static final Logger LOGGER = Logger.getLogger(PatchOperationDiffuser.class.getName());
+
+    /** Maximum number of diffusion substeps per tick. */
+    static final int MAX_SUBSTEPS = 60;
+
     /** Array holding current concentration values. */
     public final double[][][] latticeCurrent;
 
@@ -38,6 +54,15 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
     /** Diffusivity of molecule [um<sup>2</sup>/s]. */
     final double diffusivity;
 
+    /** {@code true} if substeps are adaptive, {@code false} otherwise. */
+    final boolean adaptive;
+
+    /** Relative tolerance for early exit of adaptive substeps. */
+    final double tolerance;
+
+    /** Number of substeps taken in the most recent step. */
+    int substeps;
+
     /** Border array for left border (x direction). */
     final byte[] leftBorder;
 
@@ -67,6 +92,8 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
      *
      * <ul>
      *   <li>{@code DIFFUSIVITY} = diffusivity of molecule
+     *   <li>{@code SUBSTEPPING} = substepping method ({@code fixed} or {@code adaptive})
+     *   <li>{@code TOLERANCE} = relative tolerance for early exit of adaptive substeps
      * </ul>
      *
      * @param lattice the {@link PatchLattice} the operation is associated with
@@ -77,6 +104,9 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
         // Get diffuser parameters.
         MiniBox parameters = lattice.getParameters();
         diffusivity = parameters.getDouble("diffuser/DIFFUSIVITY");
+        adaptive = "adaptive".equalsIgnoreCase(parameters.get("diffuser/SUBSTEPPING"));
+        double relativeTolerance = parameters.getDouble("diffuser/TOLERANCE");
+        tolerance = (Double.isNaN(relativeTolerance) ? 0 : relativeTolerance);
 
         // Set lattice fields.
         this.latticeCurrent = lattice.getField();
@@ -123,13 +153,70 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
      */
     abstract double calcSum(int i, int j, double[][] field);
 
+    /**
+     * Calculates the indices of neighboring locations in 2D plane.
+     *
+     * <p>Neighbors are listed in the same order they are summed in {@link #calcSum(int, int,
+     * double[][])}.
+     *
+     * @param i the coordinate in the x axis
+     * @param j the coordinate in the y axis
+     * @param xs the array to fill with neighbor coordinates in the x axis
+     * @param ys the array to fill with neighbor coordinates in the y axis
+     * @return the number of neighbors
+     */
+    abstract int calcNeighbors(int i, int j, int[] xs, int[] ys);
+
+    /**
+     * Gets the number of substeps taken in the most recent step.
+     *
+     * @return the number of substeps
+     */
+    public int getSubsteps() {
+        return substeps;
+    }
+
+    /**
+     * Checks if the diffuser uses adaptive substeps.
+     *
+     * @return {@code true} if substeps are adaptive, {@code false} otherwise
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Calculates the number of substeps per tick for adaptive substepping.
+     *
+     * <p>The finite difference approximation is stable when the product of the rate and the
+     * multiplier on previous concentration is less than one. The rate scales with the substep size,
+     * so the number of substeps is the smallest number for which each substep is stable.
+     * Pseudo-steady state approximations always use the maximum number of substeps.
+     *
+     * @return the number of substeps
+     */
+    int calcSubsteps() {
+        if (adjust == 0) {
+            return MAX_SUBSTEPS;
+        }
+
+        int steps = (int) Math.floor(MAX_SUBSTEPS * rate * beta) + 1;
+        return Math.max(1, Math.min(MAX_SUBSTEPS, steps));
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
-        if (latticeHeight == 1) {
+        if (adaptive) {
+            stepAdaptive();
+        } else if (latticeHeight == 1) {
             step2D();
         } else {
             step3D();
         }
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("diffusion substeps [ " + substeps + " ]");
+        }
     }
 
     /** Steps the diffuser for 2D simulations. */
@@ -139,7 +226,7 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
         double oldConc;
         double sumConc;
 
-        for (int step = 0; step < 60; step++) {
+        for (int step = 0; step < MAX_SUBSTEPS; step++) {
             for (int i = 0; i < latticeLength; i++) {
                 for (int j = 0; j < latticeWidth; j++) {
                     oldConc = latticeCurrentLayer[i][j] * adjust;
@@ -151,6 +238,8 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
             // Set grid values to new grid.
             lattice.setField(latticeNewLayer, 0);
         }
+
+        substeps = MAX_SUBSTEPS;
     }
 
     /** Steps the diffuser for 3D simulations. */
@@ -161,7 +250,7 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
         int down;
 
         // Update concentration in each location with step size of 1 second.
-        for (int step = 0; step < 60; step++) {
+        for (int step = 0; step < MAX_SUBSTEPS; step++) {
             for (int k = 0; k < latticeHeight; k++) {
                 up = k + upBorder[k];
                 down = k - downBorder[k];
@@ -185,5 +274,375 @@ public abstract class PatchOperationDiffuser extends PatchOperation {
             // Set grid values to new grid.
             lattice.setField(latticeNew);
         }
+
+        substeps = MAX_SUBSTEPS;
+    }
+
+    /**
+     * Steps the diffuser using adaptive substeps.
+     *
+     * <p>The rate is scaled to the substep size given by {@link #calcSubsteps()}. Substeps stop
+     * early once the largest change in concentration is within tolerance of the largest
+     * concentration.
+     */
+    private void stepAdaptive() {
+        int steps = calcSubsteps();
+        double stepRate = (adjust == 0 ? rate : rate * MAX_SUBSTEPS / steps);
+        double oldConc;
+        double sumConc;
+        double newConc;
+        int up;
+        int down;
+
+        substeps = 0;
+
+        for (int step = 0; step < steps; step++) {
+            double maxChange = 0;
+            double maxConc = 0;
+
+            for (int k = 0; k < latticeHeight; k++) {
+                up = k + upBorder[k];
+                down = k - downBorder[k];
+
+                for (int i = 0; i < latticeLength; i++) {
+                    for (int j = 0; j < latticeWidth; j++) {
+                        oldConc = latticeCurrent[k][i][j] * adjust;
+                        sumConc = calcSum(i, j, latticeCurrent[k]);
+                        sumConc += latticeCurrent[up][i][j] * alpha;
+                        sumConc += latticeCurrent[down][i][j] * alpha;
+                        newConc = stepRate * (sumConc - beta * oldConc) + oldConc;
+
+                        double change = Math.abs(newConc - latticeCurrent[k][i][j]);
+                        maxChange = Math.max(maxChange, change);
+                        maxConc = Math.max(maxConc, Math.abs(newConc));
+                        latticeNew[k][i][j] = newConc;
+                    }
+                }
+            }
+
+            // Set grid values to new grid.
+            lattice.setField(latticeNew);
+            substeps++;
+
+            // Stop early if the field is stationary.
+            if (maxChange <= tolerance * maxConc) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Steps the diffuser on active tiles.
+     *
+     * <p>Each substep processes the active tiles and their halos. Tiles with changes above the
+     * threshold remain active for the next substep, and substeps stop early if no tiles are active.
+     * Values in tiles that are not processed are unchanged, so the new array is updated from the
+     * current array for those tiles.
+     *
+     * @param tiles the activity tracking tiles
+     */
+    public void stepTiled(PatchLatticeTiles tiles) {
+        int steps = (adaptive ? calcSubsteps() : MAX_SUBSTEPS);
+        double stepRate = (adaptive && adjust == 1 ? rate * MAX_SUBSTEPS / steps : rate);
+        int tileSize = tiles.getTileSize();
+        int tilesLength = tiles.getTilesLength();
+        int tilesWidth = tiles.getTilesWidth();
+        double oldConc;
+        double sumConc;
+        double newConc;
+        int up;
+        int down;
+
+        substeps = 0;
+
+        for (int step = 0; step < steps; step++) {
+            if (!tiles.select()) {
+                break;
+            }
+
+            for (int a = 0; a < tilesLength; a++) {
+                int iStart = a * tileSize;
+                int iEnd = Math.min(iStart + tileSize, latticeLength);
+
+                for (int b = 0; b < tilesWidth; b++) {
+                    if (!tiles.isProcessing(a, b)) {
+                        continue;
+                    }
+
+                    int jStart = b * tileSize;
+                    int jEnd = Math.min(jStart + tileSize, latticeWidth);
+                    double maxChange = 0;
+
+                    for (int k = 0; k < latticeHeight; k++) {
+                        up = k + upBorder[k];
+                        down = k - downBorder[k];
+
+                        for (int i = iStart; i < iEnd; i++) {
+                            for (int j = jStart; j < jEnd; j++) {
+                                oldConc = latticeCurrent[k][i][j] * adjust;
+                                sumConc = calcSum(i, j, latticeCurrent[k]);
+                                sumConc += latticeCurrent[up][i][j] * alpha;
+                                sumConc += latticeCurrent[down][i][j] * alpha;
+                                newConc = stepRate * (sumConc - beta * oldConc) + oldConc;
+
+                                double change = Math.abs(newConc - latticeCurrent[k][i][j]);
+                                maxChange = Math.max(maxChange, change);
+                                latticeNew[k][i][j] = newConc;
+                            }
+                        }
+                    }
+
+                    tiles.record(a, b, maxChange);
+                }
+            }
+
+            // Set grid values to new grid for processed tiles.
+            copyTiles(tiles, latticeNew, latticeCurrent, true);
+            tiles.update();
+            substeps++;
+        }
+
+        // Set new grid values to grid for tiles that were not processed.
+        copyTiles(tiles, latticeCurrent, latticeNew, false);
+    }
+
+    /**
+     * Copies values for selected tiles.
+     *
+     * @param tiles the activity tracking tiles
+     * @param from the array to copy from
+     * @param to the array to copy to
+     * @param processed {@code true} to copy processed tiles, {@code false} to copy tiles not
+     *     processed in the current tick
+     */
+    private void copyTiles(
+            PatchLatticeTiles tiles, double[][][] from, double[][][] to, boolean processed) {
+        int tileSize = tiles.getTileSize();
+
+        for (int a = 0; a < tiles.getTilesLength(); a++) {
+            int iStart = a * tileSize;
+            int iEnd = Math.min(iStart + tileSize, latticeLength);
+
+            for (int b = 0; b < tiles.getTilesWidth(); b++) {
+                boolean selected = (processed ? tiles.isProcessing(a, b) : !tiles.isTouched(a, b));
+                if (!selected) {
+                    continue;
+                }
+
+                int jStart = b * tileSize;
+                int length = Math.min(tileSize, latticeWidth - jStart);
+
+                for (int k = 0; k < latticeHeight; k++) {
+                    for (int i = iStart; i < iEnd; i++) {
+                        System.arraycopy(from[k][i], jStart, to[k][i], jStart, length);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Steps the generator, diffuser, and decayer as a single fused operation.
+     *
+     * <p>Results are the same as stepping the generator, diffuser, and decayer in order, but the
+     * separate sweeps over the lattice are folded into the diffusion substeps. Generator changes
+     * are added to each layer (or row for 2D simulations) just ahead of the first substep that
+     * reads it. Substeps alternate between the current and new arrays instead of copying. Decay is
+     * applied just behind the last substep, once the layer (or row) is no longer read.
+     *
+     * <p>For adaptive substeps, the number of substeps is not known in advance, so generator
+     * changes and decay are applied to the whole lattice before and after diffusion.
+     *
+     * @param delta the array of generator changes in concentration values
+     * @param decayRate the decay rate
+     */
+    public void stepFused(double[][][] delta, double decayRate) {
+        if (adaptive) {
+            for (int k = 0; k < latticeHeight; k++) {
+                generateLayer(latticeCurrent[k], delta[k]);
+            }
+
+            stepAdaptive();
+
+            for (int k = 0; k < latticeHeight; k++) {
+                decayLayer(latticeCurrent, k, decayRate);
+            }
+        } else if (latticeHeight == 1) {
+            stepFused2D(delta[0], decayRate);
+        } else {
+            stepFused3D(delta, decayRate);
+        }
+    }
+
+    /**
+     * Steps the fused operation for 2D simulations.
+     *
+     * @param delta the array of generator changes in concentration values
+     * @param decayRate the decay rate
+     */
+    private void stepFused2D(double[][] delta, double decayRate) {
+        double[][] fromLayer = latticeCurrent[0];
+        double[][] toLayer = latticeNew[0];
+        double[][] swapLayer;
+        double oldConc;
+        double sumConc;
+        int steps = MAX_SUBSTEPS;
+
+        for (int step = 0; step < steps; step++) {
+            boolean first = step == 0;
+            boolean last = step == steps - 1;
+
+            for (int i = 0; i < latticeLength; i++) {
+                // Add generator changes to the rows read by this row.
+                if (first) {
+                    if (i == 0) {
+                        generateRow(fromLayer[0], delta[0]);
+                    }
+                    if (i + 1 < latticeLength) {
+                        generateRow(fromLayer[i + 1], delta[i + 1]);
+                    }
+                }
+
+                for (int j = 0; j < latticeWidth; j++) {
+                    oldConc = fromLayer[i][j] * adjust;
+                    sumConc = calcSum(i, j, fromLayer);
+                    toLayer[i][j] = rate * (sumConc - beta * oldConc) + oldConc;
+                }
+
+                // Decay the previous row, which is no longer read.
+                if (last && i > 0) {
+                    decayRow(toLayer, i - 1, 0, decayRate);
+                }
+            }
+
+            if (last) {
+                decayRow(toLayer, latticeLength - 1, 0, decayRate);
+            }
+
+            swapLayer = fromLayer;
+            fromLayer = toLayer;
+            toLayer = swapLayer;
+        }
+
+        substeps = steps;
+    }
+
+    /**
+     * Steps the fused operation for 3D simulations.
+     *
+     * @param delta the array of generator changes in concentration values
+     * @param decayRate the decay rate
+     */
+    private void stepFused3D(double[][][] delta, double decayRate) {
+        double[][][] from = latticeCurrent;
+        double[][][] to = latticeNew;
+        double[][][] swap;
+        double oldConc;
+        double sumConc;
+        int up;
+        int down;
+        int steps = MAX_SUBSTEPS;
+
+        for (int step = 0; step < steps; step++) {
+            boolean first = step == 0;
+            boolean last = step == steps - 1;
+
+            for (int k = 0; k < latticeHeight; k++) {
+                up = k + upBorder[k];
+                down = k - downBorder[k];
+
+                // Add generator changes to the layers read by this layer.
+                if (first) {
+                    if (k == 0) {
+                        generateLayer(from[0], delta[0]);
+                    }
+                    if (k + 1 < latticeHeight) {
+                        generateLayer(from[k + 1], delta[k + 1]);
+                    }
+                }
+
+                for (int i = 0; i < latticeLength; i++) {
+                    for (int j = 0; j < latticeWidth; j++) {
+                        oldConc = from[k][i][j] * adjust;
+                        sumConc = calcSum(i, j, from[k]);
+                        sumConc += from[up][i][j] * alpha;
+                        sumConc += from[down][i][j] * alpha;
+                        to[k][i][j] = rate * (sumConc - beta * oldConc) + oldConc;
+                    }
+                }
+
+                // Decay the previous layer, which is no longer read.
+                if (last && k > 0) {
+                    decayLayer(to, k - 1, decayRate);
+                }
+            }
+
+            if (last) {
+                decayLayer(to, latticeHeight - 1, decayRate);
+            }
+
+            swap = from;
+            from = to;
+            to = swap;
+        }
+
+        substeps = steps;
+    }
+
+    /**
+     * Adds generator changes to a row of concentration values.
+     *
+     * @param row the row of concentration values
+     * @param delta the row of changes in concentration values
+     */
+    private void generateRow(double[] row, double[] delta) {
+        for (int j = 0; j < latticeWidth; j++) {
+            row[j] += delta[j];
+        }
+    }
+
+    /**
+     * Adds generator changes to a layer of concentration values.
+     *
+     * @param layer the layer of concentration values
+     * @param delta the layer of changes in concentration values
+     */
+    private void generateLayer(double[][] layer, double[][] delta) {
+        for (int i = 0; i < latticeLength; i++) {
+            generateRow(layer[i], delta[i]);
+        }
+    }
+
+    /**
+     * Sets the new and decayed current concentration values for a row of diffused values.
+     *
+     * @param result the layer holding the diffused values
+     * @param i the row index
+     * @param k the layer index
+     * @param decayRate the decay rate
+     */
+    private void decayRow(double[][] result, int i, int k, double decayRate) {
+        double[] resultRow = result[i];
+        double[] newRow = latticeNew[k][i];
+        double[] currentRow = latticeCurrent[k][i];
+
+        for (int j = 0; j < latticeWidth; j++) {
+            double conc = resultRow[j];
+            newRow[j] = conc;
+            currentRow[j] = conc - decayRate * conc;
+        }
+    }
+
+    /**
+     * Sets the new and decayed current concentration values for a layer of diffused values.
+     *
+     * @param result the array holding the diffused values
+     * @param k the layer index
+     * @param decayRate the decay rate
+     */
+    private void decayLayer(double[][][] result, int k, double decayRate) {
+        for (int i = 0; i < latticeLength; i++) {
+            decayRow(result[k], i, k, decayRate);
+        }
     }
 }
@@ -46,4 +46,17 @@ public class PatchOperationDiffuserRect extends PatchOperationDiffuser {
         sumConc += field[i][j + bottomBorder[j]];
         return sumConc;
     }
+
+    @Override
+    public int calcNeighbors(int i, int j, int[] xs, int[] ys) {
+        xs[0] = i - leftBorder[i];
+        ys[0] = j;
+        xs[1] = i + rightBorder[i];
+        ys[1] = j;
+        xs[2] = i;
+        ys[2] = j - topBorder[j];
+        xs[3] = i;
+        ys[3] = j + bottomBorder[j];
+        return 4;
+    }
 }
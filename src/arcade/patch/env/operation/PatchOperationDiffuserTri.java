@@ -71,4 +71,15 @@ public class PatchOperationDiffuserTri extends PatchOperationDiffuser {
 
         return sumConc;
     }
+
+    @Override
+    public int calcNeighbors(int i, int j, int[] xs, int[] ys) {
+        xs[0] = i - leftBorder[i];
+        ys[0] = j;
+        xs[1] = i + rightBorder[i];
+        ys[1] = j;
+        xs[2] = i;
+        ys[2] = j + direction[i][j];
+        return 3;
+    }
 }
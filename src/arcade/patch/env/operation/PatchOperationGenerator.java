@@ -14,6 +14,10 @@ import static arcade.patch.util.PatchEnums.Category;
  * molecule with given {@code CONCENTRATION} and {@code PERMEABILITY}. The delta array defaults to
  * zero (no changes to lattice field) and can be modified by external classes. Operation is
  * independent of underlying geometry.
+ *
+ * <p>If the delta array is only modified by a single component at fixed indices, generation is
+ * restricted to those indices so the cost of each step scales with the number of indices instead of
+ * the lattice size.
  */
 public class PatchOperationGenerator extends PatchOperation {
     /** Array holding current concentration values. */
@@ -31,6 +35,12 @@ public class PatchOperationGenerator extends PatchOperation {
     /** Molecule permeability. */
     public final double permeability;
 
+    /** Array of (z, x, y) indices with changes, {@code null} for all indices. */
+    private int[] indices;
+
+    /** Number of components that registered indices. */
+    private int registrations;
+
     /**
      * Creates a generator {@link PatchOperation} for the given lattice.
      *
@@ -63,8 +73,40 @@ public class PatchOperationGenerator extends PatchOperation {
         }
     }
 
+    /**
+     * Gets the indices generation is restricted to.
+     *
+     * @return the array of (z, x, y) indices, {@code null} for all indices
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Registers the indices at which a component modifies the delta array.
+     *
+     * <p>Generation is restricted to the given indices if only one component is registered.
+     * Otherwise, all indices are generated.
+     *
+     * @param siteIndices the array of (z, x, y) indices, {@code null} for all indices
+     */
+    public void registerIndices(int[] siteIndices) {
+        indices = (registrations == 0 ? siteIndices : null);
+        registrations++;
+    }
+
     @Override
     public void step(MersenneTwisterFast random, Simulation sim) {
+        if (indices != null) {
+            for (int n = 0; n < indices.length; n += 3) {
+                int k = indices[n];
+                int i = indices[n + 1];
+                int j = indices[n + 2];
+                latticeCurrent[k][i][j] += latticeDelta[k][i][j];
+            }
+            return;
+        }
+
         for (int k = 0; k < latticeHeight; k++) {
             for (int i = 0; i < latticeLength; i++) {
                 for (int j = 0; j < latticeWidth; j++) {
@@ -17,6 +17,7 @@ import arcade.core.agent.cell.CellFactory;
 import arcade.core.env.component.Component;
 import arcade.core.env.grid.Grid;
 import arcade.core.env.lattice.Lattice;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.env.location.Location;
 import arcade.core.env.location.LocationContainer;
 import arcade.core.env.location.LocationFactory;
@@ -25,8 +26,10 @@ import arcade.core.sim.Simulation;
 import arcade.core.util.MiniBox;
 import arcade.patch.agent.cell.PatchCell;
 import arcade.patch.agent.cell.PatchCellFactory;
+import arcade.patch.agent.cell.PatchCellStepper;
 import arcade.patch.env.grid.PatchGrid;
 import arcade.patch.env.lattice.PatchLattice;
+import arcade.patch.env.lattice.PatchLatticeBatch;
 import arcade.patch.env.lattice.PatchLatticeFactory;
 import arcade.patch.env.location.PatchLocationFactory;
 
@@ -48,6 +51,9 @@ public abstract class PatchSimulation extends SimState implements Simulation {
     /** Map of {@link Lattice} objects in the simulation. */
     HashMap<String, Lattice> lattices;
 
+    /** Array of {@link Lattice} objects by {@link LatticeRegistry} index. */
+    private volatile Lattice[] indexedLattices;
+
     /** Map of {@link Action} instances in the simulation. */
     HashMap<String, Action> actions;
 
@@ -179,6 +185,31 @@ public abstract class PatchSimulation extends SimState implements Simulation {
         return lattices.get(key);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Lattices are resolved for all registered indices once, when the environment is set up.
+     * Lattices are resolved again only if the index was registered afterward.
+     */
+    @Override
+    public final Lattice getLattice(int index) {
+        Lattice[] resolved = indexedLattices;
+        if (resolved == null || index >= resolved.length) {
+            resolved = resolveLattices();
+        }
+        return resolved[index];
+    }
+
+    /**
+     * Resolves lattices for all indices in the {@link LatticeRegistry}.
+     *
+     * @return the array of lattices by index
+     */
+    private synchronized Lattice[] resolveLattices() {
+        indexedLattices = LatticeRegistry.resolve(this);
+        return indexedLattices;
+    }
+
     /**
      * Gets the set of keys for the lattice hash set.
      *
@@ -358,6 +389,11 @@ public abstract class PatchSimulation extends SimState implements Simulation {
                 id = Math.max(i, id);
             }
         }
+
+        // Schedule parallel stepping of cell processes, if enabled.
+        if ("parallel".equalsIgnoreCase(series.patch.get("CELL_STEPPING"))) {
+            new PatchCellStepper(series.patch.getInt("CELL_THREADS")).schedule(schedule);
+        }
     }
 
     @Override
@@ -368,14 +404,25 @@ public abstract class PatchSimulation extends SimState implements Simulation {
         // Initialize factory.
         latticeFactory.initialize(series, random);
 
+        // Schedule any lattice batches.
+        HashSet<PatchLattice> batched = new HashSet<>();
+        for (PatchLatticeBatch batch : latticeFactory.batches) {
+            batched.addAll(batch.getLattices());
+            batch.schedule(schedule);
+        }
+
         // Iterate through each layer to create and schedule lattices.
         for (String key : series.layers.keySet()) {
             PatchLattice lattice = latticeFactory.lattices.get(key);
 
-            // Add and schedule the lattice.
+            // Add and schedule the lattice, if not already in a batch.
             lattices.put(key, lattice);
-            lattice.schedule(schedule);
+            if (!batched.contains(lattice)) {
+                lattice.schedule(schedule);
+            }
         }
+
+        resolveLattices();
     }
 
     @Override
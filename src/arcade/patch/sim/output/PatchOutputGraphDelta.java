@@ -0,0 +1,319 @@
+package arcade.patch.sim.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import arcade.core.util.Graph;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteNode;
+
+/**
+ * Delta encoding of {@link arcade.patch.env.component.PatchComponentSitesGraph} output.
+ *
+ * <p>Each edge is assigned an integer id the first time it is saved. The first delta lists all
+ * edges as added, and each following delta only lists edges that were added or removed and the
+ * attributes that changed since the previous delta. Deltas are formatted as:
+ *
+ * <pre>
+ *     {
+ *         "added": [ [ (id), (type), (attribute values) ], ... ],
+ *         "removed": [ (id), ... ],
+ *         "changed": [ [ (id), (attribute index), (value), (attribute index), (value), ... ], ... ]
+ *     }
+ * </pre>
+ *
+ * <p>Attribute values are listed in the order of {@link #ATTRIBUTES}. Applying the deltas in order
+ * with {@link #reconstruct(List)} gives the graph in the same format as the full graph output.
+ */
+public final class PatchOutputGraphDelta {
+    /** Logger for {@code PatchOutputGraphDelta}. */
+    private static final Logger LOGGER = Logger.getLogger(PatchOutputGraphDelta.class.getName());
+
+    /** Names of edge attributes in delta order. */
+    static final String[] ATTRIBUTES = {
+        "from.x",
+        "from.y",
+        "from.z",
+        "from.pressure",
+        "from.oxygen",
+        "to.x",
+        "to.y",
+        "to.z",
+        "to.pressure",
+        "to.oxygen",
+        "radius",
+        "length",
+        "wall",
+        "shear",
+        "stress",
+        "flow",
+    };
+
+    /** Number of attributes for each node. */
+    private static final int NODE_ATTRIBUTES = 5;
+
+    /** Number of coordinate attributes for each node. */
+    private static final int NODE_COORDINATES = 3;
+
+    /** Map of saved edges to ids. */
+    private IdentityHashMap<SiteEdge, Integer> ids;
+
+    /** Map of edge ids to attribute values from the previous delta. */
+    private final TreeMap<Integer, double[]> values;
+
+    /** Id for the next added edge. */
+    private int nextId;
+
+    /** Creates an empty {@code PatchOutputGraphDelta}. */
+    public PatchOutputGraphDelta() {
+        ids = new IdentityHashMap<>();
+        values = new TreeMap<>();
+    }
+
+    /**
+     * Gets the delta between the given graph and the graph from the previous call.
+     *
+     * @param graph the graph
+     * @return the delta
+     */
+    public JsonObject update(Graph graph) {
+        IdentityHashMap<SiteEdge, Integer> updated = new IdentityHashMap<>();
+        TreeSet<Integer> stale = new TreeSet<>(values.keySet());
+        JsonArray added = new JsonArray();
+        JsonArray removed = new JsonArray();
+        JsonArray changed = new JsonArray();
+
+        for (Object obj : graph.getAllEdges()) {
+            SiteEdge edge = (SiteEdge) obj;
+            double[] current = getValues(edge);
+            Integer id = ids.get(edge);
+
+            if (id == null) {
+                id = nextId++;
+                JsonArray row = new JsonArray();
+                row.add(id);
+                row.add(edge.getType());
+                for (int i = 0; i < current.length; i++) {
+                    addValue(row, i, current[i]);
+                }
+                added.add(row);
+            } else {
+                double[] previous = values.get(id);
+                JsonArray row = new JsonArray();
+                row.add(id);
+                for (int i = 0; i < current.length; i++) {
+                    if (Double.compare(previous[i], current[i]) != 0) {
+                        row.add(i);
+                        addValue(row, i, current[i]);
+                    }
+                }
+                if (row.size() > 1) {
+                    changed.add(row);
+                }
+            }
+
+            updated.put(edge, id);
+            values.put(id, current);
+            stale.remove(id);
+        }
+
+        for (Integer id : stale) {
+            removed.add(id);
+            values.remove(id);
+        }
+
+        ids = updated;
+
+        JsonObject json = new JsonObject();
+        json.add("added", added);
+        json.add("removed", removed);
+        json.add("changed", changed);
+        return json;
+    }
+
+    /**
+     * Gets the attribute values of the given edge.
+     *
+     * @param edge the edge
+     * @return the attribute values
+     */
+    private static double[] getValues(SiteEdge edge) {
+        double[] row = new double[ATTRIBUTES.length];
+        setNodeValues(row, 0, edge.getFrom());
+        setNodeValues(row, NODE_ATTRIBUTES, edge.getTo());
+
+        int i = 2 * NODE_ATTRIBUTES;
+        row[i++] = edge.getRadius();
+        row[i++] = edge.getLength();
+        row[i++] = edge.getWall();
+        row[i++] = edge.getShear();
+        row[i++] = edge.getCircum();
+        row[i] = edge.getFlow();
+        return row;
+    }
+
+    /**
+     * Sets the attribute values of the given node.
+     *
+     * @param row the attribute values
+     * @param offset the offset of the node attributes
+     * @param node the node
+     */
+    private static void setNodeValues(double[] row, int offset, SiteNode node) {
+        row[offset] = node.getX();
+        row[offset + 1] = node.getY();
+        row[offset + 2] = node.getZ();
+        row[offset + 3] = node.getPressure();
+        row[offset + 4] = node.getOxygen();
+    }
+
+    /**
+     * Adds the attribute value to the row, with coordinates added as integers.
+     *
+     * @param row the row
+     * @param attribute the attribute index
+     * @param value the attribute value
+     */
+    private static void addValue(JsonArray row, int attribute, double value) {
+        if (attribute < 2 * NODE_ATTRIBUTES && attribute % NODE_ATTRIBUTES < NODE_COORDINATES) {
+            row.add((int) value);
+        } else {
+            row.add(value);
+        }
+    }
+
+    /**
+     * Reconstructs the graph from the given deltas.
+     *
+     * <p>Edges are listed in the order they were first added.
+     *
+     * @param deltas the list of deltas, starting from the first delta
+     * @return the graph in the same format as the full graph output
+     */
+    public static JsonArray reconstruct(List<JsonObject> deltas) {
+        TreeMap<Integer, String> types = new TreeMap<>();
+        TreeMap<Integer, double[]> rows = new TreeMap<>();
+
+        for (JsonObject delta : deltas) {
+            for (JsonElement element : delta.getAsJsonArray("removed")) {
+                int id = element.getAsInt();
+                types.remove(id);
+                rows.remove(id);
+            }
+
+            for (JsonElement element : delta.getAsJsonArray("added")) {
+                JsonArray row = element.getAsJsonArray();
+                int id = row.get(0).getAsInt();
+                double[] current = new double[ATTRIBUTES.length];
+                for (int i = 0; i < current.length; i++) {
+                    current[i] = row.get(i + 2).getAsDouble();
+                }
+                types.put(id, row.get(1).getAsString());
+                rows.put(id, current);
+            }
+
+            for (JsonElement element : delta.getAsJsonArray("changed")) {
+                JsonArray row = element.getAsJsonArray();
+                double[] current = rows.get(row.get(0).getAsInt());
+                for (int i = 1; i < row.size(); i += 2) {
+                    current[row.get(i).getAsInt()] = row.get(i + 1).getAsDouble();
+                }
+            }
+        }
+
+        JsonArray json = new JsonArray();
+        for (Map.Entry<Integer, double[]> entry : rows.entrySet()) {
+            double[] row = entry.getValue();
+            int i = 2 * NODE_ATTRIBUTES;
+
+            JsonObject edge = new JsonObject();
+            edge.add("from", makeNode(row, 0));
+            edge.add("to", makeNode(row, NODE_ATTRIBUTES));
+            edge.addProperty("type", types.get(entry.getKey()));
+            edge.addProperty("radius", row[i++]);
+            edge.addProperty("length", row[i++]);
+            edge.addProperty("wall", row[i++]);
+            edge.addProperty("shear", row[i++]);
+            edge.addProperty("stress", row[i++]);
+            edge.addProperty("flow", row[i]);
+            json.add(edge);
+        }
+
+        return json;
+    }
+
+    /**
+     * Makes the node object from the given attribute values.
+     *
+     * @param row the attribute values
+     * @param offset the offset of the node attributes
+     * @return the node object
+     */
+    private static JsonObject makeNode(double[] row, int offset) {
+        JsonObject node = new JsonObject();
+        node.addProperty("x", (int) row[offset]);
+        node.addProperty("y", (int) row[offset + 1]);
+        node.addProperty("z", (int) row[offset + 2]);
+        node.addProperty("pressure", row[offset + 3]);
+        node.addProperty("oxygen", row[offset + 4]);
+        return node;
+    }
+
+    /**
+     * Reads the graph at the given tick from delta files.
+     *
+     * <p>Delta files are named {@code (prefix)_(tick).(key).GRAPHDELTA.json}. All delta files with
+     * ticks up to and including the given tick are applied in order.
+     *
+     * @param prefix the prefix for the saved files
+     * @param key the component key
+     * @param tick the simulation tick
+     * @return the graph in the same format as the full graph output, {@code null} if unable to read
+     */
+    public static JsonArray read(String prefix, String key, int tick) {
+        File base = new File(prefix).getAbsoluteFile();
+        Pattern pattern =
+                Pattern.compile(
+                        Pattern.quote(base.getName())
+                                + "_(\\d+)\\."
+                                + Pattern.quote(key)
+                                + "\\.GRAPHDELTA\\.json");
+
+        TreeMap<Integer, File> files = new TreeMap<>();
+        File[] listed = base.getParentFile().listFiles();
+        if (listed != null) {
+            for (File file : listed) {
+                Matcher match = pattern.matcher(file.getName());
+                if (match.matches() && Integer.parseInt(match.group(1)) <= tick) {
+                    files.put(Integer.parseInt(match.group(1)), file);
+                }
+            }
+        }
+
+        ArrayList<JsonObject> deltas = new ArrayList<>();
+        for (File file : files.values()) {
+            try {
+                String contents = Files.readString(file.toPath());
+                deltas.add(JsonParser.parseString(contents).getAsJsonObject());
+            } catch (IOException ex) {
+                LOGGER.severe("error reading [ " + file + " ] due to " + ex.getClass().getName());
+                return null;
+            }
+        }
+
+        return reconstruct(deltas);
+    }
+}
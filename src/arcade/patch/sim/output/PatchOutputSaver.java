@@ -1,10 +1,12 @@
 package arcade.patch.sim.output;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import com.google.gson.Gson;
 import arcade.core.env.component.Component;
 import arcade.core.sim.Series;
+import arcade.core.sim.Simulation;
 import arcade.core.sim.output.OutputSaver;
 import arcade.patch.env.component.PatchComponentSitesGraph;
 import arcade.patch.sim.PatchSimulation;
@@ -16,12 +18,18 @@ public final class PatchOutputSaver extends OutputSaver {
     /** {@code true} to save graph components, {@code false} otherwise. */
     public boolean saveGraph;
 
+    /** {@code true} to save graph components as deltas, {@code false} otherwise. */
+    public boolean saveGraphDeltas;
+
     /** {@code true} to save lattices, {@code false} otherwise. */
     public boolean saveLattice;
 
     /** {@code true} to save events, {@code false} otherwise. */
     public boolean saveEvents;
 
+    /** Map of component keys to graph delta encodings. */
+    private final HashMap<String, PatchOutputGraphDelta> graphDeltas;
+
     /**
      * Creates an {@code PatchOutputSaver} for the series.
      *
@@ -29,6 +37,13 @@ public final class PatchOutputSaver extends OutputSaver {
      */
     public PatchOutputSaver(Series series) {
         super(series);
+        graphDeltas = new HashMap<>();
+    }
+
+    @Override
+    public void equip(Simulation sim) {
+        super.equip(sim);
+        graphDeltas.clear();
     }
 
     @Override
@@ -39,12 +54,24 @@ public final class PatchOutputSaver extends OutputSaver {
     /**
      * Save a list of {@link arcade.patch.env.component.PatchComponentSitesGraph} to a JSON.
      *
+     * <p>If graphs are saved as deltas, the first file for each component contains all edges and
+     * each following file contains only the changes since the previous file. Graphs at a given tick
+     * can be reconstructed using {@link PatchOutputGraphDelta#read(String, String, int)}.
+     *
      * @param tick the simulation tick
      */
     public void saveComponents(int tick) {
         for (String componentKey : ((PatchSimulation) sim).getComponentKeys()) {
             Component component = sim.getComponent(componentKey);
-            if (component instanceof PatchComponentSitesGraph && saveGraph) {
+            if (component instanceof PatchComponentSitesGraph && saveGraphDeltas) {
+                PatchOutputGraphDelta delta =
+                        graphDeltas.computeIfAbsent(componentKey, k -> new PatchOutputGraphDelta());
+                String json =
+                        delta.update(((PatchComponentSitesGraph) component).getGraph()).toString();
+                String path =
+                        prefix + String.format("_%06d." + componentKey + ".GRAPHDELTA.json", tick);
+                write(path, json);
+            } else if (component instanceof PatchComponentSitesGraph && saveGraph) {
                 String json =
                         gson.toJson(
                                 (PatchComponentSitesGraph) component,
@@ -86,7 +113,7 @@ public final class PatchOutputSaver extends OutputSaver {
     @Override
     public void save(int tick) {
         super.save(tick);
-        if (saveGraph) {
+        if (saveGraph || saveGraphDeltas) {
             saveComponents(tick);
         }
         if (saveLattice) {
@@ -125,6 +125,11 @@ public abstract class PottsSimulation extends SimState implements Simulation {
         return null;
     }
 
+    @Override
+    public final Lattice getLattice(int index) {
+        return null;
+    }
+
     @Override
     public final Action getAction(String key) {
         return null;
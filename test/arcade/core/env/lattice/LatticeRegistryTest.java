@@ -0,0 +1,44 @@
+package arcade.core.env.lattice;
+
+import org.junit.jupiter.api.Test;
+import arcade.core.sim.Simulation;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LatticeRegistryTest {
+    @Test
+    public void constructor_called_throwsUnsupportedOperationException() {
+        assertThrows(UnsupportedOperationException.class, LatticeRegistry::new);
+    }
+
+    @Test
+    public void getIndex_sameKey_returnsSameIndex() {
+        int index = LatticeRegistry.getIndex("REGISTRY_A");
+
+        assertEquals(index, LatticeRegistry.getIndex("REGISTRY_A"));
+        assertEquals("REGISTRY_A", LatticeRegistry.getKey(index));
+    }
+
+    @Test
+    public void getIndex_differentKeys_returnsDifferentIndices() {
+        int index1 = LatticeRegistry.getIndex("REGISTRY_B");
+        int index2 = LatticeRegistry.getIndex("REGISTRY_C");
+
+        assertNotEquals(index1, index2);
+    }
+
+    @Test
+    public void resolve_givenSimulation_returnsLatticesByIndex() {
+        Simulation sim = mock(Simulation.class);
+        Lattice lattice = mock(Lattice.class);
+        doReturn(lattice).when(sim).getLattice("REGISTRY_D");
+        int index = LatticeRegistry.getIndex("REGISTRY_D");
+        int missing = LatticeRegistry.getIndex("REGISTRY_E");
+
+        Lattice[] lattices = LatticeRegistry.resolve(sim);
+
+        assertSame(lattice, lattices[index]);
+        assertNull(lattices[missing]);
+        verify(sim, times(1)).getLattice("REGISTRY_D");
+    }
+}
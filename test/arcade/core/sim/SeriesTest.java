@@ -159,6 +159,11 @@ public class SeriesTest {
             return null;
         }
 
+        @Override
+        public Lattice getLattice(int index) {
+            return null;
+        }
+
         @Override
         public Action getAction(String key) {
             return null;
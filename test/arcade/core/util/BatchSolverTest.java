@@ -0,0 +1,79 @@
+package arcade.core.util;
+
+import org.junit.jupiter.api.Test;
+import arcade.core.util.BatchSolver.BatchEquations;
+import arcade.core.util.Solver.Equations;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSolverTest {
+    @Test
+    public void rungeKutta_complexEquations_returnsAnswer() {
+        BatchEquations e =
+                (t, y, dydt, stride, count) -> {
+                    for (int j = 0; j < count; j++) {
+                        dydt[j] = -y[j];
+                        dydt[stride + j] = y[j];
+                    }
+                };
+        double[] y = new double[] {1, 2, 0, 0};
+        new BatchSolver(2).rungeKutta(e, 0, y, 2, 2, 1, 0.01);
+
+        assertEquals(Math.exp(-1), y[0], 0.0001);
+        assertEquals(2 * Math.exp(-1), y[1], 0.0001);
+        assertEquals(1 - Math.exp(-1), y[2], 0.0001);
+        assertEquals(2 - 2 * Math.exp(-1), y[3], 0.0001);
+    }
+
+    @Test
+    public void rungeKutta_nonlinearEquations_matchesSolver() {
+        Equations e =
+                (t, y) -> {
+                    double[] result = new double[2];
+                    result[0] = 1.1 * y[0] - 0.4 * y[0] * y[1];
+                    result[1] = 0.1 * y[0] * y[1] - 0.4 * y[1] + t;
+                    return result;
+                };
+        BatchEquations be =
+                (t, y, dydt, stride, count) -> {
+                    for (int j = 0; j < count; j++) {
+                        double y0 = y[j];
+                        double y1 = y[stride + j];
+                        dydt[j] = 1.1 * y0 - 0.4 * y0 * y1;
+                        dydt[stride + j] = 0.1 * y0 * y1 - 0.4 * y1 + t;
+                    }
+                };
+
+        int count = 5;
+        int stride = 8;
+        double[] y = new double[2 * stride];
+        for (int j = 0; j < count; j++) {
+            y[j] = 10 + j;
+            y[stride + j] = 5 - 0.5 * j;
+        }
+
+        new BatchSolver(2).rungeKutta(be, 0, y, stride, count, 3, 0.07);
+
+        for (int j = 0; j < count; j++) {
+            double[] y0 = new double[] {10 + j, 5 - 0.5 * j};
+            double[] expected = Solver.rungeKutta(e, 0, y0, 3, 0.07);
+            assertEquals(expected[0], y[j]);
+            assertEquals(expected[1], y[stride + j]);
+        }
+    }
+
+    @Test
+    public void rungeKutta_unusedSystems_unchanged() {
+        BatchEquations e =
+                (t, y, dydt, stride, count) -> {
+                    for (int j = 0; j < count; j++) {
+                        dydt[j] = 1;
+                    }
+                };
+        double[] y = new double[] {0, 0, -1};
+        new BatchSolver(1).rungeKutta(e, 0, y, 3, 2, 1, 0.1);
+
+        assertEquals(1, y[0], 1E-10);
+        assertEquals(1, y[1], 1E-10);
+        assertEquals(-1, y[2]);
+    }
+}
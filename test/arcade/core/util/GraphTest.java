@@ -292,6 +292,33 @@ public class GraphTest {
                 () -> assertTrue(graph.contains(new Edge(node4b, node3))));
     }
 
+    @Test
+    public void removeEdge_parallelEdges_removesSameInstance() {
+        Graph graph = new Graph();
+        Node node1 = new Node(0, 0, 0);
+        Node node2 = new Node(0, 1, 0);
+        Edge edge1 = new Edge(node1, node2);
+        Edge edge2 = new Edge(node1, node2);
+        Edge edge3 = new Edge(node1, node2);
+
+        graph.addEdge(edge1);
+        graph.addEdge(edge2);
+        graph.addEdge(edge3);
+        graph.removeEdge(edge2);
+
+        Bag all = graph.getAllEdges();
+        Bag out = graph.getEdgesOut(edge1.getFrom());
+        Bag in = graph.getEdgesIn(edge1.getTo());
+
+        assertEquals(2, all.numObjs);
+        assertEquals(2, out.numObjs);
+        assertEquals(2, in.numObjs);
+        for (Bag bag : new Bag[] {all, out, in}) {
+            assertTrue(bag.objs[0] == edge1 || bag.objs[1] == edge1);
+            assertTrue(bag.objs[0] == edge3 || bag.objs[1] == edge3);
+        }
+    }
+
     @Test
     public void clearEdge_linksRemoved() {
         Graph graph = new Graph();
@@ -520,6 +547,51 @@ public class GraphTest {
         assertFalse(graph.hasEdge(node3, node1));
     }
 
+    @Test
+    public void hasEdge_edgeRemoved_returnsFalse() {
+        Graph graph = new Graph();
+        Node node1 = new Node(0, 0, 0);
+        Node node2 = new Node(1, 1, 0);
+        Node node3 = new Node(2, 2, 0);
+
+        Edge edge1 = new Edge(node1, node2);
+        Edge edge2 = new Edge(node2, node3);
+
+        graph.addEdge(edge1);
+        graph.addEdge(edge2);
+        graph.removeEdge(edge1);
+
+        assertAll(
+                () -> assertFalse(graph.hasEdge(node1, node2)),
+                () -> assertTrue(graph.hasEdge(node2, node3)),
+                () -> assertFalse(graph.contains(node1)),
+                () -> assertTrue(graph.contains(node2)));
+    }
+
+    @Test
+    public void hasEdge_edgeAddedAfterNodeRemoved_returnsTrue() {
+        Graph graph = new Graph();
+        Node node1 = new Node(0, 0, 0);
+        Node node2 = new Node(1, 1, 0);
+        Node node3 = new Node(2, 2, 0);
+
+        Edge edge1 = new Edge(node1, node2);
+        Edge edge2 = new Edge(node3, node2);
+
+        graph.addEdge(edge1);
+        graph.removeEdge(edge1);
+        graph.addEdge(edge2);
+        graph.addEdge(node2, node1);
+
+        assertAll(
+                () -> assertFalse(graph.hasEdge(node1, node2)),
+                () -> assertTrue(graph.hasEdge(node3, node2)),
+                () -> assertTrue(graph.hasEdge(node2, node1)),
+                () -> assertEquals(1, graph.getInDegree(node1)),
+                () -> assertEquals(0, graph.getOutDegree(node1)),
+                () -> assertEquals(2, graph.getDegree(node2)));
+    }
+
     @Test
     public void findDownstreamIntersection_returnsIntersectionNode() {
         Graph graph = new Graph();
@@ -721,6 +793,40 @@ public class GraphTest {
                 () -> assertNull(found4, "No in edges"));
     }
 
+    @Test
+    public void findDownstreamIntersection_cycles_returnsIntersectionNode() {
+        Graph graph = new Graph();
+        Node node1 = new Node(0, 0, 0);
+        Node node2A = new Node(1, 1, 0);
+        Node node3A = new Node(2, 2, 0);
+        Node node2B = new Node(-1, -1, 0);
+        Node node3B = new Node(-2, -2, 0);
+        Node node4 = new Node(3, 0, 0);
+
+        Edge edge1 = new Edge(node1, node2A);
+        Edge edge2 = new Edge(node2A, node3A);
+        Edge edge3 = new Edge(node3A, node2A);
+        Edge edge4 = new Edge(node1, node2B);
+        Edge edge5 = new Edge(node2B, node3B);
+        Edge edge6 = new Edge(node3B, node1);
+        Edge edge7 = new Edge(node3A, node4);
+        Edge edge8 = new Edge(node3B, node4);
+
+        graph.addEdge(edge1);
+        graph.addEdge(edge2);
+        graph.addEdge(edge3);
+        graph.addEdge(edge4);
+        graph.addEdge(edge5);
+        graph.addEdge(edge6);
+        graph.addEdge(edge7);
+        graph.addEdge(edge8);
+
+        Node found1 = graph.findDownstreamIntersection(edge2, edge5);
+        Node found2 = graph.findDownstreamIntersection(edge5, edge2);
+
+        assertAll(() -> assertEquals(node4, found1), () -> assertEquals(node2A, found2));
+    }
+
     @Test
     public void getSubgraph_filterFunction_returnedFilteredEdges() {
         Graph graph = new Graph();
@@ -412,4 +412,101 @@ public class MatrixTest {
             assertArrayEquals(multiplyInvertA1[i], forwardSubstitutionA1[i], EPSILON);
         }
     }
+
+    @Test
+    public void build_unorderedDuplicateEntries_sumsEntries() {
+        Sparse sparse =
+                new Sparse.Builder(3)
+                        .add(2, 1, 1)
+                        .add(0, 2, 3)
+                        .add(0, 0, 2)
+                        .add(2, 1, 4)
+                        .add(1, 1, -1)
+                        .add(0, 2, 1)
+                        .build();
+
+        assertEquals(3, sparse.size());
+        assertEquals(4, sparse.nonZeros());
+        assertEquals(2, sparse.get(0, 0));
+        assertEquals(0, sparse.get(0, 1));
+        assertEquals(4, sparse.get(0, 2));
+        assertEquals(-1, sparse.get(1, 1));
+        assertEquals(5, sparse.get(2, 1));
+        assertEquals(0, sparse.get(2, 2));
+    }
+
+    @Test
+    public void multiply_compressedRepresentation_calculatesVector() {
+        Sparse.Builder builder = new Sparse.Builder(A2D.length);
+        for (Value v : A2S) {
+            builder.add(v.i, v.j, v.v);
+        }
+        Sparse sparse = builder.build();
+
+        double[] multiplied = new double[B1D.length];
+        sparse.multiply(B1D, multiplied);
+
+        assertArrayEquals(multiply(A2D, B1D), multiplied, EPSILON);
+    }
+
+    @Test
+    public void scale_compressedRepresentation_scalesValues() {
+        Sparse sparse = new Sparse.Builder(2).add(0, 0, 2).add(1, 0, -3).build();
+        Sparse scaled = sparse.scale(0.5);
+
+        assertEquals(1, scaled.get(0, 0));
+        assertEquals(-1.5, scaled.get(1, 0));
+        assertEquals(2, sparse.get(0, 0));
+    }
+
+    @Test
+    public void fromDense_givenMatrix_matchesValues() {
+        Sparse sparse = Sparse.fromDense(A2D);
+        for (int i = 0; i < A2D.length; i++) {
+            for (int j = 0; j < A2D.length; j++) {
+                assertEquals(A2D[i][j], sparse.get(i, j));
+            }
+        }
+        assertEquals(A2S.size(), sparse.nonZeros());
+    }
+
+    @Test
+    public void forwardSubstitution_compressedGivenLower_solvesEquation() {
+        double[] expected = forwardSubstitution(A1D, B1D);
+        double[] subbed = new double[B1D.length];
+        Sparse.fromDense(A1D).forwardSubstitution(B1D, subbed);
+        assertArrayEquals(expected, subbed, EPSILON);
+    }
+
+    @Test
+    public void residual_compressedRepresentation_calculatesResiduals() {
+        double[] x = new double[] {1, -1, 2, 0, 3};
+        double[] residual = new double[x.length];
+        Sparse.fromDense(A2D).residual(B1D, x, residual);
+        assertArrayEquals(subtract(B1D, multiply(A2D, x)), residual, EPSILON);
+    }
+
+    @Test
+    public void multiplyUpper_compressedRepresentation_calculatesVector() {
+        double[] multiplied = new double[B1D.length];
+        Sparse.fromDense(A2D).multiplyUpper(B1D, multiplied);
+        assertArrayEquals(multiply(getUpper(A2D, true), B1D), multiplied, EPSILON);
+    }
+
+    @Test
+    public void axpy_givenVectors_updatesInPlace() {
+        double[] x = new double[] {1, 2, 3};
+        double[] y = new double[] {4, 5, 6};
+        axpy(2, x, y);
+        assertArrayEquals(new double[] {6, 9, 12}, y);
+        assertArrayEquals(new double[] {1, 2, 3}, x);
+    }
+
+    @Test
+    public void addScaled_givenVectors_updatesInPlace() {
+        double[] x = new double[] {1, 2, 3};
+        double[] y = new double[] {4, 5, 6};
+        addScaled(2, x, -1, y);
+        assertArrayEquals(new double[] {-2, -1, 0}, y);
+    }
 }
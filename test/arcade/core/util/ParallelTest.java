@@ -0,0 +1,31 @@
+package arcade.core.util;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTest {
+    @Test
+    public void constructor_called_throwsException() {
+        assertThrows(UnsupportedOperationException.class, Parallel::new);
+    }
+
+    @Test
+    public void getExecutor_sameThreads_returnsSharedExecutor() {
+        ExecutorService executor = Parallel.getExecutor(3);
+        assertSame(executor, Parallel.getExecutor(3));
+        assertFalse(executor.isShutdown());
+    }
+
+    @Test
+    public void getExecutor_differentThreads_returnsDifferentExecutors() {
+        assertNotSame(Parallel.getExecutor(2), Parallel.getExecutor(5));
+    }
+
+    @Test
+    public void getExecutor_called_usesDaemonThreads() throws Exception {
+        boolean isDaemon =
+                Parallel.getExecutor(2).submit(() -> Thread.currentThread().isDaemon()).get();
+        assertTrue(isDaemon);
+    }
+}
@@ -0,0 +1,140 @@
+package arcade.core.util;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.core.ARCADETestUtilities.*;
+import static arcade.core.util.MiniBox.TAG_SEPARATOR;
+
+public class ParameterSchemaTest {
+    private static final double EPSILON = 1E-10;
+
+    @Test
+    public void getId_validKey_returnsId() {
+        MiniBox box = new MiniBox();
+        String key1 = randomString();
+        String key2 = randomString();
+        box.put(key1, randomString());
+        box.put(key2, randomString());
+
+        ParameterSchema schema = new ParameterSchema(box);
+
+        assertEquals(0, schema.getId(key1));
+        assertEquals(1, schema.getId(key2));
+    }
+
+    @Test
+    public void getId_invalidKey_returnsNegative() {
+        ParameterSchema schema = new ParameterSchema(new MiniBox());
+        assertEquals(-1, schema.getId(randomString()));
+        assertFalse(schema.contains(randomString()));
+    }
+
+    @Test
+    public void getId_parameterKey_returnsId() {
+        MiniBox box = new MiniBox();
+        ParameterKey key = new ParameterKey(randomString());
+        box.put(randomString(), 1);
+        box.put(key.getName(), 2);
+
+        ParameterSchema schema = new ParameterSchema(box);
+
+        assertEquals(schema.getId(key.getName()), schema.getId(key));
+        assertEquals(schema.getId(key.getName()), schema.getId(key));
+    }
+
+    @Test
+    public void getId_parameterKeyWithDistribution_returnsDistributed() {
+        MiniBox box = new MiniBox();
+        ParameterKey key = new ParameterKey(randomString());
+        box.put("(DISTRIBUTION)" + TAG_SEPARATOR + key.getName(), "NORMAL");
+
+        ParameterSchema schema = new ParameterSchema(box);
+
+        assertEquals(ParameterSchema.DISTRIBUTED, schema.getId(key));
+    }
+
+    @Test
+    public void getId_invalidParameterKey_returnsMissing() {
+        ParameterSchema schema = new ParameterSchema(new MiniBox());
+        assertEquals(ParameterSchema.MISSING, schema.getId(new ParameterKey(randomString())));
+    }
+
+    @Test
+    public void get_validKeys_returnsParsedValues() {
+        MiniBox box = new MiniBox();
+        box.put("A", "1.5");
+        box.put("B", "3/4");
+        box.put("C", "-2");
+        box.put("D", "X");
+
+        ParameterSchema schema = new ParameterSchema(box);
+
+        for (String key : new String[] {"A", "B", "C", "D"}) {
+            int id = schema.getId(key);
+            assertEquals(box.get(key), schema.get(id));
+            assertEquals(box.getDouble(key), schema.getDouble(id), EPSILON);
+            assertEquals(box.getInt(key), schema.getInt(id));
+        }
+    }
+
+    @Test
+    public void getDistributionKeys_withDistributions_returnsKeys() {
+        MiniBox box = new MiniBox();
+        box.put("(DISTRIBUTION)" + TAG_SEPARATOR + "A", "NORMAL");
+        box.put("A_MU", 1);
+        box.put("A_SIGMA", 2);
+        box.put("B", 3);
+        box.put("(DISTRIBUTION)" + TAG_SEPARATOR + "C", "UNIFORM");
+
+        ParameterSchema schema = new ParameterSchema(box);
+
+        assertEquals(List.of("A", "C"), schema.getDistributionKeys());
+    }
+
+    @Test
+    public void filter_calledTwice_returnsSameBox() {
+        MiniBox box = new MiniBox();
+        box.put("(PROCESS)" + TAG_SEPARATOR + "METABOLISM", "random");
+        box.put("(PROCESS)" + TAG_SEPARATOR + "SIGNALING", "simple");
+
+        ParameterSchema schema = new ParameterSchema(box);
+        MiniBox filtered = schema.filter("(PROCESS)");
+
+        assertTrue(filtered.compare(box.filter("(PROCESS)")));
+        assertSame(filtered, schema.filter("(PROCESS)"));
+    }
+
+    @Test
+    public void filter_returnedBox_isUnmodifiable() {
+        MiniBox box = new MiniBox();
+        box.put("(PROCESS)" + TAG_SEPARATOR + "METABOLISM", "random");
+
+        ParameterSchema schema = new ParameterSchema(box);
+        MiniBox filtered = schema.filter("(PROCESS)");
+
+        assertThrows(
+                UnsupportedOperationException.class, () -> filtered.put("SIGNALING", "simple"));
+        assertEquals(1, filtered.getKeys().size());
+    }
+
+    @Test
+    public void getSchema_unchangedBox_returnsSameSchema() {
+        MiniBox box = new MiniBox();
+        box.put(randomString(), randomString());
+        assertSame(box.getSchema(), box.getSchema());
+    }
+
+    @Test
+    public void getSchema_afterPut_returnsUpdatedSchema() {
+        MiniBox box = new MiniBox();
+        String key = randomString();
+        box.put(key, 1);
+        ParameterSchema schema = box.getSchema();
+
+        box.put(key, 2);
+
+        assertNotSame(schema, box.getSchema());
+        assertEquals(2, box.getSchema().getInt(box.getSchema().getId(key)));
+    }
+}
@@ -173,6 +173,82 @@ public class ParametersTest {
         assertThrows(InvalidParameterException.class, () -> parameters.getInt(key));
     }
 
+    @Test
+    public void getDouble_parameterKeyWithoutDistribution_returnsValue() {
+        MiniBox box = new MiniBox();
+        ParameterKey key = new ParameterKey(randomString());
+
+        double value = randomDoubleBetween(0, 100);
+        box.put(key.getName(), value);
+
+        Parameters parameters = new Parameters(box, null, RANDOM);
+
+        assertEquals(value, parameters.getDouble(key));
+        assertEquals(value, parameters.getDouble(key));
+    }
+
+    @Test
+    public void getDouble_parameterKeyWithDistribution_returnsValue() {
+        MiniBox box = spy(new MiniBox());
+        ParameterKey key = new ParameterKey(randomString());
+
+        double value = randomDoubleBetween(0, 100);
+        Distribution distribution = mock(Distribution.class);
+        doReturn(value).when(distribution).getDoubleValue();
+        box.put("(DISTRIBUTION)" + TAG_SEPARATOR + key.getName(), "X");
+        doReturn(distribution).when(box).getDistribution(key.getName(), RANDOM);
+
+        Parameters parameters = new Parameters(box, null, RANDOM);
+
+        assertEquals(value, parameters.getDouble(key));
+    }
+
+    @Test
+    public void getDouble_parameterKeyDoesNotExist_throwsException() {
+        ParameterKey key = new ParameterKey(randomString());
+        Parameters parameters = new Parameters(new MiniBox(), null, RANDOM);
+
+        assertThrows(InvalidParameterException.class, () -> parameters.getDouble(key));
+    }
+
+    @Test
+    public void getInt_parameterKeyWithoutDistribution_returnsValue() {
+        MiniBox box = new MiniBox();
+        ParameterKey key = new ParameterKey(randomString());
+
+        int value = randomIntBetween(0, 100);
+        box.put(key.getName(), value);
+
+        Parameters parameters = new Parameters(box, null, RANDOM);
+
+        assertEquals(value, parameters.getInt(key));
+        assertEquals(value, parameters.getInt(key));
+    }
+
+    @Test
+    public void getInt_parameterKeyWithDistribution_returnsValue() {
+        MiniBox box = spy(new MiniBox());
+        ParameterKey key = new ParameterKey(randomString());
+
+        int value = randomIntBetween(0, 100);
+        Distribution distribution = mock(Distribution.class);
+        doReturn(value).when(distribution).getIntValue();
+        box.put("(DISTRIBUTION)" + TAG_SEPARATOR + key.getName(), "X");
+        doReturn(distribution).when(box).getDistribution(key.getName(), RANDOM);
+
+        Parameters parameters = new Parameters(box, null, RANDOM);
+
+        assertEquals(value, parameters.getInt(key));
+    }
+
+    @Test
+    public void getInt_parameterKeyDoesNotExist_throwsException() {
+        ParameterKey key = new ParameterKey(randomString());
+        Parameters parameters = new Parameters(new MiniBox(), null, RANDOM);
+
+        assertThrows(InvalidParameterException.class, () -> parameters.getInt(key));
+    }
+
     @Test
     public void getString_keyExists_returnsValue() {
         MiniBox box = new MiniBox();
@@ -291,6 +367,20 @@ public class ParametersTest {
         assertEquals(filteredMap, filtered.contents);
     }
 
+    @Test
+    public void filter_validCode_returnsUnmodifiableBox() {
+        MiniBox box = new MiniBox();
+        String code = randomString();
+        box.put(code + TAG_SEPARATOR + randomString(), randomString());
+
+        Parameters parameters = new Parameters(box, null, RANDOM);
+        MiniBox filtered = parameters.filter(code);
+
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> filtered.put(randomString(), randomString()));
+    }
+
     @Test
     public void compare_sameParametersSameDistributions_returnsTrue() {
         MiniBox boxA = new MiniBox();
@@ -1,8 +1,11 @@
 package arcade.core.util;
 
 import org.junit.jupiter.api.Test;
+import arcade.core.util.Matrix.Sparse;
 import arcade.core.util.Solver.Equations;
 import arcade.core.util.Solver.Function;
+import arcade.core.util.Solver.InPlaceEquations;
+import arcade.core.util.Solver.Workspace;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SolverTest {
@@ -116,6 +119,117 @@ public class SolverTest {
         assertEquals(0, y[1], 0.00001);
     }
 
+    private static final Equations NONLINEAR =
+            (t, y) -> {
+                double[] result = new double[3];
+                result[0] = 1.1 * y[0] - 0.4 * y[0] * y[1];
+                result[1] = 0.1 * y[0] * y[1] - 0.4 * y[1] + t;
+                result[2] = -y[2] / (1 + y[0]);
+                return result;
+            };
+
+    private static final InPlaceEquations NONLINEAR_IN_PLACE =
+            (t, y, dydt) -> {
+                dydt[0] = 1.1 * y[0] - 0.4 * y[0] * y[1];
+                dydt[1] = 0.1 * y[0] * y[1] - 0.4 * y[1] + t;
+                dydt[2] = -y[2] / (1 + y[0]);
+            };
+
+    @Test
+    public void testEuler_inPlaceEquations_matchesEquations() {
+        double[] y0 = new double[] {10, 5, 2};
+        double[] expected = Solver.euler(NONLINEAR, 0, y0, 2, 0.01);
+        double[] y = y0.clone();
+        Solver.euler(NONLINEAR_IN_PLACE, 0, y, 2, 0.01);
+
+        assertArrayEquals(expected, y);
+        assertArrayEquals(new double[] {10, 5, 2}, y0);
+    }
+
+    @Test
+    public void testRungeKutta_inPlaceEquations_matchesEquations() {
+        double[] y0 = new double[] {10, 5, 2};
+        double[] expected = Solver.rungeKutta(NONLINEAR, 0, y0, 2, 0.07);
+        double[] y = y0.clone();
+        Solver.rungeKutta(NONLINEAR_IN_PLACE, 0, y, 2, 0.07);
+
+        assertArrayEquals(expected, y);
+        assertArrayEquals(new double[] {10, 5, 2}, y0);
+    }
+
+    @Test
+    public void testCashKarp_inPlaceEquations_matchesEquations() {
+        double[] y0 = new double[] {10, 5, 2};
+        double[] expected = Solver.cashKarp(NONLINEAR, 0, y0, 2, 0.01);
+        double[] y = y0.clone();
+        Solver.cashKarp(NONLINEAR_IN_PLACE, 0, y, 2, 0.01);
+
+        assertArrayEquals(expected, y);
+        assertArrayEquals(new double[] {10, 5, 2}, y0);
+    }
+
+    @Test
+    public void testRungeKutta_reusedWorkspace_matchesEquations() {
+        Workspace workspace = new Workspace();
+        InPlaceEquations e = (t, y, dydt) -> dydt[0] = -y[0];
+
+        double[] y1 = new double[] {1};
+        Solver.rungeKutta(e, 0, y1, 1, 0.01, workspace);
+
+        double[] y0 = new double[] {10, 5, 2};
+        double[] expected = Solver.rungeKutta(NONLINEAR, 0, y0, 2, 0.07);
+        double[] y2 = y0.clone();
+        Solver.rungeKutta(NONLINEAR_IN_PLACE, 0, y2, 2, 0.07, workspace);
+
+        double[] y3 = new double[] {1};
+        Solver.rungeKutta(e, 0, y3, 1, 0.01, workspace);
+
+        assertEquals(Math.exp(-1), y1[0], 0.0001);
+        assertArrayEquals(expected, y2);
+        assertArrayEquals(y1, y3);
+    }
+
+    @Test
+    public void testRosenbrock_complexEquations_returnsAnswer() {
+        InPlaceEquations e =
+                (t, y, dydt) -> {
+                    dydt[0] = -y[0];
+                    dydt[1] = y[0];
+                };
+        double[] y = new double[] {1, 0};
+        Solver.rosenbrock(e, 0, y, 1, 0.01);
+
+        assertEquals(Math.exp(-1), y[0], 0.001);
+        assertEquals(1 - Math.exp(-1), y[1], 0.001);
+    }
+
+    @Test
+    public void testRosenbrock_stiffEquations_returnsAnswer() {
+        InPlaceEquations e =
+                (t, y, dydt) -> {
+                    dydt[0] = -1000 * (y[0] - y[1]);
+                    dydt[1] = -0.01 * y[1];
+                };
+        double[] y = new double[] {0, 1};
+        Solver.rosenbrock(e, 0, y, 60, 1, 200, new Workspace());
+
+        assertEquals(Math.exp(-0.6), y[1], 0.001);
+        assertEquals(Math.exp(-0.6), y[0], 0.001);
+    }
+
+    @Test
+    public void testRosenbrock_zeroMaximumSteps_returnsInitial() {
+        InPlaceEquations e =
+                (t, y, dydt) -> {
+                    dydt[0] = -y[0];
+                    dydt[1] = y[0];
+                };
+        double[] y = new double[] {1, 0};
+        Solver.rosenbrock(e, 0, y, 1, 0.01, 0, new Workspace());
+
+        assertArrayEquals(new double[] {1, 0}, y);
+    }
+
     @Test
     public void testSOR_denseMatrix_returnsSolution() {
         double[][] matA =
@@ -136,7 +250,7 @@ public class SolverTest {
     }
 
     @Test
-    public void testSOR_denseSORandZeroMaxIters_returnsInitialGuess() {
+    public void testSOR_zeroMaxIters_returnsInitialGuess() {
         double[][] matA =
                 new double[][] {
                     {4, -1, 0, 0},
@@ -146,7 +260,7 @@ public class SolverTest {
                 };
         double[] b = new double[] {2, 4, 6, 9};
         double[] x = new double[] {0, 1, 2, 3};
-        double[] result = Solver.sor(matA, b, x, 100, 0, 1E-8);
+        double[] result = Solver.sor(matA, b, x, 0, 1E-8);
 
         assertEquals(x[0], result[0], 0.0001);
         assertEquals(x[1], result[1], 0.0001);
@@ -155,7 +269,7 @@ public class SolverTest {
     }
 
     @Test
-    public void testSOR_sparseMatrix_returnsSolution() {
+    public void testSOR_denseMatrixGivenIterations_returnsSolution() {
         double[][] matA =
                 new double[][] {
                     {4, -1, 0, 0},
@@ -165,7 +279,7 @@ public class SolverTest {
                 };
         double[] b = new double[] {2, 4, 6, 9};
         double[] x = new double[] {0, 1, 2, 3};
-        double[] result = Solver.sor(matA, b, x, 3, 10000, 1E-8);
+        double[] result = Solver.sor(matA, b, x, 10000, 1E-8);
 
         assertEquals(1, result[0], 0.0001);
         assertEquals(2, result[1], 0.0001);
@@ -174,7 +288,7 @@ public class SolverTest {
     }
 
     @Test
-    public void testSOR_sparseSORandZeroMaxIters_returnsInitialGuess() {
+    public void testSOR_compressedMatrix_returnsSolution() {
         double[][] matA =
                 new double[][] {
                     {4, -1, 0, 0},
@@ -184,12 +298,81 @@ public class SolverTest {
                 };
         double[] b = new double[] {2, 4, 6, 9};
         double[] x = new double[] {0, 1, 2, 3};
-        double[] result = Solver.sor(matA, b, x, 3, 0, 1E-8);
+        double[] result = Solver.sor(Sparse.fromDense(matA), b, x, 10000, 1E-8);
 
-        assertEquals(x[0], result[0], 0.0001);
-        assertEquals(x[1], result[1], 0.0001);
-        assertEquals(x[2], result[2], 0.0001);
-        assertEquals(x[3], result[3], 0.0001);
+        assertEquals(1, result[0], 0.0001);
+        assertEquals(2, result[1], 0.0001);
+        assertEquals(3, result[2], 0.0001);
+        assertEquals(4, result[3], 0.0001);
+        assertArrayEquals(new double[] {0, 1, 2, 3}, x);
+    }
+
+    @Test
+    public void testConjugateGradient_sparseMatrix_returnsSolution() {
+        Sparse matA =
+                new Sparse.Builder(4)
+                        .add(0, 0, 4)
+                        .add(0, 1, -1)
+                        .add(1, 0, -1)
+                        .add(1, 1, 4)
+                        .add(1, 2, -1)
+                        .add(2, 1, -1)
+                        .add(2, 2, 4)
+                        .add(2, 3, -1)
+                        .add(3, 2, -1)
+                        .add(3, 3, 3)
+                        .build();
+        double[] b = new double[] {2, 4, 6, 9};
+        double[] x = new double[] {0, 1, 2, 3};
+        double[] result = Solver.conjugateGradient(matA, b, x);
+
+        assertEquals(1, result[0], 0.0001);
+        assertEquals(2, result[1], 0.0001);
+        assertEquals(3, result[2], 0.0001);
+        assertEquals(4, result[3], 0.0001);
+        assertArrayEquals(new double[] {0, 1, 2, 3}, x);
+    }
+
+    @Test
+    public void testConjugateGradient_zeroMaxIters_returnsInitialGuess() {
+        Sparse matA = new Sparse.Builder(2).add(0, 0, 2).add(1, 1, 3).build();
+        double[] b = new double[] {2, 9};
+        double[] x = new double[] {5, 5};
+        double[] result = Solver.conjugateGradient(matA, b, x, 0, 1E-8);
+
+        assertArrayEquals(x, result);
+    }
+
+    @Test
+    public void testConjugateGradient_largeSystem_matchesSOR() {
+        int n = 150;
+        double[][] dense = new double[n][n];
+        Sparse.Builder builder = new Sparse.Builder(n);
+        double[] b = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            double coeff = 1 + (i % 7) / 10.0;
+            dense[i][i] += coeff;
+            builder.add(i, i, coeff);
+            b[i] = (i % 5) - 2;
+
+            if (i + 1 < n) {
+                double next = 2 + (i % 3);
+                dense[i][i] += next;
+                dense[i + 1][i + 1] += next;
+                dense[i][i + 1] -= next;
+                dense[i + 1][i] -= next;
+                builder.add(i, i, next);
+                builder.add(i + 1, i + 1, next);
+                builder.add(i, i + 1, -next);
+                builder.add(i + 1, i, -next);
+            }
+        }
+
+        double[] expected = Solver.sor(dense, b, new double[n]);
+        double[] result = Solver.conjugateGradient(builder.build(), b, new double[n]);
+
+        assertArrayEquals(expected, result, 1E-6);
     }
 
     @Test
@@ -236,4 +419,82 @@ public class SolverTest {
 
         assertEquals(1.41421, result, 0.0001);
     }
+
+    @Test
+    public void testBrent_quadraticFunction_returnsAnswer() {
+        Function f = (x) -> x * x - 2;
+        double result = Solver.brent(f, 0, 2);
+
+        assertEquals(Math.sqrt(2), result, 0.00001);
+    }
+
+    @Test
+    public void testBrent_quadraticFunctionAndSwappedInputs_returnsAnswer() {
+        Function f = (x) -> x * x - 2;
+        double result = Solver.brent(f, 2, 0);
+
+        assertEquals(Math.sqrt(2), result, 0.00001);
+    }
+
+    @Test
+    public void testBrent_exceedsMaxIterations_returnsNan() {
+        Function f = (x) -> x * x - 2;
+        double result = Solver.brent(f, 0, 2, Double.NaN, 1);
+
+        assertEquals(Double.NaN, result, 0.001);
+    }
+
+    @Test
+    public void testBrent_incorrectBounds_throwsException() {
+        Function f = (x) -> x * x - 2;
+        ArithmeticException exception =
+                assertThrows(
+                        ArithmeticException.class,
+                        () -> {
+                            Solver.brent(f, 2, 3);
+                        });
+
+        assertEquals("Brent cannot find root with given bounds.", exception.getMessage());
+    }
+
+    @Test
+    public void testBrent_nearbyGuess_returnsAnswerWithFewerEvaluations() {
+        int[] cold = new int[1];
+        int[] warm = new int[1];
+        Function f1 =
+                (x) -> {
+                    cold[0]++;
+                    return Math.pow(x, 3) / (Math.pow(x, 3) + 1000) - 0.5;
+                };
+        Function f2 =
+                (x) -> {
+                    warm[0]++;
+                    return Math.pow(x, 3) / (Math.pow(x, 3) + 1000) - 0.5;
+                };
+
+        double result1 = Solver.brent(f1, 0, 100);
+        double result2 = Solver.brent(f2, 0, 100, 10.01);
+
+        assertAll(
+                () -> assertEquals(10, result1, 0.00001),
+                () -> assertEquals(10, result2, 0.00001),
+                () -> assertTrue(warm[0] < cold[0]));
+    }
+
+    @Test
+    public void testBrent_distantGuess_returnsAnswer() {
+        Function f = (x) -> x * x - 2;
+        double result = Solver.brent(f, 0, 10, 9);
+
+        assertEquals(Math.sqrt(2), result, 0.00001);
+    }
+
+    @Test
+    public void testBrent_matchesBisection() {
+        Function f = (x) -> 0.008 * Math.pow(x, 2.8) / (Math.pow(x, 2.8) + 1E4) + x * 1E-6 - 0.005;
+        double expected = Solver.bisection(f, 0, 100);
+        double result = Solver.brent(f, 0, 100);
+
+        assertEquals(expected, result, 0.00001);
+    }
 }
@@ -1,7 +1,6 @@
 package arcade.patch.agent.cell;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -136,7 +135,7 @@ public class PatchCellCARTTest {
         bag = new Bag();
         when(sim.getGrid()).thenReturn(grid);
         when(grid.getObjectsAtLocation(loc)).thenReturn(bag);
-        when(loc.getNeighbors()).thenReturn(new ArrayList<Location>());
+        when(loc.getNeighborLocations()).thenReturn(new PatchLocation[0]);
         when(loc.getVolume()).thenReturn(6000.0);
         tissueCell = mock(PatchCellTissue.class);
     }
@@ -64,6 +64,7 @@ public class PatchCellCancerStemTest {
     public static void setupMocks() {
         simMock = mock(PatchSimulation.class);
         locationMock = mock(PatchLocation.class);
+        doReturn(new PatchLocation[0]).when(locationMock).getNeighborLocations();
         parametersMock = spy(new Parameters(new MiniBox(), null, null));
         metabolismMock = mock(PatchProcessMetabolism.class);
         signalingMock = mock(PatchProcessSignaling.class);
@@ -0,0 +1,93 @@
+package arcade.patch.agent.cell;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import arcade.core.ARCADE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchCellStepperTest {
+    static final String NAME = "stepper";
+
+    static final int TICKS = 5;
+
+    static String makeSetup(int threads) {
+        return "<set>"
+                + "<series name=\""
+                + NAME
+                + "\" ticks=\""
+                + TICKS
+                + "\" interval=\""
+                + TICKS
+                + "\" start=\"0\" end=\"0\" radius=\"20\">"
+                + "<patch>"
+                + "<patch.parameter id=\"CELL_STEPPING\" value=\"parallel\" />"
+                + "<patch.parameter id=\"CELL_THREADS\" value=\""
+                + threads
+                + "\" />"
+                + "</patch>"
+                + "<populations>"
+                + "<population id=\"tissue\" class=\"tissue\" init=\"40%\">"
+                + "<population.process id=\"METABOLISM\" version=\"complex\" />"
+                + "<population.process id=\"SIGNALING\" version=\"complex\" />"
+                + "</population>"
+                + "<population id=\"random\" class=\"tissue\" init=\"20%\">"
+                + "<population.process id=\"METABOLISM\" version=\"random\" />"
+                + "<population.process id=\"SIGNALING\" version=\"random\" />"
+                + "</population>"
+                + "<population id=\"cart\" class=\"cart_cd8\" init=\"30%\">"
+                + "<population.process id=\"METABOLISM\" version=\"cart\" />"
+                + "<population.process id=\"INFLAMMATION\" version=\"cd8\" />"
+                + "</population>"
+                + "</populations>"
+                + "<layers>"
+                + makeLayer("GLUCOSE", 0.005)
+                + makeLayer("OXYGEN", 100)
+                + makeLayer("TGFA", 0)
+                + makeLayer("IL-2", 0)
+                + "</layers>"
+                + "</series></set>";
+    }
+
+    static String makeLayer(String id, double concentration) {
+        return "<layer id=\""
+                + id
+                + "\">"
+                + "<layer.parameter id=\"INITIAL_CONCENTRATION\" value=\""
+                + concentration
+                + "\" />"
+                + "<layer.operation id=\"DIFFUSER\" />"
+                + "</layer>";
+    }
+
+    static Path run(Path path, int threads) throws Exception {
+        Path output = Files.createDirectory(path.resolve("threads" + threads));
+        Path setupFile = Files.createFile(output.resolve("setup.xml"));
+        Files.writeString(setupFile, makeSetup(threads));
+
+        String[] args =
+                new String[] {
+                    "patch", setupFile.toString(), output.toAbsolutePath().toString(), "--layers"
+                };
+        ARCADE.main(args);
+
+        return output;
+    }
+
+    @Test
+    public void step_differentThreads_producesSameSimulation(@TempDir Path path) throws Exception {
+        Path serial = run(path, 1);
+        Path parallel = run(path, 4);
+
+        String tp = "0000_" + String.format("%06d", TICKS);
+        for (String suffix : new String[] {"CELLS", "LOCATIONS", "LAYERS"}) {
+            String file = NAME + "_" + tp + "." + suffix + ".json";
+            File expected = serial.resolve(file).toFile();
+            File actual = parallel.resolve(file).toFile();
+            assertTrue(expected.exists());
+            assertEquals(Files.readString(expected.toPath()), Files.readString(actual.toPath()));
+        }
+    }
+}
@@ -7,9 +7,12 @@ import sim.engine.Schedule;
 import sim.util.Bag;
 import ec.util.MersenneTwisterFast;
 import arcade.core.agent.cell.CellState;
+import arcade.core.agent.module.Module;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.env.location.*;
 import arcade.core.util.MiniBox;
 import arcade.core.util.Parameters;
+import arcade.patch.agent.module.PatchModuleQuiescence;
 import arcade.patch.agent.process.PatchProcessMetabolism;
 import arcade.patch.agent.process.PatchProcessSignaling;
 import arcade.patch.env.grid.PatchGrid;
@@ -112,6 +115,31 @@ public class PatchCellTest {
         assertEquals(0, cell.getCycles().size());
     }
 
+    @Test
+    public void setVolume_inGrid_updatesGrid() {
+        doReturn(0.0).when(parametersMock).getDouble(any(String.class));
+        doReturn(0).when(parametersMock).getInt(any(String.class));
+        PatchCell cell = new PatchCellMock(baseContainer, locationMock, parametersMock);
+        PatchGrid grid = mock(PatchGrid.class);
+        cell.setGrid(grid);
+
+        cell.setVolume(cellVolume / 2);
+
+        assertEquals(cellVolume / 2, cell.getVolume(), 1E-10);
+        verify(grid).updateObject(cell, locationMock);
+    }
+
+    @Test
+    public void setVolume_notInGrid_setsVolume() {
+        doReturn(0.0).when(parametersMock).getDouble(any(String.class));
+        doReturn(0).when(parametersMock).getInt(any(String.class));
+        PatchCell cell = new PatchCellMock(baseContainer, locationMock, parametersMock);
+
+        cell.setVolume(cellVolume / 2);
+
+        assertEquals(cellVolume / 2, cell.getVolume(), 1E-10);
+    }
+
     @Test
     public void addCycle_givenCycles_appendValues() {
         doReturn(0.0).when(parametersMock).getDouble(any(String.class));
@@ -307,7 +335,7 @@ public class PatchCellTest {
         doReturn(locationMock).when(cell).selectBestLocation(simMock, randomMock);
         Bag locationBag = new Bag();
         locationBag.add(cell);
-        doReturn(locationBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, locationBag);
         cell.setState(State.PROLIFERATIVE);
 
         cell.module.step(randomMock, simMock);
@@ -349,7 +377,7 @@ public class PatchCellTest {
         PatchCell cell = spy(new PatchCellMock(container, locationMock, parametersMock));
         Bag locationBag = new Bag();
         locationBag.add(cell);
-        doReturn(locationBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, locationBag);
         doReturn(null).when(cell).selectBestLocation(simMock, randomMock);
 
         cell.setState(State.PROLIFERATIVE);
@@ -384,7 +412,7 @@ public class PatchCellTest {
         PatchCell cell = spy(new PatchCellMock(container, locationMock, parametersMock));
         Bag locationBag = new Bag();
         locationBag.add(cell);
-        doReturn(locationBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, locationBag);
 
         cell.setState(State.PROLIFERATIVE);
         cell.module.step(randomMock, simMock);
@@ -420,6 +448,38 @@ public class PatchCellTest {
         assertEquals(State.SENESCENT, cell.getState());
     }
 
+    @Test
+    public void setState_sameState_reusesModule() {
+        doReturn(0.0).when(parametersMock).getDouble(any(String.class));
+        doReturn(0).when(parametersMock).getInt(any(String.class));
+        doReturn(0.0).when(locationMock).getCoordinateSize();
+
+        PatchCell cell = new PatchCellMock(baseContainer, locationMock, parametersMock);
+        cell.setState(State.QUIESCENT);
+        Module quiescence = cell.getModule();
+        cell.setState(State.QUIESCENT);
+
+        assertSame(quiescence, cell.getModule());
+    }
+
+    @Test
+    public void setState_returnToState_createsModule() {
+        doReturn(0.0).when(parametersMock).getDouble(any(String.class));
+        doReturn(0).when(parametersMock).getInt(any(String.class));
+        doReturn(0.0).when(locationMock).getCoordinateSize();
+
+        PatchCell cell = new PatchCellMock(baseContainer, locationMock, parametersMock);
+        cell.setState(State.QUIESCENT);
+        Module quiescence = cell.getModule();
+        cell.setState(State.SENESCENT);
+        Module senescence = cell.getModule();
+        cell.setState(State.QUIESCENT);
+
+        assertNotSame(quiescence, senescence);
+        assertNotSame(quiescence, cell.getModule());
+        assertTrue(cell.getModule() instanceof PatchModuleQuiescence);
+    }
+
     @Test
     public void checkLocation_locationEmpty_returnTrue() {
         doReturn(0.0).when(parametersMock).getDouble(any(String.class));
@@ -428,13 +488,44 @@ public class PatchCellTest {
         doReturn(1000.).when(locationMock).getVolume();
         doReturn(100.).when(locationMock).getArea();
 
-        doReturn(new Bag()).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, new Bag());
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 500, 2.5, 0, 2);
 
         assertEquals(true, actual);
     }
 
+    static void stubLocation(PatchLocation location, Bag bag) {
+        doReturn(bag).when(gridMock).getObjectsAtLocation(location);
+        doAnswer(invocation -> bag.size()).when(gridMock).getNumObjects(location);
+        doAnswer(invocation -> PatchCell.calculateTotalVolume(bag))
+                .when(gridMock)
+                .getTotalVolume(location);
+        doAnswer(
+                        invocation -> {
+                            double height = Double.POSITIVE_INFINITY;
+                            for (Object obj : bag) {
+                                height = Math.min(height, ((PatchCell) obj).getCriticalHeight());
+                            }
+                            return height;
+                        })
+                .when(gridMock)
+                .getMinCriticalHeight(location);
+        doAnswer(
+                        invocation -> {
+                            int pop = invocation.getArgument(1);
+                            int count = 0;
+                            for (Object obj : bag) {
+                                if (((PatchCell) obj).getPop() == pop) {
+                                    count++;
+                                }
+                            }
+                            return count;
+                        })
+                .when(gridMock)
+                .getPopulationCount(eq(location), anyInt());
+    }
+
     final Bag createPatchCellsWithVolumeAndCriticalHeight(int n, double volume, double critHeight) {
         Bag bag = new Bag();
         for (int i = 0; i < n; i++) {
@@ -466,7 +557,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(2, 10, 12.5);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 10, 2.5, cellPop, 2);
 
@@ -483,7 +574,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(2, 500, 12.5);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 0, 10, 0, 2);
 
@@ -500,7 +591,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(1, 500, 10);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 499, 10, 0, 2);
 
@@ -517,7 +608,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(1, 500, 10);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 501, 10, 0, 2);
 
@@ -534,7 +625,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(1, 500, 5);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 501, 10, 0, 2);
 
@@ -551,7 +642,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(1, 500, 10);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 500, 7, 0, 2);
 
@@ -568,7 +659,7 @@ public class PatchCellTest {
 
         Bag testBag = createPatchCellsWithVolumeAndCriticalHeight(1, 500, 5);
 
-        doReturn(testBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, testBag);
 
         boolean actual = PatchCell.checkLocation(simMock, locationMock, 500, 10, 0, 2);
 
@@ -586,20 +677,18 @@ public class PatchCellTest {
         doReturn(locationMock).when(locationMock).getClone();
 
         PatchLocation freeLocation = mock(PatchLocation.class);
-        doReturn(new Bag()).when(gridMock).getObjectsAtLocation(freeLocation);
+        stubLocation(freeLocation, new Bag());
         doReturn(1000.).when(freeLocation).getVolume();
         doReturn(100.).when(freeLocation).getArea();
 
         PatchLocation notFreeLocation = mock(PatchLocation.class);
         Bag notFreeBag = createPatchCellsWithVolumeAndCriticalHeight(2, 500, 10);
-        doReturn(notFreeBag).when(gridMock).getObjectsAtLocation(notFreeLocation);
+        stubLocation(notFreeLocation, notFreeBag);
         doReturn(1000.).when(notFreeLocation).getVolume();
         doReturn(100.).when(notFreeLocation).getArea();
 
-        ArrayList<Location> neighborLocations = new ArrayList<>();
-        neighborLocations.add(freeLocation);
-        neighborLocations.add(notFreeLocation);
-        doReturn(neighborLocations).when(locationMock).getNeighbors();
+        PatchLocation[] neighborLocations = {freeLocation, notFreeLocation};
+        doReturn(neighborLocations).when(locationMock).getNeighborLocations();
 
         PatchCellContainer container =
                 new PatchCellContainer(
@@ -617,7 +706,7 @@ public class PatchCellTest {
 
         Bag currentBag = new Bag();
         currentBag.add(cell);
-        doReturn(currentBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, currentBag);
 
         Bag freeLocations = cell.findFreeLocations(simMock);
 
@@ -638,20 +727,18 @@ public class PatchCellTest {
         doReturn(100.).when(locationMock).getArea();
 
         PatchLocation freeLocation = mock(PatchLocation.class);
-        doReturn(new Bag()).when(gridMock).getObjectsAtLocation(freeLocation);
+        stubLocation(freeLocation, new Bag());
         doReturn(1000.).when(freeLocation).getVolume();
         doReturn(100.).when(freeLocation).getArea();
 
         PatchLocation notFreeLocation = mock(PatchLocation.class);
         Bag notFreeBag = createPatchCellsWithVolumeAndCriticalHeight(2, 250, 10);
-        doReturn(notFreeBag).when(gridMock).getObjectsAtLocation(notFreeLocation);
+        stubLocation(notFreeLocation, notFreeBag);
         doReturn(1000.).when(notFreeLocation).getVolume();
         doReturn(100.).when(notFreeLocation).getArea();
 
-        ArrayList<Location> neighborLocations = new ArrayList<>();
-        neighborLocations.add(freeLocation);
-        neighborLocations.add(notFreeLocation);
-        doReturn(neighborLocations).when(locationMock).getNeighbors();
+        PatchLocation[] neighborLocations = {freeLocation, notFreeLocation};
+        doReturn(neighborLocations).when(locationMock).getNeighborLocations();
 
         PatchCellContainer container =
                 new PatchCellContainer(
@@ -669,7 +756,7 @@ public class PatchCellTest {
 
         Bag currentBag = new Bag();
         currentBag.add(cell);
-        doReturn(currentBag).when(gridMock).getObjectsAtLocation(locationMock);
+        stubLocation(locationMock, currentBag);
 
         Bag freeLocations = cell.findFreeLocations(simMock);
 
@@ -687,10 +774,8 @@ public class PatchCellTest {
         doReturn(1.0).when(parametersMock).getDouble("ACCURACY");
         doReturn(0.5).when(randomMock).nextDouble();
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation betterLocation = mock(PatchLocation.class);
         PatchLocation closerLocation = mock(PatchLocation.class);
@@ -723,10 +808,8 @@ public class PatchCellTest {
         doReturn(0.0).when(parametersMock).getDouble("ACCURACY");
         doReturn(0.5).when(randomMock).nextDouble();
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation betterLocation = mock(PatchLocation.class);
         PatchLocation closerLocation = mock(PatchLocation.class);
@@ -760,10 +843,8 @@ public class PatchCellTest {
         doReturn(0.0).when(parametersMock).getDouble("ACCURACY");
         doReturn(0.5).when(randomMock).nextDouble();
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation otherLocation1 = mock(PatchLocation.class);
         PatchLocation otherLocation2 = mock(PatchLocation.class);
@@ -797,10 +878,8 @@ public class PatchCellTest {
         doReturn(1).when(locationMock).getPlanarIndex();
         doReturn(0.5).when(randomMock).nextDouble();
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         doReturn(50.).when(latticeMock).getAverageValue(locationMock);
         doReturn(5.0).when(locationMock).getPlanarDistance();
@@ -822,10 +901,8 @@ public class PatchCellTest {
         doReturn(0.5).when(randomMock).nextDouble();
 
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
 
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation higherLocation = mock(PatchLocation.class);
@@ -862,10 +939,8 @@ public class PatchCellTest {
         doReturn(0.75).when(randomMock).nextDouble();
 
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
 
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation lowerLocation = mock(PatchLocation.class);
@@ -898,10 +973,8 @@ public class PatchCellTest {
         doReturn(0.75).when(randomMock).nextDouble();
 
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
 
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation higherLocation = mock(PatchLocation.class);
@@ -934,10 +1007,8 @@ public class PatchCellTest {
         doReturn(0.25).when(randomMock).nextDouble();
 
         PatchLattice latticeMock = mock(PatchLattice.class);
-        MiniBox boxMock = mock(MiniBox.class);
-        doReturn(boxMock).when(latticeMock).getParameters();
-        doReturn(latticeMock).when(simMock).getLattice("GLUCOSE");
-        doReturn(100.).when(boxMock).getDouble("generator/CONCENTRATION");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("GLUCOSE"));
+        doReturn(100.).when(latticeMock).getConcentration();
 
         PatchCell cell = spy(new PatchCellMock(baseContainer, locationMock, parametersMock));
         PatchLocation higherLocation = mock(PatchLocation.class);
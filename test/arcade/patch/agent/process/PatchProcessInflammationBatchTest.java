@@ -0,0 +1,94 @@
+package arcade.patch.agent.process;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ec.util.MersenneTwisterFast;
+import arcade.core.sim.Simulation;
+import arcade.core.util.Parameters;
+import arcade.patch.agent.cell.PatchCellCART;
+import arcade.patch.env.lattice.PatchLattice;
+import arcade.patch.env.location.PatchLocation;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PatchProcessInflammationBatchTest {
+    private Simulation mockSimulation;
+
+    private MersenneTwisterFast mockRandom;
+
+    private PatchLattice mockLattice;
+
+    @BeforeEach
+    public final void setUp() {
+        mockSimulation = mock(Simulation.class);
+        mockRandom = mock(MersenneTwisterFast.class);
+        mockLattice = mock(PatchLattice.class);
+
+        when(mockSimulation.getLattice(anyInt())).thenReturn(mockLattice);
+        when(mockLattice.getAverageValue(any(PatchLocation.class))).thenReturn(1E9);
+    }
+
+    private PatchProcessInflammationCD8 makeProcess(double volume, double locationVolume) {
+        PatchCellCART cell = mock(PatchCellCART.class);
+        Parameters parameters = mock(Parameters.class);
+        PatchLocation location = mock(PatchLocation.class);
+
+        when(cell.getParameters()).thenReturn(parameters);
+        when(cell.getVolume()).thenReturn(volume);
+        when(cell.getLocation()).thenReturn(location);
+        when(location.getVolume()).thenReturn(locationVolume);
+        when(parameters.getDouble(anyString())).thenReturn(1.0);
+        when(parameters.getDouble("inflammation/IL2_RECEPTORS")).thenReturn(5000.0);
+        when(parameters.getInt(anyString())).thenReturn(1);
+
+        return new PatchProcessInflammationCD8(cell);
+    }
+
+    @Test
+    public void step_withStartedBatch_defersIntegration() {
+        PatchProcessInflammationCD8 process = makeProcess(170, 5000);
+        PatchProcessInflammationBatch batch = new PatchProcessInflammationBatch();
+
+        batch.start();
+        process.step(mockRandom, mockSimulation);
+        batch.finish();
+
+        assertEquals(1, batch.size());
+        assertEquals(0, process.iL2Ticker);
+    }
+
+    @Test
+    public void step_withProcesses_matchesSerialIntegration() {
+        int n = 100;
+        PatchProcessInflammationCD8[] serial = new PatchProcessInflammationCD8[n];
+        PatchProcessInflammationCD8[] batched = new PatchProcessInflammationCD8[n];
+
+        for (int i = 0; i < n; i++) {
+            serial[i] = makeProcess(160 + i, 4000 + 10 * i);
+            batched[i] = makeProcess(160 + i, 4000 + 10 * i);
+        }
+
+        PatchProcessInflammationBatch batch = new PatchProcessInflammationBatch();
+
+        for (int tick = 0; tick < 3; tick++) {
+            batch.start();
+            for (int i = 0; i < n; i++) {
+                batched[i].step(mockRandom, mockSimulation);
+            }
+            batch.finish();
+            batch.step(mockRandom, mockSimulation);
+
+            for (int i = 0; i < n; i++) {
+                serial[i].step(mockRandom, mockSimulation);
+            }
+        }
+
+        assertEquals(0, batch.size());
+        for (int i = 0; i < n; i++) {
+            assertArrayEquals(serial[i].amts, batched[i].amts);
+            assertEquals(serial[i].iL2Ticker, batched[i].iL2Ticker);
+        }
+    }
+}
@@ -51,7 +51,7 @@ public class PatchProcessInflammationCD4Test {
         when(mockParameters.getDouble(anyString())).thenReturn(1.0);
         when(mockParameters.getInt(anyString())).thenReturn(1);
 
-        when(mockSim.getLattice(anyString())).thenReturn(mockLattice);
+        when(mockSim.getLattice(anyInt())).thenReturn(mockLattice);
         doNothing().when(mockLattice).setValue(any(PatchLocation.class), anyDouble());
     }
 
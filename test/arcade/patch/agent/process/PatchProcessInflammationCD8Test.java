@@ -48,7 +48,7 @@ public class PatchProcessInflammationCD8Test {
         when(mockParameters.getDouble(anyString())).thenReturn(1.0);
         when(mockParameters.getInt(anyString())).thenReturn(1);
 
-        when(mockSimulation.getLattice(anyString())).thenReturn(mockLattice);
+        when(mockSimulation.getLattice(anyInt())).thenReturn(mockLattice);
         doNothing().when(mockLattice).setValue(any(PatchLocation.class), anyDouble());
     }
 
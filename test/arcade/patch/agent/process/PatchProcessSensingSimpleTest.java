@@ -3,6 +3,7 @@ package arcade.patch.agent.process;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import ec.util.MersenneTwisterFast;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.util.Parameters;
 import arcade.patch.agent.cell.PatchCell;
 import arcade.patch.env.lattice.PatchLattice;
@@ -35,7 +36,7 @@ public class PatchProcessSensingSimpleTest {
         doReturn(parametersMock).when(cellMock).getParameters();
         doReturn(locationMock).when(cellMock).getLocation();
         latticeMock = mock(PatchLattice.class);
-        doReturn(latticeMock).when(simMock).getLattice("VEGF");
+        doReturn(latticeMock).when(simMock).getLattice(LatticeRegistry.getIndex("VEGF"));
     }
 
     @Test
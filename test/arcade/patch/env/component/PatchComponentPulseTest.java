@@ -0,0 +1,134 @@
+package arcade.patch.env.component;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.engine.Schedule;
+import sim.engine.SimState;
+import arcade.patch.sim.PatchSeries;
+import arcade.patch.sim.PatchSimulation;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static arcade.patch.env.component.PatchComponentPulse.PulseLayer;
+import static arcade.patch.env.component.PatchComponentSitesTest.*;
+
+public class PatchComponentPulseTest {
+    static final int PULSE_INTERVAL = 4;
+
+    static PatchSimulation makeSimulation(Path path) throws Exception {
+        String components =
+                makeComponent("sites", "source_sites", "")
+                        + "<component id=\"pulse\" class=\"pulse\">"
+                        + makeParameter("PULSE_INTERVAL", PULSE_INTERVAL)
+                        + "</component>";
+        PatchSimulation sim = PatchComponentSitesTest.makeSimulation(path, "pulse", "", components);
+
+        // Register after the source sites, since components register in map order.
+        sim.getComponent("pulse").register(sim, "sites:GLUCOSE");
+        return sim;
+    }
+
+    static double getMediaVolume(PatchSimulation sim) {
+        PatchSeries series = (PatchSeries) sim.getSeries();
+        double mediaAmount = series.components.get("pulse").getDouble("MEDIA_AMOUNT");
+        return series.patch.getDouble("LATTICE_AREA") * series.length * series.width * mediaAmount;
+    }
+
+    static void setConsumption(PulseLayer layer, double consumed) {
+        for (int k = 0; k < layer.current.length; k++) {
+            for (int i = 0; i < layer.current[k].length; i++) {
+                for (int j = 0; j < layer.current[k][i].length; j++) {
+                    layer.previous[k][i][j] = 1;
+                    layer.current[k][i][j] = 1 - ((i + 2 * j) % 3) * consumed;
+                }
+            }
+        }
+    }
+
+    static double getConsumption(PulseLayer layer, double latticeVolume) {
+        double delta = 0;
+        for (int k = 0; k < layer.current.length; k++) {
+            for (int i = 0; i < layer.current[k].length; i++) {
+                for (int j = 0; j < layer.current[k][i].length; j++) {
+                    delta += (layer.previous[k][i][j] - layer.current[k][i][j]) * latticeVolume;
+                }
+            }
+        }
+        return delta;
+    }
+
+    static SimState makeState(double tick) {
+        SimState state = mock(SimState.class);
+        state.schedule = mock(Schedule.class);
+        doReturn(tick).when(state.schedule).getTime();
+        return state;
+    }
+
+    @Test
+    public void calculateConsumption_givenFields_returnsTotalConsumption(@TempDir Path path)
+            throws Exception {
+        PatchSimulation sim = makeSimulation(path);
+        PatchComponentPulse pulse = (PatchComponentPulse) sim.getComponent("pulse");
+        double latticeVolume = ((PatchSeries) sim.getSeries()).patch.getDouble("LATTICE_VOLUME");
+        PulseLayer layer = pulse.layers.get(0);
+        setConsumption(layer, 1E-4);
+
+        double expected = getConsumption(layer, latticeVolume);
+
+        assertTrue(expected > 0);
+        assertEquals(expected, pulse.calculateConsumption(layer));
+    }
+
+    @Test
+    public void step_pulseTick_resetsWithoutConsumption(@TempDir Path path) throws Exception {
+        PatchSimulation sim = makeSimulation(path);
+        PatchComponentPulse pulse = spy((PatchComponentPulse) sim.getComponent("pulse"));
+        PulseLayer layer = pulse.layers.get(0);
+        setConsumption(layer, 1E-4);
+        layer.currentAmount = 1;
+        layer.siteLayer.concentration = 0;
+
+        pulse.step(makeState(2 * PULSE_INTERVAL));
+
+        verify(pulse, never()).calculateConsumption(any());
+        assertEquals(layer.initialConcentration * getMediaVolume(sim), layer.currentAmount);
+        assertEquals(layer.initialConcentration, layer.siteLayer.concentration);
+    }
+
+    @Test
+    public void step_nonPulseTick_subtractsConsumption(@TempDir Path path) throws Exception {
+        PatchSimulation sim = makeSimulation(path);
+        PatchComponentPulse pulse = (PatchComponentPulse) sim.getComponent("pulse");
+        PulseLayer layer = pulse.layers.get(0);
+        double mediaVolume = getMediaVolume(sim);
+
+        pulse.step(makeState(0));
+        double pulseAmount = layer.currentAmount;
+
+        setConsumption(layer, 1E-4);
+        double consumed = pulse.calculateConsumption(layer);
+        pulse.step(makeState(1));
+
+        assertEquals(layer.initialConcentration * mediaVolume, pulseAmount);
+        assertTrue(consumed > 0);
+        assertEquals(pulseAmount - consumed, layer.currentAmount);
+        assertEquals(layer.currentAmount / mediaVolume, layer.siteLayer.concentration);
+    }
+
+    @Test
+    public void step_nonPulseTickExcessConsumption_depletesAmount(@TempDir Path path)
+            throws Exception {
+        PatchSimulation sim = makeSimulation(path);
+        PatchComponentPulse pulse = (PatchComponentPulse) sim.getComponent("pulse");
+        PulseLayer layer = pulse.layers.get(0);
+
+        pulse.step(makeState(0));
+        layer.currentAmount = 1E-6;
+
+        setConsumption(layer, 1E-4);
+        pulse.step(makeState(PULSE_INTERVAL + 1));
+
+        assertEquals(0, layer.currentAmount);
+        assertEquals(0, layer.siteLayer.concentration);
+    }
+}
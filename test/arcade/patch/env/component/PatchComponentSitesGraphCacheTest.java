@@ -0,0 +1,267 @@
+package arcade.patch.env.component;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ec.util.MersenneTwisterFast;
+import arcade.core.sim.Series;
+import arcade.core.util.Graph;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteNode;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeLevel;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeTag;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeType;
+import arcade.patch.sim.PatchSeries;
+import arcade.patch.sim.PatchSimulation;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static arcade.patch.env.component.PatchComponentSitesGraphTest.makeSimulation;
+import static arcade.patch.env.component.PatchComponentSitesTest.makeParameter;
+
+public class PatchComponentSitesGraphCacheTest {
+    static final String KEY = "key";
+
+    static final int SEED = 1234;
+
+    static Graph makeGraph(MersenneTwisterFast random) {
+        Graph graph = new Graph();
+        int[][] coordinates = {{0, 0}, {2, 0}, {4, 2}, {4, -2}, {6, 0}, {8, 0}};
+        int[][] pairs = {{0, 1}, {1, 2}, {1, 3}, {2, 4}, {3, 4}, {4, 5}};
+        EdgeType[] types = EdgeType.values();
+
+        for (int[] pair : pairs) {
+            int[] from = coordinates[pair[0]];
+            int[] to = coordinates[pair[1]];
+            SiteEdge edge =
+                    new SiteEdge(
+                            new SiteNode(from[0], from[1], 0),
+                            new SiteNode(to[0], to[1], 0),
+                            types[random.nextInt(types.length)],
+                            EdgeLevel.LEVEL_2);
+            edge.radius = random.nextDouble();
+            edge.length = random.nextDouble();
+            edge.wall = random.nextDouble();
+            edge.shear = random.nextDouble();
+            edge.circum = random.nextDouble();
+            edge.flow = random.nextDouble();
+            edge.area = random.nextDouble();
+            edge.shearScaled = random.nextDouble();
+            edge.isPerfused = random.nextBoolean();
+            graph.addEdge(edge);
+        }
+
+        graph.mergeNodes();
+
+        for (Object obj : graph.getAllEdges()) {
+            SiteEdge edge = (SiteEdge) obj;
+            edge.getTo().pressure = random.nextDouble();
+            edge.getTo().oxygen = random.nextDouble();
+        }
+
+        SiteEdge first = (SiteEdge) graph.getAllEdges().get(0);
+        SiteEdge last = (SiteEdge) graph.getAllEdges().get(pairs.length - 1);
+        first.getFrom().isRoot = true;
+        first.getFrom().pressure = random.nextDouble();
+        first.tag = EdgeTag.ADD;
+        last.getTo().isRoot = true;
+        last.isIgnored = true;
+
+        return graph;
+    }
+
+    static PatchSeries makeSeries(int length, int width, int height, double ds) {
+        PatchSeries series = mock(PatchSeries.class);
+
+        try {
+            Field lengthField = Series.class.getDeclaredField("length");
+            lengthField.setAccessible(true);
+            lengthField.setInt(series, length);
+
+            Field widthField = Series.class.getDeclaredField("width");
+            widthField.setAccessible(true);
+            widthField.setInt(series, width);
+
+            Field heightField = Series.class.getDeclaredField("height");
+            heightField.setAccessible(true);
+            heightField.setInt(series, height);
+
+            Field dsField = Series.class.getDeclaredField("ds");
+            dsField.setAccessible(true);
+            dsField.setDouble(series, ds);
+        } catch (Exception ignored) {
+        }
+
+        return series;
+    }
+
+    static void assertNodeEquals(
+            Graph expectedGraph, SiteNode expected, Graph graph, SiteNode node) {
+        assertEquals(expected.getX(), node.getX());
+        assertEquals(expected.getY(), node.getY());
+        assertEquals(expected.getZ(), node.getZ());
+        assertEquals(expected.isRoot, node.isRoot);
+        assertEquals(expected.pressure, node.pressure);
+        assertEquals(expected.oxygen, node.oxygen);
+        assertEquals(expectedGraph.getInDegree(expected), graph.getInDegree(node));
+        assertEquals(expectedGraph.getOutDegree(expected), graph.getOutDegree(node));
+    }
+
+    static void assertGraphEquals(Graph expected, Graph graph) {
+        assertEquals(expected.getAllEdges().numObjs, graph.getAllEdges().numObjs);
+
+        for (int i = 0; i < expected.getAllEdges().numObjs; i++) {
+            SiteEdge expectedEdge = (SiteEdge) expected.getAllEdges().get(i);
+            SiteEdge edge = (SiteEdge) graph.getAllEdges().get(i);
+
+            assertNodeEquals(expected, expectedEdge.getFrom(), graph, edge.getFrom());
+            assertNodeEquals(expected, expectedEdge.getTo(), graph, edge.getTo());
+            assertEquals(expectedEdge.type, edge.type);
+            assertEquals(expectedEdge.level, edge.level);
+            assertEquals(expectedEdge.tag, edge.tag);
+            assertEquals(expectedEdge.isVisited, edge.isVisited);
+            assertEquals(expectedEdge.isPerfused, edge.isPerfused);
+            assertEquals(expectedEdge.isIgnored, edge.isIgnored);
+            assertEquals(expectedEdge.radius, edge.radius);
+            assertEquals(expectedEdge.length, edge.length);
+            assertEquals(expectedEdge.wall, edge.wall);
+            assertEquals(expectedEdge.shear, edge.shear);
+            assertEquals(expectedEdge.circum, edge.circum);
+            assertEquals(expectedEdge.flow, edge.flow);
+            assertEquals(expectedEdge.area, edge.area);
+            assertEquals(expectedEdge.shearScaled, edge.shearScaled);
+        }
+
+        // Edges into and out of each node share the node object.
+        for (Object obj : graph.getAllEdges()) {
+            SiteEdge edge = (SiteEdge) obj;
+            Graph.Node to = edge.getTo();
+            if (graph.getEdgesOut(to) != null) {
+                for (Object next : graph.getEdgesOut(to)) {
+                    assertSame(to, ((SiteEdge) next).getFrom());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void save_givenGraph_returnsSameGraph(@TempDir Path path) {
+        MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+        PatchComponentSitesGraphCache cache = new PatchComponentSitesGraphCache(path.toString());
+        Graph graph = makeGraph(random);
+
+        Graph saved = cache.save(KEY, graph, random);
+
+        assertGraphEquals(graph, saved);
+        assertEquals(1, path.toFile().list().length);
+    }
+
+    @Test
+    public void load_savedGraph_returnsSameGraphAndGenerator(@TempDir Path path) {
+        MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+        Graph graph = makeGraph(random);
+        new PatchComponentSitesGraphCache(path.toString()).save(KEY, graph, random);
+
+        MersenneTwisterFast loadRandom = new MersenneTwisterFast(SEED + 1);
+        Graph loaded = new PatchComponentSitesGraphCache(path.toString()).load(KEY, loadRandom);
+
+        assertNotNull(loaded);
+        assertGraphEquals(graph, loaded);
+        assertEquals(random.nextDouble(), loadRandom.nextDouble());
+        assertEquals(random.nextInt(), loadRandom.nextInt());
+    }
+
+    @Test
+    public void load_missingFile_returnsNull(@TempDir Path path) {
+        PatchComponentSitesGraphCache cache = new PatchComponentSitesGraphCache(path.toString());
+        assertNull(cache.load(KEY, new MersenneTwisterFast(SEED)));
+    }
+
+    @Test
+    public void load_truncatedFile_returnsNullWithoutChangingGenerator(@TempDir Path path)
+            throws Exception {
+        MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+        PatchComponentSitesGraphCache cache = new PatchComponentSitesGraphCache(path.toString());
+        cache.save(KEY, makeGraph(random), random);
+
+        File file = path.toFile().listFiles()[0];
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 20));
+
+        MersenneTwisterFast loadRandom = new MersenneTwisterFast(SEED + 1);
+        assertNull(cache.load(KEY, loadRandom));
+        assertEquals(new MersenneTwisterFast(SEED + 1).nextDouble(), loadRandom.nextDouble());
+    }
+
+    @Test
+    public void load_corruptFile_returnsNullWithoutChangingGenerator(@TempDir Path path)
+            throws Exception {
+        MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+        PatchComponentSitesGraphCache cache = new PatchComponentSitesGraphCache(path.toString());
+        cache.save(KEY, makeGraph(random), random);
+
+        // Overwrite the node index at the start of the last edge, which is
+        // written as two node indices, six codes and flags, and eight values.
+        File file = path.toFile().listFiles()[0];
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int edgeBytes = 2 * Integer.BYTES + 6 + 8 * Double.BYTES;
+        ByteBuffer.wrap(bytes).putInt(bytes.length - edgeBytes, Integer.MAX_VALUE);
+        Files.write(file.toPath(), bytes);
+
+        MersenneTwisterFast loadRandom = new MersenneTwisterFast(SEED + 1);
+        assertNull(cache.load(KEY, loadRandom));
+        assertEquals(new MersenneTwisterFast(SEED + 1).nextDouble(), loadRandom.nextDouble());
+    }
+
+    @Test
+    public void getKey_differentSpacing_missesCache(@TempDir Path path) {
+        PatchComponentSitesGraphCache cache = new PatchComponentSitesGraphCache(path.toString());
+        PatchComponentSitesGraphFactory factory =
+                new PatchComponentSitesGraphFactoryTri(makeSeries(20, 20, 1, 10));
+        PatchComponentSitesGraphFactory spacedFactory =
+                new PatchComponentSitesGraphFactoryTri(makeSeries(20, 20, 1, 20));
+
+        String key = cache.getKey(factory, "*", new MersenneTwisterFast(SEED));
+        String spacedKey = cache.getKey(spacedFactory, "*", new MersenneTwisterFast(SEED));
+        String sameKey = cache.getKey(factory, "*", new MersenneTwisterFast(SEED));
+
+        MersenneTwisterFast random = new MersenneTwisterFast(SEED);
+        cache.save(key, makeGraph(random), random);
+
+        assertEquals(key, sameKey);
+        assertNotEquals(key, spacedKey);
+        assertNotNull(cache.load(key, new MersenneTwisterFast(SEED)));
+        assertNull(cache.load(spacedKey, new MersenneTwisterFast(SEED)));
+    }
+
+    @Test
+    public void initializeGraph_withCache_matchesGeneratedGraph(@TempDir Path path)
+            throws Exception {
+        Path cachePath = Files.createDirectory(path.resolve("cache"));
+        String cache = makeParameter("GRAPH_CACHE", cachePath);
+
+        PatchSimulation generated = makeSimulation(path, "generated", "");
+        PatchSimulation saved = makeSimulation(path, "saved", cache);
+        PatchSimulation loaded = makeSimulation(path, "loaded", cache);
+
+        File[] files = cachePath.toFile().listFiles();
+        assertEquals(1, files.length);
+        Files.write(files[0].toPath(), new byte[] {1, 2, 3});
+        PatchSimulation regenerated = makeSimulation(path, "regenerated", cache);
+
+        Graph expected = ((PatchComponentSitesGraph) generated.getComponent("graph")).getGraph();
+        double expectedRandom = generated.random.nextDouble();
+
+        for (PatchSimulation sim : new PatchSimulation[] {saved, loaded, regenerated}) {
+            Graph graph = ((PatchComponentSitesGraph) sim.getComponent("graph")).getGraph();
+            assertGraphEquals(expected, graph);
+            assertEquals(expectedRandom, sim.random.nextDouble());
+        }
+
+        assertTrue(files[0].length() > 3);
+    }
+}
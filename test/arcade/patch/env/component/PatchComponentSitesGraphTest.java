@@ -0,0 +1,68 @@
+package arcade.patch.env.component;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import arcade.patch.sim.PatchSimulation;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.patch.env.component.PatchComponentSitesTest.*;
+
+public class PatchComponentSitesGraphTest {
+    static PatchSimulation makeSimulation(Path path, String name, String parameters)
+            throws Exception {
+        String component = makeComponent("graph", "graph_sites_complex", parameters);
+        return PatchComponentSitesTest.makeSimulation(path, name, "", component);
+    }
+
+    static PatchComponentSites step(Path path, String stepping, int threads) throws Exception {
+        String parameters =
+                makeParameter("TRANSPORT_STEPPING", stepping)
+                        + makeParameter("TRANSPORT_THREADS", threads);
+        PatchSimulation sim = makeSimulation(path, stepping + "_" + threads, parameters);
+        for (int tick = 0; tick < TICKS; tick++) {
+            sim.schedule.step(sim);
+        }
+        return (PatchComponentSites) sim.getComponent("graph");
+    }
+
+    @Test
+    public void step_parallelDifferentThreads_returnsSameDeltas(@TempDir Path path)
+            throws Exception {
+        PatchComponentSites serial = step(path, "parallel", 1);
+        PatchComponentSites parallel = step(path, "parallel", 4);
+
+        assertEquals(serial.layers.size(), parallel.layers.size());
+        for (int i = 0; i < serial.layers.size(); i++) {
+            assertEquals(serial.layers.get(i).name, parallel.layers.get(i).name);
+            assertArrayEquals(serial.layers.get(i).delta, parallel.layers.get(i).delta);
+        }
+    }
+
+    @Test
+    public void step_serial_returnsBaselineDeltas(@TempDir Path path) throws Exception {
+        PatchComponentSites graph = step(path, "serial", 1);
+
+        // Checksums of deltas from serial transport over edge spans before parallel transport.
+        String[] names = new String[] {"OXYGEN", "GLUCOSE"};
+        double[] sums = new double[] {6486.219486651367, 1211.5278064375757};
+        int[] counts = new int[] {8954, 8954};
+
+        for (int n = 0; n < names.length; n++) {
+            PatchComponentSites.SiteLayer layer = graph.layers.get(n);
+            double sum = 0;
+            int count = 0;
+            for (double[][] plane : layer.delta) {
+                for (double[] row : plane) {
+                    for (double value : row) {
+                        sum += value;
+                        count += (value == 0 ? 0 : 1);
+                    }
+                }
+            }
+
+            assertEquals(names[n], layer.name);
+            assertEquals(sums[n], sum, EPSILON * Math.abs(sums[n]));
+            assertEquals(counts[n], count);
+        }
+    }
+}
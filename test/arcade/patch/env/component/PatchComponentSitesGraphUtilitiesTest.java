@@ -0,0 +1,118 @@
+package arcade.patch.env.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import arcade.core.util.Graph;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteNode;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeLevel;
+import arcade.patch.env.component.PatchComponentSitesGraphFactory.EdgeType;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.patch.env.component.PatchComponentSitesGraphUtilities.*;
+
+public class PatchComponentSitesGraphUtilitiesTest {
+    static SiteEdge makeEdge(Graph graph, int from, int to) {
+        SiteEdge edge =
+                new SiteEdge(
+                        new SiteNode(from, 0, 0),
+                        new SiteNode(to, 0, 0),
+                        EdgeType.CAPILLARY,
+                        EdgeLevel.LEVEL_1);
+        edge.radius = 4;
+        edge.wall = 1;
+        edge.length = 20;
+        graph.addEdge(edge);
+        return edge;
+    }
+
+    static void setRoot(SiteNode node, double pressure) {
+        node.isRoot = true;
+        node.pressure = pressure;
+    }
+
+    static List<SiteEdge> makeGraph(Graph graph) {
+        List<SiteEdge> edges = new ArrayList<>();
+        edges.add(makeEdge(graph, 0, 1));
+        edges.add(makeEdge(graph, 1, 2));
+        edges.add(makeEdge(graph, 1, 3));
+        edges.add(makeEdge(graph, 2, 4));
+        edges.add(makeEdge(graph, 3, 4));
+        edges.get(2).radius = 3;
+
+        graph.mergeNodes();
+        setRoot(edges.get(0).getFrom(), 60);
+        setRoot(edges.get(4).getTo(), 20);
+
+        updateHemodynamics(graph, false);
+        return edges;
+    }
+
+    static double[][] getValues(List<SiteEdge> edges) {
+        double[][] values = new double[edges.size()][];
+        for (int i = 0; i < edges.size(); i++) {
+            SiteEdge edge = edges.get(i);
+            values[i] =
+                    new double[] {edge.shear, edge.shearScaled, edge.circum, edge.flow, edge.area};
+        }
+        return values;
+    }
+
+    @Test
+    public void updateStresses_changedWalls_matchesFullCalculation() {
+        Graph graph = new Graph();
+        List<SiteEdge> edges = makeGraph(graph);
+        edges.get(1).wall = 0.5;
+        edges.get(4).wall = 2;
+
+        updateStresses(List.of(edges.get(1), edges.get(4)));
+        double[][] updated = getValues(edges);
+
+        calculateStresses(graph);
+        double[][] expected = getValues(edges);
+
+        assertTrue(
+                Arrays.stream(expected).flatMapToDouble(Arrays::stream).noneMatch(Double::isNaN));
+        assertArrayEquals(expected, updated);
+    }
+
+    @Test
+    public void updateWalls_changedWalls_matchesFullCalculation() {
+        Graph graph = new Graph();
+        List<SiteEdge> edges = makeGraph(graph);
+        edges.get(0).wall = 0.5;
+        edges.get(3).wall = 2;
+
+        updateWalls(List.of(edges.get(0), edges.get(3)));
+        double[][] updated = getValues(edges);
+
+        calculateFlows(graph);
+        calculateStresses(graph);
+        double[][] expected = getValues(edges);
+
+        assertTrue(
+                Arrays.stream(expected).flatMapToDouble(Arrays::stream).noneMatch(Double::isNaN));
+        assertArrayEquals(expected, updated);
+    }
+
+    @Test
+    public void updateGraph_deadEndBranch_ignoresBranch() {
+        Graph graph = new Graph();
+        SiteEdge edge0 = makeEdge(graph, 0, 1);
+        SiteEdge edge1 = makeEdge(graph, 1, 4);
+        SiteEdge edge2 = makeEdge(graph, 1, 2);
+        SiteEdge edge3 = makeEdge(graph, 2, 3);
+        graph.mergeNodes();
+        setRoot(edge0.getFrom(), 60);
+        setRoot(edge1.getTo(), 20);
+
+        updateGraph(graph);
+
+        assertFalse(edge0.isIgnored);
+        assertFalse(edge1.isIgnored);
+        assertTrue(edge2.isIgnored);
+        assertTrue(edge3.isIgnored);
+        assertFalse(Double.isNaN(edge0.getTo().pressure));
+    }
+}
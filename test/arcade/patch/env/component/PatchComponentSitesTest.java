@@ -0,0 +1,234 @@
+package arcade.patch.env.component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import arcade.core.ARCADE;
+import arcade.core.sim.Series;
+import arcade.core.sim.input.InputLoader;
+import arcade.core.util.Box;
+import arcade.patch.PatchARCADE;
+import arcade.patch.env.operation.PatchOperationGenerator;
+import arcade.patch.sim.PatchSimulation;
+import arcade.patch.sim.PatchSimulationHex;
+import arcade.patch.sim.input.PatchInputBuilder;
+import arcade.patch.util.PatchEnums.Category;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchComponentSitesTest {
+    static final double EPSILON = 1E-12;
+
+    static final int TICKS = 3;
+
+    static final String POPULATION =
+            "<population id=\"tissue\" class=\"tissue\" init=\"40%\">"
+                    + "<population.process id=\"METABOLISM\" version=\"complex\" />"
+                    + "</population>";
+
+    static String makeSetup(String populations, String components) {
+        return "<set>"
+                + "<series name=\"sites\" ticks=\""
+                + TICKS
+                + "\" interval=\""
+                + TICKS
+                + "\" start=\"0\" end=\"0\" radius=\"34\">"
+                + "<patch />"
+                + "<populations>"
+                + populations
+                + "</populations>"
+                + "<layers>"
+                + makeLayer("GLUCOSE", 0.005)
+                + makeLayer("OXYGEN", 100)
+                + "</layers>"
+                + "<components>"
+                + components
+                + "</components>"
+                + "</series></set>";
+    }
+
+    static String makeLayer(String id, double concentration) {
+        return "<layer id=\""
+                + id
+                + "\">"
+                + "<layer.parameter id=\"INITIAL_CONCENTRATION\" value=\""
+                + concentration
+                + "\" />"
+                + "<layer.operation id=\"GENERATOR\" />"
+                + "<layer.operation id=\"DIFFUSER\" />"
+                + "</layer>";
+    }
+
+    static String makeComponent(String id, String componentClass, String parameters) {
+        return "<component id=\""
+                + id
+                + "\" class=\""
+                + componentClass
+                + "\">"
+                + parameters
+                + "<component.register id=\"GLUCOSE\" />"
+                + "<component.register id=\"OXYGEN\" />"
+                + "</component>";
+    }
+
+    static String makeParameter(String id, Object value) {
+        return "<component.parameter id=\"" + id + "\" value=\"" + value + "\" />";
+    }
+
+    static PatchSimulation makeSimulation(
+            Path path, String name, String populations, String components) throws Exception {
+        Path setupFile = path.resolve("setup_" + name + ".xml");
+        Files.writeString(setupFile, makeSetup(populations, components));
+
+        InputLoader loader = new InputLoader();
+        Box defaults = loader.load(ARCADE.class.getResource("parameter.xml").toString());
+        loader.load(new PatchARCADE().getResource("parameter.patch.xml"), defaults);
+
+        PatchInputBuilder builder = new PatchInputBuilder();
+        builder.path = path + "/";
+        builder.parameters = defaults;
+        Series series = builder.build(setupFile.toString()).get(0);
+
+        PatchSimulation sim = new PatchSimulationHex(0, series);
+        sim.start();
+        return sim;
+    }
+
+    static double[][][] getDamage(PatchComponentSites sites) {
+        if (sites instanceof PatchComponentSitesSource) {
+            return ((PatchComponentSitesSource) sites).getDamage();
+        }
+        return ((PatchComponentSitesPattern) sites).getDamage();
+    }
+
+    static PatchSimulation step(Path path, String componentClass, boolean fullSweep)
+            throws Exception {
+        String parameters = makeParameter("DAMAGE_SCALING", 0.2);
+        if (componentClass.equals("source_sites")) {
+            parameters += makeParameter("X_SPACING", "*:3") + makeParameter("Y_SPACING", "1:2:40");
+        }
+
+        String name = componentClass + (fullSweep ? "_full" : "");
+        String component = makeComponent("sites", componentClass, parameters);
+        PatchSimulation sim = makeSimulation(path, name, POPULATION, component);
+        PatchComponentSites sites = (PatchComponentSites) sim.getComponent("sites");
+
+        // Registering a second component without fixed sites sweeps the full lattice.
+        if (fullSweep) {
+            for (PatchComponentSites.SiteLayer layer : sites.layers) {
+                getGenerator(sim, layer.name).registerIndices(null);
+            }
+        }
+
+        double[][][] damage = getDamage(sites);
+        for (int k = 0; k < damage.length; k++) {
+            for (int i = 0; i < damage[k].length; i++) {
+                for (int j = 0; j < damage[k][i].length; j++) {
+                    damage[k][i][j] = ((7 * i + 3 * j) % 5) / 2.0;
+                }
+            }
+        }
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            sim.schedule.step(sim);
+        }
+
+        return sim;
+    }
+
+    static PatchOperationGenerator getGenerator(PatchSimulation sim, String layer) {
+        return (PatchOperationGenerator) sim.getLattice(layer).getOperation(Category.GENERATOR);
+    }
+
+    static void assertChecksum(double sum, int count, double[][][] field) {
+        double total = 0;
+        int nonzero = 0;
+        for (double[][] plane : field) {
+            for (double[] row : plane) {
+                for (double value : row) {
+                    total += value;
+                    nonzero += (value == 0 ? 0 : 1);
+                }
+            }
+        }
+
+        assertEquals(sum, total, EPSILON * Math.abs(sum));
+        assertEquals(count, nonzero);
+    }
+
+    @Test
+    public void step_sourceSites_matchesFullSweepBaseline(@TempDir Path path) throws Exception {
+        PatchSimulation sim = step(path, "source_sites", false);
+        PatchComponentSites sites = (PatchComponentSites) sim.getComponent("sites");
+
+        // Checksums of deltas and fields from sweeping the full lattice before
+        // sites were iterated through index lists.
+        assertEquals("OXYGEN", sites.layers.get(0).name);
+        assertChecksum(32.760435313227866, 53, sites.layers.get(0).delta);
+        assertChecksum(1878164.8670601472, 26934, sites.layers.get(0).current);
+        assertEquals("GLUCOSE", sites.layers.get(1).name);
+        assertChecksum(494.0977035801627, 1340, sites.layers.get(1).delta);
+        assertChecksum(2855.184884354225, 26934, sites.layers.get(1).current);
+    }
+
+    @Test
+    public void step_patternSites_matchesFullSweepBaseline(@TempDir Path path) throws Exception {
+        PatchSimulation sim = step(path, "pattern_sites", false);
+        PatchComponentSites sites = (PatchComponentSites) sim.getComponent("sites");
+
+        // Checksums of deltas and fields from sweeping the full lattice before
+        // sites were iterated through index lists.
+        assertEquals("OXYGEN", sites.layers.get(0).name);
+        assertChecksum(862.5510179983785, 1411, sites.layers.get(0).delta);
+        assertChecksum(1877995.120086412, 26934, sites.layers.get(0).current);
+        assertEquals("GLUCOSE", sites.layers.get(1).name);
+        assertChecksum(1373.8182325622083, 9042, sites.layers.get(1).delta);
+        assertChecksum(12423.063667849656, 26934, sites.layers.get(1).current);
+    }
+
+    @Test
+    public void step_fixedSites_matchesFullSweepGenerator(@TempDir Path path) throws Exception {
+        for (String componentClass : new String[] {"source_sites", "pattern_sites"}) {
+            PatchSimulation restricted = step(path, componentClass, false);
+            PatchSimulation full = step(path, componentClass, true);
+
+            PatchComponentSites restrictedSites =
+                    (PatchComponentSites) restricted.getComponent("sites");
+            PatchComponentSites fullSites = (PatchComponentSites) full.getComponent("sites");
+
+            for (int n = 0; n < restrictedSites.layers.size(); n++) {
+                PatchComponentSites.SiteLayer restrictedLayer = restrictedSites.layers.get(n);
+                PatchComponentSites.SiteLayer fullLayer = fullSites.layers.get(n);
+
+                assertNotNull(getGenerator(restricted, restrictedLayer.name).getIndices());
+                assertNull(getGenerator(full, fullLayer.name).getIndices());
+                assertArrayEquals(fullLayer.delta, restrictedLayer.delta);
+                assertArrayEquals(fullLayer.current, restrictedLayer.current);
+            }
+        }
+    }
+
+    @Test
+    public void register_singleComponent_restrictsGenerator(@TempDir Path path) throws Exception {
+        String component =
+                makeComponent("sites", "source_sites", makeParameter("X_SPACING", "*:3"));
+        PatchSimulation sim = makeSimulation(path, "single", "", component);
+        PatchComponentSites sites = (PatchComponentSites) sim.getComponent("sites");
+
+        for (String layer : new String[] {"GLUCOSE", "OXYGEN"}) {
+            assertSame(sites.getSiteIndices(), getGenerator(sim, layer).getIndices());
+        }
+    }
+
+    @Test
+    public void register_withGraphSites_usesFullSweep(@TempDir Path path) throws Exception {
+        String components =
+                makeComponent("sites", "source_sites", makeParameter("X_SPACING", "*:3"))
+                        + makeComponent("graph", "graph_sites_simple", "");
+        PatchSimulation sim = makeSimulation(path, "multiple", "", components);
+
+        for (String layer : new String[] {"GLUCOSE", "OXYGEN"}) {
+            assertNull(getGenerator(sim, layer).getIndices());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package arcade.patch.env.grid;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import sim.util.Bag;
+import arcade.core.agent.cell.Cell;
+import arcade.patch.agent.cell.PatchCell;
+import arcade.patch.env.location.CoordinateXYZ;
+import arcade.patch.env.location.PatchLocation;
+import arcade.patch.env.location.PatchLocationFactoryRect;
+import arcade.patch.env.location.PatchLocationRect;
+import arcade.patch.env.location.PatchLocationTopology;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PatchGridTest {
+    static PatchLocation locationA;
+
+    static PatchLocation locationB;
+
+    @BeforeAll
+    public static void setupLocations() {
+        locationA = new PatchLocationRect(0, 0, 0);
+        locationB = new PatchLocationRect(1, 0, 0);
+    }
+
+    private static Cell makeCell(double volume, double criticalHeight, int pop) {
+        Cell cell = mock(Cell.class);
+        doReturn(volume).when(cell).getVolume();
+        doReturn(criticalHeight).when(cell).getCriticalHeight();
+        doReturn(pop).when(cell).getPop();
+        return cell;
+    }
+
+    @Test
+    public void addObject_multipleObjects_updatesAggregates() {
+        PatchGrid grid = new PatchGrid(null);
+        Cell cell1 = makeCell(10, 5, 1);
+        Cell cell2 = makeCell(20, 3, 2);
+        Cell cell3 = makeCell(30, 4, 1);
+
+        grid.addObject(cell1, locationA);
+        grid.addObject(cell2, locationA);
+        grid.addObject(cell3, locationA);
+
+        assertEquals(3, grid.getNumObjects(locationA));
+        assertEquals(60, grid.getTotalVolume(locationA), 1E-10);
+        assertEquals(3, grid.getMinCriticalHeight(locationA), 1E-10);
+        assertEquals(2, grid.getPopulationCount(locationA, 1));
+        assertEquals(1, grid.getPopulationCount(locationA, 2));
+        assertEquals(0, grid.getPopulationCount(locationA, 3));
+    }
+
+    @Test
+    public void removeObject_lastObject_clearsLocation() {
+        PatchGrid grid = new PatchGrid(null);
+        Cell cell = makeCell(10, 5, 1);
+
+        grid.addObject(cell, locationA);
+        grid.removeObject(cell, locationA);
+
+        assertEquals(0, grid.getNumObjects(locationA));
+        assertEquals(0, grid.getTotalVolume(locationA));
+        assertEquals(Double.POSITIVE_INFINITY, grid.getMinCriticalHeight(locationA));
+        assertEquals(0, grid.getPopulationCount(locationA, 1));
+        assertNull(grid.getObjectsAtLocation(locationA));
+        assertNull(grid.getObjectAt(locationA.hashCode()));
+        assertEquals(0, grid.getAllObjects().size());
+    }
+
+    @Test
+    public void moveObject_betweenLocations_updatesAggregates() {
+        PatchGrid grid = new PatchGrid(null);
+        Cell cell1 = makeCell(10, 5, 1);
+        Cell cell2 = makeCell(20, 3, 2);
+        doReturn(locationA.getClone()).when(cell2).getLocation();
+
+        grid.addObject(cell1, locationA);
+        grid.addObject(cell2, locationA);
+        grid.moveObject(cell2, locationA, locationB);
+
+        assertEquals(1, grid.getNumObjects(locationA));
+        assertEquals(10, grid.getTotalVolume(locationA), 1E-10);
+        assertEquals(5, grid.getMinCriticalHeight(locationA), 1E-10);
+        assertEquals(0, grid.getPopulationCount(locationA, 2));
+        assertEquals(1, grid.getNumObjects(locationB));
+        assertEquals(20, grid.getTotalVolume(locationB), 1E-10);
+        assertEquals(1, grid.getPopulationCount(locationB, 2));
+    }
+
+    @Test
+    public void updateObject_changedVolume_updatesTotalVolume() {
+        PatchGrid grid = new PatchGrid(null);
+        Cell cell = makeCell(10, 5, 1);
+
+        grid.addObject(cell, locationA);
+        doReturn(25.).when(cell).getVolume();
+        grid.updateObject(cell, locationA);
+
+        assertEquals(25, grid.getTotalVolume(locationA), 1E-10);
+    }
+
+    @Test
+    public void addObject_patchCell_setsGrid() {
+        PatchGrid grid = new PatchGrid(null);
+        PatchCell cell = mock(PatchCell.class);
+
+        grid.addObject(cell, locationA);
+
+        verify(cell).setGrid(grid);
+    }
+
+    @Test
+    public void removeObject_patchCell_clearsGrid() {
+        PatchGrid grid = new PatchGrid(null);
+        PatchCell cell = mock(PatchCell.class);
+
+        grid.addObject(cell, locationA);
+        grid.removeObject(cell, locationA);
+
+        verify(cell).setGrid(null);
+    }
+
+    @Test
+    public void addObject_manyLocations_growsIndices() {
+        PatchGrid grid = new PatchGrid(null);
+        Bag cells = new Bag();
+
+        for (int i = 0; i < 100; i++) {
+            Cell cell = makeCell(i, 5, 1);
+            cells.add(cell);
+            grid.addObject(cell, new PatchLocationRect(i, 0, 0));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            PatchLocation location = new PatchLocationRect(i, 0, 0);
+            assertEquals(i, grid.getTotalVolume(location), 1E-10);
+            assertSame(cells.get(i), grid.getObjectsAtLocation(location).get(0));
+        }
+    }
+
+    @Test
+    public void addObject_withTopology_usesTopologyIndices() {
+        PatchLocationTopology topology =
+                new PatchLocationTopology(
+                        new PatchLocationFactoryRect().getCoordinates(4, 1),
+                        c -> new PatchLocationRect((CoordinateXYZ) c));
+        PatchGrid grid = new PatchGrid(topology);
+        Cell cell1 = makeCell(10, 5, 1);
+        Cell cell2 = makeCell(20, 3, 2);
+        PatchLocation location1 = topology.getLocation(7).getClone();
+        PatchLocation location2 = new PatchLocationRect(10, 0, 0);
+
+        grid.addObject(cell1, location1);
+        grid.addObject(cell2, location2);
+
+        assertEquals(7, grid.getIndex(location1));
+        assertEquals(topology.size(), grid.getIndex(location2));
+        assertEquals(topology.size() + 1, grid.size);
+        assertSame(cell1, grid.bags[7].get(0));
+        assertSame(cell1, ((Bag) grid.getObjectAt(location1.hashCode())).get(0));
+        assertSame(cell2, ((Bag) grid.getObjectAt(location2.hashCode())).get(0));
+        assertEquals(10, grid.getTotalVolume(topology.getLocation(7)), 1E-10);
+    }
+}
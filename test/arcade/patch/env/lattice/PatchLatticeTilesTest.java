@@ -0,0 +1,230 @@
+package arcade.patch.env.lattice;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import arcade.core.util.MiniBox;
+import arcade.patch.env.operation.PatchOperationDiffuser;
+import arcade.patch.env.operation.PatchOperationGenerator;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.patch.util.PatchEnums.Category;
+
+public class PatchLatticeTilesTest {
+    static final int LENGTH = 12;
+
+    static final int WIDTH = 10;
+
+    static final double EPSILON = 1E-12;
+
+    static final int SUBSTEPS = 60;
+
+    private static MiniBox makeParameters(int tileSize, double threshold) {
+        MiniBox parameters = new MiniBox();
+        parameters.put("(OPERATION)/GENERATOR", "");
+        parameters.put("(OPERATION)/DIFFUSER", "");
+        parameters.put("(OPERATION)/DECAYER", "");
+        parameters.put("generator/CONCENTRATION", "1");
+        parameters.put("generator/PERMEABILITY", "1");
+        parameters.put("diffuser/DIFFUSIVITY", "1");
+        parameters.put("decayer/DECAY_RATE", "0.05");
+        parameters.put("TILE_SIZE", String.valueOf(tileSize));
+        parameters.put("TILE_THRESHOLD", String.valueOf(threshold));
+        parameters.put("TILE_INTERVAL", "5");
+        return parameters;
+    }
+
+    private static void stepTiled(PatchLattice lattice) {
+        PatchLatticeTiles tiles = lattice.getTiles();
+        PatchOperationGenerator generator =
+                (PatchOperationGenerator) lattice.getOperation(Category.GENERATOR);
+        tiles.start();
+        generator.step(null, null);
+        tiles.markChanged(generator.latticeDelta);
+        ((PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER)).stepTiled(tiles);
+        lattice.getOperation(Category.DECAYER).step(null, null);
+    }
+
+    @Test
+    public void constructor_zeroTileSize_doesNotTrackTiles() {
+        PatchLattice lattice =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(0, 0));
+        assertNull(lattice.getTiles());
+    }
+
+    @Test
+    public void constructor_partialTiles_roundsUp() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 4, 0, 1);
+        assertEquals(3, tiles.getTilesLength());
+        assertEquals(3, tiles.getTilesWidth());
+    }
+
+    @Test
+    public void select_singleActiveTile_selectsHalo() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 2, 0, 100);
+        tiles.start();
+        tiles.update();
+        tiles.mark(0, 5);
+
+        assertTrue(tiles.select());
+
+        for (int a = 0; a < tiles.getTilesLength(); a++) {
+            for (int b = 0; b < tiles.getTilesWidth(); b++) {
+                boolean expected = a <= 1 && b >= 1 && b <= 3;
+                assertEquals(expected, tiles.isProcessing(a, b));
+            }
+        }
+    }
+
+    @Test
+    public void select_noActiveTiles_returnsFalse() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 2, 0, 100);
+        tiles.start();
+        tiles.update();
+        assertFalse(tiles.select());
+    }
+
+    @Test
+    public void update_changeBelowThreshold_deactivatesTile() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 4, 0.1, 100);
+        tiles.start();
+        tiles.select();
+        tiles.record(0, 0, 0.05);
+        tiles.record(1, 1, 0.5);
+        tiles.update();
+
+        assertFalse(tiles.isActive(0, 0));
+        assertTrue(tiles.isActive(1, 1));
+        assertFalse(tiles.isActive(2, 2));
+    }
+
+    @Test
+    public void markChanged_givenIndices_marksChangedIndicesOnly() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 4, 0, 100);
+        tiles.start();
+        tiles.update();
+
+        double[][][] delta = new double[1][LENGTH][WIDTH];
+        delta[0][1][1] = 1;
+        delta[0][5][5] = 1;
+        delta[0][9][9] = 1;
+        tiles.markChanged(delta, new int[] {0, 1, 1, 0, 5, 5, 0, 9, 2});
+
+        assertTrue(tiles.isActive(0, 0));
+        assertTrue(tiles.isActive(1, 1));
+        assertFalse(tiles.isActive(2, 0));
+        assertFalse(tiles.isActive(2, 2));
+    }
+
+    @Test
+    public void start_atInterval_marksAllTiles() {
+        PatchLatticeTiles tiles = new PatchLatticeTiles(LENGTH, WIDTH, 4, 0, 3);
+        tiles.start();
+        tiles.update();
+
+        for (int tick = 1; tick < 3; tick++) {
+            tiles.start();
+            assertFalse(tiles.isActive(0, 0));
+        }
+
+        tiles.start();
+        assertTrue(tiles.isActive(0, 0));
+    }
+
+    @Test
+    public void step_allTilesActive_matchesUntrackedSteps() {
+        PatchLattice expected =
+                new PatchLatticeRect(LENGTH, WIDTH, 3, 30, 8.7, makeParameters(0, 0));
+        PatchLattice actual =
+                new PatchLatticeRect(LENGTH, WIDTH, 3, 30, 8.7, makeParameters(4, -1));
+
+        double[][][] expectedDelta =
+                ((PatchOperationGenerator) expected.getOperation(Category.GENERATOR)).latticeDelta;
+        double[][][] actualDelta =
+                ((PatchOperationGenerator) actual.getOperation(Category.GENERATOR)).latticeDelta;
+
+        Random random = new Random(1);
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < LENGTH; i++) {
+                for (int j = 0; j < WIDTH; j++) {
+                    double value = random.nextDouble();
+                    double delta = random.nextDouble() * 0.1;
+                    expected.getField()[k][i][j] = value;
+                    actual.getField()[k][i][j] = value;
+                    expectedDelta[k][i][j] = delta;
+                    actualDelta[k][i][j] = delta;
+                }
+            }
+        }
+
+        for (int tick = 0; tick < 3; tick++) {
+            expected.getOperation(Category.GENERATOR).step(null, null);
+            expected.getOperation(Category.DIFFUSER).step(null, null);
+            expected.getOperation(Category.DECAYER).step(null, null);
+            stepTiled(actual);
+        }
+
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < LENGTH; i++) {
+                assertArrayEquals(expected.getField()[k][i], actual.getField()[k][i]);
+            }
+        }
+    }
+
+    @Test
+    public void step_uniformFieldWithUptake_skipsDistantTiles() {
+        PatchLattice lattice =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(2, 0));
+        lattice.setField(1.0);
+        PatchLatticeTiles tiles = lattice.getTiles();
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+
+        // First tick is a full sweep of the uniform field.
+        stepTiled(lattice);
+        assertEquals(1, diffuser.getSubsteps());
+        double decayed = lattice.getField()[0][LENGTH - 1][WIDTH - 1];
+
+        // Uptake in a corner does not reach the opposite corner, which is still decayed.
+        lattice.getField()[0][0][0] = 0;
+        tiles.mark(0, 0);
+        stepTiled(lattice);
+
+        assertTrue(tiles.isTouched(0, 0));
+        assertTrue(tiles.isTouched(1, 1));
+        assertFalse(tiles.isTouched(5, 4));
+        assertEquals(decayed * 0.95, lattice.getField()[0][LENGTH - 1][WIDTH - 1], EPSILON);
+    }
+
+    @Test
+    public void step_belowThreshold_matchesUntrackedStepsWithinThreshold() {
+        double threshold = 1E-4;
+        PatchLattice expected =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(0, 0));
+        PatchLattice actual =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(2, threshold));
+        expected.setField(1.0);
+        actual.setField(1.0);
+
+        // Uptake in a corner each tick, with the field far from the corner skipped.
+        int ticks = 4;
+        for (int tick = 0; tick < ticks; tick++) {
+            expected.getField()[0][0][0] = 0;
+            actual.getField()[0][0][0] = 0;
+            actual.getTiles().mark(0, 0);
+            expected.getOperation(Category.GENERATOR).step(null, null);
+            expected.getOperation(Category.DIFFUSER).step(null, null);
+            expected.getOperation(Category.DECAYER).step(null, null);
+            stepTiled(actual);
+        }
+
+        double maxError = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            for (int j = 0; j < WIDTH; j++) {
+                double error = Math.abs(expected.getField()[0][i][j] - actual.getField()[0][i][j]);
+                maxError = Math.max(maxError, error);
+            }
+        }
+
+        assertFalse(actual.getTiles().isTouched(5, 4));
+        assertTrue(maxError < ticks * SUBSTEPS * threshold);
+    }
+}
@@ -0,0 +1,101 @@
+package arcade.patch.env.lattice;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import arcade.core.util.MiniBox;
+import arcade.patch.env.location.PatchLocation;
+import arcade.patch.env.location.PatchLocationRect;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchLatticeUpdatesTest {
+    static PatchLocation location;
+
+    @BeforeAll
+    public static void setupLocation() {
+        location = new PatchLocationRect(1, 1, 1);
+    }
+
+    private static PatchLattice makeLattice() {
+        int[] indices = location.getSubcoordinateIndices();
+        int size = 0;
+        for (int index : indices) {
+            size = Math.max(size, index + 1);
+        }
+        return new PatchLatticeRect(size, size, size, 30, 8.7, new MiniBox());
+    }
+
+    @Test
+    public void start_withChanges_defersChanges() {
+        PatchLattice lattice = makeLattice();
+        lattice.setValue(location, 2);
+
+        PatchLatticeUpdates updates = new PatchLatticeUpdates();
+        updates.start();
+        lattice.updateValue(location, 0.5);
+        lattice.incrementValue(location, 3);
+        lattice.setValue(location, 7);
+        updates.finish();
+
+        assertEquals(3, updates.size());
+        assertEquals(2, lattice.getAverageValue(location));
+    }
+
+    @Test
+    public void apply_withChanges_appliesChangesInOrder() {
+        PatchLattice lattice = makeLattice();
+        lattice.setValue(location, 2);
+
+        PatchLatticeUpdates updates = new PatchLatticeUpdates();
+        updates.start();
+        lattice.updateValue(location, 0.5);
+        lattice.incrementValue(location, 3);
+        updates.finish();
+        updates.apply();
+
+        assertEquals(0, updates.size());
+        assertEquals(4, lattice.getAverageValue(location));
+    }
+
+    @Test
+    public void finish_afterStart_appliesChangesDirectly() {
+        PatchLattice lattice = makeLattice();
+
+        PatchLatticeUpdates updates = new PatchLatticeUpdates();
+        updates.start();
+        updates.finish();
+        lattice.setValue(location, 5);
+
+        assertEquals(0, updates.size());
+        assertEquals(5, lattice.getAverageValue(location));
+    }
+
+    @Test
+    public void start_onOtherThread_doesNotDeferChanges() throws InterruptedException {
+        PatchLattice lattice = makeLattice();
+        PatchLatticeUpdates updates = new PatchLatticeUpdates();
+
+        Thread thread = new Thread(updates::start);
+        thread.start();
+        thread.join();
+
+        lattice.setValue(location, 5);
+
+        assertEquals(0, updates.size());
+        assertEquals(5, lattice.getAverageValue(location));
+    }
+
+    @Test
+    public void add_manyChanges_growsBuffer() {
+        PatchLattice lattice = makeLattice();
+
+        PatchLatticeUpdates updates = new PatchLatticeUpdates();
+        updates.start();
+        for (int i = 0; i < 200; i++) {
+            lattice.incrementValue(location, 1);
+        }
+        updates.finish();
+        updates.apply();
+
+        assertEquals(200, lattice.getAverageValue(location));
+    }
+}
@@ -118,4 +118,40 @@ public class PatchLocationRectTest {
         assertEquals(locationClone, updateLocation);
         assertNotEquals(locationClone, originalLocation);
     }
+
+    @Test
+    public void getSubcoordinateIndices_called_returnsSubcoordinateTriplets() {
+        PatchLocation.radius = 20;
+        PatchLocation.depth = 20;
+        PatchLocationRect location = new PatchLocationRect(new CoordinateXYZ(2, 4, 6));
+        int[] indices = location.getSubcoordinateIndices();
+
+        assertEquals(3 * location.getNumSubcoordinates(), indices.length);
+        for (int i = 0; i < location.getNumSubcoordinates(); i++) {
+            CoordinateXYZ subcoordinate = (CoordinateXYZ) location.getSubcoordinates().get(i);
+            assertEquals(subcoordinate.z, indices[3 * i]);
+            assertEquals(subcoordinate.x, indices[3 * i + 1]);
+            assertEquals(subcoordinate.y, indices[3 * i + 2]);
+        }
+    }
+
+    @Test
+    public void getSubcoordinateIndices_calledTwice_returnsSameArray() {
+        PatchLocationRect location = new PatchLocationRect(new CoordinateXYZ(2, 4, 6));
+        assertSame(location.getSubcoordinateIndices(), location.getSubcoordinateIndices());
+    }
+
+    @Test
+    public void getSubcoordinateIndices_afterCloneAndUpdate_sharesArray() {
+        PatchLocationRect location = new PatchLocationRect(new CoordinateXYZ(2, 4, 6));
+        PatchLocationRect other = new PatchLocationRect(new CoordinateXYZ(1, 3, 6));
+        int[] indices = location.getSubcoordinateIndices();
+        int[] otherIndices = other.getSubcoordinateIndices();
+
+        PatchLocationRect clone = location.getClone();
+        assertSame(indices, clone.getSubcoordinateIndices());
+
+        clone.update(other);
+        assertSame(otherIndices, clone.getSubcoordinateIndices());
+    }
 }
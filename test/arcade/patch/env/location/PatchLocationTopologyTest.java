@@ -0,0 +1,171 @@
+package arcade.patch.env.location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import arcade.core.env.location.Location;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchLocationTopologyTest {
+    static final int RADIUS = 4;
+
+    static final int DEPTH = 3;
+
+    @BeforeEach
+    public void setupConfigs() {
+        PatchLocation.radius = RADIUS;
+        PatchLocation.depth = DEPTH;
+        PatchLocation.radiusBounds = RADIUS + 1;
+        PatchLocation.depthBounds = DEPTH + 1;
+        PatchLocation.heightOffset = 0;
+    }
+
+    @AfterEach
+    public void clearTopology() {
+        PatchLocation.topology = null;
+    }
+
+    private static PatchLocationTopology makeRectTopology() {
+        ArrayList<Coordinate> coordinates =
+                new PatchLocationFactoryRect().getCoordinates(RADIUS, DEPTH);
+        return new PatchLocationTopology(
+                coordinates, c -> new PatchLocationRect((CoordinateXYZ) c));
+    }
+
+    private static PatchLocationTopology makeHexTopology() {
+        ArrayList<Coordinate> coordinates =
+                new PatchLocationFactoryHex().getCoordinates(RADIUS, DEPTH);
+        return new PatchLocationTopology(
+                coordinates, c -> new PatchLocationHex((CoordinateUVWZ) c));
+    }
+
+    private static void assertNeighborsMatch(PatchLocationTopology topology) {
+        for (int i = 0; i < topology.size(); i++) {
+            PatchLocation location = topology.getLocation(i);
+            ArrayList<Location> expected = location.calculateNeighbors();
+            ArrayList<Location> actual = topology.getNeighbors(i);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void constructor_rectCoordinates_matchesCalculatedNeighbors() {
+        assertNeighborsMatch(makeRectTopology());
+    }
+
+    @Test
+    public void constructor_hexCoordinates_matchesCalculatedNeighbors() {
+        assertNeighborsMatch(makeHexTopology());
+    }
+
+    @Test
+    public void constructor_givenCoordinates_createsCanonicalLocations() {
+        PatchLocationTopology topology = makeRectTopology();
+
+        for (int i = 0; i < topology.size(); i++) {
+            PatchLocation location = topology.getLocation(i);
+            assertTrue(location.isCanonical());
+            assertEquals(i, topology.getIndex(location.getCoordinate()));
+            assertFalse(location.getClone().isCanonical());
+        }
+    }
+
+    @Test
+    public void getIndex_invalidCoordinate_returnsNegative() {
+        PatchLocationTopology topology = makeRectTopology();
+        assertEquals(-1, topology.getIndex(new CoordinateXYZ(RADIUS, 0, 0)));
+    }
+
+    @Test
+    public void getTopologyIndex_givenLocations_returnsTopologyIndex() {
+        PatchLocationTopology topology = makeRectTopology();
+        PatchLocation location = new PatchLocationRect(1, -1, 0);
+        int index = topology.getIndex(location.getCoordinate());
+
+        assertEquals(index, location.getTopologyIndex(topology));
+        assertEquals(index, location.getClone().getTopologyIndex(topology));
+        assertEquals(-1, new PatchLocationRect(RADIUS, 0, 0).getTopologyIndex(topology));
+
+        PatchLocation updated = new PatchLocationRect(RADIUS, 0, 0);
+        updated.update(location);
+        assertEquals(index, updated.getTopologyIndex(topology));
+
+        for (int i = 0; i < topology.size(); i++) {
+            assertEquals(i, topology.getLocation(i).getTopologyIndex(topology));
+        }
+    }
+
+    @Test
+    public void getTopologyIndex_differentTopology_recalculatesIndex() {
+        PatchLocationTopology rect = makeRectTopology();
+        PatchLocation location = rect.getLocation(3);
+        PatchLocationTopology other =
+                new PatchLocationTopology(
+                        new PatchLocationFactoryRect().getCoordinates(RADIUS - 1, DEPTH),
+                        c -> new PatchLocationRect((CoordinateXYZ) c));
+
+        assertEquals(other.getIndex(location.getCoordinate()), location.getTopologyIndex(other));
+        assertEquals(3, location.getTopologyIndex(rect));
+    }
+
+    @Test
+    public void getNeighbors_withTopology_returnsSharedInstances() {
+        PatchLocation.topology = makeRectTopology();
+        PatchLocation location = new PatchLocationRect(1, -1, 0);
+
+        ArrayList<Location> first = location.getNeighbors();
+        ArrayList<Location> second = location.getNeighbors();
+
+        assertEquals(location.calculateNeighbors(), first);
+        assertNotSame(first, second);
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+            assertTrue(((PatchLocation) first.get(i)).isCanonical());
+        }
+    }
+
+    @Test
+    public void getNeighborLocations_withTopology_returnsSharedArray() {
+        PatchLocation.topology = makeRectTopology();
+        PatchLocation location = new PatchLocationRect(1, -1, 0);
+
+        PatchLocation[] first = location.getNeighborLocations();
+        PatchLocation[] second = location.getNeighborLocations();
+
+        assertSame(first, second);
+        assertEquals(location.calculateNeighbors(), Arrays.asList(first));
+        for (PatchLocation neighbor : first) {
+            assertTrue(neighbor.isCanonical());
+        }
+    }
+
+    @Test
+    public void getNeighborLocations_withOutdatedTopology_calculatesNeighbors() {
+        PatchLocation.topology = makeRectTopology();
+        PatchLocation.radius = RADIUS + 2;
+        PatchLocation location = new PatchLocationRect(RADIUS - 1, 0, 0);
+
+        PatchLocation[] actual = location.getNeighborLocations();
+
+        assertEquals(location.calculateNeighbors(), Arrays.asList(actual));
+        for (PatchLocation neighbor : actual) {
+            assertFalse(neighbor.isCanonical());
+        }
+    }
+
+    @Test
+    public void getNeighbors_withOutdatedTopology_calculatesNeighbors() {
+        PatchLocation.topology = makeRectTopology();
+        PatchLocation.radius = RADIUS + 2;
+        PatchLocation location = new PatchLocationRect(RADIUS - 1, 0, 0);
+
+        ArrayList<Location> actual = location.getNeighbors();
+
+        assertEquals(location.calculateNeighbors(), actual);
+        for (Location neighbor : actual) {
+            assertFalse(((PatchLocation) neighbor).isCanonical());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package arcade.patch.env.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import arcade.core.util.MiniBox;
+import arcade.patch.env.lattice.PatchLattice;
+import arcade.patch.env.lattice.PatchLatticeRect;
+import arcade.patch.env.lattice.PatchLatticeTri;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.patch.util.PatchEnums.Category;
+
+public class PatchOperationBatchTest {
+    static final int LENGTH = 8;
+
+    static final int WIDTH = 6;
+
+    static final double[] DIFFUSIVITIES = new double[] {1, 5, 1000};
+
+    private static MiniBox makeParameters(double diffusivity, boolean full) {
+        MiniBox parameters = new MiniBox();
+        parameters.put("(OPERATION)/DIFFUSER", "");
+        parameters.put("diffuser/DIFFUSIVITY", String.valueOf(diffusivity));
+
+        if (full) {
+            parameters.put("(OPERATION)/GENERATOR", "");
+            parameters.put("(OPERATION)/DECAYER", "");
+            parameters.put("generator/CONCENTRATION", "1");
+            parameters.put("generator/PERMEABILITY", "1");
+            parameters.put("decayer/DECAY_RATE", "0.05");
+        }
+
+        return parameters;
+    }
+
+    private static List<PatchLattice> makeLattices(boolean tri, int height, long seed) {
+        ArrayList<PatchLattice> lattices = new ArrayList<>();
+        Random random = new Random(seed);
+
+        for (int l = 0; l < DIFFUSIVITIES.length; l++) {
+            MiniBox parameters = makeParameters(DIFFUSIVITIES[l], l != 1);
+            PatchLattice lattice =
+                    tri
+                            ? new PatchLatticeTri(LENGTH, WIDTH, height, 30, 8.7, parameters)
+                            : new PatchLatticeRect(LENGTH, WIDTH, height, 30, 8.7, parameters);
+
+            double[][][] field = lattice.getField();
+            PatchOperationGenerator generator =
+                    (PatchOperationGenerator) lattice.getOperation(Category.GENERATOR);
+
+            for (int k = 0; k < height; k++) {
+                for (int i = 0; i < LENGTH; i++) {
+                    for (int j = 0; j < WIDTH; j++) {
+                        field[k][i][j] = random.nextDouble();
+                        if (generator != null) {
+                            generator.latticeDelta[k][i][j] = random.nextDouble() * 0.1;
+                        }
+                    }
+                }
+            }
+
+            lattices.add(lattice);
+        }
+
+        return lattices;
+    }
+
+    private static void stepSequential(List<PatchLattice> lattices) {
+        for (PatchLattice lattice : lattices) {
+            for (Category category :
+                    new Category[] {Category.GENERATOR, Category.DIFFUSER, Category.DECAYER}) {
+                if (lattice.getOperation(category) != null) {
+                    lattice.getOperation(category).step(null, null);
+                }
+            }
+        }
+    }
+
+    private static void assertLatticesEqual(
+            List<PatchLattice> expected, List<PatchLattice> actual) {
+        for (int l = 0; l < expected.size(); l++) {
+            PatchLattice expectedLattice = expected.get(l);
+            PatchLattice actualLattice = actual.get(l);
+            double[][][] expectedNew =
+                    ((PatchOperationDiffuser) expectedLattice.getOperation(Category.DIFFUSER))
+                            .latticeNew;
+            double[][][] actualNew =
+                    ((PatchOperationDiffuser) actualLattice.getOperation(Category.DIFFUSER))
+                            .latticeNew;
+
+            for (int k = 0; k < expectedLattice.getHeight(); k++) {
+                for (int i = 0; i < expectedLattice.getLength(); i++) {
+                    assertArrayEquals(
+                            expectedLattice.getField()[k][i], actualLattice.getField()[k][i]);
+                    assertArrayEquals(expectedNew[k][i], actualNew[k][i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void step_rect2D_matchesIndividualSteps() {
+        List<PatchLattice> expected = makeLattices(false, 1, 1);
+        List<PatchLattice> actual = makeLattices(false, 1, 1);
+
+        stepSequential(expected);
+        new PatchOperationBatch(actual).step(null, null);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void step_rect3D_matchesIndividualSteps() {
+        List<PatchLattice> expected = makeLattices(false, 5, 2);
+        List<PatchLattice> actual = makeLattices(false, 5, 2);
+
+        stepSequential(expected);
+        new PatchOperationBatch(actual).step(null, null);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void step_tri2D_matchesIndividualSteps() {
+        List<PatchLattice> expected = makeLattices(true, 1, 3);
+        List<PatchLattice> actual = makeLattices(true, 1, 3);
+
+        stepSequential(expected);
+        new PatchOperationBatch(actual).step(null, null);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void step_tri3D_matchesIndividualSteps() {
+        List<PatchLattice> expected = makeLattices(true, 4, 4);
+        List<PatchLattice> actual = makeLattices(true, 4, 4);
+
+        stepSequential(expected);
+        new PatchOperationBatch(actual).step(null, null);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void isCompatible_differentGeometry_returnsFalse() {
+        PatchLattice rect =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1, true));
+        PatchLattice tri = new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1, true));
+        assertFalse(PatchOperationBatch.isCompatible(tri, rect.getOperation(Category.DIFFUSER)));
+    }
+
+    @Test
+    public void isCompatible_differentSize_returnsFalse() {
+        PatchLattice a = new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1, true));
+        PatchLattice b = new PatchLatticeRect(LENGTH, WIDTH, 3, 30, 8.7, makeParameters(1, true));
+        assertFalse(PatchOperationBatch.isCompatible(b, a.getOperation(Category.DIFFUSER)));
+    }
+
+    @Test
+    public void isCompatible_sameGeometryAndSize_returnsTrue() {
+        PatchLattice a = new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1, true));
+        PatchLattice b = new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(5, false));
+        assertTrue(PatchOperationBatch.isCompatible(b, a.getOperation(Category.DIFFUSER)));
+    }
+}
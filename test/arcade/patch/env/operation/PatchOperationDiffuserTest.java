@@ -0,0 +1,254 @@
+package arcade.patch.env.operation;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import arcade.core.util.MiniBox;
+import arcade.patch.env.lattice.PatchLattice;
+import arcade.patch.env.lattice.PatchLatticeRect;
+import arcade.patch.env.lattice.PatchLatticeTri;
+import static org.junit.jupiter.api.Assertions.*;
+import static arcade.patch.util.PatchEnums.Category;
+
+public class PatchOperationDiffuserTest {
+    static final int LENGTH = 8;
+
+    static final int WIDTH = 6;
+
+    private static MiniBox makeParameters(double diffusivity) {
+        MiniBox parameters = new MiniBox();
+        parameters.put("(OPERATION)/GENERATOR", "");
+        parameters.put("(OPERATION)/DIFFUSER", "");
+        parameters.put("(OPERATION)/DECAYER", "");
+        parameters.put("generator/CONCENTRATION", "1");
+        parameters.put("generator/PERMEABILITY", "1");
+        parameters.put("diffuser/DIFFUSIVITY", String.valueOf(diffusivity));
+        parameters.put("decayer/DECAY_RATE", "0.05");
+        return parameters;
+    }
+
+    private static void fill(PatchLattice lattice, long seed) {
+        Random random = new Random(seed);
+        double[][][] field = lattice.getField();
+        PatchOperationGenerator generator =
+                (PatchOperationGenerator) lattice.getOperation(Category.GENERATOR);
+
+        for (int k = 0; k < lattice.getHeight(); k++) {
+            for (int i = 0; i < lattice.getLength(); i++) {
+                for (int j = 0; j < lattice.getWidth(); j++) {
+                    field[k][i][j] = random.nextDouble();
+                    generator.latticeDelta[k][i][j] = random.nextDouble() * 0.1;
+                }
+            }
+        }
+    }
+
+    private static void stepSequential(PatchLattice lattice) {
+        lattice.getOperation(Category.GENERATOR).step(null, null);
+        lattice.getOperation(Category.DIFFUSER).step(null, null);
+        lattice.getOperation(Category.DECAYER).step(null, null);
+    }
+
+    private static void stepFused(PatchLattice lattice) {
+        PatchOperationGenerator generator =
+                (PatchOperationGenerator) lattice.getOperation(Category.GENERATOR);
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+        PatchOperationDecayer decayer =
+                (PatchOperationDecayer) lattice.getOperation(Category.DECAYER);
+        diffuser.stepFused(generator.latticeDelta, decayer.getDecayRate());
+    }
+
+    private static void assertLatticesEqual(PatchLattice expected, PatchLattice actual) {
+        double[][][] expectedNew =
+                ((PatchOperationDiffuser) expected.getOperation(Category.DIFFUSER)).latticeNew;
+        double[][][] actualNew =
+                ((PatchOperationDiffuser) actual.getOperation(Category.DIFFUSER)).latticeNew;
+
+        for (int k = 0; k < expected.getHeight(); k++) {
+            for (int i = 0; i < expected.getLength(); i++) {
+                assertArrayEquals(expected.getField()[k][i], actual.getField()[k][i]);
+                assertArrayEquals(expectedNew[k][i], actualNew[k][i]);
+            }
+        }
+    }
+
+    @Test
+    public void stepFused_rect2D_matchesSequentialSteps() {
+        PatchLattice expected = new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        PatchLattice actual = new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        fill(expected, 1);
+        fill(actual, 1);
+
+        stepSequential(expected);
+        stepFused(actual);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void stepFused_rect3D_matchesSequentialSteps() {
+        PatchLattice expected = new PatchLatticeRect(LENGTH, WIDTH, 5, 30, 8.7, makeParameters(1));
+        PatchLattice actual = new PatchLatticeRect(LENGTH, WIDTH, 5, 30, 8.7, makeParameters(1));
+        fill(expected, 2);
+        fill(actual, 2);
+
+        stepSequential(expected);
+        stepFused(actual);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void stepFused_tri2D_matchesSequentialSteps() {
+        PatchLattice expected = new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        PatchLattice actual = new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        fill(expected, 3);
+        fill(actual, 3);
+
+        stepSequential(expected);
+        stepFused(actual);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    @Test
+    public void stepFused_tri3DPseudoSteady_matchesSequentialSteps() {
+        PatchLattice expected =
+                new PatchLatticeTri(LENGTH, WIDTH, 4, 30, 8.7, makeParameters(1000));
+        PatchLattice actual = new PatchLatticeTri(LENGTH, WIDTH, 4, 30, 8.7, makeParameters(1000));
+        fill(expected, 4);
+        fill(actual, 4);
+
+        stepSequential(expected);
+        stepFused(actual);
+
+        assertLatticesEqual(expected, actual);
+    }
+
+    private static MiniBox makeAdaptiveParameters(double diffusivity, double tolerance) {
+        MiniBox parameters = new MiniBox();
+        parameters.put("(OPERATION)/DIFFUSER", "");
+        parameters.put("diffuser/DIFFUSIVITY", String.valueOf(diffusivity));
+        parameters.put("diffuser/SUBSTEPPING", "adaptive");
+        parameters.put("diffuser/TOLERANCE", String.valueOf(tolerance));
+        return parameters;
+    }
+
+    @Test
+    public void step_fixedSubsteps_reportsMaxSubsteps() {
+        PatchLattice lattice = new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+        diffuser.step(null, null);
+        assertEquals(PatchOperationDiffuser.MAX_SUBSTEPS, diffuser.getSubsteps());
+    }
+
+    @Test
+    public void step_fineLogging_logsSubsteps() {
+        PatchLattice lattice = new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeParameters(1));
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+
+        ArrayList<String> messages = new ArrayList<>();
+        Handler handler =
+                new Handler() {
+                    @Override
+                    public void publish(LogRecord record) {
+                        messages.add(record.getMessage());
+                    }
+
+                    @Override
+                    public void flush() {}
+
+                    @Override
+                    public void close() {}
+                };
+
+        Logger logger = Logger.getLogger(PatchOperationDiffuser.class.getName());
+        Level level = logger.getLevel();
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+
+        try {
+            diffuser.step(null, null);
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+
+        assertEquals(1, messages.size());
+        assertEquals(
+                "diffusion substeps [ " + PatchOperationDiffuser.MAX_SUBSTEPS + " ]",
+                messages.get(0));
+    }
+
+    @Test
+    public void calcSubsteps_pseudoSteady_returnsMaxSubsteps() {
+        PatchLattice lattice =
+                new PatchLatticeTri(LENGTH, WIDTH, 1, 30, 8.7, makeAdaptiveParameters(1000, 0));
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+        assertEquals(PatchOperationDiffuser.MAX_SUBSTEPS, diffuser.calcSubsteps());
+    }
+
+    @Test
+    public void calcSubsteps_stable_returnsFewestStableSubsteps() {
+        PatchLattice lattice =
+                new PatchLatticeTri(LENGTH, WIDTH, 3, 30, 8.7, makeAdaptiveParameters(10, 0));
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+        int steps = diffuser.calcSubsteps();
+        double lambda = diffuser.rate * diffuser.beta * PatchOperationDiffuser.MAX_SUBSTEPS;
+
+        assertTrue(steps < PatchOperationDiffuser.MAX_SUBSTEPS);
+        assertTrue(lambda / steps < 1);
+        assertTrue(lambda / (steps - 1) >= 1);
+    }
+
+    @Test
+    public void step_adaptiveUniformField_exitsAfterOneSubstep() {
+        PatchLattice lattice =
+                new PatchLatticeRect(LENGTH, WIDTH, 3, 30, 8.7, makeAdaptiveParameters(10, 1E-6));
+        lattice.setField(2.0);
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+
+        diffuser.step(null, null);
+
+        assertEquals(1, diffuser.getSubsteps());
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < LENGTH; i++) {
+                for (int j = 0; j < WIDTH; j++) {
+                    assertEquals(2.0, lattice.getField()[k][i][j], 1E-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void step_adaptiveZeroTolerance_conservesMass() {
+        PatchLattice lattice =
+                new PatchLatticeRect(LENGTH, WIDTH, 1, 30, 8.7, makeAdaptiveParameters(10, 0));
+        lattice.getField()[0][LENGTH / 2][WIDTH / 2] = 1.0;
+        PatchOperationDiffuser diffuser =
+                (PatchOperationDiffuser) lattice.getOperation(Category.DIFFUSER);
+
+        diffuser.step(null, null);
+
+        double total = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            for (int j = 0; j < WIDTH; j++) {
+                assertTrue(lattice.getField()[0][i][j] >= 0);
+                total += lattice.getField()[0][i][j];
+            }
+        }
+
+        assertEquals(diffuser.calcSubsteps(), diffuser.getSubsteps());
+        assertEquals(1.0, total, 1E-12);
+    }
+}
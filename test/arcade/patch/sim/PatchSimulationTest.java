@@ -10,6 +10,7 @@ import arcade.core.agent.cell.Cell;
 import arcade.core.agent.cell.CellContainer;
 import arcade.core.env.grid.Grid;
 import arcade.core.env.lattice.Lattice;
+import arcade.core.env.lattice.LatticeRegistry;
 import arcade.core.env.location.Location;
 import arcade.core.env.location.LocationContainer;
 import static org.junit.jupiter.api.Assertions.*;
@@ -103,4 +104,32 @@ public class PatchSimulationTest {
 
         assertEquals(layers, sim.getLayers());
     }
+
+    @Test
+    public void getLattice_givenIndex_returnsLattice() {
+        PatchSimulation sim = mock(PatchSimulation.class, CALLS_REAL_METHODS);
+        HashMap<String, Lattice> lattices = new HashMap<>();
+        Lattice latticeMock = mock(Lattice.class);
+        lattices.put("INDEXED", latticeMock);
+        sim.lattices = lattices;
+
+        int index = LatticeRegistry.getIndex("INDEXED");
+
+        assertSame(latticeMock, sim.getLattice(index));
+        assertSame(latticeMock, sim.getLattice(index));
+    }
+
+    @Test
+    public void getLattice_indexRegisteredLater_returnsLattice() {
+        PatchSimulation sim = mock(PatchSimulation.class, CALLS_REAL_METHODS);
+        HashMap<String, Lattice> lattices = new HashMap<>();
+        Lattice latticeMock = mock(Lattice.class);
+        lattices.put("LATER", latticeMock);
+        sim.lattices = lattices;
+
+        assertNull(sim.getLattice(LatticeRegistry.getIndex("MISSING")));
+        int index = LatticeRegistry.getIndex("LATER");
+
+        assertSame(latticeMock, sim.getLattice(index));
+    }
 }
@@ -0,0 +1,156 @@
+package arcade.patch.sim.output;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Test;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import sim.util.Bag;
+import arcade.core.util.Graph;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteEdge;
+import arcade.patch.env.component.PatchComponentSitesGraph.SiteNode;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static arcade.core.ARCADETestUtilities.*;
+
+public class PatchOutputGraphDeltaTest {
+    static SiteNode mockNode(int x, int y, int z) {
+        SiteNode node = mock(SiteNode.class);
+        doReturn(x).when(node).getX();
+        doReturn(y).when(node).getY();
+        doReturn(z).when(node).getZ();
+        doReturn(randomDoubleBetween(0, 100)).when(node).getPressure();
+        doReturn(randomDoubleBetween(0, 100)).when(node).getOxygen();
+        return node;
+    }
+
+    static SiteEdge mockEdge(SiteNode from, SiteNode to) {
+        SiteEdge edge = mock(SiteEdge.class);
+        doReturn(from).when(edge).getFrom();
+        doReturn(to).when(edge).getTo();
+        doReturn("ARTERY").when(edge).getType();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getRadius();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getLength();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getWall();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getShear();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getCircum();
+        doReturn(randomDoubleBetween(1, 10)).when(edge).getFlow();
+        return edge;
+    }
+
+    static Graph mockGraph(SiteEdge... edges) {
+        Graph graph = mock(Graph.class);
+        Bag bag = new Bag();
+        for (SiteEdge edge : edges) {
+            bag.add(edge);
+        }
+        doReturn(bag).when(graph).getAllEdges();
+        return graph;
+    }
+
+    @Test
+    public void update_firstCall_addsAllEdges() {
+        SiteNode node0 = mockNode(0, 0, 0);
+        SiteNode node1 = mockNode(1, 2, 0);
+        SiteEdge edge0 = mockEdge(node0, node1);
+        SiteEdge edge1 = mockEdge(node1, node0);
+
+        JsonObject delta = new PatchOutputGraphDelta().update(mockGraph(edge0, edge1));
+        JsonArray added = delta.getAsJsonArray("added");
+
+        assertEquals(2, added.size());
+        assertEquals(0, added.get(0).getAsJsonArray().get(0).getAsInt());
+        assertEquals(1, added.get(1).getAsJsonArray().get(0).getAsInt());
+        assertEquals("ARTERY", added.get(0).getAsJsonArray().get(1).getAsString());
+        assertEquals(
+                PatchOutputGraphDelta.ATTRIBUTES.length + 2, added.get(0).getAsJsonArray().size());
+        assertEquals(0, delta.getAsJsonArray("removed").size());
+        assertEquals(0, delta.getAsJsonArray("changed").size());
+    }
+
+    @Test
+    public void update_unchangedGraph_returnsEmptyDelta() {
+        SiteEdge edge = mockEdge(mockNode(0, 0, 0), mockNode(1, 2, 0));
+        Graph graph = mockGraph(edge);
+        PatchOutputGraphDelta encoder = new PatchOutputGraphDelta();
+
+        encoder.update(graph);
+        JsonObject delta = encoder.update(graph);
+
+        assertEquals(0, delta.getAsJsonArray("added").size());
+        assertEquals(0, delta.getAsJsonArray("removed").size());
+        assertEquals(0, delta.getAsJsonArray("changed").size());
+    }
+
+    @Test
+    public void update_changedAttribute_listsChangedAttributeOnly() {
+        SiteEdge edge = mockEdge(mockNode(0, 0, 0), mockNode(1, 2, 0));
+        Graph graph = mockGraph(edge);
+        PatchOutputGraphDelta encoder = new PatchOutputGraphDelta();
+
+        encoder.update(graph);
+        double flow = edge.getFlow() + 1;
+        doReturn(flow).when(edge).getFlow();
+        JsonObject delta = encoder.update(graph);
+
+        JsonArray changed = delta.getAsJsonArray("changed");
+        assertEquals(1, changed.size());
+
+        JsonArray row = changed.get(0).getAsJsonArray();
+        assertEquals(3, row.size());
+        assertEquals(0, row.get(0).getAsInt());
+        assertEquals(PatchOutputGraphDelta.ATTRIBUTES.length - 1, row.get(1).getAsInt());
+        assertEquals(flow, row.get(2).getAsDouble());
+    }
+
+    @Test
+    public void update_removedAndAddedEdges_listsEdges() {
+        SiteNode node0 = mockNode(0, 0, 0);
+        SiteNode node1 = mockNode(1, 2, 0);
+        SiteEdge edge0 = mockEdge(node0, node1);
+        SiteEdge edge1 = mockEdge(node1, node0);
+        SiteEdge edge2 = mockEdge(node0, node0);
+        PatchOutputGraphDelta encoder = new PatchOutputGraphDelta();
+
+        encoder.update(mockGraph(edge0, edge1));
+        JsonObject delta = encoder.update(mockGraph(edge1, edge2));
+
+        assertEquals(1, delta.getAsJsonArray("removed").size());
+        assertEquals(0, delta.getAsJsonArray("removed").get(0).getAsInt());
+        assertEquals(1, delta.getAsJsonArray("added").size());
+        assertEquals(2, delta.getAsJsonArray("added").get(0).getAsJsonArray().get(0).getAsInt());
+    }
+
+    @Test
+    public void reconstruct_deltas_returnsGraph() {
+        SiteNode node0 = mockNode(0, 0, 0);
+        SiteNode node1 = mockNode(1, 2, 0);
+        SiteEdge edge0 = mockEdge(node0, node1);
+        SiteEdge edge1 = mockEdge(node1, node0);
+        SiteEdge edge2 = mockEdge(node0, node0);
+        PatchOutputGraphDelta encoder = new PatchOutputGraphDelta();
+
+        ArrayList<JsonObject> deltas = new ArrayList<>();
+        deltas.add(encoder.update(mockGraph(edge0, edge1)));
+        doReturn(edge1.getRadius() * 2).when(edge1).getRadius();
+        doReturn(node1.getPressure() + 1).when(node1).getPressure();
+        deltas.add(encoder.update(mockGraph(edge1, edge2)));
+
+        JsonArray graph = PatchOutputGraphDelta.reconstruct(deltas);
+        assertEquals(2, graph.size());
+
+        SiteEdge[] expected = new SiteEdge[] {edge1, edge2};
+        for (int i = 0; i < expected.length; i++) {
+            JsonObject edge = graph.get(i).getAsJsonObject();
+            JsonObject from = edge.getAsJsonObject("from");
+            JsonObject to = edge.getAsJsonObject("to");
+            assertEquals(expected[i].getFrom().getX(), from.get("x").getAsInt());
+            assertEquals(expected[i].getFrom().getY(), from.get("y").getAsInt());
+            assertEquals(expected[i].getFrom().getPressure(), from.get("pressure").getAsDouble());
+            assertEquals(expected[i].getTo().getOxygen(), to.get("oxygen").getAsDouble());
+            assertEquals(expected[i].getType(), edge.get("type").getAsString());
+            assertEquals(expected[i].getRadius(), edge.get("radius").getAsDouble());
+            assertEquals(expected[i].getCircum(), edge.get("stress").getAsDouble());
+            assertEquals(expected[i].getFlow(), edge.get("flow").getAsDouble());
+        }
+    }
+}